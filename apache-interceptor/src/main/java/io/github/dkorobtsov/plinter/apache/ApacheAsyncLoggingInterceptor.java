@@ -0,0 +1,483 @@
+package io.github.dkorobtsov.plinter.apache;
+
+import static io.github.dkorobtsov.plinter.apache.ApacheEntityUtil.captureLimit;
+import static io.github.dkorobtsov.plinter.core.internal.Util.pathSegmentsOf;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import io.github.dkorobtsov.plinter.core.AbstractInterceptor;
+import io.github.dkorobtsov.plinter.core.CallOutcome;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.LoggerConfigHolder;
+import io.github.dkorobtsov.plinter.core.LoggingOverride;
+import io.github.dkorobtsov.plinter.core.internal.BodyCapture;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedRequest;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedResponse;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Interceptor for Apache HttpAsyncClient. Blocking {@link ApacheHttpRequestInterceptor} and {@link
+ * ApacheHttpResponseInterceptor} read entities through input streams, which would stall I/O
+ * reactor, so asynchronous calls are logged by wrapping request producer and response consumer
+ * of every exchange instead.
+ *
+ * Bodies are never read by interceptor: first bytes of every chunk written to content encoder or
+ * read from content decoder are copied while client sends and receives them (up to {@link
+ * LoggerConfig#bodyCaptureLimit}), so request is printed once it's sent and response once it's
+ * completely received. Execution time is the time between producing request and receiving
+ * response headers, metrics also get time to last byte of response body.
+ *
+ * Exchange callbacks are executed by I/O reactor threads, so events are never formatted or
+ * written by them: they are always handed off to asynchronous printer (see {@link
+ * LoggerConfig.LoggerConfigBuilder#asyncPrinting}). If asynchronous printing is not configured or
+ * its overflow policy is {@link io.github.dkorobtsov.plinter.core.OverflowPolicy#BLOCK},
+ * separate printer dropping new events when its buffer is full is used instead, so reactor
+ * thread never waits for printer.
+ *
+ * Usage instructions:
+ *
+ * <pre>
+ *
+ *  ApacheAsyncLoggingInterceptor interceptor = new ApacheAsyncLoggingInterceptor(LoggerConfig.builder()
+ *      .asyncPrinting(1024, OverflowPolicy.DROP_OLDEST)
+ *      .build());
+ *
+ *  CloseableHttpAsyncClient client = HttpAsyncClients.createDefault();
+ *  client.start();
+ *
+ *  Future&lt;HttpResponse&gt; response = interceptor.execute(client, new HttpGet(url), null);
+ *
+ * </pre>
+ */
+public class ApacheAsyncLoggingInterceptor extends AbstractInterceptor {
+
+  private static final Logger logger = Logger
+      .getLogger(ApacheAsyncLoggingInterceptor.class.getName());
+
+  public ApacheAsyncLoggingInterceptor(final LoggerConfig loggerConfig) {
+    this(new LoggerConfigHolder(loggerConfig));
+  }
+
+  /**
+   * @param configHolder holder of configuration which can be replaced at runtime
+   */
+  public ApacheAsyncLoggingInterceptor(final LoggerConfigHolder configHolder) {
+    super(configHolder, true);
+  }
+
+  /**
+   * Executes request with provided client, logging request and response.
+   */
+  public Future<HttpResponse> execute(final HttpAsyncClient client, final HttpUriRequest request,
+      final FutureCallback<HttpResponse> callback) {
+    return execute(client, HttpAsyncMethods.create(request), HttpAsyncMethods.createConsumer(),
+        HttpClientContext.create(), callback);
+  }
+
+  /**
+   * Executes exchange with provided client, logging request sent by request producer and
+   * response received by response consumer.
+   *
+   * @param context execution context, can be null. If context holds {@link LoggingOverride}
+   * attribute, it's applied to this exchange.
+   */
+  public <T> Future<T> execute(final HttpAsyncClient client,
+      final HttpAsyncRequestProducer requestProducer,
+      final HttpAsyncResponseConsumer<T> responseConsumer, final HttpContext context,
+      final FutureCallback<T> callback) {
+    final Exchange exchange = new Exchange(isNull(context)
+        ? null : context.getAttribute(LoggingOverride.CONTEXT_ATTRIBUTE));
+    final LoggingRequestProducer loggingProducer
+        = new LoggingRequestProducer(requestProducer, exchange);
+    final LoggingResponseConsumer<T> loggingConsumer
+        = new LoggingResponseConsumer<>(responseConsumer, exchange);
+    return isNull(context)
+        ? client.execute(loggingProducer, loggingConsumer, callback)
+        : client.execute(loggingProducer, loggingConsumer, context, callback);
+  }
+
+  /**
+   * State of one exchange shared by request producer and response consumer. Producer and
+   * consumer callbacks of the same exchange are never executed concurrently.
+   */
+  private final class Exchange {
+
+    private final Object override;
+    private final AtomicBoolean isFinished = new AtomicBoolean();
+
+    private LoggerConfig loggerConfig;
+    private HttpHost target;
+    private HttpRequest request;
+    private boolean isLogged;
+    private boolean isRequestReset;
+    private BodyCapture requestBody;
+    private BodyCapture responseBody;
+    private InterceptedRequest interceptedRequest;
+    private HttpResponse response;
+    private long startNanos;
+    private long headersNanos;
+
+    Exchange(Object override) {
+      this.override = override;
+    }
+
+    void requestGenerated(HttpHost target, HttpRequest request) {
+      this.target = target;
+      this.request = request;
+      this.startNanos = System.nanoTime();
+      final String host = isNull(target) ? null : target.getHostName();
+      this.loggerConfig = loggerConfig(override, host,
+          () -> pathSegmentsOf(request.getRequestLine().getUri()));
+      countExchange();
+      this.isLogged = !skipLogging(loggerConfig) && !isSampledOut(loggerConfig, host);
+      this.requestBody = isLogged && requestConverter().hasPrintableBody(request)
+          ? new BodyCapture(captureLimit(loggerConfig.bodyCaptureLimit))
+          : countingCapture();
+    }
+
+    void requestCompleted() {
+      if (!isLogged) {
+        return;
+      }
+      interceptedRequest = convertRequest();
+      if (!isConditional(loggerConfig) && !isRecording(loggerConfig)) {
+        logRequest(loggerConfig, interceptedRequest);
+      }
+    }
+
+    void requestReset() {
+      // Client resets producer as soon as content is produced, so captured body is discarded
+      // only if content is produced again (request is retried)
+      isRequestReset = true;
+    }
+
+    void responseReceived(HttpResponse response) {
+      this.headersNanos = System.nanoTime();
+      this.response = response;
+      this.responseBody = isLogged && responseConverter().hasPrintableBody(response)
+          ? new BodyCapture(captureLimit(loggerConfig.bodyCaptureLimit))
+          : countingCapture();
+    }
+
+    void responseCompleted() {
+      if (!isFinished.compareAndSet(false, true) || isNull(loggerConfig)) {
+        return;
+      }
+      final long ms = TimeUnit.NANOSECONDS.toMillis(headersNanos - startNanos);
+      final CallOutcome outcome = new CallOutcome(host(),
+          response.getStatusLine().getStatusCode(), ms, null);
+      if (isMeasured(loggerConfig)) {
+        final String method = request.getRequestLine().getMethod();
+        final List<String> pathSegments = pathSegmentsOf(request.getRequestLine().getUri());
+        recordMetrics(loggerConfig, outcome, method, pathSegments, bodySize(requestBody),
+            bodySize(responseBody));
+        // Response is completed when its last byte is consumed
+        recordLastByte(loggerConfig, outcome, method, pathSegments,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+      }
+      if (!isLogged || isNull(interceptedRequest)) {
+        return;
+      }
+      if (isRecording(loggerConfig)) {
+        record(loggerConfig, outcome, interceptedRequest, convertResponse(ms));
+      } else if (!isConditional(loggerConfig)) {
+        logResponse(loggerConfig, convertResponse(ms));
+      } else if (shouldLog(loggerConfig, outcome)) {
+        logRequest(loggerConfig, interceptedRequest);
+        logResponse(loggerConfig, convertResponse(ms));
+      }
+    }
+
+    void failed(Exception error) {
+      if (!isFinished.compareAndSet(false, true) || isNull(loggerConfig)) {
+        return;
+      }
+      final long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+      final CallOutcome outcome = new CallOutcome(host(), 0, ms, error);
+      if (isMeasured(loggerConfig)) {
+        recordMetrics(loggerConfig, outcome, request.getRequestLine().getMethod(),
+            pathSegmentsOf(request.getRequestLine().getUri()), bodySize(requestBody), -1);
+      }
+      if (!isLogged || (!isConditional(loggerConfig) && !isRecording(loggerConfig))) {
+        return;
+      }
+      if (isNull(interceptedRequest)) {
+        // Request was not sent completely
+        interceptedRequest = convertRequest();
+      }
+      if (isRecording(loggerConfig)) {
+        record(loggerConfig, outcome, interceptedRequest, null);
+      } else if (shouldLog(loggerConfig, outcome)) {
+        logRequest(loggerConfig, interceptedRequest);
+      }
+    }
+
+    private InterceptedRequest convertRequest() {
+      final byte[] body = isNull(requestBody) ? new byte[0] : requestBody.bytes();
+      return ApacheAsyncLoggingInterceptor.this.convertRequest(loggerConfig,
+          it -> requestConverter().from(it, target, body), request);
+    }
+
+    private InterceptedResponse convertResponse(long ms) {
+      final byte[] body = isNull(responseBody) ? new byte[0] : responseBody.bytes();
+      final boolean isTruncated = nonNull(responseBody) && responseBody.isTruncated();
+      return ApacheAsyncLoggingInterceptor.this.convertResponse(loggerConfig,
+          (it, url, millis) -> responseConverter().from(it, url, millis, body, isTruncated),
+          response, interceptedRequest.url(), ms);
+    }
+
+    /**
+     * @return capture counting body bytes for metrics, or null if nothing should be captured
+     */
+    private BodyCapture countingCapture() {
+      return isMeasured(loggerConfig) ? new BodyCapture(0) : null;
+    }
+
+    // Converters depend on configuration, which can be replaced at any moment
+    private ApacheRequestConverter requestConverter() {
+      return new ApacheRequestConverter(loggerConfig.bodyCaptureLimit,
+          bodyFormatters(loggerConfig));
+    }
+
+    private ApacheResponseConverter responseConverter() {
+      return new ApacheResponseConverter(loggerConfig.bodyCaptureLimit,
+          bodyFormatters(loggerConfig));
+    }
+
+    private String host() {
+      return isNull(target) ? urlHost() : target.getHostName();
+    }
+
+    private String urlHost() {
+      try {
+        return new URL(request.getRequestLine().getUri()).getHost();
+      } catch (MalformedURLException e) {
+        logger.log(java.util.logging.Level.FINE, e.getMessage(), e);
+        return null;
+      }
+    }
+
+    private long bodySize(BodyCapture capture) {
+      return isNull(capture) ? -1 : capture.total();
+    }
+
+    ContentEncoder encoder(ContentEncoder encoder) {
+      if (isNull(requestBody)) {
+        return encoder;
+      }
+      if (isRequestReset) {
+        requestBody.reset();
+        isRequestReset = false;
+      }
+      return new CapturingEncoder(encoder, requestBody);
+    }
+
+    ContentDecoder decoder(ContentDecoder decoder) {
+      return isNull(responseBody) ? decoder : new CapturingDecoder(decoder, responseBody);
+    }
+  }
+
+  /**
+   * Request producer passing produced request and content to exchange.
+   */
+  private static final class LoggingRequestProducer implements HttpAsyncRequestProducer {
+
+    private final HttpAsyncRequestProducer delegate;
+    private final Exchange exchange;
+
+    LoggingRequestProducer(HttpAsyncRequestProducer delegate, Exchange exchange) {
+      this.delegate = delegate;
+      this.exchange = exchange;
+    }
+
+    @Override
+    public HttpHost getTarget() {
+      return delegate.getTarget();
+    }
+
+    @Override
+    public HttpRequest generateRequest() throws IOException, HttpException {
+      final HttpRequest request = delegate.generateRequest();
+      exchange.requestGenerated(delegate.getTarget(), request);
+      return request;
+    }
+
+    @Override
+    public void produceContent(ContentEncoder encoder, IOControl ioControl) throws IOException {
+      delegate.produceContent(exchange.encoder(encoder), ioControl);
+    }
+
+    @Override
+    public void requestCompleted(HttpContext context) {
+      delegate.requestCompleted(context);
+      exchange.requestCompleted();
+    }
+
+    @Override
+    public void failed(Exception ex) {
+      delegate.failed(ex);
+      exchange.failed(ex);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+      return delegate.isRepeatable();
+    }
+
+    @Override
+    public void resetRequest() throws IOException {
+      delegate.resetRequest();
+      exchange.requestReset();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+    }
+  }
+
+  /**
+   * Response consumer passing received response and content to exchange.
+   */
+  private static final class LoggingResponseConsumer<T> implements HttpAsyncResponseConsumer<T> {
+
+    private final HttpAsyncResponseConsumer<T> delegate;
+    private final Exchange exchange;
+
+    LoggingResponseConsumer(HttpAsyncResponseConsumer<T> delegate, Exchange exchange) {
+      this.delegate = delegate;
+      this.exchange = exchange;
+    }
+
+    @Override
+    public void responseReceived(HttpResponse response) throws IOException, HttpException {
+      exchange.responseReceived(response);
+      delegate.responseReceived(response);
+    }
+
+    @Override
+    public void consumeContent(ContentDecoder decoder, IOControl ioControl) throws IOException {
+      delegate.consumeContent(exchange.decoder(decoder), ioControl);
+    }
+
+    @Override
+    public void responseCompleted(HttpContext context) {
+      delegate.responseCompleted(context);
+      exchange.responseCompleted();
+    }
+
+    @Override
+    public void failed(Exception ex) {
+      delegate.failed(ex);
+      exchange.failed(ex);
+    }
+
+    @Override
+    public Exception getException() {
+      return delegate.getException();
+    }
+
+    @Override
+    public T getResult() {
+      return delegate.getResult();
+    }
+
+    @Override
+    public boolean isDone() {
+      return delegate.isDone();
+    }
+
+    @Override
+    public boolean cancel() {
+      return delegate.cancel();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+    }
+  }
+
+  /**
+   * Encoder copying chunks written by request producer.
+   */
+  private static final class CapturingEncoder implements ContentEncoder {
+
+    private final ContentEncoder delegate;
+    private final BodyCapture capture;
+
+    CapturingEncoder(ContentEncoder delegate, BodyCapture capture) {
+      this.delegate = delegate;
+      this.capture = capture;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+      final int position = src.position();
+      final int written = delegate.write(src);
+      capture.capture(src, position, position + Math.max(written, 0));
+      return written;
+    }
+
+    @Override
+    public void complete() throws IOException {
+      delegate.complete();
+    }
+
+    @Override
+    public boolean isCompleted() {
+      return delegate.isCompleted();
+    }
+  }
+
+  /**
+   * Decoder copying chunks read by response consumer.
+   */
+  private static final class CapturingDecoder implements ContentDecoder {
+
+    private final ContentDecoder delegate;
+    private final BodyCapture capture;
+
+    CapturingDecoder(ContentDecoder delegate, BodyCapture capture) {
+      this.delegate = delegate;
+      this.capture = capture;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      final int position = dst.position();
+      final int read = delegate.read(dst);
+      capture.capture(dst, position, position + Math.max(read, 0));
+      return read;
+    }
+
+    @Override
+    public boolean isCompleted() {
+      return delegate.isCompleted();
+    }
+  }
+
+}
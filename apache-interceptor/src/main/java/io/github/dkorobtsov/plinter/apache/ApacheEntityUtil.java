@@ -1,73 +1,116 @@
 package io.github.dkorobtsov.plinter.apache;
 
-import static io.github.dkorobtsov.plinter.core.internal.Util.APPLICATION_JSON;
-import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.isNull;
-import static java.util.Objects.nonNull;
 
-import io.github.dkorobtsov.plinter.core.internal.SuppressFBWarnings;
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.nio.charset.Charset;
-import org.apache.http.Header;
+import java.io.InputStream;
+import java.util.Arrays;
 import org.apache.http.HttpEntity;
-import org.apache.http.client.entity.EntityBuilder;
-import org.apache.http.entity.ContentType;
 
 /**
- * Helper class for Apache request/response converters intended for converting Apache HttpEntity to
- * String and back.
+ * Helper class for Apache request/response converters intended for capturing first bytes of
+ * Apache HttpEntity without consuming it.
+ *
+ * Repeatable entities are read through separate content stream and left untouched. Non repeatable
+ * entities can't be read twice, so they are never read ahead, instead their bytes are copied
+ * while content is consumed (see {@link CapturingEntity}).
  */
 final class ApacheEntityUtil {
 
+  /**
+   * Max number of captured bytes if body capture limit is not configured, so large bodies are
+   * never copied in full only for printing.
+   */
+  static final long DEFAULT_CAPTURE_LIMIT = 1024 * 1024;
+
+  private static final int READ_BUFFER_SIZE = 8 * 1024;
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
   private ApacheEntityUtil() {
   }
 
+  /**
+   * @param bodyCaptureLimit configured body capture limit
+   * @return provided limit or {@link #DEFAULT_CAPTURE_LIMIT} if limit is not set
+   */
+  static long captureLimit(final long bodyCaptureLimit) {
+    return bodyCaptureLimit == Long.MAX_VALUE ? DEFAULT_CAPTURE_LIMIT : bodyCaptureLimit;
+  }
+
+  /**
+   * Reads up to limit bytes of provided repeatable entity.
+   *
+   * @param entity entity to capture, can be null
+   * @param limit max number of bytes to capture
+   * @return captured bytes
+   */
+  static CapturedEntity captureHttpEntity(final HttpEntity entity, final long limit)
+      throws IOException {
+    if (isNull(entity)) {
+      return new CapturedEntity(new byte[0], false);
+    }
+    if (!entity.isRepeatable()) {
+      // Content can't be read without consuming it, so nothing is captured
+      return new CapturedEntity(new byte[0], true);
+    }
+
+    // One extra byte is read to find out if body is longer than limit
+    final int maxBytes = limit >= MAX_ARRAY_SIZE ? MAX_ARRAY_SIZE : (int) limit + 1;
+    final InputStream content = entity.getContent();
+    if (isNull(content)) {
+      return new CapturedEntity(new byte[0], false);
+    }
+
+    try (InputStream stream = content) {
+      final byte[] prefix = readPrefix(stream, maxBytes, entity.getContentLength());
+      final boolean isTruncated = prefix.length > limit;
+      return new CapturedEntity(isTruncated ? Arrays.copyOf(prefix, (int) limit) : prefix,
+          isTruncated);
+    }
+  }
+
   @SuppressWarnings("PMD.AssignmentInOperand")
-  static String readApacheHttpEntity(final HttpEntity entity) throws IOException {
-    if (nonNull(entity)) {
-      final StringBuilder textBuilder = new StringBuilder();
-      try (Reader reader = new BufferedReader(
-          new InputStreamReader(
-              entity.getContent(),
-              Charset.forName(UTF_8.name())))) {
-        int c;
-        while ((c = reader.read()) != -1) {
-          textBuilder.append((char) c);
+  private static byte[] readPrefix(final InputStream stream, final int maxBytes,
+      final long contentLength) throws IOException {
+    final int initialSize = contentLength >= 0
+        ? (int) Math.min(maxBytes, contentLength)
+        : Math.min(maxBytes, READ_BUFFER_SIZE);
+
+    byte[] buffer = new byte[initialSize];
+    int count = 0;
+    while (count < maxBytes) {
+      if (count == buffer.length) {
+        // Checking for end of stream before growing buffer (content length was accurate)
+        final int next = stream.read();
+        if (next == -1) {
+          break;
+        }
+        buffer = Arrays.copyOf(buffer,
+            (int) Math.min(maxBytes, Math.max(READ_BUFFER_SIZE, (long) buffer.length * 2)));
+        buffer[count++] = (byte) next;
+      } else {
+        final int read = stream.read(buffer, count, buffer.length - count);
+        if (read == -1) {
+          break;
         }
-        return textBuilder.toString();
+        count += read;
       }
-    } else {
-      return "";
     }
+    return count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
   }
 
-  @SuppressFBWarnings(value = "DM_DEFAULT_ENCODING", justification = "False positive.")
-  static HttpEntity recreateHttpEntityFromString(final String httpEntityContent,
-      final HttpEntity entity) {
-    final Header contentType = entity.getContentType();
-    final String contentTypeValue
-        = isNull(contentType)
-        ? APPLICATION_JSON
-        : contentType.getValue();
-
-    final Header contentEncodingHeader = entity.getContentEncoding();
-    final EntityBuilder entityBuilder = EntityBuilder
-        .create()
-        .setContentType(ContentType.parse(contentTypeValue))
-        .setStream(new ByteArrayInputStream(httpEntityContent.getBytes()));
-
-    if (nonNull(contentEncodingHeader)) {
-      return entityBuilder
-          .setContentEncoding(String
-              .format("%s/%s", contentEncodingHeader.getName(),
-                  contentEncodingHeader.getValue()))
-          .build();
+  /**
+   * Result of entity capturing.
+   */
+  static final class CapturedEntity {
+
+    final byte[] bytes;
+    final boolean isTruncated;
+
+    CapturedEntity(byte[] bytes, boolean isTruncated) {
+      this.bytes = bytes;
+      this.isTruncated = isTruncated;
     }
-    return entityBuilder.build();
   }
 
 }
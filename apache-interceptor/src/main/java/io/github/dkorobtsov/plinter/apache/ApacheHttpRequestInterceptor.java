@@ -1,14 +1,17 @@
 package io.github.dkorobtsov.plinter.apache;
 
-import static io.github.dkorobtsov.plinter.core.internal.ClientPrintingExecutor.printRequest;
+import static io.github.dkorobtsov.plinter.core.internal.Util.pathSegmentsOf;
+import static java.util.Objects.isNull;
 
 import io.github.dkorobtsov.plinter.core.AbstractInterceptor;
 import io.github.dkorobtsov.plinter.core.LoggerConfig;
-import io.github.dkorobtsov.plinter.core.RequestConverter;
-import io.github.dkorobtsov.plinter.core.internal.InterceptedRequest;
+import io.github.dkorobtsov.plinter.core.LoggerConfigHolder;
+import io.github.dkorobtsov.plinter.core.LoggingOverride;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpRequestInterceptor;
 import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
 
 /**
  * Interceptor for requests sent by Apache HttpClient. Intended to be used with response interceptor
@@ -36,20 +39,85 @@ import org.apache.http.protocol.HttpContext;
 public class ApacheHttpRequestInterceptor extends AbstractInterceptor
     implements HttpRequestInterceptor {
 
-  private final RequestConverter<HttpRequest> requestConverter;
+  /**
+   * Context attribute holding raw request when printing is postponed till response.
+   */
+  static final String DEFERRED_REQUEST = "io.github.dkorobtsov.plinter.request";
+
+  /**
+   * Context attribute holding time (System.nanoTime) when request was handed over to client for
+   * sending, used by response interceptor to measure execution time.
+   */
+  static final String REQUEST_START_NANOS = "io.github.dkorobtsov.plinter.request.start";
+
+  /**
+   * Context attribute marking calls skipped by sampling policy, so response is skipped too.
+   */
+  static final String SAMPLED_OUT = "io.github.dkorobtsov.plinter.sampledOut";
 
   public ApacheHttpRequestInterceptor(final LoggerConfig loggerConfig) {
-    this.requestConverter = new ApacheRequestConverter();
-    this.loggerConfig = loggerConfig;
+    this(new LoggerConfigHolder(loggerConfig));
+  }
+
+  /**
+   * @param configHolder holder of configuration which can be replaced at runtime. Should be
+   * shared with {@link ApacheHttpResponseInterceptor}.
+   */
+  public ApacheHttpRequestInterceptor(final LoggerConfigHolder configHolder) {
+    super(configHolder);
   }
 
   @Override
   public void process(final HttpRequest request, final HttpContext context) {
-    if (!skipLogging()) {
-      final InterceptedRequest interceptedRequest = requestConverter.from(request);
+    final LoggerConfig loggerConfig = loggerConfig(
+        context.getAttribute(LoggingOverride.CONTEXT_ATTRIBUTE), targetHost(context),
+        () -> pathSegmentsOf(request.getRequestLine().getUri()));
+    countExchange();
+    try {
+      log(loggerConfig, request, context);
+    } finally {
+      // Stamped after request is printed, so logging overhead is not counted as execution time
+      context.setAttribute(REQUEST_START_NANOS, System.nanoTime());
+    }
+  }
 
-      printRequest(loggerConfig, interceptedRequest);
+  private void log(final LoggerConfig loggerConfig, final HttpRequest request,
+      final HttpContext context) {
+    if (skipLogging(loggerConfig)) {
+      return;
     }
+    if (isSampledOut(loggerConfig, targetHost(context))) {
+      context.setAttribute(SAMPLED_OUT, Boolean.TRUE);
+      return;
+    }
+
+    // Converter depends on configuration, which can be replaced at any moment
+    final ApacheRequestConverter requestConverter = new ApacheRequestConverter(
+        loggerConfig.bodyCaptureLimit, bodyFormatters(loggerConfig));
+
+    final HttpHost target = HttpCoreContext.adapt(context).getTargetHost();
+
+    if (isConditional(loggerConfig) || isRecording(loggerConfig)) {
+      // Raw request is kept till response arrives and converted by response interceptor only if
+      // call outcome meets configured condition or is recorded by flight recorder
+      final DeferredRequest deferredRequest = new DeferredRequest(request, target);
+      requestConverter.captureWhileSending(request,
+          (body, isTruncated) -> deferredRequest.bodySent(body));
+      context.setAttribute(DEFERRED_REQUEST, deferredRequest);
+      return;
+    }
+
+    // Streaming body is copied while client sends it, so such request is printed once it's sent
+    if (!requestConverter.captureWhileSending(request, (body, isTruncated) -> logRequest(
+        loggerConfig,
+        convertRequest(loggerConfig, it -> requestConverter.from(it, target, body), request)))) {
+      logRequest(loggerConfig, convertRequest(loggerConfig, requestConverter, request));
+    }
+  }
+
+  static String targetHost(final HttpContext context) {
+    final HttpHost targetHost = HttpCoreContext.adapt(context).getTargetHost();
+    return isNull(targetHost) ? null : targetHost.getHostName();
   }
 
 }
@@ -1,18 +1,34 @@
 package io.github.dkorobtsov.plinter.apache;
 
+import static io.github.dkorobtsov.plinter.apache.ApacheHttpRequestInterceptor.DEFERRED_REQUEST;
+import static io.github.dkorobtsov.plinter.apache.ApacheHttpRequestInterceptor.REQUEST_START_NANOS;
+import static io.github.dkorobtsov.plinter.apache.ApacheHttpRequestInterceptor.SAMPLED_OUT;
+import static io.github.dkorobtsov.plinter.apache.ApacheHttpRequestInterceptor.targetHost;
 import static io.github.dkorobtsov.plinter.core.internal.ClientPrintingExecutor.printResponse;
+import static io.github.dkorobtsov.plinter.core.internal.Util.pathSegmentsOf;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 import io.github.dkorobtsov.plinter.core.AbstractInterceptor;
+import io.github.dkorobtsov.plinter.core.CallOutcome;
 import io.github.dkorobtsov.plinter.core.LoggerConfig;
-import io.github.dkorobtsov.plinter.core.ResponseConverter;
+import io.github.dkorobtsov.plinter.core.LoggerConfigHolder;
+import io.github.dkorobtsov.plinter.core.LoggingOverride;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedRequest;
 import io.github.dkorobtsov.plinter.core.internal.InterceptedResponse;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpResponseInterceptor;
 import org.apache.http.client.methods.HttpRequestWrapper;
 import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
 
 /**
  * Interceptor for responses sent by Apache HttpClient. Intended to be used with request interceptor
@@ -42,21 +58,160 @@ public class ApacheHttpResponseInterceptor extends AbstractInterceptor
 
   private static final Logger logger = Logger
       .getLogger(ApacheHttpResponseInterceptor.class.getName());
-  private final ResponseConverter<HttpResponse> responseConverter;
 
   public ApacheHttpResponseInterceptor(LoggerConfig loggerConfig) {
-    this.responseConverter = new ApacheResponseConverter();
-    this.loggerConfig = loggerConfig;
+    this(new LoggerConfigHolder(loggerConfig));
+  }
+
+  /**
+   * @param configHolder holder of configuration which can be replaced at runtime. Should be
+   * shared with {@link ApacheHttpRequestInterceptor}.
+   */
+  public ApacheHttpResponseInterceptor(LoggerConfigHolder configHolder) {
+    super(configHolder);
   }
 
   @Override
   public void process(final HttpResponse response, final HttpContext context) {
-    if (!skipLogging()) {
-      final InterceptedResponse interceptedResponse = responseConverter.from(
-          response, urlFrom(context), null);
+    final HttpRequest request = HttpCoreContext.adapt(context).getRequest();
+    final LoggerConfig loggerConfig = loggerConfig(
+        context.getAttribute(LoggingOverride.CONTEXT_ATTRIBUTE), targetHost(context),
+        () -> isNull(request)
+            ? Collections.emptyList()
+            : pathSegmentsOf(request.getRequestLine().getUri()));
+    final Long startTime = (Long) context.getAttribute(REQUEST_START_NANOS);
+    context.removeAttribute(REQUEST_START_NANOS);
+    // Time to response headers, consistent with execution time reported by other interceptors
+    final Long ms = isNull(startTime)
+        ? null
+        : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    final boolean isMeasured = isMeasured(loggerConfig) && nonNull(request) && nonNull(ms);
+    if (isMeasured) {
+      recordMetrics(loggerConfig, request, response, context, ms);
+    }
+    try {
+      log(loggerConfig, response, context, ms);
+    } finally {
+      // Entity is wrapped last, so reading repeatable entity for printing doesn't count as reading
+      if (isMeasured) {
+        measureLastByte(loggerConfig, request, response, context, startTime, ms);
+      }
+    }
+  }
+
+  private void log(final LoggerConfig loggerConfig, final HttpResponse response,
+      final HttpContext context, final Long ms) {
+    if (skipLogging(loggerConfig) || nonNull(context.getAttribute(SAMPLED_OUT))) {
+      context.removeAttribute(SAMPLED_OUT);
+      return;
+    }
+
+    // Converter depends on configuration, which can be replaced at any moment
+    final ApacheResponseConverter responseConverter = new ApacheResponseConverter(
+        loggerConfig.bodyCaptureLimit, bodyFormatters(loggerConfig));
+
+    if (isConditional(loggerConfig) || isRecording(loggerConfig)) {
+      processConditionally(loggerConfig, responseConverter, response, context, ms);
+      return;
+    }
+
+    convertResponse(loggerConfig, responseConverter, response, urlFrom(context), ms,
+        interceptedResponse -> printResponse(loggerConfig, interceptedResponse));
+  }
+
+  /**
+   * Converts response and hands it over to provided consumer. Streaming body is copied while
+   * application reads it, so such response is converted once body is read or closed, otherwise
+   * response is converted right away.
+   */
+  private void convertResponse(final LoggerConfig loggerConfig,
+      final ApacheResponseConverter responseConverter, final HttpResponse response,
+      final URL url, final Long ms, final Consumer<InterceptedResponse> consumer) {
+    if (!responseConverter.captureWhileReading(response, (body, isTruncated) ->
+        consumer.accept(convertResponse(loggerConfig,
+            (it, itUrl, itMs) -> responseConverter.from(it, itUrl, itMs, body, isTruncated),
+            response, url, ms)))) {
+      consumer.accept(convertResponse(loggerConfig, responseConverter, response, url, ms));
+    }
+  }
+
+  /**
+   * Prints request postponed by {@link ApacheHttpRequestInterceptor} and response only if call
+   * outcome meets configured condition. If flight recorder is set, exchange is passed to it
+   * instead. Postponed request is converted only in these cases.
+   */
+  private void processConditionally(final LoggerConfig loggerConfig,
+      final ApacheResponseConverter responseConverter, final HttpResponse response,
+      final HttpContext context, final Long ms) {
+    final DeferredRequest deferredRequest
+        = (DeferredRequest) context.getAttribute(DEFERRED_REQUEST);
+    context.removeAttribute(DEFERRED_REQUEST);
+
+    final CallOutcome outcome = new CallOutcome(targetHost(context),
+        response.getStatusLine().getStatusCode(), isNull(ms) ? 0 : ms, null);
+
+    if (isRecording(loggerConfig)) {
+      if (nonNull(deferredRequest)) {
+        final InterceptedRequest request = convertRequest(loggerConfig, deferredRequest);
+        convertResponse(loggerConfig, responseConverter, response, request.url(), ms,
+            interceptedResponse -> record(loggerConfig, outcome, request, interceptedResponse));
+      }
+    } else if (shouldLog(loggerConfig, outcome)) {
+      final InterceptedRequest request = isNull(deferredRequest)
+          ? null : convertRequest(loggerConfig, deferredRequest);
+      if (nonNull(request)) {
+        logRequest(loggerConfig, request);
+      }
+      convertResponse(loggerConfig, responseConverter, response,
+          isNull(request) ? urlFrom(context) : request.url(), ms,
+          interceptedResponse -> printResponse(loggerConfig, interceptedResponse));
+    }
+  }
+
+  private InterceptedRequest convertRequest(final LoggerConfig loggerConfig,
+      final DeferredRequest deferredRequest) {
+    // Converter depends on configuration, which can be replaced at any moment
+    final ApacheRequestConverter requestConverter = new ApacheRequestConverter(
+        loggerConfig.bodyCaptureLimit, bodyFormatters(loggerConfig));
+    return convertRequest(loggerConfig, it -> it.convert(requestConverter), deferredRequest);
+  }
+
+  /**
+   * Records metrics before response entity is touched, so body size is the one sent by server.
+   */
+  private void recordMetrics(final LoggerConfig loggerConfig, final HttpRequest request,
+      final HttpResponse response, final HttpContext context, final long ms) {
+    final long requestBytes = request instanceof HttpEntityEnclosingRequest
+        && nonNull(((HttpEntityEnclosingRequest) request).getEntity())
+        ? ((HttpEntityEnclosingRequest) request).getEntity().getContentLength()
+        : 0;
+    final long responseBytes = isNull(response.getEntity())
+        ? -1 : response.getEntity().getContentLength();
+    recordMetrics(loggerConfig,
+        new CallOutcome(targetHost(context), response.getStatusLine().getStatusCode(), ms, null),
+        request.getRequestLine().getMethod(), pathSegmentsOf(request.getRequestLine().getUri()),
+        requestBytes, responseBytes);
+  }
 
-      printResponse(loggerConfig, interceptedResponse);
+  /**
+   * Records time to last byte once response entity is read completely or closed. If there is no
+   * entity or entity is not streamed from connection, response is completed already.
+   */
+  private void measureLastByte(final LoggerConfig loggerConfig, final HttpRequest request,
+      final HttpResponse response, final HttpContext context, final long startTime,
+      final long ms) {
+    final CallOutcome outcome = new CallOutcome(targetHost(context),
+        response.getStatusLine().getStatusCode(), ms, null);
+    final String method = request.getRequestLine().getMethod();
+    final String uri = request.getRequestLine().getUri();
+    if (isNull(response.getEntity()) || !response.getEntity().isStreaming()) {
+      recordLastByte(loggerConfig, outcome, method, pathSegmentsOf(uri),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+      return;
     }
+    response.setEntity(new LastByteTimingEntity(response.getEntity(),
+        () -> recordLastByte(loggerConfig, outcome, method, pathSegmentsOf(uri),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime))));
   }
 
   URL urlFrom(final HttpContext context) {
@@ -3,9 +3,15 @@ package io.github.dkorobtsov.plinter.apache;
 import static io.github.dkorobtsov.plinter.core.internal.Util.APPLICATION_JSON;
 import static io.github.dkorobtsov.plinter.core.internal.Util.CONTENT_TYPE;
 import static io.github.dkorobtsov.plinter.core.internal.Util.TEXT_PLAIN;
+import static io.github.dkorobtsov.plinter.apache.ApacheEntityUtil.captureHttpEntity;
+import static io.github.dkorobtsov.plinter.apache.ApacheEntityUtil.captureLimit;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
+import io.github.dkorobtsov.plinter.apache.ApacheEntityUtil.CapturedEntity;
+import io.github.dkorobtsov.plinter.apache.CapturingEntity.CaptureListener;
 import io.github.dkorobtsov.plinter.core.RequestConverter;
+import io.github.dkorobtsov.plinter.core.internal.BodyFormatterRegistry;
 import io.github.dkorobtsov.plinter.core.internal.HttpMethod;
 import io.github.dkorobtsov.plinter.core.internal.InterceptedMediaType;
 import io.github.dkorobtsov.plinter.core.internal.InterceptedRequest;
@@ -13,10 +19,12 @@ import io.github.dkorobtsov.plinter.core.internal.InterceptedRequestBody;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
@@ -31,6 +39,23 @@ public class ApacheRequestConverter implements RequestConverter<HttpRequest> {
 
   private static final Logger logger = Logger.getLogger(ApacheRequestConverter.class.getName());
 
+  private final long bodyCaptureLimit;
+  private final BodyFormatterRegistry bodyFormatters;
+
+  public ApacheRequestConverter() {
+    this(Long.MAX_VALUE, new BodyFormatterRegistry(Collections.emptyMap()));
+  }
+
+  /**
+   * @param bodyCaptureLimit max number of request body bytes captured for printing, if not set
+   * (Long.MAX_VALUE), {@link ApacheEntityUtil#DEFAULT_CAPTURE_LIMIT} is used
+   * @param bodyFormatters formatters defining which bodies are printable
+   */
+  public ApacheRequestConverter(long bodyCaptureLimit, BodyFormatterRegistry bodyFormatters) {
+    this.bodyCaptureLimit = captureLimit(bodyCaptureLimit);
+    this.bodyFormatters = bodyFormatters;
+  }
+
   @Override
   public InterceptedRequest from(final HttpRequest apacheHttpRequest) {
     final InterceptedRequest.Builder builder = new InterceptedRequest.Builder();
@@ -49,6 +74,104 @@ public class ApacheRequestConverter implements RequestConverter<HttpRequest> {
     return builder.build();
   }
 
+  /**
+   * Converts request which body was already captured while it was produced (by asynchronous
+   * client), so request entity is not touched.
+   *
+   * @param target host request is sent to, used if request line contains relative URI
+   * @param capturedBody first bytes of request body
+   */
+  InterceptedRequest from(final HttpRequest request, final HttpHost target,
+      final byte[] capturedBody) {
+    final InterceptedRequest.Builder builder = new InterceptedRequest.Builder();
+    final String uri = request.getRequestLine().getUri();
+    builder.url(URI.create(uri).isAbsolute() || isNull(target) ? uri : target.toURI() + uri);
+
+    Arrays.stream(request.getAllHeaders())
+        .forEach(header -> builder.addHeader(header.getName(), header.getValue()));
+
+    final String method = request.getRequestLine().getMethod();
+    if (HttpMethod.permitsRequestBody(method)) {
+      final String contentType = contentType(request);
+      builder.method(method, InterceptedRequestBody.create(
+          InterceptedMediaType.parse(isNull(contentType) ? TEXT_PLAIN : contentType),
+          capturedBody));
+    } else {
+      builder.method(method, null);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Captures first bytes of printable repeatable request entity. Non repeatable entity can't be
+   * read without consuming it, so nothing is captured.
+   *
+   * @return captured bytes or empty array if there is nothing to capture
+   */
+  byte[] capturedBody(final HttpRequest request) {
+    if (!hasPrintableBody(request)) {
+      return new byte[0];
+    }
+    try {
+      return captureHttpEntity(((HttpEntityEnclosingRequest) request).getEntity(),
+          bodyCaptureLimit).bytes;
+    } catch (IOException e) {
+      logger.log(Level.SEVERE, e.getMessage(), e);
+      return new byte[0];
+    }
+  }
+
+  /**
+   * Replaces non repeatable printable request entity with wrapper copying its first bytes while
+   * client sends it, so entity is never read ahead.
+   *
+   * @return true if entity was replaced and listener will receive captured body once entity is
+   * sent
+   */
+  boolean captureWhileSending(final HttpRequest request, final CaptureListener listener) {
+    if (!hasPrintableBody(request)
+        || ((HttpEntityEnclosingRequest) request).getEntity().isRepeatable()) {
+      return false;
+    }
+    final HttpEntity capturingEntity = new CapturingEntity(
+        ((HttpEntityEnclosingRequest) request).getEntity(), bodyCaptureLimit, listener);
+    ((HttpEntityEnclosingRequest) request).setEntity(capturingEntity);
+    if (request instanceof HttpRequestWrapper
+        && ((HttpRequestWrapper) request).getOriginal() instanceof HttpEntityEnclosingRequestBase) {
+      ((HttpEntityEnclosingRequestBase) ((HttpRequestWrapper) request).getOriginal())
+          .setEntity(capturingEntity);
+    }
+    return true;
+  }
+
+  /**
+   * @return true if request has body of content type which can be printed
+   */
+  boolean hasPrintableBody(final HttpRequest request) {
+    final String contentType = contentType(request);
+    return request instanceof HttpEntityEnclosingRequest
+        && nonNull(((HttpEntityEnclosingRequest) request).getEntity())
+        && nonNull(contentType)
+        && bodyFormatters.isPrintable(contentType);
+  }
+
+  /**
+   * Content type is taken from request header or, if not set yet, from request entity.
+   */
+  private static String contentType(final HttpRequest request) {
+    final Header header = request.getFirstHeader(CONTENT_TYPE);
+    if (nonNull(header)) {
+      return header.getValue();
+    }
+    if (request instanceof HttpEntityEnclosingRequest) {
+      final HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+      if (nonNull(entity) && nonNull(entity.getContentType())) {
+        return entity.getContentType().getValue();
+      }
+    }
+    return null;
+  }
+
   private InterceptedRequestBody interceptedRequestBody(final HttpRequest request) {
 
     if (request instanceof HttpRequestWrapper) {
@@ -56,12 +179,28 @@ public class ApacheRequestConverter implements RequestConverter<HttpRequest> {
       final HttpRequest original = ((HttpRequestWrapper) request).getOriginal();
       if (original instanceof HttpEntityEnclosingRequestBase) {
 
-        final HttpEntity entity = ((HttpEntityEnclosingRequestBase) original).getEntity();
+        // Wrapper keeps its own reference to entity which will be actually sent
+        final HttpEntity entity = request instanceof HttpEntityEnclosingRequest
+            ? ((HttpEntityEnclosingRequest) request).getEntity()
+            : ((HttpEntityEnclosingRequestBase) original).getEntity();
         if (nonNull(entity)) {
 
-          final String requestBodyString;
+          final Header contentTypeHeader = Arrays
+              .stream(original.getAllHeaders())
+              .filter(header -> header.getName().equals(CONTENT_TYPE))
+              .findFirst()
+              .orElse(new BasicHeader(CONTENT_TYPE, TEXT_PLAIN));
+          final InterceptedMediaType contentType = InterceptedMediaType
+              .parse(contentTypeHeader.getValue());
+
+          if (!bodyFormatters.isPrintable(contentTypeHeader.getValue())) {
+            // Body won't be printed anyway, no need to touch entity
+            return InterceptedRequestBody.create(contentType, new byte[0]);
+          }
+
+          final CapturedEntity capturedEntity;
           try {
-            requestBodyString = ApacheEntityUtil.readApacheHttpEntity(entity);
+            capturedEntity = captureHttpEntity(entity, bodyCaptureLimit);
           } catch (IOException e) {
             logger.log(Level.SEVERE, e.getMessage(), e);
             return InterceptedRequestBody
@@ -70,21 +209,7 @@ public class ApacheRequestConverter implements RequestConverter<HttpRequest> {
                     "[LoggingInterceptorError] : could not parse request body");
           }
 
-          final HttpEntity newEntity = ApacheEntityUtil
-              .recreateHttpEntityFromString(requestBodyString, entity);
-          ((HttpEntityEnclosingRequestBase) ((HttpRequestWrapper) request).getOriginal())
-              .setEntity(newEntity);
-
-          final Header contentTypeHeader = Arrays
-              .stream(((HttpRequestWrapper) request).getOriginal().getAllHeaders())
-              .filter(header -> header.getName().equals(CONTENT_TYPE))
-              .findFirst()
-              .orElse(new BasicHeader(CONTENT_TYPE, TEXT_PLAIN));
-
-          return InterceptedRequestBody
-              .create(InterceptedMediaType
-                      .parse(contentTypeHeader.getValue()),
-                  requestBodyString);
+          return InterceptedRequestBody.create(contentType, capturedEntity.bytes);
         }
       }
     }
@@ -1,11 +1,16 @@
 package io.github.dkorobtsov.plinter.apache;
 
-import static io.github.dkorobtsov.plinter.apache.ApacheEntityUtil.readApacheHttpEntity;
-import static io.github.dkorobtsov.plinter.apache.ApacheEntityUtil.recreateHttpEntityFromString;
+import static io.github.dkorobtsov.plinter.apache.ApacheEntityUtil.captureHttpEntity;
+import static io.github.dkorobtsov.plinter.apache.ApacheEntityUtil.captureLimit;
 import static io.github.dkorobtsov.plinter.core.internal.Util.APPLICATION_JSON;
+import static io.github.dkorobtsov.plinter.core.internal.Util.CONTENT_TYPE;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
+import io.github.dkorobtsov.plinter.apache.ApacheEntityUtil.CapturedEntity;
+import io.github.dkorobtsov.plinter.apache.CapturingEntity.CaptureListener;
 import io.github.dkorobtsov.plinter.core.ResponseConverter;
+import io.github.dkorobtsov.plinter.core.internal.BodyFormatterRegistry;
 import io.github.dkorobtsov.plinter.core.internal.HttpStatus;
 import io.github.dkorobtsov.plinter.core.internal.InterceptedHeaders;
 import io.github.dkorobtsov.plinter.core.internal.InterceptedMediaType;
@@ -16,6 +21,7 @@ import io.github.dkorobtsov.plinter.core.internal.ResponseHandler;
 import java.io.IOException;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.http.Header;
@@ -30,27 +36,86 @@ public class ApacheResponseConverter implements ResponseConverter<HttpResponse>
 
   private static final Logger logger = Logger.getLogger(ApacheResponseConverter.class.getName());
 
+  private final long bodyCaptureLimit;
+  private final BodyFormatterRegistry bodyFormatters;
+
+  public ApacheResponseConverter() {
+    this(Long.MAX_VALUE, new BodyFormatterRegistry(Collections.emptyMap()));
+  }
+
+  /**
+   * @param bodyCaptureLimit max number of response body bytes captured for printing, if not set
+   * (Long.MAX_VALUE), {@link ApacheEntityUtil#DEFAULT_CAPTURE_LIMIT} is used
+   * @param bodyFormatters formatters defining which bodies are printable
+   */
+  public ApacheResponseConverter(long bodyCaptureLimit, BodyFormatterRegistry bodyFormatters) {
+    this.bodyCaptureLimit = captureLimit(bodyCaptureLimit);
+    this.bodyFormatters = bodyFormatters;
+  }
+
   @Override
   public InterceptedResponse from(HttpResponse response, URL requestUrl, Long ms) {
-    return ResponseHandler.interceptedResponse(responseDetails(response), requestUrl, ms);
+    if (isNull(response)) {
+      throw new IllegalStateException("httpResponse == null");
+    }
+    final CapturedEntity capturedEntity = capturedEntity(response);
+    return ResponseHandler.interceptedResponse(
+        responseDetails(response, interceptedResponseBody(response, capturedEntity),
+            nonNull(capturedEntity) && capturedEntity.isTruncated),
+        requestUrl, ms);
   }
 
-  private ResponseDetails responseDetails(HttpResponse httpResponse) {
-    if (isNull(httpResponse)) {
-      throw new IllegalStateException("httpResponse == null");
-    } else {
-      final int code = httpResponse.getStatusLine().getStatusCode();
-      final InterceptedResponseBody responseBody = interceptedResponseBody(httpResponse);
-
-      return ResponseDetails.builder()
-          .code(httpResponse.getStatusLine().getStatusCode())
-          .headers(interceptedHeaders(httpResponse.getAllHeaders()))
-          .isSuccessful(code >= 200 && code <= 300)
-          .mediaType(responseBody.contentType())
-          .message(HttpStatus.fromCode(code))
-          .responseBody(responseBody)
-          .build();
+  /**
+   * Converts response which body was already captured while it was consumed (by asynchronous
+   * client), so response entity is not touched.
+   *
+   * @param capturedBody first bytes of response body
+   * @param isTruncated true if body is longer than captured part
+   */
+  InterceptedResponse from(HttpResponse response, URL requestUrl, Long ms, byte[] capturedBody,
+      boolean isTruncated) {
+    final InterceptedResponseBody responseBody = InterceptedResponseBody
+        .create(contentType(response), capturedBody);
+    return ResponseHandler.interceptedResponse(
+        responseDetails(response, responseBody, isTruncated), requestUrl, ms);
+  }
+
+  /**
+   * Replaces non repeatable printable response entity with wrapper copying its first bytes while
+   * application reads it, so entity is never read ahead.
+   *
+   * @return true if entity was replaced and listener will receive captured body once entity is
+   * read or closed
+   */
+  boolean captureWhileReading(HttpResponse response, CaptureListener listener) {
+    final HttpEntity entity = response.getEntity();
+    if (!isPrintable(entity) || entity.isRepeatable()) {
+      return false;
     }
+    response.setEntity(new CapturingEntity(entity, bodyCaptureLimit, listener));
+    return true;
+  }
+
+  /**
+   * @return true if response declares content type which can be printed
+   */
+  boolean hasPrintableBody(HttpResponse response) {
+    final Header contentType = response.getFirstHeader(CONTENT_TYPE);
+    return nonNull(contentType) && bodyFormatters.isPrintable(contentType.getValue());
+  }
+
+  private ResponseDetails responseDetails(HttpResponse httpResponse,
+      InterceptedResponseBody responseBody, boolean isTruncated) {
+    final int code = httpResponse.getStatusLine().getStatusCode();
+    return ResponseDetails.builder()
+        .code(code)
+        .headers(interceptedHeaders(httpResponse.getAllHeaders()))
+        .isSuccessful(code >= 200 && code <= 300)
+        .mediaType(responseBody.contentType())
+        .message(HttpStatus.fromCode(code))
+        .responseBody(responseBody)
+        .isBodyTruncated(isTruncated)
+        .build();
   }
 
   private InterceptedHeaders interceptedHeaders(Header... headers) {
@@ -59,30 +124,55 @@ public class ApacheResponseConverter implements ResponseConverter<HttpResponse>
     return headersBuilder.build();
   }
 
-  private InterceptedResponseBody interceptedResponseBody(HttpResponse response) {
+  /**
+   * Captures first bytes of printable response entity. Returns null if there is nothing to
+   * capture.
+   */
+  private CapturedEntity capturedEntity(HttpResponse response) {
     final HttpEntity entity = response.getEntity();
-    if (entity != null) {
-      final String requestBodyString;
-      try {
-        requestBodyString = readApacheHttpEntity(entity);
-      } catch (IOException e) {
-        logger.log(Level.SEVERE, e.getMessage(), e);
-        return InterceptedResponseBody.create(InterceptedMediaType.parse(APPLICATION_JSON),
-            "[LoggingInterceptorError] : could not parse response body");
-      }
-      final Header contentType = response.getEntity().getContentType();
-      final String contentTypeValue
-          = contentType == null ? ""
-          : contentType.getValue();
-
-      final HttpEntity newEntity = recreateHttpEntityFromString(requestBodyString, entity);
-      response.setEntity(newEntity);
+    if (!isPrintable(entity)) {
+      return null;
+    }
 
+    try {
+      return captureHttpEntity(entity, bodyCaptureLimit);
+    } catch (IOException e) {
+      logger.log(Level.SEVERE, e.getMessage(), e);
+      return null;
+    }
+  }
+
+  private InterceptedResponseBody interceptedResponseBody(HttpResponse response,
+      CapturedEntity capturedEntity) {
+    final HttpEntity entity = response.getEntity();
+    if (isNull(entity)) {
       return InterceptedResponseBody
-          .create(InterceptedMediaType.parse(contentTypeValue), requestBodyString);
+          .create(InterceptedMediaType.parse(APPLICATION_JSON), "");
+    }
+    final InterceptedMediaType contentType = contentType(entity);
+    if (isNull(capturedEntity) && isPrintable(entity)) {
+      return InterceptedResponseBody.create(InterceptedMediaType.parse(APPLICATION_JSON),
+          "[LoggingInterceptorError] : could not parse response body");
+    }
+    return InterceptedResponseBody.create(contentType,
+        isNull(capturedEntity) ? new byte[0] : capturedEntity.bytes);
+  }
+
+  private boolean isPrintable(HttpEntity entity) {
+    return nonNull(entity) && nonNull(entity.getContentType())
+        && bodyFormatters.isPrintable(entity.getContentType().getValue());
+  }
+
+  private static InterceptedMediaType contentType(HttpResponse response) {
+    final Header contentType = response.getFirstHeader(CONTENT_TYPE);
+    return isNull(contentType) ? null : InterceptedMediaType.parse(contentType.getValue());
+  }
+
+  private static InterceptedMediaType contentType(HttpEntity entity) {
+    if (isNull(entity) || isNull(entity.getContentType())) {
+      return null;
     }
-    return InterceptedResponseBody
-        .create(InterceptedMediaType.parse(APPLICATION_JSON), "");
+    return InterceptedMediaType.parse(entity.getContentType().getValue());
   }
 
 }
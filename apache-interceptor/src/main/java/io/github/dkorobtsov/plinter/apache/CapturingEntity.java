@@ -0,0 +1,150 @@
+package io.github.dkorobtsov.plinter.apache;
+
+import static java.util.Objects.isNull;
+
+import io.github.dkorobtsov.plinter.core.internal.BodyCapture;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+/**
+ * Entity wrapper copying first bytes of original content to separate buffer while application
+ * reads it (or client writes it). Original stream is not modified, not read ahead and never
+ * buffered as a whole.
+ *
+ * When content is read to the end, closed or written out, captured bytes are handed over to
+ * provided listener (only once).
+ */
+final class CapturingEntity extends HttpEntityWrapper {
+
+  private static final int SKIP_BUFFER_SIZE = 8 * 1024;
+
+  private final BodyCapture capture;
+  private final CaptureListener listener;
+
+  private boolean exhausted;
+  private boolean completed;
+
+  CapturingEntity(HttpEntity wrappedEntity, long limit, CaptureListener listener) {
+    super(wrappedEntity);
+    this.capture = new BodyCapture(limit);
+    this.listener = listener;
+  }
+
+  @Override
+  public InputStream getContent() throws IOException {
+    final InputStream content = super.getContent();
+    return isNull(content) ? null : new CapturingStream(content);
+  }
+
+  @Override
+  public void writeTo(OutputStream outStream) throws IOException {
+    try {
+      super.writeTo(new CapturingOutputStream(outStream));
+      exhausted = true;
+    } finally {
+      complete();
+    }
+  }
+
+  private synchronized void capture(byte[] chunk, int offset, int length) {
+    capture.capture(chunk, offset, length);
+  }
+
+  private synchronized void complete() {
+    if (completed) {
+      return;
+    }
+    completed = true;
+    // If content was closed before it was read to the end, we can't know what was left
+    listener.onCaptured(capture.bytes(), capture.isTruncated() || !exhausted);
+  }
+
+  /**
+   * Receives captured body bytes after content is read, closed or written.
+   */
+  interface CaptureListener {
+
+    void onCaptured(byte[] body, boolean isTruncated);
+
+  }
+
+  private final class CapturingStream extends FilterInputStream {
+
+    CapturingStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int read = super.read();
+      if (read == -1) {
+        exhausted = true;
+        complete();
+      } else {
+        capture(new byte[]{(byte) read}, 0, 1);
+      }
+      return read;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      final int read = super.read(b, off, len);
+      if (read == -1) {
+        exhausted = true;
+        complete();
+      } else {
+        capture(b, off, read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      if (n <= 0) {
+        return 0;
+      }
+      // Skipped bytes are read through, so captured body stays contiguous
+      final byte[] skipped = new byte[(int) Math.min(n, SKIP_BUFFER_SIZE)];
+      return Math.max(0, read(skipped, 0, skipped.length));
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        complete();
+      }
+    }
+  }
+
+  private final class CapturingOutputStream extends FilterOutputStream {
+
+    CapturingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      capture(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      capture(b, off, len);
+    }
+  }
+
+}
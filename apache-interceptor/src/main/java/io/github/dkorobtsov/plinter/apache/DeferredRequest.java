@@ -0,0 +1,64 @@
+package io.github.dkorobtsov.plinter.apache;
+
+import static java.util.Objects.isNull;
+
+import io.github.dkorobtsov.plinter.core.internal.InterceptedRequest;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.message.BasicHttpEntityEnclosingRequest;
+import org.apache.http.message.BasicHttpRequest;
+
+/**
+ * Raw request kept by {@link ApacheHttpRequestInterceptor} when printing is postponed till
+ * response: request line, headers and entity reference are copied as is, body bytes of streamed
+ * entity are captured while client sends it. Request is converted only if it's actually printed
+ * or recorded, repeatable entity is read only then.
+ */
+final class DeferredRequest {
+
+  private final HttpRequest request;
+  private final HttpHost target;
+  private byte[] sentBody;
+
+  DeferredRequest(HttpRequest request, HttpHost target) {
+    this.request = snapshot(request);
+    this.target = target;
+  }
+
+  /**
+   * Called once streamed request entity is sent.
+   *
+   * @param body first bytes of sent body
+   */
+  void bodySent(byte[] body) {
+    this.sentBody = body;
+  }
+
+  /**
+   * @param requestConverter converter reading up to configured limit of repeatable entity
+   * @return converted request
+   */
+  InterceptedRequest convert(ApacheRequestConverter requestConverter) {
+    return requestConverter.from(request, target,
+        isNull(sentBody) ? requestConverter.capturedBody(request) : sentBody);
+  }
+
+  /**
+   * Headers and entity can be replaced by other interceptors or by application (when request is
+   * retried), so they are copied.
+   */
+  private static HttpRequest snapshot(HttpRequest request) {
+    final HttpRequest snapshot;
+    if (request instanceof HttpEntityEnclosingRequest) {
+      snapshot = new BasicHttpEntityEnclosingRequest(request.getRequestLine());
+      ((HttpEntityEnclosingRequest) snapshot)
+          .setEntity(((HttpEntityEnclosingRequest) request).getEntity());
+    } else {
+      snapshot = new BasicHttpRequest(request.getRequestLine());
+    }
+    snapshot.setHeaders(request.getAllHeaders());
+    return snapshot;
+  }
+
+}
@@ -0,0 +1,83 @@
+package io.github.dkorobtsov.plinter.apache;
+
+import static java.util.Objects.isNull;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+/**
+ * Pass-through entity notifying listener when application reads the last byte of content or
+ * closes content stream, whichever happens first. Content is not copied or buffered. Listener is
+ * notified only once, even if repeatable entity is read several times.
+ */
+final class LastByteTimingEntity extends HttpEntityWrapper {
+
+  private final Runnable listener;
+  private final AtomicBoolean isCompleted = new AtomicBoolean();
+
+  LastByteTimingEntity(HttpEntity wrappedEntity, Runnable listener) {
+    super(wrappedEntity);
+    this.listener = listener;
+  }
+
+  @Override
+  public InputStream getContent() throws IOException {
+    final InputStream content = super.getContent();
+    return isNull(content) ? null : new CompletionNotifyingStream(content);
+  }
+
+  @Override
+  public void writeTo(OutputStream outStream) throws IOException {
+    super.writeTo(outStream);
+    complete();
+  }
+
+  private void complete() {
+    if (isCompleted.compareAndSet(false, true)) {
+      listener.run();
+    }
+  }
+
+  /**
+   * Stream notifying entity when end of content is reached or stream is closed.
+   */
+  private final class CompletionNotifyingStream extends FilterInputStream {
+
+    CompletionNotifyingStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int read = super.read();
+      if (read == -1) {
+        complete();
+      }
+      return read;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      final int read = super.read(b, off, len);
+      if (read == -1) {
+        complete();
+      }
+      return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        complete();
+      }
+    }
+  }
+
+}
@@ -177,14 +177,18 @@ tasks.register<Delete>("cleanAll") {
             "apache-interceptor/build",
             "okhttp-interceptor/build",
             "okhttp3-interceptor/build",
+            "jdk-interceptor/build",
             "interceptor-core/build",
-            "interceptor-tests/build")
+            "interceptor-tests/build",
+            "interceptor-benchmarks/build")
     delete("out",
             "apache-interceptor/out",
             "okhttp-interceptor/out",
             "okhttp3-interceptor/out",
+            "jdk-interceptor/out",
             "interceptor-core/out",
-            "interceptor-tests/out")
+            "interceptor-tests/out",
+            "interceptor-benchmarks/out")
     isFollowSymlinks = true
 }
 
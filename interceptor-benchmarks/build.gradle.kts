@@ -0,0 +1,45 @@
+val archivesBaseName: String by extra { "interceptor-benchmarks" }
+val artefactName: String by extra { "Logging Interceptor Benchmarks" }
+
+plugins {
+    id("me.champeau.gradle.jmh") version "0.4.8"
+}
+
+dependencies {
+    jmh(project(":interceptor-core"))
+    jmh(project(":apache-interceptor"))
+    jmh(project(":okhttp-interceptor"))
+    jmh(project(":okhttp3-interceptor"))
+
+    // Clients used in end-to-end benchmarks
+    jmh("org.apache.httpcomponents:httpclient:4.5.1")
+    jmh("com.squareup.okhttp:okhttp:2.7.5")
+    jmh("com.squareup.okhttp3:okhttp:3.9.1")
+
+    //Mock WebServer
+    jmh("com.squareup.okhttp:mockwebserver:2.7.5")
+}
+
+/**
+ * Usage:
+ *
+ * ./gradlew :interceptor-benchmarks:jmh
+ * ./gradlew :interceptor-benchmarks:jmh -Pjmh.include=BodyFormattingBenchmark
+ * ./gradlew :interceptor-benchmarks:jmh -Pjmh.include=ClientOverheadBenchmark
+ *
+ * Results are saved in JSON format to build/reports/jmh/results.json and can be compared
+ * between commits with any JMH visualizer.
+ */
+jmh {
+    jmhVersion = "1.21"
+    include = listOf(project.findProperty("jmh.include")?.toString() ?: ".*")
+    resultFormat = "JSON"
+    resultsFile = project.file("$buildDir/reports/jmh/results.json")
+    humanOutputFile = project.file("$buildDir/reports/jmh/human.txt")
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    // Reports allocated bytes per operation (gc.alloc.rate.norm)
+    profilers = listOf("gc")
+    duplicateClassesStrategy = DuplicatesStrategy.WARN
+}
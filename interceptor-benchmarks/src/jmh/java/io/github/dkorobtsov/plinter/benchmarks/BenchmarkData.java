@@ -0,0 +1,95 @@
+package io.github.dkorobtsov.plinter.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Helper class generating request and response bodies of given size for benchmarks.
+ */
+final class BenchmarkData {
+
+  static final String APPLICATION_JSON = "application/json";
+  static final String APPLICATION_XML = "application/xml";
+  static final String TEXT_PLAIN = "text/plain";
+
+  private static final String WORDS = "Lorem ipsum dolor sit amet consectetur adipiscing elit sed do "
+      + "eiusmod tempor incididunt ut labore et dolore magna aliqua ";
+
+  private BenchmarkData() {
+  }
+
+  static String contentType(String format) {
+    switch (format) {
+      case "json":
+        return APPLICATION_JSON;
+      case "xml":
+        return APPLICATION_XML;
+      case "plain":
+        return TEXT_PLAIN;
+      default:
+        throw new IllegalArgumentException("Unknown body format: " + format);
+    }
+  }
+
+  static byte[] body(String format, int size) {
+    switch (format) {
+      case "json":
+        return json(size);
+      case "xml":
+        return xml(size);
+      case "plain":
+        return plainText(size, 100);
+      default:
+        throw new IllegalArgumentException("Unknown body format: " + format);
+    }
+  }
+
+  /**
+   * @return JSON array of objects, approximately size bytes long
+   */
+  static byte[] json(int size) {
+    final StringBuilder builder = new StringBuilder(size + 128).append('[');
+    for (int i = 0; builder.length() < size; i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      builder.append("{\"id\": ").append(i)
+          .append(", \"name\": \"item-").append(i)
+          .append("\", \"active\": true, \"price\": 12.5, \"tags\": [\"a\", \"b\"]")
+          .append(", \"address\": {\"city\": \"New York\", \"zip\": \"10001\"}}");
+    }
+    return builder.append(']').toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return XML document with list of elements, approximately size bytes long
+   */
+  static byte[] xml(int size) {
+    final StringBuilder builder = new StringBuilder(size + 128)
+        .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?><items>");
+    for (int i = 0; builder.length() < size; i++) {
+      builder.append("<item id=\"").append(i).append("\"><name>item-").append(i)
+          .append("</name><active>true</active><price>12.5</price>")
+          .append("<address><city>New York</city><zip>10001</zip></address></item>");
+    }
+    return builder.append("</items>").toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return plain text split to lines of given length, size bytes long
+   */
+  static byte[] plainText(int size, int lineLength) {
+    final StringBuilder builder = new StringBuilder(size);
+    int lineStart = 0;
+    while (builder.length() < size) {
+      final int index = builder.length() % WORDS.length();
+      if (builder.length() - lineStart >= lineLength) {
+        builder.append('\n');
+        lineStart = builder.length();
+      } else {
+        builder.append(WORDS.charAt(index));
+      }
+    }
+    return builder.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,52 @@
+package io.github.dkorobtsov.plinter.benchmarks;
+
+import io.github.dkorobtsov.plinter.core.internal.BodyFormatterRegistry;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures body formatting cost (JSON and XML pretty printing, plain text decoding) depending on
+ * body size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BodyFormattingBenchmark {
+
+  @Param({"json", "xml", "plain"})
+  private String format;
+
+  @Param({"1024", "102400", "10485760"})
+  private int bodySize;
+
+  private BodyFormatterRegistry registry;
+  private String contentType;
+  private byte[] body;
+
+  @Setup
+  public void setUp() {
+    registry = new BodyFormatterRegistry(Collections.emptyMap());
+    contentType = BenchmarkData.contentType(format);
+    body = BenchmarkData.body(format, bodySize);
+  }
+
+  @Benchmark
+  public String formatBody() {
+    return registry.format(body, contentType);
+  }
+
+}
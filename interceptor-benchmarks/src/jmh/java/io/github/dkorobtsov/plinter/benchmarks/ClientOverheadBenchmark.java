@@ -0,0 +1,252 @@
+package io.github.dkorobtsov.plinter.benchmarks;
+
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+import io.github.dkorobtsov.plinter.apache.ApacheHttpRequestInterceptor;
+import io.github.dkorobtsov.plinter.apache.ApacheHttpResponseInterceptor;
+import io.github.dkorobtsov.plinter.core.Level;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.okhttp.OkHttpLoggingInterceptor;
+import io.github.dkorobtsov.plinter.okhttp3.OkHttp3LoggingInterceptor;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import javax.net.ServerSocketFactory;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.util.EntityUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures overhead added by interceptors to complete request execution against in-process mock
+ * server. Each client is measured without interceptor ("NO_INTERCEPTOR" baseline) and with
+ * interceptor for every logging level. Output goes to {@link NoOpLogWriter}.
+ *
+ * Throughput is reported in ops/s, latency percentiles (p50, p99, p99.9) are reported by sampling
+ * benchmark. Run with gc profiler (enabled in build script) to get bytes allocated per request
+ * (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@SuppressWarnings("PMD.TooManyMethods")
+public class ClientOverheadBenchmark {
+
+  private static final String NO_INTERCEPTOR = "NO_INTERCEPTOR";
+  private static final String PATH = "/api/v1/orders";
+
+  @Param({"okhttp3", "okhttp", "apache"})
+  private String client;
+
+  @Param({NO_INTERCEPTOR, "NONE", "BASIC", "HEADERS", "BODY"})
+  private String level;
+
+  @Param({"1024", "102400"})
+  private int bodySize;
+
+  private MockWebServer server;
+  private String url;
+  private byte[] body;
+
+  private OkHttpClient okHttp3Client;
+  private com.squareup.okhttp.OkHttpClient okHttpClient;
+  private CloseableHttpClient apacheClient;
+
+  @Setup
+  public void setUp() throws IOException {
+    body = BenchmarkData.json(bodySize);
+    final String responseBody = new String(body, StandardCharsets.UTF_8);
+
+    server = new MockWebServer();
+    server.setServerSocketFactory(new NoDelayServerSocketFactory());
+    // Requests are recorded by server, no need to keep their bodies
+    server.setBodyLimit(0);
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+        return new MockResponse()
+            .setResponseCode(200)
+            .setHeader("Content-Type", BenchmarkData.APPLICATION_JSON)
+            .setBody(responseBody);
+      }
+    });
+    server.start();
+    url = server.url(PATH).toString();
+
+    final LoggerConfig loggerConfig = NO_INTERCEPTOR.equals(level)
+        ? null
+        : LoggerConfig.builder()
+            .level(Level.valueOf(level))
+            .logger(new NoOpLogWriter())
+            .build();
+
+    switch (client) {
+      case "okhttp3":
+        okHttp3Client = okHttp3Client(loggerConfig);
+        break;
+      case "okhttp":
+        okHttpClient = okHttpClient(loggerConfig);
+        break;
+      case "apache":
+        apacheClient = apacheClient(loggerConfig);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown client: " + client);
+    }
+  }
+
+  @TearDown(org.openjdk.jmh.annotations.Level.Iteration)
+  public void dropRecordedRequests() throws InterruptedException {
+    while (server.takeRequest(0, TimeUnit.MILLISECONDS) != null) {
+      // Server keeps every received request, so dropping them to keep heap stable
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    if (apacheClient != null) {
+      apacheClient.close();
+    }
+    server.shutdown();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public int throughput() throws IOException {
+    return execute();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int latency() throws IOException {
+    return execute();
+  }
+
+  private int execute() throws IOException {
+    switch (client) {
+      case "okhttp3":
+        return executeOkHttp3();
+      case "okhttp":
+        return executeOkHttp();
+      default:
+        return executeApache();
+    }
+  }
+
+  private int executeOkHttp3() throws IOException {
+    final Request request = new Request.Builder()
+        .url(url)
+        .post(RequestBody.create(MediaType.parse(BenchmarkData.APPLICATION_JSON), body))
+        .build();
+    try (Response response = okHttp3Client.newCall(request).execute()) {
+      return response.body().bytes().length;
+    }
+  }
+
+  private int executeOkHttp() throws IOException {
+    final com.squareup.okhttp.Request request = new com.squareup.okhttp.Request.Builder()
+        .url(url)
+        .post(com.squareup.okhttp.RequestBody.create(
+            com.squareup.okhttp.MediaType.parse(BenchmarkData.APPLICATION_JSON), body))
+        .build();
+    return okHttpClient.newCall(request).execute().body().bytes().length;
+  }
+
+  private int executeApache() throws IOException {
+    final HttpPost request = new HttpPost(url);
+    request.setEntity(new ByteArrayEntity(body, ContentType.APPLICATION_JSON));
+    try (CloseableHttpResponse response = apacheClient.execute(request)) {
+      return EntityUtils.toByteArray(response.getEntity()).length;
+    }
+  }
+
+  private static OkHttpClient okHttp3Client(LoggerConfig loggerConfig) {
+    final OkHttpClient.Builder builder = new OkHttpClient.Builder();
+    if (loggerConfig != null) {
+      builder.addNetworkInterceptor(new OkHttp3LoggingInterceptor(loggerConfig));
+    }
+    return builder.build();
+  }
+
+  private static com.squareup.okhttp.OkHttpClient okHttpClient(LoggerConfig loggerConfig) {
+    final com.squareup.okhttp.OkHttpClient okHttpClient = new com.squareup.okhttp.OkHttpClient();
+    if (loggerConfig != null) {
+      okHttpClient.interceptors().add(new OkHttpLoggingInterceptor(loggerConfig));
+    }
+    return okHttpClient;
+  }
+
+  private static CloseableHttpClient apacheClient(LoggerConfig loggerConfig) {
+    final HttpClientBuilder builder = HttpClientBuilder.create();
+    if (loggerConfig != null) {
+      builder
+          .addInterceptorFirst(new ApacheHttpRequestInterceptor(loggerConfig))
+          .addInterceptorFirst(new ApacheHttpResponseInterceptor(loggerConfig));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Mock server writes response headers and body separately, so with Nagle's algorithm enabled
+   * every response is delayed until client's delayed ACK (~40ms), which hides interceptor cost.
+   */
+  private static final class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+    @Override
+    public ServerSocket createServerSocket() throws IOException {
+      return new ServerSocket() {
+        @Override
+        public Socket accept() throws IOException {
+          final Socket socket = super.accept();
+          socket.setTcpNoDelay(true);
+          return socket;
+        }
+      };
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port) throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port, int backlog, InetAddress address)
+        throws IOException {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+}
@@ -0,0 +1,84 @@
+package io.github.dkorobtsov.plinter.benchmarks;
+
+import io.github.dkorobtsov.plinter.core.Level;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.internal.ClientPrintingExecutor;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedHeaders;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedRequest;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures headers building and rendering depending on number of headers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HeadersBenchmark {
+
+  @Param({"1", "10", "50"})
+  private int headerCount;
+
+  private String[] names;
+  private String[] values;
+  private InterceptedHeaders headers;
+  private NoOpLogWriter logWriter;
+  private LoggerConfig loggerConfig;
+  private InterceptedRequest request;
+
+  @Setup
+  public void setUp() {
+    names = new String[headerCount];
+    values = new String[headerCount];
+    for (int i = 0; i < headerCount; i++) {
+      names[i] = "X-Custom-Header-" + i;
+      values[i] = "value-" + i + "-" + Integer.toHexString(i * 31 + 17);
+    }
+    headers = buildHeaders();
+
+    logWriter = new NoOpLogWriter();
+    loggerConfig = LoggerConfig.builder()
+        .level(Level.HEADERS)
+        .logger(logWriter)
+        .build();
+    request = new InterceptedRequest.Builder()
+        .url("http://localhost:8080/api/v1/orders")
+        .headers(headers)
+        .get()
+        .build();
+  }
+
+  @Benchmark
+  public InterceptedHeaders buildHeaders() {
+    final InterceptedHeaders.Builder builder = new InterceptedHeaders.Builder();
+    for (int i = 0; i < names.length; i++) {
+      builder.add(names[i], values[i]);
+    }
+    return builder.build();
+  }
+
+  @Benchmark
+  public String headersToString() {
+    return headers.toString();
+  }
+
+  @Benchmark
+  public int printHeaders() {
+    ClientPrintingExecutor.printRequest(loggerConfig, request);
+    return logWriter.lastLength();
+  }
+
+}
@@ -0,0 +1,69 @@
+package io.github.dkorobtsov.plinter.benchmarks;
+
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.internal.ClientPrintingExecutor;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedMediaType;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedResponse;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures splitting of long body lines depending on configured max line length. Body is plain
+ * text, so formatting itself is negligible.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineWrappingBenchmark {
+
+  private static final int BODY_SIZE = 16 * 1024;
+
+  @Param({"80", "110", "180"})
+  private int maxLineLength;
+
+  @Param({"100", "2000"})
+  private int sourceLineLength;
+
+  private NoOpLogWriter logWriter;
+  private LoggerConfig loggerConfig;
+  private InterceptedResponse response;
+
+  @Setup
+  public void setUp() {
+    logWriter = new NoOpLogWriter();
+    loggerConfig = LoggerConfig.builder()
+        .logger(logWriter)
+        .maxLineLength(maxLineLength)
+        .build();
+
+    response = InterceptedResponse.builder()
+        .url("http://localhost:8080/api/v1/documents/1")
+        .code(200)
+        .message("OK")
+        .isSuccessful(true)
+        .contentType(InterceptedMediaType.parse(BenchmarkData.TEXT_PLAIN))
+        .originalBody(BenchmarkData.plainText(BODY_SIZE, sourceLineLength))
+        .hasPrintableBody(true)
+        .build();
+  }
+
+  @Benchmark
+  public int printResponse() {
+    ClientPrintingExecutor.printResponse(loggerConfig, response);
+    return logWriter.lastLength();
+  }
+
+}
@@ -0,0 +1,22 @@
+package io.github.dkorobtsov.plinter.benchmarks;
+
+import io.github.dkorobtsov.plinter.core.LogWriter;
+
+/**
+ * LogWriter discarding all messages, so benchmarks measure only formatting cost.
+ *
+ * Length of the last message is kept to prevent JIT from eliminating message construction.
+ */
+public class NoOpLogWriter implements LogWriter {
+
+  private int lastLength;
+
+  @Override
+  public void log(String msg) {
+    lastLength = msg.length();
+  }
+
+  public int lastLength() {
+    return lastLength;
+  }
+}
@@ -1,18 +1,342 @@
 package io.github.dkorobtsov.plinter.core;
 
+import static io.github.dkorobtsov.plinter.core.internal.ClientPrintingExecutor.printRequest;
+import static io.github.dkorobtsov.plinter.core.internal.ClientPrintingExecutor.printResponse;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import io.github.dkorobtsov.plinter.core.OverheadProfiler.Phase;
+import io.github.dkorobtsov.plinter.core.internal.BodyFormatterRegistry;
+import io.github.dkorobtsov.plinter.core.internal.ConfigInternals;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedRequest;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedResponse;
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
 /**
  * Parent class for all interceptors - to keep some common logic.
  */
 public abstract class AbstractInterceptor {
 
-  protected LoggerConfig loggerConfig;
+  private static final Logger logger = Logger.getLogger(AbstractInterceptor.class.getName());
+
+  private final LoggerConfigHolder configHolder;
+  private final boolean isNonBlocking;
+
+  protected AbstractInterceptor(LoggerConfigHolder configHolder) {
+    this(configHolder, false);
+  }
+
+  /**
+   * @param isNonBlocking true for interceptors called by client's I/O threads: events are always
+   * handed off to asynchronous printer which never blocks caller, even if asynchronous printing
+   * is not configured or its overflow policy is {@link OverflowPolicy#BLOCK}
+   */
+  protected AbstractInterceptor(LoggerConfigHolder configHolder, boolean isNonBlocking) {
+    this.configHolder = configHolder;
+    this.isNonBlocking = isNonBlocking;
+  }
 
+  /**
+   * @return configuration currently used by interceptor. Should be read once per intercepted
+   * call, so that the whole call is handled with the same configuration even if it's replaced
+   * meanwhile.
+   */
   public LoggerConfig loggerConfig() {
-    return this.loggerConfig;
+    return configHolder.get();
+  }
+
+  /**
+   * @param overrideSource request tag or context attribute which may hold {@link LoggingOverride}
+   * @return configuration currently used by interceptor with call's override applied. Should be
+   * read once per intercepted call.
+   */
+  public LoggerConfig loggerConfig(Object overrideSource) {
+    return configHolder.get().withOverride(LoggingOverride.from(overrideSource));
+  }
+
+  /**
+   * @param overrideSource request tag or context attribute which may hold {@link LoggingOverride}
+   * @param host target host of intercepted call, can be null
+   * @param pathSegments supplier of call's encoded path segments, called only if route rules
+   * are configured
+   * @return configuration currently used by interceptor with call's override applied. If call
+   * has no override attached, override is selected by configured {@link RouteRules}.
+   */
+  public LoggerConfig loggerConfig(Object overrideSource, String host,
+      Supplier<List<String>> pathSegments) {
+    final LoggerConfig loggerConfig = configHolder.get();
+    LoggingOverride override = LoggingOverride.from(overrideSource);
+    if (isNull(override) && nonNull(loggerConfig.routeRules)) {
+      override = loggerConfig.routeRules.match(host, pathSegments.get());
+    }
+    return loggerConfig.withOverride(override);
+  }
+
+  /**
+   * @return holder allowing to replace interceptor's configuration at runtime
+   */
+  public LoggerConfigHolder configHolder() {
+    return configHolder;
+  }
+
+  /**
+   * Registers MBean exposing interceptor's statistics and allowing to change its level and
+   * sampling at runtime.
+   *
+   * @param name name distinguishing interceptor, like client's name
+   * @return registration, should be closed when interceptor is not used anymore
+   * @see LoggerControl
+   */
+  public LoggerControl registerMBean(String name) {
+    return LoggerControl.register(name, configHolder);
   }
 
-  protected boolean skipLogging() {
+  /**
+   * Counts intercepted call in interceptor's statistics. Should be called once per call.
+   */
+  protected void countExchange() {
+    configHolder.stats().exchangeSeen();
+  }
+
+  protected boolean skipLogging(LoggerConfig loggerConfig) {
     return !loggerConfig.isLoggable || loggerConfig.level == Level.NONE;
   }
 
+  /**
+   * @param host target host of intercepted call, can be null
+   * @return true if call is skipped by configured sampling policy
+   */
+  protected boolean isSampledOut(LoggerConfig loggerConfig, String host) {
+    if (nonNull(loggerConfig.samplingPolicy) && !loggerConfig.samplingPolicy.sample(host)) {
+      configHolder.stats().exchangeSampledOut();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * @return true if printing should be postponed until call outcome is known
+   */
+  protected boolean isConditional(LoggerConfig loggerConfig) {
+    return nonNull(loggerConfig.logCondition);
+  }
+
+  /**
+   * @return true if exchanges should be kept by flight recorder instead of being printed
+   */
+  protected boolean isRecording(LoggerConfig loggerConfig) {
+    return nonNull(loggerConfig.flightRecorder);
+  }
+
+  /**
+   * @return true if metrics should be recorded for intercepted calls
+   */
+  protected boolean isMeasured(LoggerConfig loggerConfig) {
+    return nonNull(loggerConfig.metricsRecorder);
+  }
+
+  /**
+   * Records call to configured metrics recorder.
+   *
+   * @param pathSegments encoded path segments of request url
+   * @param requestBytes request body size or -1 if unknown
+   * @param responseBytes response body size or -1 if unknown or call failed
+   */
+  protected void recordMetrics(LoggerConfig loggerConfig, CallOutcome outcome, String method,
+      List<String> pathSegments, long requestBytes, long responseBytes) {
+    recordMetrics(loggerConfig, outcome, method, pathSegments, requestBytes, responseBytes, null);
+  }
+
+  /**
+   * Records call together with its network phases to configured metrics recorder.
+   *
+   * @param callTimings phase breakdown reported by client or null if not available
+   */
+  @SuppressWarnings({"PMD.AvoidCatchingGenericException", "PMD.ExcessiveParameterList"})
+  protected void recordMetrics(LoggerConfig loggerConfig, CallOutcome outcome, String method,
+      List<String> pathSegments, long requestBytes, long responseBytes,
+      CallTimings callTimings) {
+    try {
+      loggerConfig.metricsRecorder
+          .record(outcome, method, pathSegments, requestBytes, responseBytes, callTimings);
+    } catch (RuntimeException e) {
+      logger.log(java.util.logging.Level.SEVERE, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Records time between sending request and receiving last byte of response body to configured
+   * metrics recorder. Outcome should be the same as recorded with {@link #recordMetrics}.
+   */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  protected void recordLastByte(LoggerConfig loggerConfig, CallOutcome outcome, String method,
+      List<String> pathSegments, long lastByteMs) {
+    try {
+      loggerConfig.metricsRecorder.recordLastByte(outcome, method, pathSegments, lastByteMs);
+    } catch (RuntimeException e) {
+      logger.log(java.util.logging.Level.SEVERE, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Converts request, measuring conversion time if overhead profiler is configured.
+   */
+  protected <T> InterceptedRequest convertRequest(LoggerConfig loggerConfig,
+      RequestConverter<T> converter, T request) {
+    final long startTime = startPhase(loggerConfig);
+    final InterceptedRequest interceptedRequest = converter.from(request);
+    stopPhase(loggerConfig, Phase.REQUEST_CONVERSION, startTime);
+    configHolder.stats().bytesCaptured(bodyLength(interceptedRequest));
+    return interceptedRequest;
+  }
+
+  /**
+   * Converts response, measuring conversion time if overhead profiler is configured.
+   */
+  protected <T> InterceptedResponse convertResponse(LoggerConfig loggerConfig,
+      ResponseConverter<T> converter, T response, URL url, Long ms) {
+    final long startTime = startPhase(loggerConfig);
+    final InterceptedResponse interceptedResponse = converter.from(response, url, ms);
+    stopPhase(loggerConfig, Phase.RESPONSE_CONVERSION, startTime);
+    countCaptured(interceptedResponse);
+    return interceptedResponse;
+  }
+
+  /**
+   * Counts response body captured for printing in interceptor's statistics.
+   */
+  protected void countCaptured(InterceptedResponse response) {
+    if (nonNull(response.originalBody)) {
+      configHolder.stats().bytesCaptured(response.originalBody.length);
+    }
+  }
+
+  /**
+   * Prints request and counts call as logged in interceptor's statistics.
+   */
+  protected void logRequest(LoggerConfig loggerConfig, InterceptedRequest request) {
+    configHolder.stats().exchangeLogged();
+    printRequest(loggerConfig, request, isNonBlocking);
+  }
+
+  /**
+   * Prints response, handing it off to non-blocking printer if interceptor requires it.
+   */
+  protected void logResponse(LoggerConfig loggerConfig, InterceptedResponse response) {
+    printResponse(loggerConfig, response, isNonBlocking);
+  }
+
+  private static long bodyLength(InterceptedRequest request) {
+    if (isNull(request.body())) {
+      return 0;
+    }
+    try {
+      // Length is -1 if it's not known
+      return Math.max(0, request.body().contentLength());
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * @return formatters of provided configuration, defining which bodies are printable
+   */
+  protected static BodyFormatterRegistry bodyFormatters(LoggerConfig loggerConfig) {
+    return ConfigInternals.of(loggerConfig).bodyFormatters();
+  }
+
+  /**
+   * @return start time of measured phase or 0 if overhead profiler is not configured
+   */
+  protected static long startPhase(LoggerConfig loggerConfig) {
+    return isNull(loggerConfig.overheadProfiler) ? 0 : loggerConfig.overheadProfiler.start();
+  }
+
+  /**
+   * Records phase to overhead profiler if it's configured.
+   *
+   * @param startTime value returned by {@link #startPhase(LoggerConfig)}
+   */
+  protected static void stopPhase(LoggerConfig loggerConfig, Phase phase, long startTime) {
+    if (nonNull(loggerConfig.overheadProfiler)) {
+      loggerConfig.overheadProfiler.stop(phase, startTime);
+    }
+  }
+
+  /**
+   * Keeps exchange in flight recorder or, if call outcome matches dump condition, prints all
+   * exchanges recorded for the host followed by provided one.
+   *
+   * @param response received response or null if call failed
+   */
+  protected void record(LoggerConfig loggerConfig, CallOutcome outcome,
+      InterceptedRequest request, InterceptedResponse response) {
+    if (shouldDump(loggerConfig, outcome)) {
+      dump(loggerConfig, outcome, request, response);
+    } else {
+      loggerConfig.flightRecorder.record(outcome.host, request, response);
+    }
+  }
+
+  /**
+   * @return true if call with provided outcome triggers printing of exchanges kept by flight
+   * recorder
+   */
+  protected boolean shouldDump(LoggerConfig loggerConfig, CallOutcome outcome) {
+    return loggerConfig.flightRecorder.shouldDump(outcome);
+  }
+
+  /**
+   * Prints all exchanges recorded for the host followed by provided one.
+   *
+   * @param response received response or null if call failed
+   */
+  protected void dump(LoggerConfig loggerConfig, CallOutcome outcome,
+      InterceptedRequest request, InterceptedResponse response) {
+    for (FlightRecorder.Exchange exchange : loggerConfig.flightRecorder.drain(outcome.host)) {
+      print(loggerConfig, exchange.request(), exchange.response());
+    }
+    print(loggerConfig, request, response);
+  }
+
+  /**
+   * Keeps exchange in flight recorder as raw copy, which is converted only if it's printed.
+   *
+   * @param request function converting raw request copy
+   * @param response function converting raw response copy or null if call failed
+   */
+  protected void keep(LoggerConfig loggerConfig, CallOutcome outcome,
+      Supplier<InterceptedRequest> request, Supplier<InterceptedResponse> response) {
+    loggerConfig.flightRecorder.record(outcome.host, request, response);
+  }
+
+  private void print(LoggerConfig loggerConfig, InterceptedRequest request,
+      InterceptedResponse response) {
+    logRequest(loggerConfig, request);
+    if (nonNull(response)) {
+      logResponse(loggerConfig, response);
+    }
+  }
+
+  /**
+   * @return true if call with provided outcome should be logged. If condition fails, call is
+   * logged.
+   */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  protected boolean shouldLog(LoggerConfig loggerConfig, CallOutcome outcome) {
+    if (isNull(loggerConfig.logCondition)) {
+      return true;
+    }
+    try {
+      return loggerConfig.logCondition.shouldLog(outcome);
+    } catch (RuntimeException e) {
+      logger.log(java.util.logging.Level.SEVERE, e.getMessage(), e);
+      return true;
+    }
+  }
+
 }
@@ -0,0 +1,27 @@
+package io.github.dkorobtsov.plinter.core;
+
+import java.nio.charset.Charset;
+
+/**
+ * BodyFormatter interface responsible for converting printable request or response body to text.
+ * Formatters are registered per media type, see {@link
+ * LoggerConfig.LoggerConfigBuilder#bodyFormatter(String, BodyFormatter)}.
+ *
+ * Usage example:
+ * <pre>
+ *   LoggerConfig.builder()
+ *     .bodyFormatter("application/x-www-form-urlencoded",
+ *         (body, charset) -> new String(body, charset).replace("&", "\n"))
+ *     .build());
+ * </pre>
+ */
+@FunctionalInterface
+public interface BodyFormatter {
+
+  /**
+   * @param body body bytes, never empty
+   * @param charset charset specified in content type or UTF-8 if there is none
+   * @return formatted body. If null is returned or exception is thrown, body is printed as is.
+   */
+  String format(byte[] body, Charset charset);
+}
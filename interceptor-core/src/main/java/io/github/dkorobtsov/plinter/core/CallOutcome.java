@@ -0,0 +1,46 @@
+package io.github.dkorobtsov.plinter.core;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Outcome of intercepted call, used to decide if call should be logged. See {@link LogCondition}.
+ */
+public final class CallOutcome {
+
+  /**
+   * Target host of the call.
+   */
+  public final String host;
+
+  /**
+   * Response status code or 0 if call failed before response was received.
+   */
+  public final int code;
+
+  /**
+   * Time between sending request and receiving response headers (or failure) in milliseconds.
+   */
+  public final long durationMs;
+
+  /**
+   * Exception thrown by client or null if response was received.
+   */
+  public final Throwable error;
+
+  public CallOutcome(String host, int code, long durationMs, Throwable error) {
+    this.host = host;
+    this.code = code;
+    this.durationMs = durationMs;
+    this.error = error;
+  }
+
+  public boolean isFailed() {
+    return nonNull(error);
+  }
+
+  @Override
+  public String toString() {
+    return "CallOutcome{host=" + host + ", code=" + code + ", durationMs=" + durationMs
+        + ", error=" + error + '}';
+  }
+}
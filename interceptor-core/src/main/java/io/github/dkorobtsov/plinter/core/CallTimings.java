@@ -0,0 +1,83 @@
+package io.github.dkorobtsov.plinter.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Breakdown of intercepted call's duration by network phase, reported by clients which provide
+ * connection events (like OkHttp3 interceptor with its event listener factory installed). If
+ * call was retried or followed redirects, time of all attempts is summed up.
+ *
+ * Phases which didn't happen (for example, DNS lookup and connect when pooled connection was
+ * reused or TLS handshake for plain HTTP) are reported as 0.
+ */
+public final class CallTimings {
+
+  /**
+   * Time spent resolving host name in nanoseconds.
+   */
+  public final long dnsNanos;
+
+  /**
+   * Time spent establishing connection in nanoseconds, including TLS handshake.
+   */
+  public final long connectNanos;
+
+  /**
+   * Time spent on TLS handshake in nanoseconds.
+   */
+  public final long tlsNanos;
+
+  /**
+   * Time spent writing request headers and body in nanoseconds.
+   */
+  public final long requestNanos;
+
+  /**
+   * Time between request was sent and response headers were received in nanoseconds (time to
+   * first byte), which is mostly server processing time.
+   */
+  public final long ttfbNanos;
+
+  /**
+   * True if call was executed on connection taken from connection pool.
+   */
+  public final boolean isConnectionReused;
+
+  public CallTimings(long dnsNanos, long connectNanos, long tlsNanos, long requestNanos,
+      long ttfbNanos, boolean isConnectionReused) {
+    this.dnsNanos = dnsNanos;
+    this.connectNanos = connectNanos;
+    this.tlsNanos = tlsNanos;
+    this.requestNanos = requestNanos;
+    this.ttfbNanos = ttfbNanos;
+    this.isConnectionReused = isConnectionReused;
+  }
+
+  /**
+   * @return one line description of phases, like "dns 2ms, connect 14ms (tls 9ms), request 0ms,
+   * ttfb 41ms, new connection"
+   */
+  public String summary() {
+    return "dns " + millis(dnsNanos)
+        + ", connect " + millis(connectNanos) + " (tls " + millis(tlsNanos) + ')'
+        + ", request " + millis(requestNanos)
+        + ", ttfb " + millis(ttfbNanos)
+        + (isConnectionReused ? ", reused connection" : ", new connection");
+  }
+
+  private static String millis(long nanos) {
+    return TimeUnit.NANOSECONDS.toMillis(nanos) + "ms";
+  }
+
+  @Override
+  public String toString() {
+    return "CallTimings{dnsNanos=" + dnsNanos
+        + ", connectNanos=" + connectNanos
+        + ", tlsNanos=" + tlsNanos
+        + ", requestNanos=" + requestNanos
+        + ", ttfbNanos=" + ttfbNanos
+        + ", isConnectionReused=" + isConnectionReused
+        + '}';
+  }
+
+}
@@ -0,0 +1,255 @@
+package io.github.dkorobtsov.plinter.core;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import io.github.dkorobtsov.plinter.core.internal.BodyTruncator;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedRequest;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps last exchanges for every target host in memory and prints them only when call matching
+ * dump condition happens, so there is context around incidents without formatting healthy
+ * traffic.
+ *
+ * Exchanges are stored as converted, but not formatted requests and responses with bodies cut to
+ * configured size, or, if interceptor supports it, as raw copies (headers and first body bytes)
+ * which are converted only when they are printed. When dump is triggered, all exchanges
+ * recorded for the host are printed (oldest first) followed by the triggering one and host
+ * window is cleared.
+ *
+ * Usage example:
+ * <pre>
+ *   LoggerConfig.builder()
+ *     .flightRecorder(FlightRecorder.builder()
+ *         .capacityPerHost(20)
+ *         .maxBodyBytes(4096)
+ *         .dumpOn(LogCondition.failures().or(LogCondition.serverErrors()))
+ *         .build())
+ *     .build());
+ * </pre>
+ */
+public final class FlightRecorder {
+
+  private static final Logger logger = Logger.getLogger(FlightRecorder.class.getName());
+
+  private static final int MAX_TRACKED_HOSTS = 256;
+  private static final String UNKNOWN_HOST = "";
+
+  private final int capacityPerHost;
+  private final int maxBodyBytes;
+  private final LogCondition dumpCondition;
+  private final Ring overflowRing;
+  private final ConcurrentMap<String, Ring> rings = new ConcurrentHashMap<>();
+
+  FlightRecorder(int capacityPerHost, int maxBodyBytes, LogCondition dumpCondition) {
+    this.capacityPerHost = capacityPerHost;
+    this.maxBodyBytes = maxBodyBytes;
+    this.dumpCondition = dumpCondition;
+    this.overflowRing = new Ring(capacityPerHost);
+  }
+
+  public static FlightRecorderBuilder builder() {
+    return new FlightRecorderBuilder();
+  }
+
+  /**
+   * @return true if recorded window and provided call should be printed. If condition fails,
+   * window is printed.
+   */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  boolean shouldDump(CallOutcome outcome) {
+    try {
+      return dumpCondition.shouldLog(outcome);
+    } catch (RuntimeException e) {
+      logger.log(Level.SEVERE, e.getMessage(), e);
+      return true;
+    }
+  }
+
+  /**
+   * Adds exchange to host window, oldest exchange is dropped if window is full.
+   *
+   * @param response received response or null if call failed
+   */
+  void record(String host, InterceptedRequest request, InterceptedResponse response) {
+    final InterceptedRequest truncatedRequest = BodyTruncator.truncated(request, maxBodyBytes);
+    final InterceptedResponse truncatedResponse = isNull(response)
+        ? null : BodyTruncator.truncated(response, maxBodyBytes);
+    record(host, () -> truncatedRequest, isNull(response) ? null : () -> truncatedResponse);
+  }
+
+  /**
+   * Adds exchange kept as raw copy to host window, oldest exchange is dropped if window is full.
+   *
+   * @param request function converting raw request copy, called only if exchange is printed
+   * @param response function converting raw response copy or null if call failed
+   */
+  void record(String host, Supplier<InterceptedRequest> request,
+      Supplier<InterceptedResponse> response) {
+    ring(host).add(new Exchange(request, response));
+  }
+
+  /**
+   * @return exchanges recorded for the host, oldest first. Host window is cleared.
+   */
+  List<Exchange> drain(String host) {
+    return ring(host).drain();
+  }
+
+  /**
+   * @return max number of body bytes kept for every recorded request and response
+   */
+  public int maxBodyBytes() {
+    return maxBodyBytes;
+  }
+
+  /**
+   * @return number of exchanges currently kept for the host
+   */
+  public int recordedCount(String host) {
+    return ring(host).size();
+  }
+
+  private Ring ring(String host) {
+    final String key = isNull(host) ? UNKNOWN_HOST : host;
+    final Ring ring = rings.get(key);
+    if (nonNull(ring)) {
+      return ring;
+    }
+    // Hosts beyond the limit share one window, so map doesn't grow indefinitely
+    return rings.size() < MAX_TRACKED_HOSTS
+        ? rings.computeIfAbsent(key, it -> new Ring(capacityPerHost))
+        : overflowRing;
+  }
+
+  @Override
+  public String toString() {
+    return "FlightRecorder{capacityPerHost=" + capacityPerHost
+        + ", maxBodyBytes=" + maxBodyBytes
+        + ", dumpOn=" + dumpCondition
+        + '}';
+  }
+
+  /**
+   * Recorded request and response (null if call failed).
+   */
+  static final class Exchange {
+
+    private final Supplier<InterceptedRequest> request;
+    private final Supplier<InterceptedResponse> response;
+
+    Exchange(Supplier<InterceptedRequest> request, Supplier<InterceptedResponse> response) {
+      this.request = request;
+      this.response = response;
+    }
+
+    InterceptedRequest request() {
+      return request.get();
+    }
+
+    InterceptedResponse response() {
+      return isNull(response) ? null : response.get();
+    }
+  }
+
+  /**
+   * Fixed size window of last exchanges. Lock is held only to copy references, so contention
+   * between threads calling the same host is negligible.
+   */
+  private static final class Ring {
+
+    private final Exchange[] exchanges;
+    private int next;
+    private int size;
+
+    Ring(int capacity) {
+      this.exchanges = new Exchange[capacity];
+    }
+
+    synchronized void add(Exchange exchange) {
+      exchanges[next] = exchange;
+      next = (next + 1) % exchanges.length;
+      if (size < exchanges.length) {
+        size++;
+      }
+    }
+
+    synchronized List<Exchange> drain() {
+      if (size == 0) {
+        return Collections.emptyList();
+      }
+      final List<Exchange> drained = new ArrayList<>(size);
+      final int first = (next - size + exchanges.length) % exchanges.length;
+      for (int i = 0; i < size; i++) {
+        final int index = (first + i) % exchanges.length;
+        drained.add(exchanges[index]);
+        exchanges[index] = null;
+      }
+      size = 0;
+      return drained;
+    }
+
+    synchronized int size() {
+      return size;
+    }
+  }
+
+  /**
+   * Helper class for creating {@link FlightRecorder} instances.
+   */
+  public static class FlightRecorderBuilder {
+
+    private int capacityPerHost = 20;
+    private int maxBodyBytes = 4096;
+    private LogCondition dumpCondition = LogCondition.failures().or(LogCondition.serverErrors());
+
+    /**
+     * @param capacityPerHost number of last exchanges kept for every target host. Default: 20
+     */
+    public FlightRecorderBuilder capacityPerHost(int capacityPerHost) {
+      if (capacityPerHost < 1) {
+        throw new IllegalArgumentException("Invalid capacity. Should be greater than 0.");
+      }
+      this.capacityPerHost = capacityPerHost;
+      return this;
+    }
+
+    /**
+     * @param maxBodyBytes max number of body bytes kept for every recorded request and response.
+     * Default: 4096
+     */
+    public FlightRecorderBuilder maxBodyBytes(int maxBodyBytes) {
+      if (maxBodyBytes < 0) {
+        throw new IllegalArgumentException("Invalid body size. Should not be negative.");
+      }
+      this.maxBodyBytes = maxBodyBytes;
+      return this;
+    }
+
+    /**
+     * @param dumpCondition condition triggering printing of recorded exchanges. Default: failed
+     * calls and server errors
+     */
+    public FlightRecorderBuilder dumpOn(LogCondition dumpCondition) {
+      if (isNull(dumpCondition)) {
+        throw new IllegalArgumentException("Dump condition should be provided.");
+      }
+      this.dumpCondition = dumpCondition;
+      return this;
+    }
+
+    public FlightRecorder build() {
+      return new FlightRecorder(capacityPerHost, maxBodyBytes, dumpCondition);
+    }
+  }
+
+}
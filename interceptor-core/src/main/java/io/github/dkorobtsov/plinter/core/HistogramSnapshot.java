@@ -0,0 +1,88 @@
+package io.github.dkorobtsov.plinter.core;
+
+import io.github.dkorobtsov.plinter.core.internal.StripedHistogram;
+import io.github.dkorobtsov.plinter.core.internal.Util;
+
+/**
+ * Immutable copy of histogram kept by {@link MetricsRecorder}. Percentiles are reported as upper
+ * bound of bucket containing requested rank, so they are never lower than real value and at most
+ * 12.5% higher.
+ */
+public final class HistogramSnapshot {
+
+  private final long[] counts;
+  private final long count;
+  private final long sum;
+
+  HistogramSnapshot(long[] countsAndSum) {
+    this.counts = new long[StripedHistogram.BUCKETS];
+    System.arraycopy(countsAndSum, 0, counts, 0, StripedHistogram.BUCKETS);
+    long total = 0;
+    for (long bucketCount : counts) {
+      total += bucketCount;
+    }
+    this.count = total;
+    this.sum = countsAndSum[StripedHistogram.BUCKETS];
+  }
+
+  /**
+   * @return number of recorded values
+   */
+  public long count() {
+    return count;
+  }
+
+  /**
+   * @return sum of recorded values
+   */
+  public long sum() {
+    return sum;
+  }
+
+  /**
+   * @return mean of recorded values or 0 if nothing was recorded
+   */
+  public double mean() {
+    return count == 0 ? 0 : (double) sum / count;
+  }
+
+  /**
+   * @param percentile percentile in range 0..100, like 50 or 99.9
+   * @return value not exceeded by given percent of recorded values or 0 if nothing was recorded
+   */
+  public long percentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Invalid percentile. Should be in range 0..100.");
+    }
+    if (count == 0) {
+      return 0;
+    }
+    final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return StripedHistogram.upperBound(i);
+      }
+    }
+    return StripedHistogram.upperBound(counts.length - 1);
+  }
+
+  /**
+   * @return approximate largest recorded value or 0 if nothing was recorded
+   */
+  public long max() {
+    return percentile(100);
+  }
+
+  @Override
+  public String toString() {
+    return "HistogramSnapshot{count=" + count
+        + ", mean=" + Util.format("%.1f", mean())
+        + ", p50=" + percentile(50)
+        + ", p99=" + percentile(99)
+        + ", max=" + max()
+        + '}';
+  }
+
+}
@@ -0,0 +1,130 @@
+package io.github.dkorobtsov.plinter.core;
+
+import static java.util.Objects.isNull;
+
+import io.github.dkorobtsov.plinter.core.internal.ConfigInternals;
+import io.github.dkorobtsov.plinter.core.internal.RingBufferPrinter;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Counters of calls handled by interceptors sharing one {@link LoggerConfigHolder}. Counters are
+ * kept by holder, so they are not reset when configuration is replaced.
+ *
+ * Counters are {@link LongAdder}s, so updating them from many threads doesn't cause contention.
+ */
+public final class InterceptorStats {
+
+  private final Supplier<LoggerConfig> currentConfig;
+  private final LongAdder exchanges = new LongAdder();
+  private final LongAdder logged = new LongAdder();
+  private final LongAdder sampledOut = new LongAdder();
+  private final LongAdder bytesCaptured = new LongAdder();
+  // Counts of replaced configurations, so totals don't go back when configuration is replaced
+  private final LongAdder retiredDropped = new LongAdder();
+  private final LongAdder retiredFormatterFailures = new LongAdder();
+
+  InterceptorStats(Supplier<LoggerConfig> currentConfig) {
+    this.currentConfig = currentConfig;
+  }
+
+  void exchangeSeen() {
+    exchanges.increment();
+  }
+
+  void exchangeLogged() {
+    logged.increment();
+  }
+
+  void exchangeSampledOut() {
+    sampledOut.increment();
+  }
+
+  void bytesCaptured(long bytes) {
+    if (bytes > 0) {
+      bytesCaptured.add(bytes);
+    }
+  }
+
+  /**
+   * Keeps counts of configuration which is replaced.
+   */
+  void retire(LoggerConfig replaced) {
+    retiredDropped.add(dropped(replaced.internals.createdAsyncPrinter())
+        + dropped(replaced.internals.createdFallbackPrinter()));
+    retiredFormatterFailures.add(replaced.internals.bodyFormatters().failureCount());
+  }
+
+  /**
+   * @return number of intercepted calls
+   */
+  public long exchanges() {
+    return exchanges.sum();
+  }
+
+  /**
+   * @return number of calls which were printed
+   */
+  public long logged() {
+    return logged.sum();
+  }
+
+  /**
+   * @return number of calls skipped by sampling policy
+   */
+  public long sampledOut() {
+    return sampledOut.sum();
+  }
+
+  /**
+   * @return total size of request and response bodies captured for printing
+   */
+  public long bytesCaptured() {
+    return bytesCaptured.sum();
+  }
+
+  /**
+   * @return number of events discarded by asynchronous printer because its buffer was full
+   */
+  public long droppedEvents() {
+    final ConfigInternals internals = currentConfig.get().internals;
+    return retiredDropped.sum() + dropped(internals.createdAsyncPrinter())
+        + dropped(internals.createdFallbackPrinter());
+  }
+
+  /**
+   * @return number of events waiting to be printed by asynchronous printer
+   */
+  public int asyncQueueDepth() {
+    final ConfigInternals internals = currentConfig.get().internals;
+    return pending(internals.createdAsyncPrinter()) + pending(internals.createdFallbackPrinter());
+  }
+
+  /**
+   * @return number of bodies printed as is because body formatter failed
+   */
+  public long formatterFailures() {
+    return retiredFormatterFailures.sum()
+        + currentConfig.get().internals.bodyFormatters().failureCount();
+  }
+
+  private static long dropped(RingBufferPrinter printer) {
+    return isNull(printer) ? 0 : printer.dropped();
+  }
+
+  private static int pending(RingBufferPrinter printer) {
+    return isNull(printer) ? 0 : printer.pending();
+  }
+
+  @Override
+  public String toString() {
+    return "InterceptorStats{exchanges=" + exchanges()
+        + ", logged=" + logged()
+        + ", sampledOut=" + sampledOut()
+        + ", bytesCaptured=" + bytesCaptured()
+        + ", droppedEvents=" + droppedEvents()
+        + ", formatterFailures=" + formatterFailures()
+        + '}';
+  }
+
+}
@@ -0,0 +1,223 @@
+package io.github.dkorobtsov.plinter.core;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import io.github.dkorobtsov.plinter.core.internal.TokenBucket;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits amount of log output in bytes per second, in total and for every target host.
+ *
+ * Size of every event is estimated before its body is formatted. When budget is not enough for
+ * complete event, it is degraded step by step:
+ * <ol>
+ * <li>bodies are truncated</li>
+ * <li>only headers are printed</li>
+ * <li>one line summary is printed</li>
+ * <li>event is suppressed, number of suppressed events is reported at most once per second</li>
+ * </ol>
+ * So when budget is exhausted formatting cost is saved too.
+ *
+ * Usage example:
+ * <pre>
+ *   LoggerConfig.builder()
+ *     .logBudget(LogBudget.builder()
+ *         .bytesPerSecond(1024 * 1024)
+ *         .perHostBytesPerSecond(256 * 1024)
+ *         .build())
+ *     .build());
+ * </pre>
+ */
+public final class LogBudget {
+
+  private static final int MAX_TRACKED_HOSTS = 1024;
+  private static final String UNKNOWN_HOST = "";
+  private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final long bytesPerSecond;
+  private final long perHostBytesPerSecond;
+  private final int truncatedBodyBytes;
+  private final TokenBucket globalBucket;
+  private final TokenBucket overflowHostBucket;
+  private final ConcurrentMap<String, TokenBucket> hostBuckets = new ConcurrentHashMap<>();
+  private final LongAdder suppressed = new LongAdder();
+  private final LongAdder unreported = new LongAdder();
+  private final AtomicLong lastReportNanos = new AtomicLong(System.nanoTime());
+
+  LogBudget(long bytesPerSecond, long perHostBytesPerSecond, int truncatedBodyBytes) {
+    this.bytesPerSecond = bytesPerSecond;
+    this.perHostBytesPerSecond = perHostBytesPerSecond;
+    this.truncatedBodyBytes = truncatedBodyBytes;
+    this.globalBucket = bytesPerSecond > 0 ? new TokenBucket(bytesPerSecond) : null;
+    this.overflowHostBucket = perHostBytesPerSecond > 0
+        ? new TokenBucket(perHostBytesPerSecond) : null;
+  }
+
+  public static LogBudgetBuilder builder() {
+    return new LogBudgetBuilder();
+  }
+
+  /**
+   * Selects the most complete form of event fitting into remaining budget and charges budget for
+   * it.
+   *
+   * @param host target host of intercepted call, can be null
+   * @param completeBytes estimated size of complete event
+   * @param truncatedBytes estimated size of event with truncated body
+   * @param headersBytes estimated size of event without body
+   * @param summaryBytes estimated size of one line summary
+   */
+  public Degradation acquire(String host, long completeBytes, long truncatedBytes,
+      long headersBytes, long summaryBytes) {
+    final TokenBucket hostBucket = hostBucket(host);
+    if (tryAcquire(hostBucket, completeBytes)) {
+      return Degradation.NONE;
+    } else if (tryAcquire(hostBucket, truncatedBytes)) {
+      return Degradation.TRUNCATED_BODY;
+    } else if (tryAcquire(hostBucket, headersBytes)) {
+      return Degradation.HEADERS_ONLY;
+    } else if (tryAcquire(hostBucket, summaryBytes)) {
+      return Degradation.SUMMARY;
+    }
+    suppressed.increment();
+    unreported.increment();
+    return Degradation.SUPPRESSED;
+  }
+
+  /**
+   * @return number of events suppressed since last report if it's time to report them, 0
+   * otherwise
+   */
+  public long suppressedToReport() {
+    final long last = lastReportNanos.get();
+    final long now = System.nanoTime();
+    if (now - last < REPORT_INTERVAL_NANOS || unreported.sum() == 0
+        || !lastReportNanos.compareAndSet(last, now)) {
+      return 0;
+    }
+    return unreported.sumThenReset();
+  }
+
+  /**
+   * @return total number of events suppressed by this budget
+   */
+  public long suppressedCount() {
+    return suppressed.sum();
+  }
+
+  /**
+   * @return max body size printed when bodies are truncated
+   */
+  public int truncatedBodyBytes() {
+    return truncatedBodyBytes;
+  }
+
+  private boolean tryAcquire(TokenBucket hostBucket, long bytes) {
+    if (nonNull(hostBucket) && !hostBucket.tryAcquire(bytes)) {
+      return false;
+    }
+    if (nonNull(globalBucket) && !globalBucket.tryAcquire(bytes)) {
+      if (nonNull(hostBucket)) {
+        hostBucket.release(bytes);
+      }
+      return false;
+    }
+    return true;
+  }
+
+  private TokenBucket hostBucket(String host) {
+    if (isNull(overflowHostBucket)) {
+      return null;
+    }
+    final String key = isNull(host) ? UNKNOWN_HOST : host;
+    final TokenBucket bucket = hostBuckets.get(key);
+    if (nonNull(bucket)) {
+      return bucket;
+    }
+    // Hosts beyond the limit share one bucket, so map doesn't grow indefinitely
+    return hostBuckets.size() < MAX_TRACKED_HOSTS
+        ? hostBuckets.computeIfAbsent(key, it -> new TokenBucket(perHostBytesPerSecond))
+        : overflowHostBucket;
+  }
+
+  @Override
+  public String toString() {
+    return "LogBudget{"
+        + (nonNull(globalBucket) ? "bytesPerSecond=" + bytesPerSecond + ", " : "")
+        + (perHostBytesPerSecond > 0 ? "perHostBytesPerSecond=" + perHostBytesPerSecond + ", "
+        : "")
+        + "truncatedBodyBytes=" + truncatedBodyBytes
+        + '}';
+  }
+
+  /**
+   * Form in which event is printed.
+   */
+  public enum Degradation {
+    NONE,
+    TRUNCATED_BODY,
+    HEADERS_ONLY,
+    SUMMARY,
+    SUPPRESSED
+  }
+
+  /**
+   * Helper class for creating {@link LogBudget} instances. By default output is not limited.
+   */
+  public static class LogBudgetBuilder {
+
+    private long bytesPerSecond;
+    private long perHostBytesPerSecond;
+    private int truncatedBodyBytes = 1024;
+
+    /**
+     * @param bytesPerSecond max log output in total, up to 1e9. Default: not limited
+     */
+    public LogBudgetBuilder bytesPerSecond(long bytesPerSecond) {
+      validateBudget(bytesPerSecond);
+      this.bytesPerSecond = bytesPerSecond;
+      return this;
+    }
+
+    /**
+     * @param bytesPerSecond max log output for every target host, up to 1e9. Default: not
+     * limited
+     */
+    public LogBudgetBuilder perHostBytesPerSecond(long bytesPerSecond) {
+      validateBudget(bytesPerSecond);
+      this.perHostBytesPerSecond = bytesPerSecond;
+      return this;
+    }
+
+    /**
+     * @param truncatedBodyBytes max body size printed when budget is not enough for complete
+     * body. Default: 1024
+     */
+    public LogBudgetBuilder truncatedBodyBytes(int truncatedBodyBytes) {
+      if (truncatedBodyBytes < 0) {
+        throw new IllegalArgumentException("Invalid body size. Should not be negative.");
+      }
+      this.truncatedBodyBytes = truncatedBodyBytes;
+      return this;
+    }
+
+    public LogBudget build() {
+      return new LogBudget(bytesPerSecond, perHostBytesPerSecond, truncatedBodyBytes);
+    }
+
+    private static void validateBudget(long bytesPerSecond) {
+      if (bytesPerSecond <= 0) {
+        throw new IllegalArgumentException("Invalid budget. Should be greater than 0.");
+      }
+      if (bytesPerSecond > TokenBucket.MAX_EVENTS_PER_SECOND) {
+        throw new IllegalArgumentException("Invalid budget. Should not exceed 1e9 per second.");
+      }
+    }
+  }
+
+}
@@ -0,0 +1,73 @@
+package io.github.dkorobtsov.plinter.core;
+
+/**
+ * Condition deciding if intercepted call should be logged. When condition is configured, request
+ * is not printed before it's sent, instead interceptor waits for response (or exception) and
+ * prints both request and response only if condition is met.
+ *
+ * Usage example:
+ * <pre>
+ *   LoggerConfig.builder()
+ *     .logCondition(LogCondition.serverErrors()
+ *         .or(LogCondition.failures())
+ *         .or(LogCondition.slowerThan(2000)))
+ *     .build());
+ * </pre>
+ */
+@FunctionalInterface
+public interface LogCondition {
+
+  /**
+   * @param outcome status code, duration and exception (if any) of completed call
+   * @return true if call should be logged
+   */
+  boolean shouldLog(CallOutcome outcome);
+
+  default LogCondition or(LogCondition other) {
+    return outcome -> shouldLog(outcome) || other.shouldLog(outcome);
+  }
+
+  default LogCondition and(LogCondition other) {
+    return outcome -> shouldLog(outcome) && other.shouldLog(outcome);
+  }
+
+  default LogCondition negate() {
+    return outcome -> !shouldLog(outcome);
+  }
+
+  /**
+   * @return condition met by calls which failed with exception before response was received
+   */
+  static LogCondition failures() {
+    return CallOutcome::isFailed;
+  }
+
+  /**
+   * @return condition met by responses with status code 5xx
+   */
+  static LogCondition serverErrors() {
+    return statusCodeAtLeast(500);
+  }
+
+  /**
+   * @return condition met by responses with status code greater than or equal to provided one
+   */
+  static LogCondition statusCodeAtLeast(int code) {
+    return outcome -> !outcome.isFailed() && outcome.code >= code;
+  }
+
+  /**
+   * @return condition met by calls which took longer than provided number of milliseconds
+   */
+  static LogCondition slowerThan(long durationMs) {
+    return outcome -> outcome.durationMs > durationMs;
+  }
+
+  /**
+   * @return condition met by calls to provided host (case insensitive)
+   */
+  static LogCondition host(String host) {
+    return outcome -> host.equalsIgnoreCase(outcome.host);
+  }
+
+}
@@ -1,5 +1,14 @@
 package io.github.dkorobtsov.plinter.core;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import io.github.dkorobtsov.plinter.core.internal.BodyFormatterRegistry;
+import io.github.dkorobtsov.plinter.core.internal.ConfigInternals;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
 
 /**
@@ -8,6 +17,12 @@ import java.util.concurrent.Executor;
  */
 public class LoggerConfig {
 
+  private static final int MAX_CACHED_OVERRIDES = 64;
+
+  static {
+    ConfigInternals.register(loggerConfig -> loggerConfig.internals);
+  }
+
   public final boolean isLoggable;
   public final Level level;
   public final LogWriter logger;
@@ -15,9 +30,30 @@ public class LoggerConfig {
   public final Executor executor;
   public final int maxLineLength;
   public final boolean withThreadInfo;
+  public final boolean singleEventOutput;
+  public final long bodyCaptureLimit;
+  public final int asyncBufferSize;
+  public final OverflowPolicy overflowPolicy;
+  public final LogCondition logCondition;
+  public final SamplingPolicy samplingPolicy;
+  public final FlightRecorder flightRecorder;
+  public final LogBudget logBudget;
+  public final RouteRules routeRules;
+  public final MetricsRecorder metricsRecorder;
+  public final OverheadProfiler overheadProfiler;
+  final ConfigInternals internals;
+  private final Map<String, BodyFormatter> customBodyFormatters;
+  private final ConcurrentMap<LoggingOverride, LoggerConfig> overridden
+      = new ConcurrentHashMap<>();
 
+  @SuppressWarnings("PMD.ExcessiveParameterList")
   LoggerConfig(boolean isLoggable, Level level, LogWriter logger, LoggingFormat format,
-      Executor executor, int maxLineLength, boolean withThreadInfo) {
+      Executor executor, int maxLineLength, boolean withThreadInfo, boolean singleEventOutput,
+      long bodyCaptureLimit, int asyncBufferSize, OverflowPolicy overflowPolicy,
+      Map<String, BodyFormatter> bodyFormatters, LogCondition logCondition,
+      SamplingPolicy samplingPolicy, FlightRecorder flightRecorder, LogBudget logBudget,
+      RouteRules routeRules, MetricsRecorder metricsRecorder,
+      OverheadProfiler overheadProfiler) {
     this.isLoggable = isLoggable;
     this.level = level;
     this.logger = logger;
@@ -25,12 +61,104 @@ public class LoggerConfig {
     this.executor = executor;
     this.maxLineLength = maxLineLength;
     this.withThreadInfo = withThreadInfo;
+    this.singleEventOutput = singleEventOutput;
+    this.bodyCaptureLimit = bodyCaptureLimit;
+    this.asyncBufferSize = asyncBufferSize;
+    this.overflowPolicy = overflowPolicy;
+    this.logCondition = logCondition;
+    this.samplingPolicy = samplingPolicy;
+    this.flightRecorder = flightRecorder;
+    this.logBudget = logBudget;
+    this.routeRules = routeRules;
+    this.metricsRecorder = metricsRecorder;
+    this.overheadProfiler = overheadProfiler;
+    this.customBodyFormatters = new LinkedHashMap<>(bodyFormatters);
+    this.internals = ConfigInternals.create(this, new BodyFormatterRegistry(bodyFormatters),
+        null);
+  }
+
+  /**
+   * Configuration of single call with {@link LoggingOverride} applied. Asynchronous printer,
+   * sampling policy, flight recorder and log budget are shared with original configuration.
+   */
+  private LoggerConfig(LoggerConfig original, LoggingOverride override) {
+    this.isLoggable = original.isLoggable;
+    this.level = isNull(override.level) ? original.level : override.level;
+    this.logger = original.logger;
+    this.format = original.format;
+    this.executor = original.executor;
+    this.maxLineLength = original.maxLineLength;
+    this.withThreadInfo = original.withThreadInfo;
+    this.singleEventOutput = original.singleEventOutput;
+    this.bodyCaptureLimit = isNull(override.bodyCaptureLimit)
+        ? original.bodyCaptureLimit : override.bodyCaptureLimit;
+    this.asyncBufferSize = original.asyncBufferSize;
+    this.overflowPolicy = original.overflowPolicy;
+    this.logCondition = original.logCondition;
+    this.samplingPolicy = isNull(override.level) ? original.samplingPolicy : null;
+    this.flightRecorder = original.flightRecorder;
+    this.logBudget = original.logBudget;
+    this.routeRules = original.routeRules;
+    this.metricsRecorder = original.metricsRecorder;
+    this.overheadProfiler = original.overheadProfiler;
+    this.customBodyFormatters = original.customBodyFormatters;
+    this.internals = ConfigInternals.create(this, override.isWithoutBody
+        ? BodyFormatterRegistry.nothingPrintable() : original.internals.bodyFormatters(),
+        original.internals);
   }
 
   public static LoggerConfigBuilder builder() {
     return new LoggerConfigBuilder();
   }
 
+  /**
+   * @param override logging override attached to intercepted call, can be null
+   * @return configuration which should be used for the call. Configurations with overrides
+   * applied are cached, so reusing override instances costs single map lookup per call.
+   */
+  public LoggerConfig withOverride(LoggingOverride override) {
+    if (isNull(override)) {
+      return this;
+    }
+    final LoggerConfig cached = overridden.get(override);
+    if (nonNull(cached)) {
+      return cached;
+    }
+    final LoggerConfig applied = new LoggerConfig(this, override);
+    if (overridden.size() < MAX_CACHED_OVERRIDES) {
+      overridden.putIfAbsent(override, applied);
+    }
+    return applied;
+  }
+
+  /**
+   * @return builder initialized with values of this configuration. Sampling policy, flight
+   * recorder and log budget instances are shared with new configuration, so their state is kept.
+   */
+  public LoggerConfigBuilder toBuilder() {
+    final LoggerConfigBuilder builder = new LoggerConfigBuilder();
+    builder.isLoggable = isLoggable;
+    builder.level = level;
+    builder.format = format;
+    builder.logger = logger;
+    builder.executor = executor;
+    builder.maxLineLength = maxLineLength;
+    builder.withThreadInfo = withThreadInfo;
+    builder.singleEventOutput = singleEventOutput;
+    builder.bodyCaptureLimit = bodyCaptureLimit;
+    builder.asyncBufferSize = asyncBufferSize;
+    builder.overflowPolicy = overflowPolicy;
+    builder.bodyFormatters.putAll(customBodyFormatters);
+    builder.logCondition = logCondition;
+    builder.samplingPolicy = samplingPolicy;
+    builder.flightRecorder = flightRecorder;
+    builder.logBudget = logBudget;
+    builder.routeRules = routeRules;
+    builder.metricsRecorder = metricsRecorder;
+    builder.overheadProfiler = overheadProfiler;
+    return builder;
+  }
+
   @Override
   public String toString() {
     final String line = "\n────────────────────────────────────────────────────────────────────────────────────────";
@@ -44,6 +172,17 @@ public class LoggerConfig {
         + "\n executor       : " + executor
         + "\n maxLineLength  : " + maxLineLength
         + "\n withThreadInfo : " + withThreadInfo
+        + "\n singleEvent    : " + singleEventOutput
+        + "\n bodyLimit      : " + bodyCaptureLimit
+        + "\n asyncPrinting  : " + (isNull(overflowPolicy)
+        ? "disabled" : asyncBufferSize + " events, " + overflowPolicy)
+        + "\n logCondition   : " + logCondition
+        + "\n sampling       : " + samplingPolicy
+        + "\n flightRecorder : " + flightRecorder
+        + "\n logBudget      : " + logBudget
+        + "\n routeRules     : " + routeRules
+        + "\n metrics        : " + metricsRecorder
+        + "\n profiler       : " + overheadProfiler
         + line;
   }
 
@@ -61,6 +200,18 @@ public class LoggerConfig {
     private Executor executor;
     private int maxLineLength = 110;
     private boolean withThreadInfo;
+    private boolean singleEventOutput;
+    private long bodyCaptureLimit = Long.MAX_VALUE;
+    private int asyncBufferSize;
+    private OverflowPolicy overflowPolicy;
+    private final Map<String, BodyFormatter> bodyFormatters = new LinkedHashMap<>();
+    private LogCondition logCondition;
+    private SamplingPolicy samplingPolicy;
+    private FlightRecorder flightRecorder;
+    private LogBudget logBudget;
+    private RouteRules routeRules;
+    private MetricsRecorder metricsRecorder;
+    private OverheadProfiler overheadProfiler;
 
     /**
      * @param isLoggable specifies if logger is enabled
@@ -152,9 +303,264 @@ public class LoggerConfig {
       return this;
     }
 
+    /**
+     * @param singleEventOutput specifies if whole request or response should be sent to logger as
+     * one multi-line message instead of separate message per line. Default: false
+     *
+     * Useful when logging framework has noticeable per-event overhead (appender locking, layout,
+     * I/O) or when lines of concurrent requests should not be interleaved.
+     *
+     * Example:
+     * <pre>
+     *         LoggerConfig config = LoggerConfig.builder()
+     *         .singleEventOutput(true)
+     *         .build();
+     * </pre>
+     */
+    public LoggerConfigBuilder singleEventOutput(boolean singleEventOutput) {
+      this.singleEventOutput = singleEventOutput;
+      return this;
+    }
+
+    /**
+     * @param bytes specifies max number of body bytes captured for printing. Default: unlimited
+     * (Apache interceptors capture up to 1 MiB)
+     *
+     * If set, OkHttp3 interceptor doesn't buffer whole response body anymore, instead first bytes
+     * are copied while application reads original stream and response is printed when body is
+     * exhausted or closed. Apache interceptor always captures streamed entities this way. Bodies
+     * that don't fit into the limit are printed truncated.
+     *
+     * Example:
+     * <pre>
+     *         LoggerConfig config = LoggerConfig.builder()
+     *         .bodyCaptureLimit(64 * 1024)
+     *         .build();
+     * </pre>
+     */
+    public LoggerConfigBuilder bodyCaptureLimit(long bytes) {
+      if (bytes < 0) {
+        throw new IllegalArgumentException(
+            "Invalid body capture limit. Should not be negative.");
+      }
+      this.bodyCaptureLimit = bytes;
+      return this;
+    }
+
+    /**
+     * @param bufferSize number of events that can wait for printing, will be rounded up to the
+     * power of two
+     * @param overflowPolicy specifies what happens with new events when buffer is full
+     *
+     * If set, intercepted events are handed off to bounded ring buffer and printed by single
+     * dedicated daemon thread, so caller thread only pays for putting event into the buffer.
+     * Takes precedence over {@link #executor(Executor)}. Disabled by default.
+     *
+     * Example:
+     * <pre>
+     *         LoggerConfig config = LoggerConfig.builder()
+     *         .asyncPrinting(1024, OverflowPolicy.DROP_OLDEST)
+     *         .build();
+     * </pre>
+     * @see OverflowPolicy
+     */
+    public LoggerConfigBuilder asyncPrinting(int bufferSize, OverflowPolicy overflowPolicy) {
+      if (bufferSize < 1) {
+        throw new IllegalArgumentException(
+            "Invalid buffer size. Should be greater than 0.");
+      }
+      if (isNull(overflowPolicy)) {
+        throw new IllegalArgumentException("Overflow policy should be provided.");
+      }
+      this.asyncBufferSize = bufferSize;
+      this.overflowPolicy = overflowPolicy;
+      return this;
+    }
+
+    /**
+     * @param mediaType media type without parameters, like "text/csv", or structured syntax
+     * suffix, like "+yaml"
+     * @param formatter formatter used for printing bodies of provided type
+     *
+     * Registered formatter takes precedence over default one. Formatter registered for exact media
+     * type takes precedence over formatter registered for suffix. Bodies of types without
+     * registered formatter are printed only if type is known to be printable (json, xml, html,
+     * plain text etc.).
+     *
+     * Example:
+     * <pre>
+     *         LoggerConfig config = LoggerConfig.builder()
+     *         .bodyFormatter("application/x-ndjson",
+     *             (body, charset) -> new String(body, charset))
+     *         .bodyFormatter("+json", BodyFormatterRegistry.TEXT)
+     *         .build();
+     * </pre>
+     * @see BodyFormatter
+     */
+    public LoggerConfigBuilder bodyFormatter(String mediaType, BodyFormatter formatter) {
+      if (isNull(formatter)) {
+        throw new IllegalArgumentException("Body formatter should be provided.");
+      }
+      this.bodyFormatters.put(BodyFormatterRegistry.normalizedKey(mediaType), formatter);
+      return this;
+    }
+
+    /**
+     * @param logCondition if set, request is printed only after response or exception is received
+     * and only if condition is met. Default: not set, every call is logged
+     *
+     * Intended for keeping only problematic calls in logs: calls not matching the condition are
+     * neither converted nor formatted, so their overhead is close to zero. Note that request is
+     * printed right before response, not at the moment it's sent. Apache client doesn't notify
+     * interceptors about failed calls, so only calls with response can be logged for it.
+     *
+     * Example:
+     * <pre>
+     *         LoggerConfig config = LoggerConfig.builder()
+     *         .logCondition(LogCondition.serverErrors()
+     *             .or(LogCondition.failures())
+     *             .or(LogCondition.slowerThan(2000)))
+     *         .build();
+     * </pre>
+     * @see LogCondition
+     */
+    public LoggerConfigBuilder logCondition(LogCondition logCondition) {
+      this.logCondition = logCondition;
+      return this;
+    }
+
+    /**
+     * @param samplingPolicy if set, only calls sampled by policy are logged. Default: not set,
+     * every call is logged
+     *
+     * Sampling is done before request is converted, so skipped calls cost almost nothing. If
+     * {@link #logCondition(LogCondition)} is set too, condition is checked only for sampled calls.
+     *
+     * Example:
+     * <pre>
+     *         LoggerConfig config = LoggerConfig.builder()
+     *         .sampling(SamplingPolicy.builder()
+     *             .probability(0.05)
+     *             .perHostRate(10)
+     *             .maxEventsPerSecond(100)
+     *             .build())
+     *         .build();
+     * </pre>
+     * @see SamplingPolicy
+     */
+    public LoggerConfigBuilder sampling(SamplingPolicy samplingPolicy) {
+      this.samplingPolicy = samplingPolicy;
+      return this;
+    }
+
+    /**
+     * @param flightRecorder if set, exchanges are not printed right away, but kept in memory and
+     * printed only when call matching recorder's dump condition happens. Default: not set
+     *
+     * Takes precedence over {@link #logCondition(LogCondition)}.
+     *
+     * Example:
+     * <pre>
+     *         LoggerConfig config = LoggerConfig.builder()
+     *         .flightRecorder(FlightRecorder.builder()
+     *             .capacityPerHost(20)
+     *             .dumpOn(LogCondition.serverErrors())
+     *             .build())
+     *         .build();
+     * </pre>
+     * @see FlightRecorder
+     */
+    public LoggerConfigBuilder flightRecorder(FlightRecorder flightRecorder) {
+      this.flightRecorder = flightRecorder;
+      return this;
+    }
+
+    /**
+     * @param logBudget if set, log output is limited to given number of bytes per second. Events
+     * not fitting into budget are printed with truncated bodies, without bodies, as one line
+     * summary or suppressed completely. Default: not set, output is not limited
+     *
+     * Example:
+     * <pre>
+     *         LoggerConfig config = LoggerConfig.builder()
+     *         .logBudget(LogBudget.builder()
+     *             .bytesPerSecond(1024 * 1024)
+     *             .perHostBytesPerSecond(256 * 1024)
+     *             .build())
+     *         .build();
+     * </pre>
+     * @see LogBudget
+     */
+    public LoggerConfigBuilder logBudget(LogBudget logBudget) {
+      this.logBudget = logBudget;
+      return this;
+    }
+
+    /**
+     * @param routeRules if set, calls matching one of the rules by host and path are excluded
+     * from logging or logged with rule's {@link LoggingOverride}. Rules are checked before
+     * anything is converted. Default: not set, all calls are logged the same way
+     *
+     * Example:
+     * <pre>
+     *         LoggerConfig config = LoggerConfig.builder()
+     *         .routeRules(RouteRules.builder()
+     *             .exclude("/health")
+     *             .exclude("/metrics/**")
+     *             .override("/api/orders/*", LoggingOverride.builder().level(Level.BODY).build())
+     *             .build())
+     *         .build();
+     * </pre>
+     * @see RouteRules
+     */
+    public LoggerConfigBuilder routeRules(RouteRules routeRules) {
+      this.routeRules = routeRules;
+      return this;
+    }
+
+    /**
+     * @param metricsRecorder if set, latency, request size and response size of every call are
+     * recorded to histograms grouped by host, method, route and status class. Metrics are
+     * recorded even if call is not printed. Default: not set
+     *
+     * Example:
+     * <pre>
+     *         MetricsRecorder metrics = MetricsRecorder.builder().build();
+     *         LoggerConfig config = LoggerConfig.builder()
+     *         .metrics(metrics)
+     *         .build();
+     * </pre>
+     * @see MetricsRecorder
+     */
+    public LoggerConfigBuilder metrics(MetricsRecorder metricsRecorder) {
+      this.metricsRecorder = metricsRecorder;
+      return this;
+    }
+
+    /**
+     * @param overheadProfiler if set, time spent by interceptor on converting, formatting and
+     * printing calls is measured by phase. Default: not set
+     *
+     * Example:
+     * <pre>
+     *         OverheadProfiler profiler = new OverheadProfiler();
+     *         LoggerConfig config = LoggerConfig.builder()
+     *         .overheadProfiler(profiler)
+     *         .build();
+     * </pre>
+     * @see OverheadProfiler
+     */
+    public LoggerConfigBuilder overheadProfiler(OverheadProfiler overheadProfiler) {
+      this.overheadProfiler = overheadProfiler;
+      return this;
+    }
+
     public LoggerConfig build() {
       return new LoggerConfig(isLoggable, level, logger,
-          format, executor, maxLineLength, withThreadInfo);
+          format, executor, maxLineLength, withThreadInfo, singleEventOutput,
+          bodyCaptureLimit, asyncBufferSize, overflowPolicy, bodyFormatters, logCondition,
+          samplingPolicy, flightRecorder, logBudget, routeRules, metricsRecorder,
+          overheadProfiler);
     }
   }
 
@@ -0,0 +1,256 @@
+package io.github.dkorobtsov.plinter.core;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import io.github.dkorobtsov.plinter.core.LoggerConfig.LoggerConfigBuilder;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches properties file and replaces configuration in provided {@link LoggerConfigHolder} every
+ * time file is changed, so logging can be reconfigured without restarting application.
+ *
+ * Properties are applied on top of configuration holder had when watcher was created, so removing
+ * property from file restores original value. If file contains invalid value, error is logged and
+ * current configuration is kept. Supported properties:
+ * <pre>
+ *   loggable=true
+ *   level=BODY
+ *   maxLineLength=140
+ *   withThreadInfo=true
+ *   bodyCaptureLimit=65536
+ *   sampling.probability=0.1
+ *   sampling.perHostRate=10
+ *   sampling.maxEventsPerSecond=100
+ *   # Comma separated conditions, call is logged if any of them is met
+ *   logCondition=failures,serverErrors,statusCodeAtLeast:400,slowerThan:2000,host:example.com
+ * </pre>
+ *
+ * Usage example:
+ * <pre>
+ *   LoggerConfigHolder holder = new LoggerConfigHolder(LoggerConfig.builder().build());
+ *   LoggerConfigFileWatcher watcher
+ *       = new LoggerConfigFileWatcher(Paths.get("/etc/app/plinter.properties"), holder);
+ *   ...
+ *   watcher.close();
+ * </pre>
+ */
+public final class LoggerConfigFileWatcher implements Closeable {
+
+  private static final Logger logger = Logger.getLogger(LoggerConfigFileWatcher.class.getName());
+  private static final String THREAD_NAME = "plinter-config-watcher";
+  private static final long QUIET_PERIOD_MS = 100;
+
+  private static final String SAMPLING_PREFIX = "sampling.";
+  private static final String CONDITION_ARGUMENT_SEPARATOR = ":";
+
+  private final Path file;
+  private final LoggerConfigHolder configHolder;
+  private final LoggerConfig baseConfig;
+  private final WatchService watchService;
+
+  /**
+   * Loads configuration from file (if it exists) and starts watching it for changes.
+   *
+   * @param file properties file, doesn't need to exist yet
+   * @param configHolder holder receiving configuration updates
+   * @throws IOException if file's directory can't be watched
+   */
+  public LoggerConfigFileWatcher(Path file, LoggerConfigHolder configHolder) throws IOException {
+    this.file = file.toAbsolutePath();
+    this.configHolder = configHolder;
+    this.baseConfig = configHolder.get();
+    this.watchService = this.file.getFileSystem().newWatchService();
+    this.file.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+
+    reload();
+
+    final Thread thread = new Thread(this::watch, THREAD_NAME);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Reads file and replaces current configuration.
+   *
+   * @return true if configuration was replaced, false if file doesn't exist or is invalid
+   */
+  public boolean reload() {
+    if (!Files.isRegularFile(file)) {
+      return false;
+    }
+    final Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      properties.load(reader);
+      configHolder.set(applyProperties(properties, baseConfig.toBuilder()).build());
+      return true;
+    } catch (IOException | IllegalArgumentException e) {
+      logger.log(Level.SEVERE, "Failed to load logger configuration from " + file, e);
+      return false;
+    }
+  }
+
+  /**
+   * Stops watching file. Current configuration is kept.
+   */
+  @Override
+  public void close() throws IOException {
+    watchService.close();
+  }
+
+  /**
+   * @param properties properties in format described in class documentation
+   * @param builder builder to apply properties to
+   * @return provided builder
+   * @throws IllegalArgumentException if some property has invalid value
+   */
+  public static LoggerConfigBuilder applyProperties(Properties properties,
+      LoggerConfigBuilder builder) {
+    final String loggable = property(properties, "loggable");
+    if (nonNull(loggable)) {
+      builder.loggable(Boolean.parseBoolean(loggable));
+    }
+    final String level = property(properties, "level");
+    if (nonNull(level)) {
+      builder.level(io.github.dkorobtsov.plinter.core.Level
+          .valueOf(level.toUpperCase(Locale.US)));
+    }
+    final String maxLineLength = property(properties, "maxLineLength");
+    if (nonNull(maxLineLength)) {
+      builder.maxLineLength(Integer.parseInt(maxLineLength));
+    }
+    final String withThreadInfo = property(properties, "withThreadInfo");
+    if (nonNull(withThreadInfo)) {
+      builder.withThreadInfo(Boolean.parseBoolean(withThreadInfo));
+    }
+    final String bodyCaptureLimit = property(properties, "bodyCaptureLimit");
+    if (nonNull(bodyCaptureLimit)) {
+      builder.bodyCaptureLimit(Long.parseLong(bodyCaptureLimit));
+    }
+    if (properties.stringPropertyNames().stream().anyMatch(it -> it.startsWith(SAMPLING_PREFIX))) {
+      builder.sampling(samplingPolicy(properties));
+    }
+    final String logCondition = property(properties, "logCondition");
+    if (nonNull(logCondition)) {
+      builder.logCondition(logCondition(logCondition));
+    }
+    return builder;
+  }
+
+  private static SamplingPolicy samplingPolicy(Properties properties) {
+    final SamplingPolicy.SamplingPolicyBuilder builder = SamplingPolicy.builder();
+    final String probability = property(properties, SAMPLING_PREFIX + "probability");
+    if (nonNull(probability)) {
+      builder.probability(Double.parseDouble(probability));
+    }
+    final String perHostRate = property(properties, SAMPLING_PREFIX + "perHostRate");
+    if (nonNull(perHostRate)) {
+      builder.perHostRate(Double.parseDouble(perHostRate));
+    }
+    final String maxEventsPerSecond = property(properties, SAMPLING_PREFIX + "maxEventsPerSecond");
+    if (nonNull(maxEventsPerSecond)) {
+      builder.maxEventsPerSecond(Double.parseDouble(maxEventsPerSecond));
+    }
+    return builder.build();
+  }
+
+  private static LogCondition logCondition(String value) {
+    LogCondition condition = null;
+    for (String part : value.split(",")) {
+      final String trimmed = part.trim();
+      if (!trimmed.isEmpty()) {
+        final LogCondition next = singleCondition(trimmed);
+        condition = isNull(condition) ? next : condition.or(next);
+      }
+    }
+    return condition;
+  }
+
+  private static LogCondition singleCondition(String value) {
+    final int separator = value.indexOf(CONDITION_ARGUMENT_SEPARATOR);
+    final String name = separator < 0 ? value : value.substring(0, separator).trim();
+    final String argument = separator < 0 ? null : value.substring(separator + 1).trim();
+    switch (name) {
+      case "failures":
+        return LogCondition.failures();
+      case "serverErrors":
+        return LogCondition.serverErrors();
+      case "statusCodeAtLeast":
+        return LogCondition.statusCodeAtLeast(Integer.parseInt(required(name, argument)));
+      case "slowerThan":
+        return LogCondition.slowerThan(Long.parseLong(required(name, argument)));
+      case "host":
+        return LogCondition.host(required(name, argument));
+      default:
+        throw new IllegalArgumentException("Unknown log condition: " + value);
+    }
+  }
+
+  private static String required(String condition, String argument) {
+    if (isNull(argument) || argument.isEmpty()) {
+      throw new IllegalArgumentException("Log condition '" + condition
+          + "' requires argument, like '" + condition + ":value'");
+    }
+    return argument;
+  }
+
+  private static String property(Properties properties, String name) {
+    final String value = properties.getProperty(name);
+    return isNull(value) || value.trim().isEmpty() ? null : value.trim();
+  }
+
+  private void watch() {
+    try {
+      while (true) {
+        boolean isChanged = handleEvents(watchService.take());
+        // Files are often written in several steps (truncate, write), so reload waits till file
+        // is quiet for a moment, otherwise half written file could be applied
+        WatchKey key = isChanged ? awaitNextKey() : null;
+        while (nonNull(key)) {
+          isChanged |= handleEvents(key);
+          key = awaitNextKey();
+        }
+        if (isChanged) {
+          reload();
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      // Watcher is closed
+    }
+  }
+
+  private WatchKey awaitNextKey() throws InterruptedException {
+    return watchService.poll(QUIET_PERIOD_MS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * @return true if any of key's events may mean that watched file was changed
+   */
+  private boolean handleEvents(WatchKey key) {
+    boolean isChanged = false;
+    for (WatchEvent<?> event : key.pollEvents()) {
+      isChanged |= event.kind() == OVERFLOW
+          || file.getFileName().equals(event.context());
+    }
+    key.reset();
+    return isChanged;
+  }
+
+}
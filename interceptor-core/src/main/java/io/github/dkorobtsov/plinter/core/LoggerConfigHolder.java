@@ -0,0 +1,95 @@
+package io.github.dkorobtsov.plinter.core;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import io.github.dkorobtsov.plinter.core.LoggerConfig.LoggerConfigBuilder;
+import io.github.dkorobtsov.plinter.core.internal.RingBufferPrinter;
+import java.util.function.Consumer;
+
+/**
+ * Holds configuration used by interceptors and allows to replace it at runtime, without
+ * rebuilding HTTP clients. Configuration is replaced atomically: every intercepted call reads
+ * holder once (single volatile read) and is handled completely with configuration it got.
+ *
+ * Usage example:
+ * <pre>
+ *   LoggerConfigHolder holder = new LoggerConfigHolder(LoggerConfig.builder().build());
+ *
+ *   OkHttpClient client = new OkHttpClient.Builder()
+ *     .addInterceptor(new OkHttp3LoggingInterceptor(holder))
+ *     .build();
+ *
+ *   // Later, during incident
+ *   holder.update(builder -> builder.level(Level.BODY));
+ * </pre>
+ *
+ * Same holder can be shared by several interceptors (for example by Apache request and response
+ * interceptors).
+ */
+public final class LoggerConfigHolder {
+
+  private volatile LoggerConfig loggerConfig;
+  private final InterceptorStats stats = new InterceptorStats(this::get);
+
+  public LoggerConfigHolder(LoggerConfig loggerConfig) {
+    if (isNull(loggerConfig)) {
+      throw new IllegalArgumentException("Logger configuration should be provided.");
+    }
+    this.loggerConfig = loggerConfig;
+  }
+
+  public LoggerConfig get() {
+    return loggerConfig;
+  }
+
+  /**
+   * Replaces current configuration. If replaced configuration used asynchronous printers, they
+   * are stopped after printing already published events.
+   */
+  public synchronized void set(LoggerConfig loggerConfig) {
+    if (isNull(loggerConfig)) {
+      throw new IllegalArgumentException("Logger configuration should be provided.");
+    }
+    final LoggerConfig replaced = this.loggerConfig;
+    if (replaced == loggerConfig) {
+      return;
+    }
+    this.loggerConfig = loggerConfig;
+    stats.retire(replaced);
+    final RingBufferPrinter replacedPrinter = replaced.internals.createdAsyncPrinter();
+    if (nonNull(replacedPrinter)
+        && replacedPrinter != loggerConfig.internals.createdAsyncPrinter()) {
+      replacedPrinter.shutdown();
+    }
+    final RingBufferPrinter replacedFallback = replaced.internals.createdFallbackPrinter();
+    if (nonNull(replacedFallback)
+        && replacedFallback != loggerConfig.internals.createdFallbackPrinter()) {
+      replacedFallback.shutdown();
+    }
+  }
+
+  /**
+   * Replaces current configuration with its modified copy.
+   *
+   * @param modification changes to apply to builder initialized with current configuration
+   */
+  public synchronized void update(Consumer<LoggerConfigBuilder> modification) {
+    final LoggerConfigBuilder builder = loggerConfig.toBuilder();
+    modification.accept(builder);
+    set(builder.build());
+  }
+
+  /**
+   * @return counters of calls handled by interceptors using this holder
+   */
+  public InterceptorStats stats() {
+    return stats;
+  }
+
+  @Override
+  public String toString() {
+    return "LoggerConfigHolder{" + loggerConfig + '}';
+  }
+
+}
@@ -0,0 +1,188 @@
+package io.github.dkorobtsov.plinter.core;
+
+import static java.util.Objects.isNull;
+
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Exposes statistics and configuration of interceptor in platform MBean server, so logging can be
+ * inspected and tuned on running application with standard JMX tools (JConsole, VisualVM, jmxterm)
+ * without restart. Changes are applied by replacing configuration in interceptor's {@link
+ * LoggerConfigHolder}.
+ *
+ * MBean is registered as "io.github.dkorobtsov.plinter:type=Interceptor,name=&lt;name&gt;".
+ * Apache HttpClient interceptors should share configuration holder, otherwise every one of them
+ * counts only calls it handles.
+ *
+ * Usage example:
+ * <pre>
+ *   OkHttp3LoggingInterceptor interceptor = new OkHttp3LoggingInterceptor(loggerConfig);
+ *   LoggerControl control = interceptor.registerMBean("orders-client");
+ *   ...
+ *   control.close();
+ * </pre>
+ */
+public final class LoggerControl implements LoggerControlMXBean, Closeable {
+
+  private static final String DOMAIN = "io.github.dkorobtsov.plinter";
+  private static final String NO_SAMPLING = "none";
+
+  private final LoggerConfigHolder configHolder;
+  private final InterceptorStats stats;
+  private final ObjectName objectName;
+  private final MBeanServer server;
+
+  private LoggerControl(LoggerConfigHolder configHolder, ObjectName objectName,
+      MBeanServer server) {
+    this.configHolder = configHolder;
+    this.stats = configHolder.stats();
+    this.objectName = objectName;
+    this.server = server;
+  }
+
+  /**
+   * Registers MBean in platform MBean server.
+   *
+   * @param name name distinguishing interceptor, like client's name
+   * @param configHolder holder of interceptor's configuration
+   * @throws IllegalStateException if MBean with the same name is already registered
+   */
+  public static LoggerControl register(String name, LoggerConfigHolder configHolder) {
+    if (isNull(name) || isNull(configHolder)) {
+      throw new IllegalArgumentException("Name and configuration holder should be provided.");
+    }
+    final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      final ObjectName objectName = objectName(name);
+      final LoggerControl control = new LoggerControl(configHolder, objectName, server);
+      server.registerMBean(control, objectName);
+      return control;
+    } catch (JMException e) {
+      throw new IllegalStateException("Failed to register MBean for interceptor " + name, e);
+    }
+  }
+
+  /**
+   * @return name MBean is registered with
+   */
+  public static ObjectName objectName(String name) throws JMException {
+    return new ObjectName(DOMAIN + ":type=Interceptor,name=" + ObjectName.quote(name));
+  }
+
+  /**
+   * Unregisters MBean.
+   */
+  @Override
+  public void close() {
+    try {
+      server.unregisterMBean(objectName);
+    } catch (InstanceNotFoundException e) {
+      // Already unregistered
+    } catch (MBeanRegistrationException e) {
+      throw new IllegalStateException("Failed to unregister MBean " + objectName, e);
+    }
+  }
+
+  @Override
+  public long getExchangesSeen() {
+    return stats.exchanges();
+  }
+
+  @Override
+  public long getExchangesLogged() {
+    return stats.logged();
+  }
+
+  @Override
+  public long getExchangesSampledOut() {
+    return stats.sampledOut();
+  }
+
+  @Override
+  public long getEventsDropped() {
+    return stats.droppedEvents();
+  }
+
+  @Override
+  public int getAsyncQueueDepth() {
+    return stats.asyncQueueDepth();
+  }
+
+  @Override
+  public long getBytesCaptured() {
+    return stats.bytesCaptured();
+  }
+
+  @Override
+  public long getFormatterFailures() {
+    return stats.formatterFailures();
+  }
+
+  @Override
+  public String getLevel() {
+    return configHolder.get().level.name();
+  }
+
+  @Override
+  public void setLevel(String level) {
+    if (isNull(level)) {
+      throw new IllegalArgumentException("Level should be provided.");
+    }
+    final Level parsed = Level.valueOf(level.trim().toUpperCase(Locale.US));
+    configHolder.update(builder -> builder.level(parsed));
+  }
+
+  @Override
+  public String getSampling() {
+    final SamplingPolicy samplingPolicy = configHolder.get().samplingPolicy;
+    return isNull(samplingPolicy) ? NO_SAMPLING : samplingPolicy.toString();
+  }
+
+  @Override
+  public void changeSamplingProbability(double probability) {
+    final SamplingPolicy.SamplingPolicyBuilder sampling = samplingBuilder()
+        .probability(probability);
+    configHolder.update(builder -> builder.sampling(sampling.build()));
+  }
+
+  @Override
+  public void changeMaxEventsPerSecond(double eventsPerSecond) {
+    if (eventsPerSecond < 0) {
+      throw new IllegalArgumentException("Invalid rate. Should not be negative.");
+    }
+    final SamplingPolicy current = configHolder.get().samplingPolicy;
+    final SamplingPolicy sampling;
+    if (eventsPerSecond > 0) {
+      sampling = samplingBuilder().maxEventsPerSecond(eventsPerSecond).build();
+    } else {
+      // Builder doesn't allow to unset limit
+      sampling = isNull(current)
+          ? SamplingPolicy.builder().build()
+          : new SamplingPolicy(current.probability, current.perHostRate, 0);
+    }
+    configHolder.update(builder -> builder.sampling(sampling));
+  }
+
+  @Override
+  public void disableSampling() {
+    configHolder.update(builder -> builder.sampling(null));
+  }
+
+  private SamplingPolicy.SamplingPolicyBuilder samplingBuilder() {
+    final SamplingPolicy current = configHolder.get().samplingPolicy;
+    return isNull(current) ? SamplingPolicy.builder() : current.toBuilder();
+  }
+
+  @Override
+  public String toString() {
+    return "LoggerControl{" + objectName + '}';
+  }
+
+}
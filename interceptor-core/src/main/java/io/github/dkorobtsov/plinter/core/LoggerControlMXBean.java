@@ -0,0 +1,55 @@
+package io.github.dkorobtsov.plinter.core;
+
+/**
+ * Management interface of interceptor registered in platform MBean server, see {@link
+ * LoggerControl}.
+ */
+public interface LoggerControlMXBean {
+
+  long getExchangesSeen();
+
+  long getExchangesLogged();
+
+  long getExchangesSampledOut();
+
+  long getEventsDropped();
+
+  int getAsyncQueueDepth();
+
+  long getBytesCaptured();
+
+  long getFormatterFailures();
+
+  /**
+   * @return current logging level, like "BASIC"
+   */
+  String getLevel();
+
+  /**
+   * @param level new logging level, like "BODY"
+   */
+  void setLevel(String level);
+
+  /**
+   * @return description of current sampling policy or "none" if all calls are logged
+   */
+  String getSampling();
+
+  /**
+   * @param probability share of calls to be logged, from 0 (none) to 1 (all). Rate limits of
+   * current sampling policy are kept.
+   */
+  void changeSamplingProbability(double probability);
+
+  /**
+   * @param eventsPerSecond max number of logged calls per second in total, 0 removes the limit.
+   * Probability and per host rate of current sampling policy are kept.
+   */
+  void changeMaxEventsPerSecond(double eventsPerSecond);
+
+  /**
+   * Removes sampling policy, so all calls are logged.
+   */
+  void disableSampling();
+
+}
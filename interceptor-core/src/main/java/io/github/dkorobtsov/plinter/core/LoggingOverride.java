@@ -0,0 +1,133 @@
+package io.github.dkorobtsov.plinter.core;
+
+import static java.util.Objects.isNull;
+
+import java.util.Objects;
+
+/**
+ * Changes logging of single call, while the rest of client's calls are logged according to
+ * interceptor's configuration. Override can force logging level, skip body capture completely
+ * (for sensitive or huge payloads) or change body capture limit (for example, to see complete
+ * body of one debug call).
+ *
+ * For OkHttp clients override is attached as request tag, for Apache HttpClient as context
+ * attribute named {@link #CONTEXT_ATTRIBUTE}:
+ * <pre>
+ *   LoggingOverride withoutBody = LoggingOverride.builder().withoutBody().build();
+ *
+ *   // OkHttp
+ *   new Request.Builder().url(url).tag(withoutBody).build();
+ *
+ *   // Apache HttpClient
+ *   HttpClientContext context = HttpClientContext.create();
+ *   context.setAttribute(LoggingOverride.CONTEXT_ATTRIBUTE, withoutBody);
+ *   client.execute(request, context);
+ * </pre>
+ *
+ * Calls with forced level are never skipped by sampling policy. Overrides are immutable and
+ * should normally be created once per endpoint and reused.
+ */
+public final class LoggingOverride {
+
+  /**
+   * Name of Apache HttpClient context attribute holding override.
+   */
+  public static final String CONTEXT_ATTRIBUTE = "io.github.dkorobtsov.plinter.override";
+
+  final Level level;
+  final boolean isWithoutBody;
+  final Long bodyCaptureLimit;
+
+  LoggingOverride(Level level, boolean isWithoutBody, Long bodyCaptureLimit) {
+    this.level = level;
+    this.isWithoutBody = isWithoutBody;
+    this.bodyCaptureLimit = bodyCaptureLimit;
+  }
+
+  public static LoggingOverrideBuilder builder() {
+    return new LoggingOverrideBuilder();
+  }
+
+  /**
+   * @param tag request tag or context attribute value, can be null
+   * @return override if provided object is one, null otherwise
+   */
+  public static LoggingOverride from(Object tag) {
+    return tag instanceof LoggingOverride ? (LoggingOverride) tag : null;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof LoggingOverride)) {
+      return false;
+    }
+    final LoggingOverride that = (LoggingOverride) o;
+    return isWithoutBody == that.isWithoutBody
+        && level == that.level
+        && Objects.equals(bodyCaptureLimit, that.bodyCaptureLimit);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(level, isWithoutBody, bodyCaptureLimit);
+  }
+
+  @Override
+  public String toString() {
+    return "LoggingOverride{level=" + level
+        + ", withoutBody=" + isWithoutBody
+        + ", bodyCaptureLimit=" + bodyCaptureLimit
+        + '}';
+  }
+
+  /**
+   * Helper class for creating {@link LoggingOverride} instances. By default nothing is
+   * overridden.
+   */
+  public static class LoggingOverrideBuilder {
+
+    private Level level;
+    private boolean isWithoutBody;
+    private Long bodyCaptureLimit;
+
+    /**
+     * @param level logging level used for the call instead of configured one
+     */
+    public LoggingOverrideBuilder level(Level level) {
+      if (isNull(level)) {
+        throw new IllegalArgumentException("Level should be provided.");
+      }
+      this.level = level;
+      return this;
+    }
+
+    /**
+     * Request and response bodies of the call are neither captured nor printed.
+     */
+    public LoggingOverrideBuilder withoutBody() {
+      this.isWithoutBody = true;
+      return this;
+    }
+
+    /**
+     * @param bytes max number of response body bytes captured for the call instead of configured
+     * limit. Use Long.MAX_VALUE to capture complete body.
+     */
+    public LoggingOverrideBuilder bodyCaptureLimit(long bytes) {
+      if (bytes < 0) {
+        throw new IllegalArgumentException(
+            "Invalid body capture limit. Should not be negative.");
+      }
+      this.bodyCaptureLimit = bytes;
+      return this;
+    }
+
+    public LoggingOverride build() {
+      return new LoggingOverride(level, isWithoutBody, bodyCaptureLimit);
+    }
+  }
+
+}
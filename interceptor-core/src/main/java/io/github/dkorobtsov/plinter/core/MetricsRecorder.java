@@ -0,0 +1,401 @@
+package io.github.dkorobtsov.plinter.core;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import io.github.dkorobtsov.plinter.core.internal.StripedHistogram;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps histograms of latency, request size and response size of intercepted calls, grouped by
+ * host, method, route template (see {@link RouteNormalizer}) and status class. Metrics are
+ * recorded for every call, even if it's not printed (logging disabled, call sampled out or
+ * excluded by route rules), so p50/p99 latency by endpoint is available at cost of a few atomic
+ * increments per call.
+ *
+ * Histograms are log-linear (relative error below 12.5%) and recording is lock free: histogram
+ * keeps single stripe of counters (about 2.5 KB) and is striped by thread only if it's updated
+ * concurrently (at most 64 striped histograms per recorder). Number of series is limited, calls
+ * beyond the limit are counted in series with host, method and route set to "other".
+ *
+ * If client reports network phases of the call (see {@link CallTimings}), series also keep
+ * histograms of DNS lookup, connect, TLS handshake and time to first byte, and count calls
+ * executed on reused connections. Clients which can tell when response body was read completely
+ * also report time to last byte.
+ *
+ * Usage example:
+ * <pre>
+ *   MetricsRecorder metrics = MetricsRecorder.builder().build();
+ *
+ *   LoggerConfig.builder()
+ *     .metrics(metrics)
+ *     .build());
+ *
+ *   // Periodically, for export
+ *   metrics.snapshotAndReset().forEach((key, snapshot) -> ...);
+ * </pre>
+ */
+public final class MetricsRecorder {
+
+  private static final String OTHER = "other";
+  private static final String FAILED = "failed";
+  private static final String[] STATUS_CLASSES = {"0xx", "1xx", "2xx", "3xx", "4xx", "5xx"};
+  private static final int MAX_STRIPED_HISTOGRAMS = 64;
+
+  private final int maxSeries;
+  private final RouteNormalizer routeNormalizer;
+  private final ConcurrentMap<Key, Series> series = new ConcurrentHashMap<>();
+  // Only hottest histograms need striping, so their number is limited regardless of maxSeries
+  private final AtomicInteger inflationBudget = new AtomicInteger(MAX_STRIPED_HISTOGRAMS);
+
+  MetricsRecorder(int maxSeries, RouteNormalizer routeNormalizer) {
+    this.maxSeries = maxSeries;
+    this.routeNormalizer = routeNormalizer;
+  }
+
+  public static MetricsRecorderBuilder builder() {
+    return new MetricsRecorderBuilder();
+  }
+
+  /**
+   * @param outcome outcome of the call, duration is recorded as latency
+   * @param method request method
+   * @param pathSegments encoded path segments of request url
+   * @param requestBytes request body size or -1 if unknown
+   * @param responseBytes response body size or -1 if unknown or call failed
+   */
+  void record(CallOutcome outcome, String method, List<String> pathSegments,
+      long requestBytes, long responseBytes) {
+    record(outcome, method, pathSegments, requestBytes, responseBytes, null);
+  }
+
+  /**
+   * Same as {@link #record(CallOutcome, String, List, long, long)}, but also records network
+   * phases of the call.
+   *
+   * @param callTimings phase breakdown reported by client or null if not available
+   */
+  void record(CallOutcome outcome, String method, List<String> pathSegments,
+      long requestBytes, long responseBytes, CallTimings callTimings) {
+    final Series target = series(new Key(outcome.host, method,
+        routeNormalizer.normalize(pathSegments), statusClass(outcome)));
+    target.latencyMs.record(outcome.durationMs);
+    if (requestBytes >= 0) {
+      target.requestBytes.record(requestBytes);
+    }
+    if (responseBytes >= 0) {
+      target.responseBytes.record(responseBytes);
+    }
+    if (nonNull(callTimings)) {
+      target.dnsMs.record(TimeUnit.NANOSECONDS.toMillis(callTimings.dnsNanos));
+      target.connectMs.record(TimeUnit.NANOSECONDS.toMillis(callTimings.connectNanos));
+      target.tlsMs.record(TimeUnit.NANOSECONDS.toMillis(callTimings.tlsNanos));
+      target.ttfbMs.record(TimeUnit.NANOSECONDS.toMillis(callTimings.ttfbNanos));
+      if (callTimings.isConnectionReused) {
+        target.reusedConnections.increment();
+      }
+    }
+  }
+
+  /**
+   * Records time to last byte of the call already recorded with {@link #record}.
+   *
+   * @param outcome outcome of the call, the same as was recorded
+   * @param lastByteMs time between sending request and receiving last byte of response body
+   */
+  void recordLastByte(CallOutcome outcome, String method, List<String> pathSegments,
+      long lastByteMs) {
+    series(new Key(outcome.host, method, routeNormalizer.normalize(pathSegments),
+        statusClass(outcome))).lastByteMs.record(lastByteMs);
+  }
+
+  /**
+   * @return metrics of all series with at least one recorded call
+   */
+  public Map<Key, Snapshot> snapshot() {
+    return snapshot(false);
+  }
+
+  /**
+   * Same as {@link #snapshot()}, but histograms are reset while being read, so every call is
+   * included in exactly one snapshot. Intended for periodic export.
+   */
+  public Map<Key, Snapshot> snapshotAndReset() {
+    return snapshot(true);
+  }
+
+  private Map<Key, Snapshot> snapshot(boolean reset) {
+    final Map<Key, Snapshot> snapshots = new LinkedHashMap<>();
+    series.forEach((key, value) -> {
+      final Snapshot snapshot = value.snapshot(reset);
+      if (snapshot.latencyMs.count() > 0) {
+        snapshots.put(key, snapshot);
+      }
+    });
+    return Collections.unmodifiableMap(snapshots);
+  }
+
+  private Series series(Key key) {
+    final Series existing = series.get(key);
+    if (nonNull(existing)) {
+      return existing;
+    }
+    // Hosts and paths are controlled by application, but number of series is still limited, so
+    // recorder doesn't grow indefinitely
+    return series.size() < maxSeries
+        ? series.computeIfAbsent(key, it -> new Series(inflationBudget))
+        : series.computeIfAbsent(new Key(OTHER, OTHER, OTHER, key.statusClass),
+            it -> new Series(inflationBudget));
+  }
+
+  private static String statusClass(CallOutcome outcome) {
+    if (outcome.isFailed()) {
+      return FAILED;
+    }
+    final int statusClass = outcome.code / 100;
+    return statusClass >= 0 && statusClass < STATUS_CLASSES.length
+        ? STATUS_CLASSES[statusClass]
+        : String.valueOf(outcome.code);
+  }
+
+  @Override
+  public String toString() {
+    return "MetricsRecorder{maxSeries=" + maxSeries + ", series=" + series.size() + '}';
+  }
+
+  /**
+   * Series key.
+   */
+  public static final class Key {
+
+    /**
+     * Target host of the call.
+     */
+    public final String host;
+
+    /**
+     * Request method, like "GET".
+     */
+    public final String method;
+
+    /**
+     * Route template, like "/api/orders/{id}" (see {@link RouteNormalizer}).
+     */
+    public final String route;
+
+    /**
+     * Response status class, like "2xx", or "failed" if no response was received.
+     */
+    public final String statusClass;
+
+    Key(String host, String method, String route, String statusClass) {
+      this.host = host;
+      this.method = method;
+      this.route = route;
+      this.statusClass = statusClass;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Key key = (Key) o;
+      return Objects.equals(host, key.host)
+          && Objects.equals(method, key.method)
+          && Objects.equals(route, key.route)
+          && Objects.equals(statusClass, key.statusClass);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(host, method, route, statusClass);
+    }
+
+    @Override
+    public String toString() {
+      return method + ' ' + host + route + ' ' + statusClass;
+    }
+  }
+
+  /**
+   * Metrics of one series.
+   */
+  public static final class Snapshot {
+
+    /**
+     * Time between sending request and receiving response headers (or failure) in milliseconds.
+     * Count of this histogram is the number of calls.
+     */
+    public final HistogramSnapshot latencyMs;
+
+    /**
+     * Time between sending request and receiving last byte of response body in milliseconds.
+     * Only calls of clients reporting it are counted, and only if response body was read
+     * completely or closed.
+     */
+    public final HistogramSnapshot lastByteMs;
+
+    /**
+     * Request body sizes, calls with unknown body size are not counted.
+     */
+    public final HistogramSnapshot requestBytes;
+
+    /**
+     * Response body sizes, calls with unknown body size are not counted.
+     */
+    public final HistogramSnapshot responseBytes;
+
+    /**
+     * DNS lookup times in milliseconds. Only calls with reported network phases are counted, so
+     * count of this histogram is the number of such calls.
+     */
+    public final HistogramSnapshot dnsMs;
+
+    /**
+     * Connect times (including TLS handshake) in milliseconds, 0 for reused connections.
+     */
+    public final HistogramSnapshot connectMs;
+
+    /**
+     * TLS handshake times in milliseconds.
+     */
+    public final HistogramSnapshot tlsMs;
+
+    /**
+     * Times between sending request and receiving response headers in milliseconds.
+     */
+    public final HistogramSnapshot ttfbMs;
+
+    /**
+     * Number of calls with reported network phases executed on reused connection.
+     */
+    public final long reusedConnections;
+
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    Snapshot(HistogramSnapshot latencyMs, HistogramSnapshot lastByteMs,
+        HistogramSnapshot requestBytes, HistogramSnapshot responseBytes, HistogramSnapshot dnsMs,
+        HistogramSnapshot connectMs, HistogramSnapshot tlsMs, HistogramSnapshot ttfbMs,
+        long reusedConnections) {
+      this.latencyMs = latencyMs;
+      this.lastByteMs = lastByteMs;
+      this.requestBytes = requestBytes;
+      this.responseBytes = responseBytes;
+      this.dnsMs = dnsMs;
+      this.connectMs = connectMs;
+      this.tlsMs = tlsMs;
+      this.ttfbMs = ttfbMs;
+      this.reusedConnections = reusedConnections;
+    }
+
+    @Override
+    public String toString() {
+      return "Snapshot{latencyMs=" + latencyMs
+          + ", lastByteMs=" + lastByteMs
+          + ", requestBytes=" + requestBytes
+          + ", responseBytes=" + responseBytes
+          + ", dnsMs=" + dnsMs
+          + ", connectMs=" + connectMs
+          + ", tlsMs=" + tlsMs
+          + ", ttfbMs=" + ttfbMs
+          + ", reusedConnections=" + reusedConnections
+          + '}';
+    }
+  }
+
+  /**
+   * Histograms of one series.
+   */
+  private static final class Series {
+
+    private final StripedHistogram latencyMs;
+    private final StripedHistogram lastByteMs;
+    private final StripedHistogram requestBytes;
+    private final StripedHistogram responseBytes;
+    private final StripedHistogram dnsMs;
+    private final StripedHistogram connectMs;
+    private final StripedHistogram tlsMs;
+    private final StripedHistogram ttfbMs;
+    private final LongAdder reusedConnections = new LongAdder();
+
+    Series(AtomicInteger inflationBudget) {
+      this.latencyMs = new StripedHistogram(inflationBudget);
+      this.lastByteMs = new StripedHistogram(inflationBudget);
+      this.requestBytes = new StripedHistogram(inflationBudget);
+      this.responseBytes = new StripedHistogram(inflationBudget);
+      this.dnsMs = new StripedHistogram(inflationBudget);
+      this.connectMs = new StripedHistogram(inflationBudget);
+      this.tlsMs = new StripedHistogram(inflationBudget);
+      this.ttfbMs = new StripedHistogram(inflationBudget);
+    }
+
+    Snapshot snapshot(boolean reset) {
+      return new Snapshot(
+          new HistogramSnapshot(latencyMs.snapshot(reset)),
+          new HistogramSnapshot(lastByteMs.snapshot(reset)),
+          new HistogramSnapshot(requestBytes.snapshot(reset)),
+          new HistogramSnapshot(responseBytes.snapshot(reset)),
+          new HistogramSnapshot(dnsMs.snapshot(reset)),
+          new HistogramSnapshot(connectMs.snapshot(reset)),
+          new HistogramSnapshot(tlsMs.snapshot(reset)),
+          new HistogramSnapshot(ttfbMs.snapshot(reset)),
+          reset ? reusedConnections.sumThenReset() : reusedConnections.sum());
+    }
+  }
+
+  /**
+   * Helper class for creating {@link MetricsRecorder} instances.
+   */
+  public static class MetricsRecorderBuilder {
+
+    private int maxSeries = 1000;
+    private RouteNormalizer routeNormalizer;
+
+    /**
+     * @param maxSeries max number of separately tracked series. Default: 1000
+     *
+     * Series keeps up to 8 histograms, allocated when first value is recorded. Histogram takes
+     * about 2.5 KB, so series takes up to 20 KB (2 - 4 histograms, 5 - 10 KB, for clients not
+     * reporting network phases). Up to 64 histograms updated concurrently are striped by thread,
+     * taking up to 7 extra stripes each, about 1.1 MB in total. So worst case footprint is about
+     * maxSeries * 20 KB + 1.1 MB: 21 MB with default limit.
+     */
+    public MetricsRecorderBuilder maxSeries(int maxSeries) {
+      if (maxSeries < 1) {
+        throw new IllegalArgumentException("Invalid number of series. Should be greater than 0.");
+      }
+      this.maxSeries = maxSeries;
+      return this;
+    }
+
+    /**
+     * @param routeNormalizer normalizer turning request paths into series routes. Default:
+     * normalizer replacing numeric ids, UUIDs and hashes
+     */
+    public MetricsRecorderBuilder routeNormalizer(RouteNormalizer routeNormalizer) {
+      if (isNull(routeNormalizer)) {
+        throw new IllegalArgumentException("Route normalizer should be provided.");
+      }
+      this.routeNormalizer = routeNormalizer;
+      return this;
+    }
+
+    public MetricsRecorder build() {
+      return new MetricsRecorder(maxSeries,
+          isNull(routeNormalizer) ? RouteNormalizer.builder().build() : routeNormalizer);
+    }
+  }
+
+}
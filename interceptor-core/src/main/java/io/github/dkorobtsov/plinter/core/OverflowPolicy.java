@@ -0,0 +1,26 @@
+package io.github.dkorobtsov.plinter.core;
+
+/**
+ * Defines what happens with printing events when buffer of asynchronous printer is full. Check
+ * {@link LoggerConfig.LoggerConfigBuilder#asyncPrinting(int, OverflowPolicy)} for details.
+ */
+@SuppressWarnings("JavadocStyle")
+public enum OverflowPolicy {
+  /**
+   * Caller waits until printer thread frees a slot. No events are lost.
+   */
+  BLOCK,
+  /**
+   * Event that does not fit into the buffer is discarded.
+   */
+  DROP_NEWEST,
+  /**
+   * Oldest pending event is discarded to make room for the new one.
+   */
+  DROP_OLDEST,
+  /**
+   * When buffer is at least half full only every 8th event is accepted, the rest are discarded.
+   * When buffer is full new events are discarded.
+   */
+  SAMPLE
+}
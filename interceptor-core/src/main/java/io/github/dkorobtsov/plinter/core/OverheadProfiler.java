@@ -0,0 +1,225 @@
+package io.github.dkorobtsov.plinter.core;
+
+import static java.util.Objects.isNull;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measures time interceptors spend on their own work, split by phase, so it's possible to tell
+ * how much logging adds to every call and where this time goes.
+ *
+ * Every phase is timed with two {@link System#nanoTime()} calls. Times are accumulated per
+ * thread, so threads never update shared memory, and merged only when snapshot is taken.
+ * Accumulators of finished threads are folded into common totals on next snapshot, so nothing is
+ * lost and no memory is kept for threads which don't exist anymore.
+ *
+ * Usage example:
+ * <pre>
+ *   OverheadProfiler profiler = new OverheadProfiler();
+ *
+ *   LoggerConfig.builder()
+ *     .overheadProfiler(profiler)
+ *     .build());
+ *
+ *   // Periodically
+ *   logger.info(profiler.summary());
+ * </pre>
+ */
+public final class OverheadProfiler {
+
+  /**
+   * Measured phases. Phases don't overlap, so their sum is the total overhead.
+   */
+  public enum Phase {
+    /**
+     * Converting client's request to printable form, including request body capture.
+     */
+    REQUEST_CONVERSION("request conversion"),
+    /**
+     * Converting client's response to printable form, including response body capture.
+     */
+    RESPONSE_CONVERSION("response conversion"),
+    /**
+     * Pretty printing bodies with configured body formatters.
+     */
+    BODY_FORMATTING("body formatting"),
+    /**
+     * Laying out printed event: box lines, headers, line wrapping.
+     */
+    LAYOUT("layout"),
+    /**
+     * Time spent in {@link LogWriter#log(String)}.
+     */
+    WRITE("write");
+
+    private final String description;
+
+    Phase(String description) {
+      this.description = description;
+    }
+  }
+
+  private static final Phase[] PHASES = Phase.values();
+  // Every accumulator keeps count and total nanos of each phase followed by nanos of all phases
+  private static final int SLOTS = PHASES.length * 2 + 1;
+  private static final int ALL_PHASES_SLOT = SLOTS - 1;
+
+  private final Queue<Accumulator> accumulators = new ConcurrentLinkedQueue<>();
+  // Totals of finished threads, guarded by snapshot lock
+  private final long[] retired = new long[SLOTS];
+  private final ThreadLocal<Accumulator> threadAccumulator
+      = ThreadLocal.withInitial(this::newAccumulator);
+
+  /**
+   * @return start time of measured phase
+   */
+  public long start() {
+    return System.nanoTime();
+  }
+
+  /**
+   * Records phase which started at provided time and finished now.
+   *
+   * @param startNanos value returned by {@link #start()}
+   */
+  public void stop(Phase phase, long startNanos) {
+    record(phase, System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Records phase measured by caller.
+   */
+  public void record(Phase phase, long nanos) {
+    final AtomicLongArray counters = threadAccumulator.get().counters;
+    final int slot = phase.ordinal() * 2;
+    // Only owning thread updates its counters, ordered writes are enough to publish them
+    counters.lazySet(slot, counters.get(slot) + 1);
+    counters.lazySet(slot + 1, counters.get(slot + 1) + nanos);
+    counters.lazySet(ALL_PHASES_SLOT, counters.get(ALL_PHASES_SLOT) + nanos);
+  }
+
+  /**
+   * @return nanos recorded by current thread in all phases so far. Allows phase enclosing other
+   * phases to exclude their time.
+   */
+  public long recordedNanos() {
+    return threadAccumulator.get().counters.get(ALL_PHASES_SLOT);
+  }
+
+  /**
+   * @return totals of all phases recorded since profiler was created
+   */
+  public synchronized Snapshot snapshot() {
+    final long[] totals = new long[SLOTS];
+    final Iterator<Accumulator> iterator = accumulators.iterator();
+    while (iterator.hasNext()) {
+      final Accumulator accumulator = iterator.next();
+      final boolean isRetired = isNull(accumulator.owner.get());
+      for (int slot = 0; slot < SLOTS; slot++) {
+        if (isRetired) {
+          retired[slot] += accumulator.counters.get(slot);
+        } else {
+          totals[slot] += accumulator.counters.get(slot);
+        }
+      }
+      if (isRetired) {
+        iterator.remove();
+      }
+    }
+    for (int slot = 0; slot < SLOTS; slot++) {
+      totals[slot] += retired[slot];
+    }
+    return new Snapshot(totals);
+  }
+
+  /**
+   * @return one line summary of recorded phases, intended for periodic logging
+   */
+  public String summary() {
+    return snapshot().toString();
+  }
+
+  private Accumulator newAccumulator() {
+    final Accumulator accumulator = new Accumulator(Thread.currentThread());
+    accumulators.add(accumulator);
+    return accumulator;
+  }
+
+  @Override
+  public String toString() {
+    return "OverheadProfiler{threads=" + accumulators.size() + '}';
+  }
+
+  /**
+   * Counters of one thread.
+   */
+  private static final class Accumulator {
+
+    private final WeakReference<Thread> owner;
+    private final AtomicLongArray counters = new AtomicLongArray(SLOTS);
+
+    Accumulator(Thread owner) {
+      this.owner = new WeakReference<>(owner);
+    }
+  }
+
+  /**
+   * Totals of recorded phases.
+   */
+  public static final class Snapshot {
+
+    private final long[] totals;
+
+    Snapshot(long[] totals) {
+      this.totals = totals;
+    }
+
+    /**
+     * @return number of times phase was recorded
+     */
+    public long count(Phase phase) {
+      return totals[phase.ordinal() * 2];
+    }
+
+    /**
+     * @return total time spent in phase
+     */
+    public long totalNanos(Phase phase) {
+      return totals[phase.ordinal() * 2 + 1];
+    }
+
+    /**
+     * @return average time spent in phase or 0 if phase was not recorded
+     */
+    public long meanNanos(Phase phase) {
+      final long count = count(phase);
+      return count == 0 ? 0 : totalNanos(phase) / count;
+    }
+
+    /**
+     * @return total time spent in all phases
+     */
+    public long totalNanos() {
+      return totals[ALL_PHASES_SLOT];
+    }
+
+    @Override
+    public String toString() {
+      final StringBuilder summary = new StringBuilder("Interceptor overhead: total ")
+          .append(TimeUnit.NANOSECONDS.toMillis(totalNanos())).append("ms");
+      for (Phase phase : PHASES) {
+        summary.append(", ").append(phase.description).append(' ').append(count(phase))
+            .append(" x ")
+            .append(String.format(Locale.US, "%.1fus", meanNanos(phase) / 1000.0));
+      }
+      return summary.toString();
+    }
+  }
+
+}
@@ -0,0 +1,261 @@
+package io.github.dkorobtsov.plinter.core;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+/**
+ * Turns request paths into route templates by replacing path segments which identify particular
+ * resource with placeholders, so "/users/8812/orders/0f8fad5b-d9cb-469f-a165-70867728950e"
+ * becomes "/users/{id}/orders/{uuid}". Templates are used as keys of aggregations (like
+ * {@link MetricsRecorder} series), which would otherwise get new key for every resource.
+ *
+ * Segments are replaced as follows (the first matching rule wins):
+ * <ul>
+ * <li>custom patterns, in order they were added (pattern should match complete segment)</li>
+ * <li>numbers: {id}</li>
+ * <li>UUIDs: {uuid}</li>
+ * <li>hex strings of 16 or more characters containing at least one digit (hashes, object ids):
+ * {hash}</li>
+ * </ul>
+ *
+ * Templates of recently seen paths are cached, so segment matching is done once per distinct
+ * path. Cache is shared by all calling threads without locking and approximates LRU with CLOCK
+ * (second chance) policy: cached paths are kept in a ring, cache hit marks path as referenced,
+ * and new path replaces the first unreferenced one found by ring's hand, which clears marks it
+ * passes. So frequently used paths stay cached while a stream of one-off paths (like paths with
+ * identifiers not matched by any rule) only replaces other one-off paths.
+ *
+ * Usage example:
+ * <pre>
+ *   MetricsRecorder.builder()
+ *     .routeNormalizer(RouteNormalizer.builder()
+ *         .pattern("[a-z]{2}-[A-Z]{2}", "{locale}")
+ *         .build())
+ *     .build();
+ * </pre>
+ */
+@SuppressWarnings("PMD.AvoidUsingVolatile")
+public final class RouteNormalizer {
+
+  private static final String ID = "{id}";
+  private static final String UUID = "{uuid}";
+  private static final String HASH = "{hash}";
+
+  private static final int UUID_LENGTH = 36;
+  private static final int MIN_HASH_LENGTH = 16;
+
+  private final List<Pattern> patterns;
+  private final List<String> placeholders;
+  private final ConcurrentMap<String, CachedTemplate> cache = new ConcurrentHashMap<>();
+  private final AtomicReferenceArray<CachedTemplate> ring;
+  private final AtomicInteger hand = new AtomicInteger();
+
+  private RouteNormalizer(List<Pattern> patterns, List<String> placeholders, int cacheSize) {
+    this.patterns = patterns;
+    this.placeholders = placeholders;
+    this.ring = new AtomicReferenceArray<>(cacheSize);
+  }
+
+  public static RouteNormalizerBuilder builder() {
+    return new RouteNormalizerBuilder();
+  }
+
+  /**
+   * @param pathSegments encoded path segments of request url, can be null
+   * @return route template, like "/users/{id}", or "/" if path is empty
+   */
+  public String normalize(List<String> pathSegments) {
+    final String path = path(pathSegments);
+    final CachedTemplate cached = cache.get(path);
+    if (nonNull(cached)) {
+      // Mark is written only if it's cleared, so hits of hot paths don't write shared memory
+      if (!cached.isReferenced) {
+        cached.isReferenced = true;
+      }
+      return cached.template;
+    }
+    final CachedTemplate created = new CachedTemplate(path, template(pathSegments));
+    if (isNull(cache.putIfAbsent(path, created))) {
+      replaceInRing(created);
+    }
+    return created.template;
+  }
+
+  /**
+   * Moves ring's hand until unreferenced (or empty) slot is found, clearing marks of referenced
+   * paths on the way, and puts new path there, removing replaced one from cache. Slots are
+   * replaced with CAS, so concurrent callers never take the same slot.
+   */
+  private void replaceInRing(CachedTemplate created) {
+    while (true) {
+      final int slot = Math.floorMod(hand.getAndIncrement(), ring.length());
+      final CachedTemplate current = ring.get(slot);
+      if (nonNull(current) && current.isReferenced) {
+        current.isReferenced = false;
+        continue;
+      }
+      if (ring.compareAndSet(slot, current, created)) {
+        if (nonNull(current)) {
+          cache.remove(current.path, current);
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * @param segment single encoded path segment
+   * @return placeholder replacing segment or segment itself if it's not replaced
+   */
+  public String normalizeSegment(String segment) {
+    for (int i = 0; i < patterns.size(); i++) {
+      if (patterns.get(i).matcher(segment).matches()) {
+        return placeholders.get(i);
+      }
+    }
+    if (isNumber(segment)) {
+      return ID;
+    }
+    if (isUuid(segment)) {
+      return UUID;
+    }
+    if (isHash(segment)) {
+      return HASH;
+    }
+    return segment;
+  }
+
+  private String template(List<String> pathSegments) {
+    if (isNull(pathSegments)) {
+      return "/";
+    }
+    final StringBuilder template = new StringBuilder();
+    for (String segment : pathSegments) {
+      if (!segment.isEmpty()) {
+        template.append('/').append(normalizeSegment(segment));
+      }
+    }
+    return template.length() == 0 ? "/" : template.toString();
+  }
+
+  private static String path(List<String> pathSegments) {
+    if (isNull(pathSegments) || pathSegments.isEmpty()) {
+      return "/";
+    }
+    final StringBuilder path = new StringBuilder();
+    for (String segment : pathSegments) {
+      path.append('/').append(segment);
+    }
+    return path.toString();
+  }
+
+  private static boolean isNumber(String segment) {
+    if (segment.isEmpty()) {
+      return false;
+    }
+    for (int i = 0; i < segment.length(); i++) {
+      if (!Character.isDigit(segment.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isUuid(String segment) {
+    if (segment.length() != UUID_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < UUID_LENGTH; i++) {
+      final char c = segment.charAt(i);
+      final boolean isDashPosition = i == 8 || i == 13 || i == 18 || i == 23;
+      if (isDashPosition ? c != '-' : Character.digit(c, 16) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isHash(String segment) {
+    if (segment.length() < MIN_HASH_LENGTH) {
+      return false;
+    }
+    boolean hasDigit = false;
+    for (int i = 0; i < segment.length(); i++) {
+      final char c = segment.charAt(i);
+      if (Character.digit(c, 16) < 0) {
+        return false;
+      }
+      hasDigit |= Character.isDigit(c);
+    }
+    return hasDigit;
+  }
+
+  /**
+   * Cached template with CLOCK reference mark.
+   */
+  private static final class CachedTemplate {
+
+    private final String path;
+    private final String template;
+    private volatile boolean isReferenced;
+
+    CachedTemplate(String path, String template) {
+      this.path = path;
+      this.template = template;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "RouteNormalizer{patterns=" + patterns + ", placeholders=" + placeholders + '}';
+  }
+
+  /**
+   * Helper class for creating {@link RouteNormalizer} instances.
+   */
+  public static class RouteNormalizerBuilder {
+
+    private final List<Pattern> patterns = new ArrayList<>();
+    private final List<String> placeholders = new ArrayList<>();
+    private int cacheSize = 1000;
+
+    /**
+     * @param regex regular expression matching complete path segment, like "v[0-9]+"
+     * @param placeholder replacement of matching segments, like "{version}"
+     */
+    public RouteNormalizerBuilder pattern(String regex, String placeholder) {
+      if (isNull(regex) || isNull(placeholder)) {
+        throw new IllegalArgumentException("Pattern and placeholder should be provided.");
+      }
+      patterns.add(Pattern.compile(regex));
+      placeholders.add(placeholder);
+      return this;
+    }
+
+    /**
+     * @param cacheSize max number of distinct paths with cached templates. Default: 1000
+     */
+    public RouteNormalizerBuilder cacheSize(int cacheSize) {
+      if (cacheSize < 1) {
+        throw new IllegalArgumentException("Invalid cache size. Should be greater than 0.");
+      }
+      this.cacheSize = cacheSize;
+      return this;
+    }
+
+    public RouteNormalizer build() {
+      return new RouteNormalizer(Collections.unmodifiableList(new ArrayList<>(patterns)),
+          Collections.unmodifiableList(new ArrayList<>(placeholders)), cacheSize);
+    }
+  }
+
+}
@@ -0,0 +1,244 @@
+package io.github.dkorobtsov.plinter.core;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Selects {@link LoggingOverride} for intercepted call by its host and path, so some endpoints
+ * (health checks, metrics scrapes, file downloads) can be excluded from logging, while others are
+ * logged in more details than the rest of the traffic.
+ *
+ * Rule pattern consists of optional host and path: "/health", "api.example.com/orders/*",
+ * "*.cdn.example.com/**". Path segments are matched literally (in encoded form), "*" matches
+ * exactly one segment and "**" (allowed only as last segment) matches any number of remaining
+ * segments, including none. Empty segments are ignored, so "/health" also matches "/health/".
+ *
+ * Rules are compiled into segment tries (one per host pattern plus one for rules without host),
+ * so matching cost depends only on length of request path, not on number of rules. If several
+ * rules match, host specific rules win over rules without host and on each path level literal
+ * segment wins over "*", which wins over "**". Override attached to call itself has priority
+ * over override selected by rules.
+ *
+ * Usage example:
+ * <pre>
+ *   LoggerConfig.builder()
+ *     .routeRules(RouteRules.builder()
+ *         .exclude("/health")
+ *         .exclude("/metrics/**")
+ *         .exclude("files.example.com/**")
+ *         .override("/api/orders/*", LoggingOverride.builder().level(Level.BODY).build())
+ *         .build())
+ *     .build());
+ * </pre>
+ */
+public final class RouteRules {
+
+  private static final LoggingOverride EXCLUDED = LoggingOverride.builder()
+      .level(Level.NONE)
+      .build();
+
+  private static final String ANY_SEGMENT = "*";
+  private static final String ANY_SEGMENTS = "**";
+  private static final String HOST_WILDCARD = "*.";
+
+  private final Node anyHostRoot;
+  private final Map<String, Node> hostRoots;
+  private final List<String> patterns;
+
+  private RouteRules(Node anyHostRoot, Map<String, Node> hostRoots, List<String> patterns) {
+    this.anyHostRoot = anyHostRoot;
+    this.hostRoots = hostRoots;
+    this.patterns = patterns;
+  }
+
+  public static RouteRulesBuilder builder() {
+    return new RouteRulesBuilder();
+  }
+
+  /**
+   * @param host target host of intercepted call, can be null
+   * @param pathSegments encoded path segments of intercepted call (see {@link
+   * io.github.dkorobtsov.plinter.core.internal.Util#encodedPathSegments(java.net.URL)})
+   * @return override of the most specific matching rule or null if no rule matches
+   */
+  public LoggingOverride match(String host, List<String> pathSegments) {
+    if (nonNull(host) && !hostRoots.isEmpty()) {
+      final String normalizedHost = host.toLowerCase(Locale.US);
+      LoggingOverride override = match(hostRoots.get(normalizedHost), pathSegments, 0);
+      // Wildcard hosts are checked from the most specific suffix to the least specific one
+      int dot = normalizedHost.indexOf('.');
+      while (isNull(override) && dot >= 0) {
+        override = match(hostRoots.get(ANY_SEGMENT + normalizedHost.substring(dot)),
+            pathSegments, 0);
+        dot = normalizedHost.indexOf('.', dot + 1);
+      }
+      if (nonNull(override)) {
+        return override;
+      }
+    }
+    return match(anyHostRoot, pathSegments, 0);
+  }
+
+  private static LoggingOverride match(Node node, List<String> segments, int from) {
+    if (isNull(node)) {
+      return null;
+    }
+    int index = from;
+    while (index < segments.size() && segments.get(index).isEmpty()) {
+      index++;
+    }
+    if (index == segments.size()) {
+      return nonNull(node.override) ? node.override : node.remainderOverride;
+    }
+    LoggingOverride override = match(node.children.get(segments.get(index)), segments, index + 1);
+    if (isNull(override)) {
+      override = match(node.anySegmentChild, segments, index + 1);
+    }
+    return isNull(override) ? node.remainderOverride : override;
+  }
+
+  @Override
+  public String toString() {
+    return "RouteRules" + patterns;
+  }
+
+  /**
+   * Trie node. Every node corresponds to path prefix and holds override for path ending here and
+   * override for any path continuing this prefix ("**").
+   */
+  private static final class Node {
+
+    private final Map<String, Node> children = new HashMap<>();
+    private Node anySegmentChild;
+    private LoggingOverride override;
+    private LoggingOverride remainderOverride;
+
+    private Node child(String segment) {
+      if (ANY_SEGMENT.equals(segment)) {
+        if (isNull(anySegmentChild)) {
+          anySegmentChild = new Node();
+        }
+        return anySegmentChild;
+      }
+      return children.computeIfAbsent(segment, it -> new Node());
+    }
+  }
+
+  /**
+   * Parsed rule.
+   */
+  private static final class Rule {
+
+    private final String pattern;
+    private final String host;
+    private final List<String> segments;
+    private final boolean isRemainder;
+    private final LoggingOverride override;
+
+    Rule(String pattern, String host, List<String> segments, boolean isRemainder,
+        LoggingOverride override) {
+      this.pattern = pattern;
+      this.host = host;
+      this.segments = segments;
+      this.isRemainder = isRemainder;
+      this.override = override;
+    }
+  }
+
+  /**
+   * Helper class for creating {@link RouteRules} instances. If several rules have the same
+   * pattern, the last one is used.
+   */
+  public static class RouteRulesBuilder {
+
+    private final List<Rule> rules = new ArrayList<>();
+
+    /**
+     * @param pattern route which should not be logged at all, like "/health" or
+     * "files.example.com/**"
+     */
+    public RouteRulesBuilder exclude(String pattern) {
+      rules.add(parse(pattern, EXCLUDED));
+      return this;
+    }
+
+    /**
+     * @param pattern route which should be logged differently, like "/api/orders/*"
+     * @param override override applied to matching calls
+     */
+    public RouteRulesBuilder override(String pattern, LoggingOverride override) {
+      if (isNull(override)) {
+        throw new IllegalArgumentException("Override should be provided.");
+      }
+      rules.add(parse(pattern, override));
+      return this;
+    }
+
+    private static Rule parse(String pattern, LoggingOverride override) {
+      final int pathStart = isNull(pattern) ? -1 : pattern.indexOf('/');
+      if (pathStart < 0) {
+        throw new IllegalArgumentException(
+            "Invalid route pattern. Should be like '/path' or 'host/path', but was: " + pattern);
+      }
+      final String host = pattern.substring(0, pathStart).trim().toLowerCase(Locale.US);
+      final boolean isWildcardHost = host.startsWith(HOST_WILDCARD);
+      if (host.indexOf('*', isWildcardHost ? 1 : 0) >= 0
+          || (isWildcardHost && host.length() == HOST_WILDCARD.length())) {
+        throw new IllegalArgumentException(
+            "Invalid route pattern. Host wildcard should look like '*.example.com': " + pattern);
+      }
+
+      final String[] parts = pattern.substring(pathStart + 1).split("/");
+      final List<String> segments = new ArrayList<>(parts.length);
+      boolean isRemainder = false;
+      for (int i = 0; i < parts.length; i++) {
+        final String segment = parts[i];
+        if (ANY_SEGMENTS.equals(segment)) {
+          if (i != parts.length - 1) {
+            throw new IllegalArgumentException(
+                "Invalid route pattern. '**' is allowed only as last segment: " + pattern);
+          }
+          isRemainder = true;
+        } else if (!ANY_SEGMENT.equals(segment) && segment.indexOf('*') >= 0) {
+          throw new IllegalArgumentException(
+              "Invalid route pattern. Wildcard should be complete segment: " + pattern);
+        } else if (!segment.isEmpty()) {
+          segments.add(segment);
+        }
+      }
+      return new Rule(pattern, host, segments, isRemainder, override);
+    }
+
+    /**
+     * Compiles rules added so far, builder can be reused afterwards.
+     */
+    public RouteRules build() {
+      final Node anyHostRoot = new Node();
+      final Map<String, Node> hostRoots = new HashMap<>();
+      final List<String> patterns = new ArrayList<>(rules.size());
+      for (Rule rule : rules) {
+        Node node = rule.host.isEmpty()
+            ? anyHostRoot
+            : hostRoots.computeIfAbsent(rule.host, it -> new Node());
+        for (String segment : rule.segments) {
+          node = node.child(segment);
+        }
+        if (rule.isRemainder) {
+          node.remainderOverride = rule.override;
+        } else {
+          node.override = rule.override;
+        }
+        patterns.add(rule.pattern);
+      }
+      return new RouteRules(anyHostRoot, hostRoots, Collections.unmodifiableList(patterns));
+    }
+  }
+
+}
@@ -0,0 +1,189 @@
+package io.github.dkorobtsov.plinter.core;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import io.github.dkorobtsov.plinter.core.internal.TokenBucket;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which intercepted calls are logged when logging every call is too expensive.
+ *
+ * Call is sampled only if it passes all configured limits, checked in following order:
+ * <ol>
+ * <li>fixed probability</li>
+ * <li>per host rate (events per second for every target host)</li>
+ * <li>global rate (events per second in total)</li>
+ * </ol>
+ * Decision is made before request is converted, so skipped calls cost only a random number and
+ * at most three CAS operations (host's permit is returned if global rate is exceeded). All
+ * counters are lock free and can be shared by any number of threads.
+ *
+ * Usage example:
+ * <pre>
+ *   LoggerConfig.builder()
+ *     .sampling(SamplingPolicy.builder()
+ *         .probability(0.05)
+ *         .perHostRate(10)
+ *         .maxEventsPerSecond(100)
+ *         .build())
+ *     .build());
+ * </pre>
+ */
+public final class SamplingPolicy {
+
+  private static final int MAX_TRACKED_HOSTS = 1024;
+  private static final String UNKNOWN_HOST = "";
+
+  final double probability;
+  final double perHostRate;
+  final double maxEventsPerSecond;
+  private final TokenBucket globalBucket;
+  private final TokenBucket overflowHostBucket;
+  private final ConcurrentMap<String, TokenBucket> hostBuckets = new ConcurrentHashMap<>();
+  private final LongAdder sampledOut = new LongAdder();
+
+  SamplingPolicy(double probability, double perHostRate, double maxEventsPerSecond) {
+    this.probability = probability;
+    this.perHostRate = perHostRate;
+    this.maxEventsPerSecond = maxEventsPerSecond;
+    this.globalBucket = maxEventsPerSecond > 0 ? new TokenBucket(maxEventsPerSecond) : null;
+    this.overflowHostBucket = perHostRate > 0 ? new TokenBucket(perHostRate) : null;
+  }
+
+  public static SamplingPolicyBuilder builder() {
+    return new SamplingPolicyBuilder();
+  }
+
+  /**
+   * @return builder initialized with this policy's settings. Built policy has its own rate
+   * limits and counters.
+   */
+  public SamplingPolicyBuilder toBuilder() {
+    final SamplingPolicyBuilder builder = new SamplingPolicyBuilder();
+    builder.probability = probability;
+    builder.perHostRate = perHostRate;
+    builder.maxEventsPerSecond = maxEventsPerSecond;
+    return builder;
+  }
+
+  /**
+   * @param host target host of intercepted call, can be null
+   * @return true if call should be logged
+   */
+  public boolean sample(String host) {
+    final boolean isSampled = passesProbability() && passesRates(host);
+    if (!isSampled) {
+      sampledOut.increment();
+    }
+    return isSampled;
+  }
+
+  /**
+   * @return number of calls skipped by this policy
+   */
+  public long sampledOutCount() {
+    return sampledOut.sum();
+  }
+
+  private boolean passesProbability() {
+    return probability >= 1 || ThreadLocalRandom.current().nextDouble() < probability;
+  }
+
+  private boolean passesRates(String host) {
+    final TokenBucket hostBucket = hostBucket(host);
+    if (nonNull(hostBucket) && !hostBucket.tryAcquire()) {
+      return false;
+    }
+    if (nonNull(globalBucket) && !globalBucket.tryAcquire()) {
+      // Call is not logged, so host's permit is returned
+      if (nonNull(hostBucket)) {
+        hostBucket.release(1);
+      }
+      return false;
+    }
+    return true;
+  }
+
+  private TokenBucket hostBucket(String host) {
+    if (isNull(overflowHostBucket)) {
+      return null;
+    }
+    final String key = isNull(host) ? UNKNOWN_HOST : host;
+    TokenBucket bucket = hostBuckets.get(key);
+    if (isNull(bucket)) {
+      // Hosts beyond the limit share one bucket, so map doesn't grow indefinitely
+      bucket = hostBuckets.size() < MAX_TRACKED_HOSTS
+          ? hostBuckets.computeIfAbsent(key, it -> new TokenBucket(perHostRate))
+          : overflowHostBucket;
+    }
+    return bucket;
+  }
+
+  @Override
+  public String toString() {
+    return "SamplingPolicy{probability=" + probability
+        + (perHostRate > 0 ? ", perHostRate=" + perHostRate : "")
+        + (nonNull(globalBucket) ? ", maxEventsPerSecond=" + maxEventsPerSecond : "")
+        + '}';
+  }
+
+  /**
+   * Helper class for creating {@link SamplingPolicy} instances. By default all calls are sampled.
+   */
+  public static class SamplingPolicyBuilder {
+
+    private double probability = 1;
+    private double perHostRate;
+    private double maxEventsPerSecond;
+
+    /**
+     * @param probability share of calls to be logged, from 0 (none) to 1 (all). Default: 1
+     */
+    public SamplingPolicyBuilder probability(double probability) {
+      if (probability < 0 || probability > 1) {
+        throw new IllegalArgumentException(
+            "Invalid probability. Should be between 0 and 1.");
+      }
+      this.probability = probability;
+      return this;
+    }
+
+    /**
+     * @param eventsPerSecond max number of logged calls per second for every target host, calls
+     * can be logged in bursts of the same size. Should not exceed 1e9. Default: not limited
+     */
+    public SamplingPolicyBuilder perHostRate(double eventsPerSecond) {
+      validateRate(eventsPerSecond);
+      this.perHostRate = eventsPerSecond;
+      return this;
+    }
+
+    /**
+     * @param eventsPerSecond max number of logged calls per second in total, calls can be logged
+     * in bursts of the same size. Should not exceed 1e9. Default: not limited
+     */
+    public SamplingPolicyBuilder maxEventsPerSecond(double eventsPerSecond) {
+      validateRate(eventsPerSecond);
+      this.maxEventsPerSecond = eventsPerSecond;
+      return this;
+    }
+
+    public SamplingPolicy build() {
+      return new SamplingPolicy(probability, perHostRate, maxEventsPerSecond);
+    }
+
+    private static void validateRate(double eventsPerSecond) {
+      if (eventsPerSecond <= 0) {
+        throw new IllegalArgumentException("Invalid rate. Should be greater than 0.");
+      }
+      if (eventsPerSecond > TokenBucket.MAX_EVENTS_PER_SECOND) {
+        throw new IllegalArgumentException("Invalid rate. Should not exceed 1e9 per second.");
+      }
+    }
+  }
+
+}
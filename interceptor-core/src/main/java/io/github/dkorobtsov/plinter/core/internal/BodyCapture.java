@@ -0,0 +1,103 @@
+package io.github.dkorobtsov.plinter.core.internal;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Bounded copy of body chunks passing through client (content stream, encoder or decoder, body
+ * publisher or subscriber). Only first bytes up to the limit are kept, the rest is counted,
+ * so body is never buffered as a whole and chunks are never read twice.
+ */
+public final class BodyCapture {
+
+  private static final int INITIAL_SIZE = 1024;
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+  private final int limit;
+  private byte[] buffer = new byte[0];
+  private int captured;
+  private long total;
+
+  /**
+   * @param limit max number of bytes to keep or 0 if bytes should be counted only
+   */
+  public BodyCapture(long limit) {
+    this.limit = (int) Math.min(limit, MAX_ARRAY_SIZE);
+  }
+
+  /**
+   * Copies bytes between provided positions of the chunk. Chunk's position and limit are not
+   * changed.
+   */
+  public void capture(ByteBuffer chunk, int from, int to) {
+    final int length = to - from;
+    if (length <= 0) {
+      return;
+    }
+    total += length;
+    final int toCopy = Math.min(length, limit - captured);
+    if (toCopy <= 0) {
+      return;
+    }
+    ensureCapacity(captured + toCopy);
+    final ByteBuffer source = chunk.duplicate();
+    source.limit(from + toCopy);
+    source.position(from);
+    source.get(buffer, captured, toCopy);
+    captured += toCopy;
+  }
+
+  /**
+   * Copies provided part of byte array.
+   */
+  public void capture(byte[] chunk, int offset, int length) {
+    if (length <= 0) {
+      return;
+    }
+    total += length;
+    final int toCopy = Math.min(length, limit - captured);
+    if (toCopy <= 0) {
+      return;
+    }
+    ensureCapacity(captured + toCopy);
+    System.arraycopy(chunk, offset, buffer, captured, toCopy);
+    captured += toCopy;
+  }
+
+  /**
+   * @return captured bytes
+   */
+  public byte[] bytes() {
+    return captured == buffer.length ? buffer : Arrays.copyOf(buffer, captured);
+  }
+
+  /**
+   * @return true if body was longer than limit
+   */
+  public boolean isTruncated() {
+    return total > captured;
+  }
+
+  /**
+   * @return number of bytes passed through, including bytes which were not kept
+   */
+  public long total() {
+    return total;
+  }
+
+  /**
+   * Discards captured bytes, so body can be captured again (when request is retried or resent).
+   */
+  public void reset() {
+    captured = 0;
+    total = 0;
+  }
+
+  private void ensureCapacity(int required) {
+    if (required > buffer.length) {
+      final long grown = Math.max(INITIAL_SIZE, (long) buffer.length * 2);
+      buffer = Arrays.copyOf(buffer, (int) Math.min(limit, Math.max(required, grown)));
+    }
+  }
+
+}
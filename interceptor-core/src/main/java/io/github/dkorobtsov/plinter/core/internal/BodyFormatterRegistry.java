@@ -0,0 +1,246 @@
+package io.github.dkorobtsov.plinter.core.internal;
+
+import static io.github.dkorobtsov.plinter.core.internal.Util.UTF_8;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import io.github.dkorobtsov.plinter.core.BodyFormatter;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Set of {@link BodyFormatter}s used by one logger configuration.
+ *
+ * Formatter for body is selected by its content type:
+ * <ol>
+ * <li>formatter registered for exact type, like "application/x-ndjson"</li>
+ * <li>formatter registered for structured syntax suffix, like "+json" for
+ * "application/vnd.api+json"</li>
+ * <li>for other printable types (json, xml, html, plain text etc.) format is guessed by first
+ * non-whitespace character of body</li>
+ * </ol>
+ * Bodies with content type not matching any of the rules are not printed.
+ *
+ * Resolved formatter and charset are cached per content type header value, so for already seen
+ * content types selecting formatter costs single map lookup.
+ */
+public final class BodyFormatterRegistry {
+
+  /**
+   * Pretty prints JSON documents.
+   */
+  public static final BodyFormatter JSON
+      = (body, charset) -> JsonFormatter.format(new String(body, charset));
+
+  /**
+   * Pretty prints XML documents.
+   */
+  public static final BodyFormatter XML
+      = (body, charset) -> XmlFormatter.format(new String(body, charset));
+
+  /**
+   * Prints body as is.
+   */
+  public static final BodyFormatter TEXT = String::new;
+
+  /**
+   * Formats body as JSON or XML depending on its first non-whitespace character.
+   */
+  public static final BodyFormatter AUTO = BodyFormatterRegistry::formatDetected;
+
+  private static final int MAX_CACHED_TYPES = 256;
+  private static final Resolution NOT_PRINTABLE = new Resolution(null, UTF_8, null);
+  private static final BodyFormatterRegistry NOTHING_PRINTABLE = new BodyFormatterRegistry();
+
+  private final Map<String, BodyFormatter> formatters;
+  private final boolean isPrintingEnabled;
+  private final ConcurrentMap<String, Resolution> resolved = new ConcurrentHashMap<>();
+  private final LongAdder failures = new LongAdder();
+
+  /**
+   * @param customFormatters formatters keyed by media type or suffix, will override default ones
+   */
+  public BodyFormatterRegistry(Map<String, BodyFormatter> customFormatters) {
+    this.isPrintingEnabled = true;
+    this.formatters = new HashMap<>();
+    formatters.put("application/json", JSON);
+    formatters.put("+json", JSON);
+    formatters.put("application/xml", XML);
+    formatters.put("text/xml", XML);
+    formatters.put("+xml", XML);
+    for (Map.Entry<String, BodyFormatter> entry : customFormatters.entrySet()) {
+      formatters.put(normalizedKey(entry.getKey()), entry.getValue());
+    }
+  }
+
+  private BodyFormatterRegistry() {
+    this.isPrintingEnabled = false;
+    this.formatters = Collections.emptyMap();
+  }
+
+  /**
+   * @return registry treating all bodies as not printable, so they are neither captured nor
+   * printed
+   */
+  public static BodyFormatterRegistry nothingPrintable() {
+    return NOTHING_PRINTABLE;
+  }
+
+  /**
+   * @return false if no bodies are captured and printed with this registry
+   */
+  public boolean isPrintingEnabled() {
+    return isPrintingEnabled;
+  }
+
+  /**
+   * @return number of bodies printed as is, because formatter threw exception
+   */
+  public long failureCount() {
+    return failures.sum();
+  }
+
+  /**
+   * Validates formatter key and converts it to the form used for lookups.
+   *
+   * @param mediaType media type without parameters ("text/csv") or suffix ("+yaml")
+   * @throws IllegalArgumentException if key has invalid format
+   */
+  public static String normalizedKey(String mediaType) {
+    if (isNull(mediaType)) {
+      throw new IllegalArgumentException("Media type should be provided.");
+    }
+    final String key = mediaType.trim().toLowerCase(Locale.US);
+    final boolean isSuffix = key.length() > 1 && key.charAt(0) == '+'
+        && key.indexOf('/') < 0 && key.indexOf('+', 1) < 0;
+    final InterceptedMediaType parsed = InterceptedMediaType.parse(key);
+    final boolean isType = nonNull(parsed) && key.equals(parsed.type() + '/' + parsed.subtype());
+    if (!isSuffix && !isType) {
+      throw new IllegalArgumentException(
+          "Invalid media type. Should be like 'text/csv' or '+json', but was: " + mediaType);
+    }
+    return key;
+  }
+
+  /**
+   * @param contentType content type header value, can be null
+   * @return true if body with provided content type should be captured and printed
+   */
+  public boolean isPrintable(String contentType) {
+    return resolve(contentType).isPrintable();
+  }
+
+  /**
+   * @param contentType content type header value, can be null
+   * @return formatted body, empty string if body is blank or null if body should not be printed
+   */
+  public String format(byte[] body, String contentType) {
+    return resolve(contentType).format(body);
+  }
+
+  Resolution resolve(String contentType) {
+    if (isNull(contentType) || !isPrintingEnabled) {
+      return NOT_PRINTABLE;
+    }
+    Resolution resolution = resolved.get(contentType);
+    if (isNull(resolution)) {
+      resolution = lookup(InterceptedMediaType.parse(contentType));
+      // Content types are normally taken from small fixed set, but header value is controlled by
+      // remote side, so cache is not allowed to grow indefinitely
+      if (resolved.size() < MAX_CACHED_TYPES) {
+        resolved.putIfAbsent(contentType, resolution);
+      }
+    }
+    return resolution;
+  }
+
+  private Resolution lookup(InterceptedMediaType mediaType) {
+    if (isNull(mediaType)) {
+      return NOT_PRINTABLE;
+    }
+    final String subtype = mediaType.subtype();
+    BodyFormatter formatter = formatters.get(mediaType.type() + '/' + subtype);
+    final int suffixStart = subtype.lastIndexOf('+');
+    if (isNull(formatter) && suffixStart >= 0) {
+      formatter = formatters.get(subtype.substring(suffixStart));
+    }
+    if (isNull(formatter) && Util.hasPrintableBody(subtype)) {
+      formatter = AUTO;
+    }
+    return isNull(formatter)
+        ? NOT_PRINTABLE
+        : new Resolution(formatter, mediaType.charset(UTF_8), failures);
+  }
+
+  private static String formatDetected(byte[] body, Charset charset) {
+    final String text = new String(body, charset);
+    final int first = firstNonWhitespace(text);
+    if (first == text.length()) {
+      return text;
+    }
+    final char c = text.charAt(first);
+    if (c == '{' || c == '[') {
+      return JsonFormatter.format(text);
+    } else if (c == '<') {
+      return XmlFormatter.format(text);
+    }
+    return text;
+  }
+
+  private static int firstNonWhitespace(String text) {
+    int i = 0;
+    while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Formatter and charset selected for particular content type.
+   */
+  static final class Resolution {
+
+    private final BodyFormatter formatter;
+    private final Charset charset;
+    private final LongAdder failures;
+
+    Resolution(BodyFormatter formatter, Charset charset, LongAdder failures) {
+      this.formatter = formatter;
+      this.charset = charset;
+      this.failures = failures;
+    }
+
+    boolean isPrintable() {
+      return nonNull(formatter);
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    String format(byte[] body) {
+      if (!isPrintable()) {
+        return null;
+      }
+      if (isNull(body) || body.length == 0) {
+        return "";
+      }
+      String formatted;
+      try {
+        formatted = formatter.format(body, charset);
+      } catch (RuntimeException e) {
+        // Broken formatter should not break logging, just showing body as is
+        failures.increment();
+        formatted = null;
+      }
+      if (isNull(formatted)) {
+        formatted = new String(body, charset);
+      }
+      return firstNonWhitespace(formatted) == formatted.length() ? "" : formatted;
+    }
+  }
+
+}
@@ -0,0 +1,77 @@
+package io.github.dkorobtsov.plinter.core.internal;
+
+import static java.util.Objects.isNull;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import okio.Buffer;
+
+/**
+ * Helper class creating copies of intercepted requests and responses with bodies cut to given
+ * size.
+ */
+public final class BodyTruncator {
+
+  private static final Logger logger = Logger.getLogger(BodyTruncator.class.getName());
+
+  private BodyTruncator() {
+  }
+
+  /**
+   * @return provided request if its body is not larger than limit, otherwise request copy with
+   * first {@code maxBodyBytes} bytes of body
+   */
+  public static InterceptedRequest truncated(InterceptedRequest request, int maxBodyBytes) {
+    final InterceptedRequestBody body = request.body();
+    if (isNull(body)) {
+      return request;
+    }
+    try {
+      if (body.contentLength() >= 0 && body.contentLength() <= maxBodyBytes) {
+        return request;
+      }
+      final Buffer buffer = new Buffer();
+      body.writeTo(buffer);
+      if (buffer.size() <= maxBodyBytes) {
+        return request;
+      }
+      return withBody(request, buffer.readByteArray(maxBodyBytes));
+    } catch (IOException e) {
+      logger.log(Level.SEVERE, e.getMessage(), e);
+      return withBody(request, new byte[0]);
+    }
+  }
+
+  /**
+   * @return provided response if its body is not larger than limit, otherwise response copy with
+   * first {@code maxBodyBytes} bytes of body marked as truncated
+   */
+  public static InterceptedResponse truncated(InterceptedResponse response, int maxBodyBytes) {
+    if (isNull(response.originalBody) || response.originalBody.length <= maxBodyBytes) {
+      return response;
+    }
+    return InterceptedResponse.builder()
+        .segmentList(response.segmentList)
+        .header(response.header)
+        .code(response.code)
+        .isSuccessful(response.isSuccessful)
+        .message(response.message)
+        .contentType(response.contentType)
+        .url(response.url)
+        .originalBody(Arrays.copyOf(response.originalBody, maxBodyBytes))
+        .hasPrintableBody(response.hasPrintableBody)
+        .chainMs(response.chainMs)
+        .isBodyTruncated(true)
+        .callTimings(response.callTimings)
+        .build();
+  }
+
+  private static InterceptedRequest withBody(InterceptedRequest request, byte[] body) {
+    return request.newBuilder()
+        .method(request.method(), InterceptedRequestBody.create(request.body().contentType(), body))
+        .build();
+  }
+
+}
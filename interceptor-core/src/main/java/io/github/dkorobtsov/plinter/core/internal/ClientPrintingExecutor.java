@@ -1,6 +1,8 @@
 package io.github.dkorobtsov.plinter.core.internal;
 
+import io.github.dkorobtsov.plinter.core.LogBudget;
 import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import java.io.IOException;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -9,25 +11,167 @@ import java.util.logging.Logger;
 
 /**
  * Helper class for executing printing requests. Depending on provided {@link LoggerConfig} events
- * are printed in current thread or by manually provided executor.
+ * are printed in current thread, by manually provided executor or handed off to asynchronous
+ * {@link RingBufferPrinter}.
+ *
+ * Interceptors called by client's I/O threads request non-blocking printing: events are always
+ * handed off to asynchronous printer which drops events instead of waiting for free slot, even
+ * if asynchronous printing is not configured (see {@link ConfigInternals#nonBlockingPrinter()}).
+ *
+ * If {@link LogBudget} is configured, form in which event is printed is selected before it's
+ * handed off to printer, so degraded events are never formatted completely.
  */
 public final class ClientPrintingExecutor {
 
   private static final Logger logger = Logger.getLogger(ClientPrintingExecutor.class.getName());
 
+  // Lines printed around every event: box borders, url, method/status line and separators
+  private static final int EVENT_FRAME_LINES = 8;
+  private static final int SUMMARY_EXTRA_LENGTH = 40;
+
   private ClientPrintingExecutor() {
   }
 
   public static void printRequest(LoggerConfig loggerConfig, InterceptedRequest request) {
-    final Runnable printRequest = () -> Printer.printRequest(loggerConfig, request);
-    final ExecutorService executor = (ExecutorService) loggerConfig.executor;
-    sendCommandToPrinter(executor, printRequest);
+    printRequest(loggerConfig, request, false);
+  }
+
+  /**
+   * @param isNonBlocking if true, event is handed off to non-blocking asynchronous printer
+   */
+  public static void printRequest(LoggerConfig loggerConfig, InterceptedRequest request,
+      boolean isNonBlocking) {
+    final LogBudget budget = loggerConfig.logBudget;
+    if (Objects.isNull(budget)) {
+      dispatch(loggerConfig, request, isNonBlocking);
+      return;
+    }
+    final String url = request.url().toString();
+    final long frameBytes = (long) EVENT_FRAME_LINES * loggerConfig.maxLineLength + url.length();
+    // Budget is charged only for parts printed at configured level
+    final long headersBytes = frameBytes + (Printer.headersShouldBePrinted(loggerConfig.level)
+        ? headersLength(request.headers()) : 0);
+    final long bodyLength = bodyLength(request);
+    final long bodyBytes = Printer.bodyShouldBePrinted(loggerConfig.level) ? bodyLength : 0;
+    final LogBudget.Degradation degradation = budget.acquire(request.url().getHost(),
+        headersBytes + bodyBytes,
+        headersBytes + Math.min(bodyBytes, budget.truncatedBodyBytes()),
+        headersBytes,
+        url.length() + SUMMARY_EXTRA_LENGTH);
+
+    switch (degradation) {
+      case NONE:
+        dispatch(loggerConfig, request, isNonBlocking);
+        break;
+      case TRUNCATED_BODY:
+        dispatch(loggerConfig, BodyTruncator.truncated(request, budget.truncatedBodyBytes()),
+            isNonBlocking);
+        break;
+      case HEADERS_ONLY:
+        dispatch(loggerConfig, DegradedEvent.withoutBody(request), isNonBlocking);
+        break;
+      case SUMMARY:
+        dispatch(loggerConfig, DegradedEvent.line("--> " + request.method() + ' ' + url
+            + " (" + bodyLength + "-byte body)"), isNonBlocking);
+        break;
+      default:
+        break;
+    }
+    reportSuppressed(loggerConfig, budget, isNonBlocking);
   }
 
   public static void printResponse(LoggerConfig loggerConfig, InterceptedResponse response) {
-    final Runnable printResponse = () -> Printer.printResponse(loggerConfig, response);
+    printResponse(loggerConfig, response, false);
+  }
+
+  /**
+   * @param isNonBlocking if true, event is handed off to non-blocking asynchronous printer
+   */
+  public static void printResponse(LoggerConfig loggerConfig, InterceptedResponse response,
+      boolean isNonBlocking) {
+    final LogBudget budget = loggerConfig.logBudget;
+    if (Objects.isNull(budget)) {
+      dispatch(loggerConfig, response, isNonBlocking);
+      return;
+    }
+    final String url = Objects.toString(response.url, "");
+    final long frameBytes = (long) EVENT_FRAME_LINES * loggerConfig.maxLineLength + url.length();
+    final long headersBytes = frameBytes + (Printer.headersShouldBePrinted(loggerConfig.level)
+        ? Objects.toString(response.header, "").length() : 0);
+    final long bodyLength = Objects.isNull(response.originalBody)
+        ? 0 : response.originalBody.length;
+    final long bodyBytes = Printer.bodyShouldBePrinted(loggerConfig.level) ? bodyLength : 0;
+    final LogBudget.Degradation degradation = budget.acquire(Util.hostOf(url),
+        headersBytes + bodyBytes,
+        headersBytes + Math.min(bodyBytes, budget.truncatedBodyBytes()),
+        headersBytes,
+        url.length() + SUMMARY_EXTRA_LENGTH);
+
+    switch (degradation) {
+      case NONE:
+        dispatch(loggerConfig, response, isNonBlocking);
+        break;
+      case TRUNCATED_BODY:
+        dispatch(loggerConfig, BodyTruncator.truncated(response, budget.truncatedBodyBytes()),
+            isNonBlocking);
+        break;
+      case HEADERS_ONLY:
+        dispatch(loggerConfig, DegradedEvent.withoutBody(response), isNonBlocking);
+        break;
+      case SUMMARY:
+        dispatch(loggerConfig, DegradedEvent.line("<-- " + response.code + ' ' + url
+            + " (" + response.chainMs + "ms, " + bodyLength + "-byte body)"), isNonBlocking);
+        break;
+      default:
+        break;
+    }
+    reportSuppressed(loggerConfig, budget, isNonBlocking);
+  }
+
+  private static void reportSuppressed(LoggerConfig loggerConfig, LogBudget budget,
+      boolean isNonBlocking) {
+    final long suppressed = budget.suppressedToReport();
+    if (suppressed > 0) {
+      dispatch(loggerConfig, DegradedEvent.line(suppressed
+          + " log events suppressed, log budget exhausted"), isNonBlocking);
+    }
+  }
+
+  private static void dispatch(LoggerConfig loggerConfig, Object event,
+      boolean isNonBlocking) {
+    final ConfigInternals internals = ConfigInternals.of(loggerConfig);
+    final RingBufferPrinter asyncPrinter = isNonBlocking
+        ? internals.nonBlockingPrinter() : internals.asyncPrinter();
+    if (Objects.nonNull(asyncPrinter)) {
+      // Printer is passed along, since async printer can be shared by configurations with
+      // overrides applied
+      asyncPrinter.publish(internals.printer(), event);
+      return;
+    }
+    final Printer printer = internals.printer();
+    final Runnable print = () -> printer.print(event);
     final ExecutorService executor = (ExecutorService) loggerConfig.executor;
-    sendCommandToPrinter(executor, printResponse);
+    sendCommandToPrinter(executor, print);
+  }
+
+  private static long headersLength(InterceptedHeaders headers) {
+    long length = 0;
+    for (int i = 0; i < headers.size(); i++) {
+      // Name, value, separator and line break
+      length += headers.name(i).length() + headers.value(i).length() + 4;
+    }
+    return length;
+  }
+
+  private static long bodyLength(InterceptedRequest request) {
+    if (Objects.isNull(request.body())) {
+      return 0;
+    }
+    try {
+      return Math.max(0, request.body().contentLength());
+    } catch (IOException e) {
+      return 0;
+    }
   }
 
   private static void sendCommandToPrinter(ExecutorService executor, Runnable command) {
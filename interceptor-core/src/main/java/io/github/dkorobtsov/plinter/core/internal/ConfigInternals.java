@@ -0,0 +1,148 @@
+package io.github.dkorobtsov.plinter.core.internal;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.OverflowPolicy;
+import java.util.function.Function;
+
+/**
+ * Internal state of {@link LoggerConfig}: printer, asynchronous printer and body formatters.
+ * These are implementation details, so they are not exposed by configuration itself, but
+ * reached through this class by interceptors and printing helpers.
+ *
+ * Asynchronous printer is created on first use and only if asynchronous printing is enabled.
+ * Interceptors called by client's I/O threads use non-blocking printer instead, which is the
+ * configured asynchronous printer if it never blocks, otherwise separate printer dropping new
+ * events when its buffer is full.
+ */
+@SuppressWarnings("PMD.AvoidUsingVolatile")
+public final class ConfigInternals {
+
+  private static final int DEFAULT_BUFFER_SIZE = 1024;
+
+  private static volatile Function<LoggerConfig, ConfigInternals> accessor;
+
+  private final LoggerConfig loggerConfig;
+  private final BodyFormatterRegistry bodyFormatters;
+  private final Printer printer;
+  private final ConfigInternals shared;
+  private volatile RingBufferPrinter asyncPrinter;
+  private volatile RingBufferPrinter fallbackPrinter;
+
+  private ConfigInternals(LoggerConfig loggerConfig, BodyFormatterRegistry bodyFormatters,
+      ConfigInternals shared) {
+    this.loggerConfig = loggerConfig;
+    this.bodyFormatters = bodyFormatters;
+    this.printer = new Printer(loggerConfig, bodyFormatters);
+    this.shared = shared;
+  }
+
+  /**
+   * Registers function reading internal state of configuration. Called once by {@link
+   * LoggerConfig}.
+   */
+  public static void register(Function<LoggerConfig, ConfigInternals> configAccessor) {
+    if (nonNull(accessor)) {
+      throw new IllegalStateException("Accessor is already registered");
+    }
+    accessor = configAccessor;
+  }
+
+  /**
+   * @return internal state of provided configuration
+   */
+  public static ConfigInternals of(LoggerConfig loggerConfig) {
+    return accessor.apply(loggerConfig);
+  }
+
+  /**
+   * @param loggerConfig configuration being created
+   * @param bodyFormatters formatters used by configuration
+   * @param shared internal state of configuration which asynchronous printer should be shared
+   * with (for configurations with logging override applied), can be null
+   */
+  public static ConfigInternals create(LoggerConfig loggerConfig,
+      BodyFormatterRegistry bodyFormatters, ConfigInternals shared) {
+    return new ConfigInternals(loggerConfig, bodyFormatters, shared);
+  }
+
+  /**
+   * @return formatters defining which bodies are printable and how
+   */
+  public BodyFormatterRegistry bodyFormatters() {
+    return bodyFormatters;
+  }
+
+  /**
+   * @return asynchronous printer, created on first call, or null if asynchronous printing is
+   * not enabled
+   */
+  public RingBufferPrinter asyncPrinter() {
+    if (nonNull(shared)) {
+      return shared.asyncPrinter();
+    }
+    if (isNull(loggerConfig.overflowPolicy)) {
+      return null;
+    }
+    RingBufferPrinter result = asyncPrinter;
+    if (isNull(result)) {
+      synchronized (this) {
+        result = asyncPrinter;
+        if (isNull(result)) {
+          result = new RingBufferPrinter(printer, loggerConfig.asyncBufferSize,
+              loggerConfig.overflowPolicy);
+          asyncPrinter = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return asynchronous printer if it was already created, otherwise null
+   */
+  public RingBufferPrinter createdAsyncPrinter() {
+    return nonNull(shared) ? shared.createdAsyncPrinter() : asyncPrinter;
+  }
+
+  /**
+   * @return printer which never blocks caller: configured asynchronous printer if its overflow
+   * policy doesn't block, otherwise separate asynchronous printer with {@link
+   * OverflowPolicy#DROP_NEWEST} policy, created on first call
+   */
+  public RingBufferPrinter nonBlockingPrinter() {
+    if (nonNull(shared)) {
+      return shared.nonBlockingPrinter();
+    }
+    final OverflowPolicy overflowPolicy = loggerConfig.overflowPolicy;
+    if (nonNull(overflowPolicy) && overflowPolicy != OverflowPolicy.BLOCK) {
+      return asyncPrinter();
+    }
+    RingBufferPrinter result = fallbackPrinter;
+    if (isNull(result)) {
+      synchronized (this) {
+        result = fallbackPrinter;
+        if (isNull(result)) {
+          result = new RingBufferPrinter(printer, isNull(loggerConfig.overflowPolicy)
+              ? DEFAULT_BUFFER_SIZE : loggerConfig.asyncBufferSize, OverflowPolicy.DROP_NEWEST);
+          fallbackPrinter = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return separate non-blocking printer if it was already created, otherwise null
+   */
+  public RingBufferPrinter createdFallbackPrinter() {
+    return nonNull(shared) ? shared.createdFallbackPrinter() : fallbackPrinter;
+  }
+
+  Printer printer() {
+    return printer;
+  }
+
+}
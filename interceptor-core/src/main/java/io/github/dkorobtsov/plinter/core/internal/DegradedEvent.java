@@ -0,0 +1,26 @@
+package io.github.dkorobtsov.plinter.core.internal;
+
+/**
+ * Event printed in reduced form because of exhausted log budget (see {@link
+ * io.github.dkorobtsov.plinter.core.LogBudget}): either intercepted request or response without
+ * body or single line of text.
+ */
+final class DegradedEvent {
+
+  final Object event;
+  final String line;
+
+  private DegradedEvent(Object event, String line) {
+    this.event = event;
+    this.line = line;
+  }
+
+  static DegradedEvent withoutBody(Object event) {
+    return new DegradedEvent(event, null);
+  }
+
+  static DegradedEvent line(String line) {
+    return new DegradedEvent(null, line);
+  }
+
+}
@@ -42,11 +42,13 @@ public final class InterceptedMediaType {
       ";\\s*(?:" + TOKEN + "=(?:" + TOKEN + "|" + QUOTED + "))?");
 
   private final String mediaType;
+  private final String type;
   private final String subtype;
   private final String charset;
 
-  private InterceptedMediaType(String mediaType, String subtype, String charset) {
+  private InterceptedMediaType(String mediaType, String type, String subtype, String charset) {
     this.mediaType = mediaType;
+    this.type = type;
     this.subtype = subtype;
     this.charset = charset;
   }
@@ -92,8 +94,17 @@ public final class InterceptedMediaType {
       charset = charsetParameter;
     }
 
+    final String type = typeSubtype.group(1).toLowerCase(Locale.US);
     final String subtype = typeSubtype.group(2).toLowerCase(Locale.US);
-    return new InterceptedMediaType(string, subtype, charset);
+    return new InterceptedMediaType(string, type, subtype, charset);
+  }
+
+  /**
+   * Returns the high-level media type, such as "text", "image", "audio", "video", or
+   * "application".
+   */
+  public String type() {
+    return type;
   }
 
   /**
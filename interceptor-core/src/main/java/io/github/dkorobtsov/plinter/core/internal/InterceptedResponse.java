@@ -1,5 +1,8 @@
 package io.github.dkorobtsov.plinter.core.internal;
 
+import static java.util.Objects.isNull;
+
+import io.github.dkorobtsov.plinter.core.CallTimings;
 import java.util.List;
 
 /**
@@ -19,11 +22,14 @@ public final class InterceptedResponse {
   public final byte[] originalBody;
   public final boolean hasPrintableBody;
   public final long chainMs;
+  public final boolean isBodyTruncated;
+  public final CallTimings callTimings;
 
   @SuppressWarnings("PMD.ExcessiveParameterList")
   InterceptedResponse(List<String> segmentList, String header, int code, boolean isSuccessful,
       String message, InterceptedMediaType contentType, String url,
-      byte[] originalBody, boolean hasPrintableBody, long chainMs) {
+      byte[] originalBody, boolean hasPrintableBody, long chainMs, boolean isBodyTruncated,
+      CallTimings callTimings) {
     this.segmentList = segmentList;
     this.header = header;
     this.code = code;
@@ -34,6 +40,21 @@ public final class InterceptedResponse {
     this.originalBody = originalBody;
     this.hasPrintableBody = hasPrintableBody;
     this.chainMs = chainMs;
+    this.isBodyTruncated = isBodyTruncated;
+    this.callTimings = callTimings;
+  }
+
+  /**
+   * @param callTimings phase breakdown of the call reported by client, can be null
+   * @return copy of this response with provided phase breakdown or this response if phase
+   * breakdown is not provided
+   */
+  public InterceptedResponse withCallTimings(CallTimings callTimings) {
+    if (isNull(callTimings)) {
+      return this;
+    }
+    return new InterceptedResponse(segmentList, header, code, isSuccessful, message, contentType,
+        url, originalBody, hasPrintableBody, chainMs, isBodyTruncated, callTimings);
   }
 
   @SuppressWarnings("JavadocType")
@@ -54,6 +75,8 @@ public final class InterceptedResponse {
     private byte[] originalBody;
     private boolean hasPrintableBody;
     private long chainMs;
+    private boolean isBodyTruncated;
+    private CallTimings callTimings;
 
     public ResponseDetailsBuilder segmentList(List<String> segmentList) {
       this.segmentList = segmentList;
@@ -105,9 +128,19 @@ public final class InterceptedResponse {
       return this;
     }
 
+    public ResponseDetailsBuilder isBodyTruncated(boolean isBodyTruncated) {
+      this.isBodyTruncated = isBodyTruncated;
+      return this;
+    }
+
+    public ResponseDetailsBuilder callTimings(CallTimings callTimings) {
+      this.callTimings = callTimings;
+      return this;
+    }
+
     public InterceptedResponse build() {
       return new InterceptedResponse(segmentList, header, code, isSuccessful, message,
-          contentType, url, originalBody, hasPrintableBody, chainMs);
+          contentType, url, originalBody, hasPrintableBody, chainMs, isBodyTruncated, callTimings);
     }
 
   }
@@ -0,0 +1,407 @@
+package io.github.dkorobtsov.plinter.core.internal;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Streaming JSON pretty printer. Document is re-indented token by token straight into output
+ * buffer without building intermediate tree, so original key order and number representation are
+ * preserved.
+ *
+ * Layout follows the one printed by org.json with indent factor 3 (that's what was used before):
+ * objects and arrays with single element are kept on one line, unquoted keys and string values
+ * are quoted.
+ *
+ * Formatting is done in two passes over the same text: first pass validates document and finds
+ * containers having more than one element, second pass writes output.
+ */
+final class JsonFormatter {
+
+  private static final int INDENT = 3;
+  private static final String LITERAL_DELIMITERS = ",:]}/\\\"[{;=#";
+
+  private static final char END = 0;
+  private static final char ERROR = 1;
+  private static final char STRING = '"';
+  private static final char LITERAL = 'a';
+
+  private static final int EXPECT_VALUE = 0;
+  private static final int EXPECT_VALUE_OR_CLOSE = 1;
+  private static final int EXPECT_KEY_OR_CLOSE = 2;
+  private static final int EXPECT_NEXT_VALUE = 3;
+  private static final int EXPECT_NEXT_KEY = 4;
+  private static final int EXPECT_COLON = 5;
+  private static final int EXPECT_COMMA_OR_CLOSE = 6;
+  private static final int EXPECT_END = 7;
+
+  private final String json;
+  private final BitSet multiElement = new BitSet();
+
+  private int[] stack = new int[16];
+  private int pos;
+  private int tokenStart;
+  private int tokenEnd;
+
+  private JsonFormatter(String json) {
+    this.json = json;
+  }
+
+  /**
+   * @param json document to format
+   * @return formatted document or null if provided text is not valid JSON
+   */
+  static String format(String json) {
+    final JsonFormatter formatter = new JsonFormatter(json);
+    if (!formatter.validate()) {
+      return null;
+    }
+    return formatter.write();
+  }
+
+  /**
+   * First pass: checks document structure and marks containers with more than one element.
+   * Container's stack entry holds its ordinal number multiplied by 2, plus 1 for objects.
+   */
+  @SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.NPathComplexity"})
+  private boolean validate() {
+    int depth = 0;
+    int containers = 0;
+    int expect = EXPECT_VALUE;
+    pos = 0;
+
+    while (true) {
+      final char token = nextToken();
+      if (token == ERROR) {
+        return false;
+      }
+      if (token == END) {
+        return expect == EXPECT_END;
+      }
+
+      final boolean isNextElement = expect == EXPECT_NEXT_VALUE || expect == EXPECT_NEXT_KEY;
+      final boolean inObject = depth > 0 && (stack[depth - 1] & 1) == 1;
+
+      if (token == '{' || token == '[') {
+        if (expect != EXPECT_VALUE && expect != EXPECT_VALUE_OR_CLOSE
+            && expect != EXPECT_NEXT_VALUE) {
+          return false;
+        }
+        markIfNextElement(isNextElement, depth);
+        push(depth++, containers++ * 2 + (token == '{' ? 1 : 0));
+        expect = token == '{' ? EXPECT_KEY_OR_CLOSE : EXPECT_VALUE_OR_CLOSE;
+
+      } else if (token == '}' || token == ']') {
+        // Trailing comma is tolerated the same way org.json did
+        final boolean isObjectClose = token == '}';
+        final boolean canClose = expect == EXPECT_COMMA_OR_CLOSE || isNextElement
+            || expect == (isObjectClose ? EXPECT_KEY_OR_CLOSE : EXPECT_VALUE_OR_CLOSE);
+        if (depth == 0 || inObject != isObjectClose || !canClose) {
+          return false;
+        }
+        depth--;
+        expect = depth == 0 ? EXPECT_END : EXPECT_COMMA_OR_CLOSE;
+
+      } else if (token == ',') {
+        if (expect != EXPECT_COMMA_OR_CLOSE) {
+          return false;
+        }
+        expect = inObject ? EXPECT_NEXT_KEY : EXPECT_NEXT_VALUE;
+
+      } else if (token == ':') {
+        if (expect != EXPECT_COLON) {
+          return false;
+        }
+        expect = EXPECT_VALUE;
+
+      } else if (expect == EXPECT_KEY_OR_CLOSE || expect == EXPECT_NEXT_KEY) {
+        markIfNextElement(isNextElement, depth);
+        expect = EXPECT_COLON;
+
+      } else if (expect == EXPECT_VALUE || expect == EXPECT_VALUE_OR_CLOSE
+          || expect == EXPECT_NEXT_VALUE) {
+        markIfNextElement(isNextElement, depth);
+        expect = depth == 0 ? EXPECT_END : EXPECT_COMMA_OR_CLOSE;
+
+      } else {
+        return false;
+      }
+    }
+  }
+
+  private void markIfNextElement(boolean isNextElement, int depth) {
+    if (isNextElement) {
+      multiElement.set(stack[depth - 1] >> 1);
+    }
+  }
+
+  private void push(int depth, int value) {
+    if (depth == stack.length) {
+      stack = Arrays.copyOf(stack, depth * 2);
+    }
+    stack[depth] = value;
+  }
+
+  /**
+   * Second pass: writes validated document.
+   */
+  @SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.NPathComplexity"})
+  private String write() {
+    final StringBuilder out = new StringBuilder(json.length() + json.length() / 2);
+    int depth = 0;
+    int containers = 0;
+    int indent = 0;
+    boolean keyExpected = false;
+    boolean newLinePending = false;
+    boolean commaPending = false;
+    pos = 0;
+
+    char token;
+    while ((token = nextToken()) != END) {
+      final boolean isMultiElement = depth > 0 && multiElement.get(stack[depth - 1] >> 1);
+
+      if (token == ',') {
+        keyExpected = (stack[depth - 1] & 1) == 1;
+        commaPending = isMultiElement;
+        newLinePending = isMultiElement;
+        continue;
+      }
+      if (token == ':') {
+        out.append(": ");
+        continue;
+      }
+      if (token == '}' || token == ']') {
+        depth--;
+        if (isMultiElement) {
+          indent--;
+          newLine(out, indent);
+        }
+        out.append(token);
+        keyExpected = false;
+        commaPending = false;
+        newLinePending = false;
+        continue;
+      }
+
+      // Element start
+      if (commaPending) {
+        out.append(',');
+        commaPending = false;
+      }
+      if (newLinePending) {
+        newLine(out, indent);
+        newLinePending = false;
+      }
+
+      if (token == '{' || token == '[') {
+        final int container = containers++;
+        if (skipEmptyContainer(token)) {
+          out.append(token == '{' ? "{}" : "[]");
+          continue;
+        }
+        out.append(token);
+        push(depth++, container * 2 + (token == '{' ? 1 : 0));
+        keyExpected = token == '{';
+        if (multiElement.get(container)) {
+          indent++;
+          newLinePending = true;
+        }
+      } else if (token == STRING) {
+        appendString(out);
+        keyExpected = false;
+      } else {
+        appendLiteral(out, keyExpected);
+        keyExpected = false;
+      }
+    }
+    return out.toString();
+  }
+
+  private boolean skipEmptyContainer(char open) {
+    final int closing = skipWhitespace(pos);
+    if (closing < json.length() && json.charAt(closing) == (open == '{' ? '}' : ']')) {
+      pos = closing + 1;
+      return true;
+    }
+    return false;
+  }
+
+  private static void newLine(StringBuilder out, int indent) {
+    out.append('\n');
+    for (int i = indent * INDENT; i > 0; i--) {
+      out.append(' ');
+    }
+  }
+
+  private void appendString(StringBuilder out) {
+    if (json.charAt(tokenStart) == '"') {
+      out.append(json, tokenStart, tokenEnd);
+      return;
+    }
+    // Single quoted string
+    out.append('"');
+    for (int i = tokenStart + 1; i < tokenEnd - 1; i++) {
+      final char c = json.charAt(i);
+      if (c == '\\' && json.charAt(i + 1) == '\'') {
+        out.append('\'');
+        i++;
+      } else if (c == '\\') {
+        out.append(c).append(json.charAt(++i));
+      } else if (c == '"') {
+        out.append("\\\"");
+      } else {
+        out.append(c);
+      }
+    }
+    out.append('"');
+  }
+
+  private void appendLiteral(StringBuilder out, boolean isKey) {
+    if (!isKey) {
+      if (isLiteral("true") || isLiteral("false") || isLiteral("null")) {
+        for (int i = tokenStart; i < tokenEnd; i++) {
+          out.append(Character.toLowerCase(json.charAt(i)));
+        }
+        return;
+      }
+      if (isNumber()) {
+        out.append(json, tokenStart, tokenEnd);
+        return;
+      }
+    }
+    out.append('"');
+    for (int i = tokenStart; i < tokenEnd; i++) {
+      final char c = json.charAt(i);
+      if (c == '"' || c == '\\') {
+        out.append('\\');
+      }
+      out.append(c);
+    }
+    out.append('"');
+  }
+
+  private boolean isLiteral(String literal) {
+    return tokenEnd - tokenStart == literal.length()
+        && json.regionMatches(true, tokenStart, literal, 0, literal.length());
+  }
+
+  /**
+   * Checks if current literal token is a number as defined by JSON grammar.
+   */
+  @SuppressWarnings("PMD.CyclomaticComplexity")
+  private boolean isNumber() {
+    int i = tokenStart;
+    if (i < tokenEnd && json.charAt(i) == '-') {
+      i++;
+    }
+    final int integerStart = i;
+    i = skipDigits(i);
+    if (i == integerStart) {
+      return false;
+    }
+    if (i < tokenEnd && json.charAt(i) == '.') {
+      final int fractionStart = ++i;
+      i = skipDigits(i);
+      if (i == fractionStart) {
+        return false;
+      }
+    }
+    if (i < tokenEnd && (json.charAt(i) == 'e' || json.charAt(i) == 'E')) {
+      i++;
+      if (i < tokenEnd && (json.charAt(i) == '+' || json.charAt(i) == '-')) {
+        i++;
+      }
+      final int exponentStart = i;
+      i = skipDigits(i);
+      if (i == exponentStart) {
+        return false;
+      }
+    }
+    return i == tokenEnd;
+  }
+
+  private int skipDigits(int from) {
+    int i = from;
+    while (i < tokenEnd && Character.isDigit(json.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  private int skipWhitespace(int from) {
+    int i = from;
+    while (i < json.length() && json.charAt(i) <= ' ') {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Reads next token starting from current position. Token bounds are stored in tokenStart and
+   * tokenEnd fields.
+   *
+   * @return structural character, STRING, LITERAL, END or ERROR
+   */
+  private char nextToken() {
+    pos = skipWhitespace(pos);
+    if (pos == json.length()) {
+      return END;
+    }
+    tokenStart = pos;
+    final char c = json.charAt(pos);
+    switch (c) {
+      case '{':
+      case '}':
+      case '[':
+      case ']':
+      case ',':
+      case ':':
+        pos++;
+        tokenEnd = pos;
+        return c;
+      case '"':
+      case '\'':
+        return readString(c);
+      default:
+        return readLiteral();
+    }
+  }
+
+  private char readString(char quote) {
+    int i = pos + 1;
+    while (i < json.length()) {
+      final char c = json.charAt(i);
+      if (c == quote) {
+        pos = i + 1;
+        tokenEnd = pos;
+        return STRING;
+      }
+      if (c == '\n' || c == '\r') {
+        return ERROR;
+      }
+      i += c == '\\' ? 2 : 1;
+    }
+    return ERROR;
+  }
+
+  private char readLiteral() {
+    int i = pos;
+    while (i < json.length()) {
+      final char c = json.charAt(i);
+      if (c < ' ' || LITERAL_DELIMITERS.indexOf(c) >= 0) {
+        break;
+      }
+      i++;
+    }
+    if (i == pos) {
+      return ERROR;
+    }
+    pos = i;
+    // Unquoted values may contain spaces, trailing ones are not part of the value
+    while (json.charAt(i - 1) == ' ') {
+      i--;
+    }
+    tokenEnd = i;
+    return LITERAL;
+  }
+
+}
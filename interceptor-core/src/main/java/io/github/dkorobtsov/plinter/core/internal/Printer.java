@@ -25,18 +25,18 @@
 
 package io.github.dkorobtsov.plinter.core.internal;
 
-import static io.github.dkorobtsov.plinter.core.internal.BodyFormatter.formattedBody;
-import static io.github.dkorobtsov.plinter.core.internal.Util.hasPrintableBody;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 import io.github.dkorobtsov.plinter.core.Level;
 import io.github.dkorobtsov.plinter.core.LogWriter;
 import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.OverheadProfiler;
+import io.github.dkorobtsov.plinter.core.OverheadProfiler.Phase;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
-import java.util.Calendar;
 import java.util.List;
 import java.util.Locale;
 import okio.Buffer;
@@ -45,6 +45,14 @@ import okio.Buffer;
 /**
  * Class responsible for formatting intercepted events and logging them using provided {@link
  * LogWriter} implementation.
+ *
+ * Printer instance is created once per {@link LoggerConfig} and keeps only immutable values
+ * derived from it (like box lines and thread info format), so it can be safely used by any number
+ * of threads without synchronization.
+ *
+ * By default every line is sent to {@link LogWriter} separately. If {@link
+ * LoggerConfig#singleEventOutput} is enabled, whole request or response box is rendered into
+ * reusable per-thread buffer and published as single multi-line event.
  */
 @SuppressWarnings({"PMD.TooManyMethods", "PMD.GodClass"})
 final class Printer {
@@ -73,176 +81,316 @@ final class Printer {
   private static final String HEADERS_TAG = "Headers:";
   private static final String STATUS_CODE_TAG = "Status Code: ";
   private static final String EXECUTION_TIME_TAG = "Execution time: ";
+  private static final String PHASES_TAG = "Phases: ";
   private static final String THREAD_TAG = "Thread: ";
   private static final String SENT_TAG = "Sent: ";
   private static final String RECEIVED_TAG = "Received: ";
-  private static final String TIMESTAMP_FORMAT = "yyyy-MM-dd HH:mm:ss:SSS";
   private static final String THREAD_STRING_FORMAT = "%-5s %-{indent}s %-5s %s";
   private static final int THREAD_INDENT = 36;
 
+  // DateTimeFormatter is immutable and thread safe, unlike SimpleDateFormat
+  private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter
+      .ofPattern("yyyy-MM-dd HH:mm:ss:SSS", Locale.getDefault());
+
   private static final String[] OMITTED_RESPONSE = {"", "Omitted response body"};
   private static final String[] OMITTED_REQUEST = {"", "Omitted request body"};
+  private static final String TRUNCATED_RESPONSE = "Response body truncated to %d bytes";
   private static final String[] EMPTY_REQUEST_BODY = {"", "Empty request body"};
   private static final String[] EMPTY_RESPONSE_BODY = {"", "Empty response body"};
 
-  private static LoggerConfig loggerConfig;
+  private static final int EVENT_BUFFER_SIZE = 4 * 1024;
+  private static final int MAX_RETAINED_EVENT_BUFFER_SIZE = 64 * 1024;
+  private static final ThreadLocal<StringBuilder> EVENT_BUFFER = ThreadLocal
+      .withInitial(() -> new StringBuilder(EVENT_BUFFER_SIZE));
+
+  private final Level level;
+  private final LogWriter logWriter;
+  private final int maxLineLength;
+  private final boolean withThreadInfo;
+  private final boolean singleEventOutput;
+  private final BodyFormatterRegistry bodyFormatters;
+  private final OverheadProfiler profiler;
+
+  private final String requestStartingLine;
+  private final String responseStartingLine;
+  private final String endingLine;
+  private final String sectionLine;
+  private final String requestThreadInfoFormat;
+  private final String responseThreadInfoFormat;
+
+  Printer(LoggerConfig loggerConfig, BodyFormatterRegistry bodyFormatters) {
+    this.level = loggerConfig.level;
+    this.logWriter = loggerConfig.logger;
+    this.maxLineLength = loggerConfig.maxLineLength;
+    this.withThreadInfo = loggerConfig.withThreadInfo;
+    this.singleEventOutput = loggerConfig.singleEventOutput;
+    this.bodyFormatters = bodyFormatters;
+    this.profiler = loggerConfig.overheadProfiler;
+
+    this.requestStartingLine = boxLine(REQUEST_STARTING_LINE);
+    this.responseStartingLine = boxLine(RESPONSE_STARTING_LINE);
+    this.endingLine = boxLine(ENDING_LINE);
+    this.sectionLine = boxLine(SECTION_LINE);
+    this.requestThreadInfoFormat = threadInfoStringFormat(SENT_TAG);
+    this.responseThreadInfoFormat = threadInfoStringFormat(RECEIVED_TAG);
+  }
+
+  /**
+   * Prints intercepted request, response or {@link DegradedEvent}.
+   */
+  void print(Object event) {
+    if (isNull(profiler)) {
+      printEvent(event);
+      return;
+    }
+    // Layout is whatever printing takes apart from body formatting and writing, which are
+    // recorded separately while event is printed
+    final long startTime = profiler.start();
+    final long nestedStartNanos = profiler.recordedNanos();
+    printEvent(event);
+    final long nestedNanos = profiler.recordedNanos() - nestedStartNanos;
+    profiler.record(Phase.LAYOUT, System.nanoTime() - startTime - nestedNanos);
+  }
+
+  private void printEvent(Object event) {
+    if (event instanceof InterceptedRequest) {
+      printRequest((InterceptedRequest) event, true);
+    } else if (event instanceof InterceptedResponse) {
+      printResponse((InterceptedResponse) event, true);
+    } else {
+      final DegradedEvent degradedEvent = (DegradedEvent) event;
+      if (degradedEvent.event instanceof InterceptedRequest) {
+        printRequest((InterceptedRequest) degradedEvent.event, false);
+      } else if (degradedEvent.event instanceof InterceptedResponse) {
+        printResponse((InterceptedResponse) degradedEvent.event, false);
+      } else {
+        write(degradedEvent.line);
+      }
+    }
+  }
+
+  private void printRequest(InterceptedRequest request, boolean withBody) {
+    final StringBuilder event = startEvent();
+    line(event, requestStartingLine);
+    printDebugDetails(event, true);
+    printUrl(event, request.url().toString());
+    printRequestDetails(event, request);
+    if (withBody) {
+      printRequestBody(event, request);
+    }
+    line(event, endingLine);
+    publishEvent(event);
+  }
 
-  private Printer() {
+  private void printResponse(InterceptedResponse interceptedResponse, boolean withBody) {
+    final StringBuilder event = startEvent();
+    line(event, responseStartingLine);
+    printDebugDetails(event, false);
+    printUrl(event, interceptedResponse.url);
+    printResponseDetails(event, interceptedResponse);
+    if (withBody) {
+      printResponseBody(event, interceptedResponse);
+    }
+    line(event, endingLine);
+    publishEvent(event);
   }
 
-  static void printRequest(LoggerConfig loggerConfig, InterceptedRequest request) {
-    Printer.loggerConfig = loggerConfig;
+  /**
+   * Returns cleared thread's event buffer if single event output is enabled or null if every line
+   * should be logged separately.
+   */
+  private StringBuilder startEvent() {
+    if (!singleEventOutput) {
+      return null;
+    }
+    final StringBuilder event = EVENT_BUFFER.get();
+    event.setLength(0);
+    return event;
+  }
 
-    printRequestStartingLine();
-    printDebugDetails(true);
-    printUrl(request.url().toString());
-    printRequestDetails(request);
-    printRequestBody(request);
-    printEndingLine();
+  private void publishEvent(StringBuilder event) {
+    if (isNull(event)) {
+      return;
+    }
+    write(event.toString());
+    if (event.capacity() > MAX_RETAINED_EVENT_BUFFER_SIZE) {
+      // Not keeping huge buffers after printing large bodies
+      EVENT_BUFFER.set(new StringBuilder(EVENT_BUFFER_SIZE));
+    }
   }
 
-  static void printResponse(LoggerConfig loggerConfig, InterceptedResponse interceptedResponse) {
-    Printer.loggerConfig = loggerConfig;
+  private void line(StringBuilder event, String line) {
+    if (isNull(event)) {
+      write(line);
+    } else {
+      appendLineSeparator(event);
+      event.append(line);
+    }
+  }
 
-    printResponseStartingLine();
-    printDebugDetails(false);
-    printUrl(interceptedResponse.url);
-    printResponseDetails(interceptedResponse);
-    printResponseBody(interceptedResponse);
-    printEndingLine();
+  private void line(StringBuilder event, String startingWith, String line, int start, int end) {
+    if (isNull(event)) {
+      write(startingWith + line.substring(start, end));
+    } else {
+      appendLineSeparator(event);
+      event.append(startingWith).append(line, start, end);
+    }
   }
 
-  private static void printRequestStartingLine() {
-    final int i = loggerConfig.maxLineLength - REQUEST_STARTING_LINE.length();
-    loggerConfig.logger.log(REQUEST_STARTING_LINE + repeatChar(HORIZONTAL_LINE, i));
+  private void write(String line) {
+    if (isNull(profiler)) {
+      logWriter.log(line);
+      return;
+    }
+    final long startTime = profiler.start();
+    logWriter.log(line);
+    profiler.stop(Phase.WRITE, startTime);
   }
 
-  private static void printResponseStartingLine() {
-    final int i = loggerConfig.maxLineLength - RESPONSE_STARTING_LINE.length();
-    loggerConfig.logger.log(RESPONSE_STARTING_LINE + repeatChar(HORIZONTAL_LINE, i));
+  private String format(byte[] body, String contentType) {
+    if (isNull(profiler)) {
+      return bodyFormatters.format(body, contentType);
+    }
+    final long startTime = profiler.start();
+    final String formatted = bodyFormatters.format(body, contentType);
+    profiler.stop(Phase.BODY_FORMATTING, startTime);
+    return formatted;
   }
 
-  private static void printEndingLine() {
-    final int i = loggerConfig.maxLineLength - ENDING_LINE.length();
-    loggerConfig.logger.log(ENDING_LINE + repeatChar(HORIZONTAL_LINE, i));
+  private static void appendLineSeparator(StringBuilder event) {
+    if (event.length() > 0) {
+      event.append(LINE_SEPARATOR);
+    }
   }
 
-  private static void printSectionLine() {
-    final int i = loggerConfig.maxLineLength - SECTION_LINE.length();
-    loggerConfig.logger.log(SECTION_LINE + repeatChar(HORIZONTAL_LINE, i));
+  private String boxLine(String startingWith) {
+    return startingWith + repeatChar(HORIZONTAL_LINE, maxLineLength - startingWith.length());
   }
 
-  private static void printDebugDetails(boolean isRequest) {
-    if (loggerConfig.withThreadInfo) {
-      final String format = threadInfoStringFormat(isRequest);
+  private void printDebugDetails(StringBuilder event, boolean isRequest) {
+    if (withThreadInfo) {
+      final String format = isRequest ? requestThreadInfoFormat : responseThreadInfoFormat;
 
       final String debugDetails = LINE_SEPARATOR
           + String.format(format,
           THREAD_TAG, Thread.currentThread().getName(),
           isRequest ? SENT_TAG : RECEIVED_TAG,
-          new SimpleDateFormat(TIMESTAMP_FORMAT, Locale.getDefault())
-              .format(Calendar.getInstance().getTime()));
+          TIMESTAMP_FORMATTER.format(LocalDateTime.now()));
 
-      logLines(debugDetails.split(REGEX_LINE_SEPARATOR), SECTION_DEFAULT_LINE, true);
-      printSectionLine();
+      logLines(event, debugDetails.split(REGEX_LINE_SEPARATOR), SECTION_DEFAULT_LINE, true);
+      line(event, sectionLine);
     }
   }
 
-  private static String threadInfoStringFormat(boolean isRequest) {
-    final int requestIndent = loggerConfig.maxLineLength - THREAD_INDENT - SENT_TAG.length();
-    final int responseIndent = loggerConfig.maxLineLength - THREAD_INDENT - RECEIVED_TAG.length();
-    final int indent = isRequest ? requestIndent : responseIndent;
+  private String threadInfoStringFormat(String timestampTag) {
+    final int indent = maxLineLength - THREAD_INDENT - timestampTag.length();
     return THREAD_STRING_FORMAT.replace("{indent}", String.valueOf(indent));
   }
 
-  private static void printUrl(String url) {
+  private void printUrl(StringBuilder event, String url) {
     if (!isEmpty(url)) {
-      logLines(new String[]{URL_TAG + url, ""}, false);
+      logLines(event, new String[]{URL_TAG + url, ""}, false);
     }
   }
 
-  private static void printRequestDetails(InterceptedRequest request) {
-    logLines(requestDetails(request), true);
+  private void printRequestDetails(StringBuilder event, InterceptedRequest request) {
+    logLines(event, requestDetails(request), true);
   }
 
-  private static void printResponseDetails(InterceptedResponse interceptedResponse) {
-    logLines(responseDetails(interceptedResponse), true);
+  private void printResponseDetails(StringBuilder event,
+      InterceptedResponse interceptedResponse) {
+    logLines(event, responseDetails(interceptedResponse), true);
   }
 
-  private static void printRequestBody(InterceptedRequest request) {
+  private void printRequestBody(StringBuilder event, InterceptedRequest request) {
     if (bodyShouldBePrinted()) {
-      if (hasPrintableBody(mediaType(request))) {
-        final String printableBody = bodyToString(request);
+      final String contentType = contentType(request);
+      if (bodyFormatters.isPrintable(contentType)) {
+        final String printableBody = bodyToString(request, contentType);
 
         // To handle situations, when we expect printable body based on
         // media type but nothing is returned.
         if (printableBody.isEmpty()) {
-          logLines(EMPTY_REQUEST_BODY, true);
+          logLines(event, EMPTY_REQUEST_BODY, true);
         } else {
           final String requestBody = LINE_SEPARATOR
               + BODY_TAG
               + LINE_SEPARATOR
               + printableBody;
 
-          logLines(requestBody.split(REGEX_LINE_SEPARATOR), true);
+          logLines(event, requestBody.split(REGEX_LINE_SEPARATOR), true);
         }
 
       } else {
-        logLines(OMITTED_REQUEST, true);
+        logLines(event, OMITTED_REQUEST, true);
       }
     }
   }
 
-  private static String mediaType(InterceptedRequest request) {
+  private static String contentType(InterceptedRequest request) {
     final InterceptedRequestBody requestBody = request.body();
 
-    String requestSubtype = null;
+    String contentType = null;
     if (nonNull(requestBody) && nonNull(requestBody.contentType())) {
-      requestSubtype = requestBody.contentType().subtype();
+      contentType = requestBody.contentType().toString();
     }
-    return requestSubtype;
+    return contentType;
   }
 
-  private static void printResponseBody(InterceptedResponse interceptedResponse) {
+  private void printResponseBody(StringBuilder event, InterceptedResponse interceptedResponse) {
     if (bodyShouldBePrinted()) {
-      if (interceptedResponse.hasPrintableBody) {
-        final String printableBody = formattedBody(interceptedResponse.originalBody);
-
+      final String printableBody = format(interceptedResponse.originalBody,
+          contentType(interceptedResponse));
+      if (nonNull(printableBody)) {
         if (printableBody.isEmpty()) {
-          logLines(EMPTY_RESPONSE_BODY, true);
+          logLines(event, EMPTY_RESPONSE_BODY, true);
         } else {
           final String responseBody = LINE_SEPARATOR
               + BODY_TAG
               + LINE_SEPARATOR
               + printableBody;
 
-          logLines(responseBody.split(REGEX_LINE_SEPARATOR), true);
+          logLines(event, responseBody.split(REGEX_LINE_SEPARATOR), true);
+        }
+        if (interceptedResponse.isBodyTruncated) {
+          logLines(event, new String[]{"", String.format(TRUNCATED_RESPONSE,
+              interceptedResponse.originalBody.length)}, true);
         }
       } else {
-        logLines(OMITTED_RESPONSE, true);
+        logLines(event, OMITTED_RESPONSE, true);
       }
     }
   }
 
-  private static boolean bodyShouldBePrinted() {
-    return loggerConfig.level == Level.BASIC || loggerConfig.level == Level.BODY;
+  private static String contentType(InterceptedResponse response) {
+    return isNull(response.contentType) ? null : response.contentType.toString();
+  }
+
+  private boolean bodyShouldBePrinted() {
+    return bodyShouldBePrinted(level);
+  }
+
+  private boolean headersShouldBePrinted() {
+    return headersShouldBePrinted(level);
   }
 
-  private static String[] requestDetails(InterceptedRequest request) {
-    final boolean isLoggable = loggerConfig.level == Level.HEADERS
-        || loggerConfig.level == Level.BASIC;
+  static boolean bodyShouldBePrinted(Level level) {
+    return level == Level.BASIC || level == Level.BODY;
+  }
+
+  static boolean headersShouldBePrinted(Level level) {
+    return level == Level.HEADERS || level == Level.BASIC;
+  }
 
+  private String[] requestDetails(InterceptedRequest request) {
     final String requestDetails = METHOD_TAG + request.method()
         + DOUBLE_SEPARATOR
-        + printHeaderIfLoggable(request.headers().toString(), isLoggable);
+        + printHeaderIfLoggable(request.headers().toString(), headersShouldBePrinted());
 
     return requestDetails.split(REGEX_LINE_SEPARATOR);
   }
 
-  private static String[] responseDetails(InterceptedResponse interceptedResponse) {
-    final boolean isLoggable = loggerConfig.level == Level.HEADERS
-        || loggerConfig.level == Level.BASIC;
-
+  private String[] responseDetails(InterceptedResponse interceptedResponse) {
     final String segmentString = slashSegments(interceptedResponse.segmentList);
     final String receivedTags = interceptedResponse.chainMs == 0
         ? ""
@@ -257,8 +405,11 @@ final class Printer {
         + interceptedResponse.isSuccessful + receivedTags
         + DOUBLE_SEPARATOR
         + STATUS_CODE_TAG + interceptedResponse.code + " / " + statusMessage
+        + (isNull(interceptedResponse.callTimings)
+        ? ""
+        : LINE_SEPARATOR + PHASES_TAG + interceptedResponse.callTimings.summary())
         + DOUBLE_SEPARATOR
-        + printHeaderIfLoggable(interceptedResponse.header, isLoggable);
+        + printHeaderIfLoggable(interceptedResponse.header, headersShouldBePrinted());
     return log.split(REGEX_LINE_SEPARATOR);
   }
 
@@ -279,37 +430,39 @@ final class Printer {
         : "";
   }
 
-  private static String bodyToString(final InterceptedRequest request) {
+  private String bodyToString(final InterceptedRequest request, final String contentType) {
     final InterceptedRequest copy = request.newBuilder().build();
     try (Buffer buffer = new Buffer()) {
       if (isNull(copy.body())) {
         return "";
       }
       copy.body().writeTo(buffer);
-      return formattedBody(buffer.readByteArray());
+      return format(buffer.readByteArray(), contentType);
     } catch (final IOException e) {
       return "{\"err\": \"" + e.getMessage() + "\"}";
     }
   }
 
-  private static void logLines(String[] lines, boolean withLineSize) {
-    logLines(lines, DEFAULT_LINE, withLineSize);
+  private void logLines(StringBuilder event, String[] lines, boolean withLineSize) {
+    logLines(event, lines, DEFAULT_LINE, withLineSize);
   }
 
-  private static void logLines(String[] lines, String startingWith, boolean withLineSize) {
+  private void logLines(StringBuilder event, String[] lines, String startingWith,
+      boolean withLineSize) {
     for (String line : lines) {
       if (isEmpty(line)) {
-        loggerConfig.logger.log(startingWith);
+        line(event, startingWith);
       } else {
-        logLine(startingWith, withLineSize, line);
+        logLine(event, startingWith, withLineSize, line);
       }
     }
   }
 
-  private static void logLine(String startingWith, boolean withLineSize, String line) {
+  private void logLine(StringBuilder event, String startingWith, boolean withLineSize,
+      String line) {
     final int lineLength = line.length();
     final int maxLongSize = withLineSize
-        ? loggerConfig.maxLineLength - startingWith.length()
+        ? maxLineLength - startingWith.length()
         : lineLength;
     for (int i = 0; i <= lineLength / maxLongSize; i++) {
       final int start = i * maxLongSize;
@@ -319,7 +472,7 @@ final class Printer {
       if (start != end) {
         // This condition check handles very rare occasion when multiline string exactly matches
         // max line length, in that case unnecessary empty line will be printed
-        loggerConfig.logger.log(startingWith + line.substring(start, end));
+        line(event, startingWith, line, start, end);
       }
     }
   }
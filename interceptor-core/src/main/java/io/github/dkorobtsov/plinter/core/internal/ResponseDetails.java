@@ -15,11 +15,13 @@ public class ResponseDetails {
   public final String message;
   public final InterceptedMediaType mediaType;
   public final Protocol protocol;
+  public final boolean isBodyTruncated;
 
+  @SuppressWarnings("PMD.ExcessiveParameterList")
   ResponseDetails(InterceptedResponseBody responseBody, InterceptedHeaders headers, int code,
       boolean isSuccessful,
       String message, InterceptedMediaType mediaType,
-      Protocol protocol) {
+      Protocol protocol, boolean isBodyTruncated) {
     this.responseBody = responseBody;
     this.headers = headers;
     this.code = code;
@@ -27,6 +29,7 @@ public class ResponseDetails {
     this.message = message;
     this.mediaType = mediaType;
     this.protocol = protocol;
+    this.isBodyTruncated = isBodyTruncated;
   }
 
   public static ResponseDetailsBuilder builder() {
@@ -43,6 +46,7 @@ public class ResponseDetails {
         + ", message='" + message + '\''
         + ", mediaType=" + mediaType
         + ", protocol=" + protocol
+        + ", isBodyTruncated=" + isBodyTruncated
         + '}';
   }
 
@@ -56,6 +60,7 @@ public class ResponseDetails {
     private String message;
     private InterceptedMediaType mediaType;
     private Protocol protocol;
+    private boolean isBodyTruncated;
 
     public ResponseDetails.ResponseDetailsBuilder responseBody(
         InterceptedResponseBody responseBody) {
@@ -93,9 +98,18 @@ public class ResponseDetails {
       return this;
     }
 
+    /**
+     * @param isBodyTruncated specifies if provided response body contains only first bytes of
+     * original body
+     */
+    public ResponseDetailsBuilder isBodyTruncated(boolean isBodyTruncated) {
+      this.isBodyTruncated = isBodyTruncated;
+      return this;
+    }
+
     public ResponseDetails build() {
       return new ResponseDetails(responseBody, headers, code, isSuccessful, message, mediaType,
-          protocol);
+          protocol, isBodyTruncated);
     }
 
     @Override
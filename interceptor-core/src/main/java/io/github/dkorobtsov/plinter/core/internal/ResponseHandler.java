@@ -58,6 +58,7 @@ public final class ResponseHandler {
         .hasPrintableBody(hasPrintableBody)
         .url(url)
         .chainMs(isNull(chainMs) ? 0 : chainMs)
+        .isBodyTruncated(response.isBodyTruncated)
         .build();
   }
 
@@ -0,0 +1,278 @@
+package io.github.dkorobtsov.plinter.core.internal;
+
+import io.github.dkorobtsov.plinter.core.OverflowPolicy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Asynchronous printer backed by bounded preallocated ring buffer and single consumer thread.
+ *
+ * Caller threads only claim a slot and store reference to intercepted event there, all
+ * formatting and logging happens in printer thread. Buffer is lock free: each slot has its own
+ * sequence number, producers claim slots with CAS on tail position and consumer releases them
+ * moving head position (see Dmitry Vyukov's bounded MPMC queue).
+ *
+ * What happens when buffer is full depends on configured {@link OverflowPolicy}.
+ */
+@SuppressWarnings("PMD.AvoidUsingVolatile")
+public final class RingBufferPrinter {
+
+  private static final Logger logger = Logger.getLogger(RingBufferPrinter.class.getName());
+  private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(1);
+  private static final String THREAD_NAME_PREFIX = "plinter-printer-";
+
+  private static final int SAMPLE_RATE = 8;
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final Printer printer;
+  private final OverflowPolicy overflowPolicy;
+  private final int capacity;
+  private final int mask;
+  private final Object[] events;
+  private final AtomicLongArray sequences;
+
+  private final AtomicLong tail = new AtomicLong();
+  private final AtomicLong head = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong sampleCounter = new AtomicLong();
+  private final AtomicBoolean started = new AtomicBoolean();
+
+  private volatile boolean running = true;
+  private volatile boolean consumerWaiting;
+  private volatile Thread consumer;
+
+  /**
+   * @param printer printer of configuration which enabled asynchronous printing
+   */
+  RingBufferPrinter(Printer printer, int bufferSize, OverflowPolicy overflowPolicy) {
+    this.printer = printer;
+    this.overflowPolicy = overflowPolicy;
+    this.capacity = nextPowerOfTwo(bufferSize);
+    this.mask = capacity - 1;
+    this.events = new Object[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Hands off intercepted request to printer thread.
+   */
+  public void publish(InterceptedRequest request) {
+    publishEvent(request);
+  }
+
+  /**
+   * Hands off intercepted response to printer thread.
+   */
+  public void publish(InterceptedResponse response) {
+    publishEvent(response);
+  }
+
+  /**
+   * @return number of events waiting to be printed
+   */
+  public int pending() {
+    return (int) Math.max(0, tail.get() - head.get());
+  }
+
+  /**
+   * @return number of events discarded because buffer was full
+   */
+  public long dropped() {
+    return dropped.get();
+  }
+
+  /**
+   * @return real buffer capacity (requested size rounded up to the power of two)
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Stops printer thread. Events already published to buffer will be printed before thread
+   * exits, new events are ignored.
+   */
+  public void shutdown() {
+    running = false;
+    final Thread thread = consumer;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  /**
+   * Hands off event (intercepted request, response or event degraded because of exhausted log
+   * budget) which should be printed by provided printer, for example printer of configuration
+   * with {@link io.github.dkorobtsov.plinter.core.LoggingOverride} applied.
+   */
+  void publish(Printer printer, Object event) {
+    publishEvent(printer == this.printer ? event : new PrinterBoundEvent(printer, event));
+  }
+
+  private void publishEvent(Object event) {
+    if (!running) {
+      dropped.incrementAndGet();
+      return;
+    }
+    startConsumerIfNeeded();
+
+    switch (overflowPolicy) {
+      case DROP_NEWEST:
+        if (!offer(event)) {
+          dropped.incrementAndGet();
+        }
+        break;
+
+      case DROP_OLDEST:
+        while (!offer(event)) {
+          if (poll() != null) {
+            dropped.incrementAndGet();
+          }
+        }
+        break;
+
+      case SAMPLE:
+        if ((pending() >= capacity / 2
+            && sampleCounter.getAndIncrement() % SAMPLE_RATE != 0)
+            || !offer(event)) {
+          dropped.incrementAndGet();
+        }
+        break;
+
+      case BLOCK:
+      default:
+        while (!offer(event)) {
+          wakeUpConsumer();
+          LockSupport.parkNanos(this, FULL_PARK_NANOS);
+        }
+        break;
+    }
+    wakeUpConsumer();
+  }
+
+  private boolean offer(Object event) {
+    long position = tail.get();
+    while (true) {
+      final int index = (int) position & mask;
+      final long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          events[index] = event;
+          sequences.set(index, position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (difference < 0) {
+        return false;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  private Object poll() {
+    long position = head.get();
+    while (true) {
+      final int index = (int) position & mask;
+      final long difference = sequences.get(index) - (position + 1);
+      if (difference == 0) {
+        if (head.compareAndSet(position, position + 1)) {
+          final Object event = events[index];
+          events[index] = null;
+          sequences.set(index, position + capacity);
+          return event;
+        }
+        position = head.get();
+      } else if (difference < 0) {
+        return null;
+      } else {
+        position = head.get();
+      }
+    }
+  }
+
+  private void wakeUpConsumer() {
+    if (consumerWaiting) {
+      LockSupport.unpark(consumer);
+    }
+  }
+
+  private void startConsumerIfNeeded() {
+    if (!started.get() && started.compareAndSet(false, true)) {
+      final Thread thread = new Thread(this::consume,
+          THREAD_NAME_PREFIX + THREAD_COUNTER.getAndIncrement());
+      thread.setDaemon(true);
+      consumer = thread;
+      thread.start();
+    }
+  }
+
+  private void consume() {
+    while (running || pending() > 0) {
+      final Object event = poll();
+      if (event == null) {
+        consumerWaiting = true;
+        if (pending() == 0 && running) {
+          // Timeout is just a safety net, producers unpark consumer after each publish
+          LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        consumerWaiting = false;
+      } else {
+        print(event);
+      }
+    }
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private void print(Object event) {
+    try {
+      if (event instanceof PrinterBoundEvent) {
+        final PrinterBoundEvent boundEvent = (PrinterBoundEvent) event;
+        boundEvent.printer.print(boundEvent.event);
+      } else {
+        printer.print(event);
+      }
+    } catch (RuntimeException e) {
+      logger.log(Level.SEVERE, e.getMessage(), e);
+    }
+  }
+
+  private static int nextPowerOfTwo(int value) {
+    final int size = Math.max(2, value);
+    final int highestBit = Integer.highestOneBit(size);
+    return highestBit == size ? size : highestBit << 1;
+  }
+
+  @Override
+  public String toString() {
+    return "RingBufferPrinter{"
+        + "capacity=" + capacity
+        + ", overflowPolicy=" + overflowPolicy
+        + '}';
+  }
+
+  /**
+   * Event which should be printed by printer other than the default one.
+   */
+  private static final class PrinterBoundEvent {
+
+    private final Printer printer;
+    private final Object event;
+
+    PrinterBoundEvent(Printer printer, Object event) {
+      this.printer = printer;
+      this.event = event;
+    }
+  }
+
+}
@@ -0,0 +1,182 @@
+package io.github.dkorobtsov.plinter.core.internal;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Concurrent histogram of non negative values with log-linear buckets: values below 8 have their
+ * own buckets and every next power of two range is split into 8 equal buckets, so any value is
+ * reported with relative error below 12.5%. Values above 2^41 (about 70 years in milliseconds or
+ * 2 TiB in bytes) are counted in the last bucket.
+ *
+ * Recording is lock free. Like {@link java.util.concurrent.atomic.LongAdder}, histogram starts
+ * with single stripe of counters (allocated on first record, {@value #STRIPE_BYTES} bytes) and
+ * is inflated only when threads recording at the same time collide on it: from then on counters
+ * are striped by thread (up to 8 stripes, allocated on first use), so concurrent threads rarely
+ * update the same memory. Histograms which are never updated concurrently stay at one stripe.
+ * Number of striped histograms can be limited with shared inflation budget.
+ */
+@SuppressWarnings("PMD.AvoidUsingVolatile")
+public final class StripedHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int MAX_EXPONENT = 40;
+  private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+  private static final int MAX_STRIPES = 8;
+
+  /**
+   * Number of buckets in every histogram.
+   */
+  public static final int BUCKETS
+      = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  // Every stripe keeps bucket counters followed by the sum of recorded values
+  private static final int SUM_SLOT = BUCKETS;
+  private static final int STRIPE_SIZE = BUCKETS + 1;
+  private static final int STRIPES = stripes(Runtime.getRuntime().availableProcessors());
+
+  /**
+   * Approximate size of one stripe of counters.
+   */
+  public static final int STRIPE_BYTES = STRIPE_SIZE * Long.BYTES;
+
+  private final AtomicReferenceArray<AtomicLongArray> stripes
+      = new AtomicReferenceArray<>(STRIPES);
+  private final AtomicInteger inflationBudget;
+  private volatile boolean isInflated;
+
+  public StripedHistogram() {
+    this(null);
+  }
+
+  /**
+   * @param inflationBudget number of histograms sharing this budget which may still be striped;
+   * once it's exhausted, contended histograms keep updating their single stripe
+   */
+  public StripedHistogram(AtomicInteger inflationBudget) {
+    this.inflationBudget = inflationBudget;
+  }
+
+  public void record(long value) {
+    final long bounded = Math.min(Math.max(value, 0), MAX_VALUE);
+    final int bucket = bucketIndex(bounded);
+    if (!isInflated) {
+      // Sum is updated by every record, so failed CAS on it means concurrent recording
+      final AtomicLongArray base = stripe(0);
+      final long sum = base.get(SUM_SLOT);
+      if (base.compareAndSet(SUM_SLOT, sum, sum + bounded)) {
+        base.incrementAndGet(bucket);
+        return;
+      }
+      if (!tryInflate()) {
+        base.incrementAndGet(bucket);
+        base.addAndGet(SUM_SLOT, bounded);
+        return;
+      }
+    }
+    final AtomicLongArray stripe = stripe((int) Thread.currentThread().getId() & (STRIPES - 1));
+    stripe.incrementAndGet(bucket);
+    stripe.addAndGet(SUM_SLOT, bounded);
+  }
+
+  private boolean tryInflate() {
+    if (nonNull(inflationBudget)) {
+      int left;
+      do {
+        if (isInflated) {
+          return true;
+        }
+        left = inflationBudget.get();
+        if (left <= 0) {
+          return false;
+        }
+      } while (!inflationBudget.compareAndSet(left, left - 1));
+    }
+    isInflated = true;
+    return true;
+  }
+
+  /**
+   * @return number of allocated stripes of counters
+   */
+  public int stripeCount() {
+    int count = 0;
+    for (int i = 0; i < STRIPES; i++) {
+      if (nonNull(stripes.get(i))) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @param reset if true, counters are reset while being read. Every recorded value is included
+   * either in this or in the next snapshot.
+   * @return bucket counts followed by the sum of recorded values
+   */
+  public long[] snapshot(boolean reset) {
+    final long[] counts = new long[STRIPE_SIZE];
+    for (int i = 0; i < STRIPES; i++) {
+      final AtomicLongArray stripe = stripes.get(i);
+      if (isNull(stripe)) {
+        continue;
+      }
+      for (int slot = 0; slot < STRIPE_SIZE; slot++) {
+        counts[slot] += reset ? stripe.getAndSet(slot, 0) : stripe.get(slot);
+      }
+    }
+    return counts;
+  }
+
+  /**
+   * @return index of bucket value is counted in
+   */
+  public static int bucketIndex(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    final int exponent = 63 - Long.numberOfLeadingZeros(Math.min(value, MAX_VALUE));
+    final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * @return the smallest value counted in bucket
+   */
+  public static long lowerBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    final int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+    final int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+    return (1L << exponent) + ((long) subBucket << (exponent - SUB_BUCKET_BITS));
+  }
+
+  /**
+   * @return the largest value counted in bucket
+   */
+  public static long upperBound(int index) {
+    return index >= BUCKETS - 1 ? MAX_VALUE : lowerBound(index + 1) - 1;
+  }
+
+  private AtomicLongArray stripe(int index) {
+    AtomicLongArray stripe = stripes.get(index);
+    if (isNull(stripe)) {
+      stripes.compareAndSet(index, null, new AtomicLongArray(STRIPE_SIZE));
+      stripe = stripes.get(index);
+    }
+    return stripe;
+  }
+
+  private static int stripes(int processors) {
+    final int stripes = Math.min(MAX_STRIPES, Math.max(1, processors));
+    final int highestBit = Integer.highestOneBit(stripes);
+    return highestBit == stripes ? stripes : highestBit << 1;
+  }
+
+}
@@ -0,0 +1,83 @@
+package io.github.dkorobtsov.plinter.core.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock free rate limiter allowing up to given number of events per second with bursts of the
+ * same size.
+ *
+ * Instead of counting tokens, bucket keeps theoretical arrival time of the next event (generic
+ * cell rate algorithm): each accepted event moves it forward by one emission interval and event
+ * is rejected if that time is too far ahead of now. So acquiring permit is a single CAS on one
+ * AtomicLong, no background refill is needed.
+ */
+public final class TokenBucket {
+
+  /**
+   * Max supported rate: emission interval can't be shorter than one nanosecond.
+   */
+  public static final double MAX_EVENTS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final long intervalNanos;
+  private final long burstNanos;
+  private final AtomicLong nextFreeNanos;
+
+  /**
+   * @param eventsPerSecond max sustained rate (up to {@link #MAX_EVENTS_PER_SECOND}), also used
+   * as burst size (but not less than 1)
+   */
+  public TokenBucket(double eventsPerSecond) {
+    if (eventsPerSecond <= 0) {
+      throw new IllegalArgumentException("Invalid rate. Should be greater than 0.");
+    }
+    if (eventsPerSecond > MAX_EVENTS_PER_SECOND) {
+      throw new IllegalArgumentException(
+          "Invalid rate. Should not exceed " + (long) MAX_EVENTS_PER_SECOND + " per second.");
+    }
+    this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / eventsPerSecond);
+    this.burstNanos = intervalNanos * (long) Math.max(1, Math.ceil(eventsPerSecond));
+    this.nextFreeNanos = new AtomicLong(System.nanoTime() - burstNanos);
+  }
+
+  /**
+   * @return true if event is allowed, false if rate is exceeded
+   */
+  public boolean tryAcquire() {
+    return tryAcquire(1);
+  }
+
+  /**
+   * @param permits number of permits (events, bytes etc.) to acquire at once
+   * @return true if all permits are acquired, false if rate is exceeded. In latter case nothing
+   * is acquired.
+   */
+  public boolean tryAcquire(long permits) {
+    if (permits > burstNanos / intervalNanos) {
+      // Will never fit into the bucket
+      return false;
+    }
+    final long now = System.nanoTime();
+    final long cost = intervalNanos * permits;
+    while (true) {
+      final long next = nextFreeNanos.get();
+      // Idle time is not accumulated beyond burst size
+      final long updated = Math.max(next, now - burstNanos) + cost;
+      if (updated - now > 0) {
+        return false;
+      }
+      if (nextFreeNanos.compareAndSet(next, updated)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Returns previously acquired permits, for example when they were acquired as part of several
+   * limits and some other limit was exceeded.
+   */
+  public void release(long permits) {
+    nextFreeNanos.addAndGet(-intervalNanos * permits);
+  }
+
+}
@@ -185,6 +185,51 @@ public final class Util {
     //CHECKSTYLE:ON
   }
 
+  /**
+   * Same as {@link #encodedPathSegments(URL)}, but accepts both absolute url and path with
+   * optional query (like request line uri) and doesn't parse url.
+   */
+  public static List<String> pathSegmentsOf(String uri) {
+    if (isNull(uri)) {
+      return Collections.emptyList();
+    }
+    final int schemeEnd = uri.indexOf("://");
+    final int pathStart = schemeEnd < 0
+        ? (uri.startsWith("/") ? 0 : -1)
+        : delimiterOffset(uri, schemeEnd + 3, uri.length(), "/?#");
+    if (pathStart < 0 || pathStart == uri.length() || uri.charAt(pathStart) != '/') {
+      return Collections.emptyList();
+    }
+    final int pathEnd = delimiterOffset(uri, pathStart, uri.length(), "?#");
+    final List<String> result = new ArrayList<>();
+    for (int i = pathStart; i < pathEnd; ) {
+      i++;  // Skip the '/'.
+      final int segmentEnd = delimiterOffset(uri, i, pathEnd, '/');
+      result.add(uri.substring(i, segmentEnd));
+      i = segmentEnd;
+    }
+    return result;
+  }
+
+  /**
+   * Extracts host from url string without parsing complete url.
+   *
+   * @return host or null if url has no scheme
+   */
+  public static String hostOf(String url) {
+    final int schemeEnd = isNull(url) ? -1 : url.indexOf("://");
+    if (schemeEnd < 0) {
+      return null;
+    }
+    final int authorityStart = schemeEnd + 3;
+    final int authorityEnd = delimiterOffset(url, authorityStart, url.length(), "/?#");
+    final int hostStart = Math.max(authorityStart, url.lastIndexOf('@', authorityEnd - 1) + 1);
+    final int hostEnd = url.charAt(Math.min(hostStart, url.length() - 1)) == '['
+        ? delimiterOffset(url, hostStart, authorityEnd, ']') + 1
+        : delimiterOffset(url, hostStart, authorityEnd, ':');
+    return url.substring(hostStart, Math.min(hostEnd, authorityEnd));
+  }
+
   @SuppressWarnings("BooleanExpressionComplexity")
   public static boolean hasPrintableBody(final String mediaType) {
     if (isNull(mediaType)) {
@@ -0,0 +1,227 @@
+package io.github.dkorobtsov.plinter.core.internal;
+
+import static java.util.Objects.nonNull;
+
+import java.io.StringReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Streaming XML pretty printer. Document is re-indented event by event using StAX reader, no DOM
+ * is built. Input factory is created once and configured to ignore DTDs and external entities.
+ *
+ * Layout follows the one printed by DOM LSSerializer (that's what was used before): nested
+ * elements are indented by 4 spaces, elements containing only text are kept on one line and empty
+ * elements are collapsed to {@code <tag/>}. Unlike DOM serializer, original attribute order is
+ * preserved.
+ */
+final class XmlFormatter {
+
+  private static final int INDENT = 4;
+  private static final String XML_DECLARATION_START = "<?xml";
+  private static final String REPORT_CDATA_PROPERTY
+      = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+  private static final XMLInputFactory INPUT_FACTORY = inputFactory();
+
+  private final StringBuilder out;
+  private final StringBuilder text = new StringBuilder();
+  private int depth;
+  private boolean startTagOpen;
+
+  private XmlFormatter(int expectedLength) {
+    this.out = new StringBuilder(expectedLength + expectedLength / 2);
+  }
+
+  /**
+   * @param xml document to format
+   * @return formatted document or null if provided text is not well formed XML
+   */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  static String format(String xml) {
+    XMLStreamReader reader = null;
+    try {
+      reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+      return new XmlFormatter(xml.length())
+          .write(reader, xml.startsWith(XML_DECLARATION_START));
+    } catch (XMLStreamException | RuntimeException e) {
+      return null;
+    } finally {
+      closeQuietly(reader);
+    }
+  }
+
+  private static XMLInputFactory inputFactory() {
+    final XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    // Element and attribute names are printed exactly as they are in the source
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    try {
+      // JDK built-in implementation reports CDATA sections as plain text by default
+      factory.setProperty(REPORT_CDATA_PROPERTY, true);
+    } catch (IllegalArgumentException e) {
+      // Other implementations report CDATA sections anyway
+    }
+    return factory;
+  }
+
+  @SuppressWarnings("PMD.CyclomaticComplexity")
+  private String write(XMLStreamReader reader, boolean keepDeclaration)
+      throws XMLStreamException {
+    if (keepDeclaration) {
+      writeDeclaration(reader);
+    }
+    while (reader.hasNext()) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT:
+          writeStartElement(reader);
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          writeEndElement(reader);
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.SPACE:
+          appendEscaped(text, reader.getText(), false);
+          break;
+        case XMLStreamConstants.CDATA:
+          text.append("<![CDATA[").append(reader.getText()).append("]]>");
+          break;
+        case XMLStreamConstants.COMMENT:
+          writeNode("<!--" + reader.getText() + "-->");
+          break;
+        case XMLStreamConstants.PROCESSING_INSTRUCTION:
+          writeNode("<?" + reader.getPITarget()
+              + (nonNull(reader.getPIData()) ? " " + reader.getPIData() : "") + "?>");
+          break;
+        case XMLStreamConstants.DTD:
+          writeNode(reader.getText());
+          break;
+        default:
+          break;
+      }
+    }
+    return out.toString();
+  }
+
+  private void writeDeclaration(XMLStreamReader reader) {
+    out.append("<?xml version=\"")
+        .append(nonNull(reader.getVersion()) ? reader.getVersion() : "1.0")
+        .append('"');
+    if (nonNull(reader.getCharacterEncodingScheme())) {
+      out.append(" encoding=\"").append(reader.getCharacterEncodingScheme()).append('"');
+    }
+    if (reader.standaloneSet()) {
+      out.append(" standalone=\"").append(reader.isStandalone() ? "yes" : "no").append('"');
+    }
+    out.append("?>");
+  }
+
+  private void writeStartElement(XMLStreamReader reader) {
+    flushText();
+    newLine();
+    out.append('<').append(reader.getLocalName());
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      out.append(' ').append(attributeName(reader, i)).append("=\"");
+      appendEscaped(out, reader.getAttributeValue(i), true);
+      out.append('"');
+    }
+    startTagOpen = true;
+    depth++;
+  }
+
+  private static String attributeName(XMLStreamReader reader, int index) {
+    final String prefix = reader.getAttributePrefix(index);
+    final String localName = reader.getAttributeLocalName(index);
+    return isBlank(prefix) ? localName : prefix + ':' + localName;
+  }
+
+  private void writeEndElement(XMLStreamReader reader) {
+    depth--;
+    if (startTagOpen) {
+      // Element has no child nodes except text, so printing it in one line
+      startTagOpen = false;
+      if (isBlank(text)) {
+        out.append("/>");
+      } else {
+        out.append('>').append(text).append("</").append(reader.getLocalName()).append('>');
+      }
+      text.setLength(0);
+      return;
+    }
+    flushText();
+    newLine();
+    out.append("</").append(reader.getLocalName()).append('>');
+  }
+
+  private void writeNode(String node) {
+    flushText();
+    newLine();
+    out.append(node);
+  }
+
+  /**
+   * Closes currently open start tag and prints accumulated text (if any) as separate line.
+   */
+  private void flushText() {
+    if (startTagOpen) {
+      out.append('>');
+      startTagOpen = false;
+    }
+    if (!isBlank(text)) {
+      newLine();
+      out.append(text.toString().trim());
+    }
+    text.setLength(0);
+  }
+
+  private void newLine() {
+    if (out.length() > 0) {
+      out.append('\n');
+    }
+    for (int i = depth * INDENT; i > 0; i--) {
+      out.append(' ');
+    }
+  }
+
+  private static void appendEscaped(StringBuilder builder, String value, boolean isAttribute) {
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (c == '&') {
+        builder.append("&amp;");
+      } else if (c == '<') {
+        builder.append("&lt;");
+      } else if (c == '>') {
+        builder.append("&gt;");
+      } else if (c == '"' && isAttribute) {
+        builder.append("&quot;");
+      } else {
+        builder.append(c);
+      }
+    }
+  }
+
+  private static boolean isBlank(CharSequence value) {
+    if (value == null) {
+      return true;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      if (!Character.isWhitespace(value.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void closeQuietly(XMLStreamReader reader) {
+    if (nonNull(reader)) {
+      try {
+        reader.close();
+      } catch (XMLStreamException ignored) {
+        // Nothing to do here
+      }
+    }
+  }
+
+}
@@ -58,6 +58,14 @@ dependencies {
     testImplementation("com.sparkjava:spark-core:2.8.0")
 }
 
+// JDK HttpClient adapter tests are compiled and executed only with Java 11 or newer
+if (JavaVersion.current().isJava11Compatible) {
+    dependencies {
+        testImplementation(project(":jdk-interceptor"))
+    }
+    sourceSets["test"].java.srcDir("src/test/java11")
+}
+
 tasks.named<Jar>("jar") {
     manifest {
         attributes(mapOf(
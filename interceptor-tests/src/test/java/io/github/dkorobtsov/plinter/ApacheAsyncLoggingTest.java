@@ -0,0 +1,243 @@
+package io.github.dkorobtsov.plinter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+import io.github.dkorobtsov.plinter.apache.ApacheAsyncLoggingInterceptor;
+import io.github.dkorobtsov.plinter.core.LogCondition;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.MetricsRecorder;
+import io.github.dkorobtsov.plinter.core.MetricsRecorder.Snapshot;
+import io.github.dkorobtsov.plinter.core.OverflowPolicy;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests validating logging of Apache HttpAsyncClient exchanges.
+ */
+public class ApacheAsyncLoggingTest extends BaseTest {
+
+  private static final String REQUEST_BODY = "{\"name\": \"Jane\"}";
+  private static final String RESPONSE_BODY = "{\"id\": 1, \"name\": \"John\"}";
+
+  private final List<String> output = new CopyOnWriteArrayList<>();
+  private CloseableHttpAsyncClient client;
+
+  @Before
+  public void startClient() {
+    client = HttpAsyncClients.createDefault();
+    client.start();
+  }
+
+  @After
+  public void stopClient() throws IOException {
+    client.close();
+  }
+
+  @Test
+  public void asyncExchange_requestAndResponseBodiesArePrinted() throws Exception {
+    final ApacheAsyncLoggingInterceptor interceptor = new ApacheAsyncLoggingInterceptor(
+        LoggerConfig.builder()
+            .logger(output::add)
+            .build());
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        // Execution time is printed only if it's not 0
+        TimeUnit.MILLISECONDS.sleep(10);
+        return jsonResponse(RESPONSE_BODY);
+      }
+    });
+
+    final HttpResponse response = post(interceptor, REQUEST_BODY);
+
+    assertThat(EntityUtils.toString(response.getEntity())).isEqualTo(RESPONSE_BODY);
+    final RecordedRequest recordedRequest = server.takeRequest();
+    assertThat(recordedRequest.getBody().readUtf8()).isEqualTo(REQUEST_BODY);
+
+    awaitOutput("Execution time: ");
+    final String log = String.join("\n", output);
+    assertThat(log)
+        .contains("Request")
+        .contains("\"name\": \"Jane\"")
+        .contains("Status Code: 200")
+        .contains("\"id\": 1")
+        .contains("Execution time: ");
+  }
+
+  @Test
+  public void asyncExchange_responseBodyIsCapturedUpToLimit() throws Exception {
+    final ApacheAsyncLoggingInterceptor interceptor = new ApacheAsyncLoggingInterceptor(
+        LoggerConfig.builder()
+            .logger(output::add)
+            .bodyCaptureLimit(10)
+            .build());
+    final String body = "{\"items\": [" + String.join(",", java.util.Collections
+        .nCopies(2000, "\"value\"")) + "]}";
+    server.enqueue(jsonResponse(body));
+
+    final HttpResponse response = get(interceptor);
+
+    // Application still receives complete body
+    assertThat(EntityUtils.toString(response.getEntity())).isEqualTo(body);
+    awaitOutput("Response body truncated");
+    assertThat(String.join("\n", output))
+        .contains("Response body truncated to 10 bytes")
+        .doesNotContain("\"value\",\"value\"");
+  }
+
+  @Test
+  public void asyncExchange_isPrintedWithAsyncPrinter() throws Exception {
+    final ApacheAsyncLoggingInterceptor interceptor = new ApacheAsyncLoggingInterceptor(
+        LoggerConfig.builder()
+            .logger(output::add)
+            .asyncPrinting(64, OverflowPolicy.BLOCK)
+            .build());
+    server.enqueue(jsonResponse(RESPONSE_BODY));
+
+    get(interceptor);
+
+    awaitOutput("\"id\": 1");
+    assertThat(String.join("\n", output)).contains("\"id\": 1");
+  }
+
+  @Test
+  public void asyncExchange_isNeverPrintedByReactorThread() throws Exception {
+    final ApacheAsyncLoggingInterceptor interceptor = new ApacheAsyncLoggingInterceptor(
+        LoggerConfig.builder()
+            .logger(output::add)
+            .withThreadInfo(true)
+            .build());
+    server.enqueue(jsonResponse(RESPONSE_BODY));
+
+    get(interceptor);
+
+    awaitOutput("\"id\": 1");
+    assertThat(String.join("\n", output))
+        .contains("plinter-printer-")
+        .doesNotContain("I/O dispatcher");
+  }
+
+  @Test
+  public void asyncExchange_metricsAreRecorded() throws Exception {
+    final MetricsRecorder metrics = MetricsRecorder.builder().build();
+    final ApacheAsyncLoggingInterceptor interceptor = new ApacheAsyncLoggingInterceptor(
+        LoggerConfig.builder()
+            .logger(output::add)
+            .metrics(metrics)
+            .build());
+    server.enqueue(jsonResponse(RESPONSE_BODY));
+    server.enqueue(new MockResponse().setResponseCode(500)
+        .setHeader("Content-Type", "application/octet-stream")
+        .setBody("error"));
+
+    EntityUtils.consume(post(interceptor, REQUEST_BODY).getEntity());
+    EntityUtils.consume(get(interceptor).getEntity());
+
+    assertThat(metrics.snapshot()).hasSize(2);
+    final Snapshot succeeded = metrics.snapshot().entrySet().stream()
+        .filter(entry -> "2xx".equals(entry.getKey().statusClass))
+        .findFirst().get().getValue();
+    assertThat(succeeded.latencyMs.count()).isEqualTo(1);
+    assertThat(succeeded.requestBytes.sum()).isEqualTo(REQUEST_BODY.length());
+    assertThat(succeeded.responseBytes.sum()).isEqualTo(RESPONSE_BODY.length());
+
+    final Snapshot failed = metrics.snapshot().entrySet().stream()
+        .filter(entry -> "5xx".equals(entry.getKey().statusClass))
+        .findFirst().get().getValue();
+    assertThat(failed.responseBytes.sum()).isEqualTo("error".length());
+  }
+
+  @Test
+  public void asyncExchange_conditionalLoggingPrintsOnlyMatchingExchanges() throws Exception {
+    final ApacheAsyncLoggingInterceptor interceptor = new ApacheAsyncLoggingInterceptor(
+        LoggerConfig.builder()
+            .logger(output::add)
+            .logCondition(LogCondition.serverErrors())
+            .build());
+    server.enqueue(jsonResponse(RESPONSE_BODY));
+    server.enqueue(new MockResponse().setResponseCode(503)
+        .setHeader("Content-Type", "application/json")
+        .setBody("{\"error\": \"unavailable\"}"));
+
+    EntityUtils.consume(post(interceptor, REQUEST_BODY).getEntity());
+    assertThat(output).isEmpty();
+
+    EntityUtils.consume(post(interceptor, REQUEST_BODY).getEntity());
+    awaitOutput("unavailable");
+    assertThat(String.join("\n", output))
+        .contains("\"name\": \"Jane\"")
+        .contains("Status Code: 503")
+        .doesNotContain("Status Code: 200");
+  }
+
+  @Test
+  public void asyncExchange_failureIsRecordedInMetrics() throws Exception {
+    final MetricsRecorder metrics = MetricsRecorder.builder().build();
+    final ApacheAsyncLoggingInterceptor interceptor = new ApacheAsyncLoggingInterceptor(
+        LoggerConfig.builder()
+            .logger(output::add)
+            .metrics(metrics)
+            .build());
+    final String url = String.valueOf(server.url("/api/orders"));
+    server.shutdown();
+
+    try {
+      interceptor.execute(client, new HttpGet(url), null).get(5, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isInstanceOf(IOException.class);
+    }
+
+    assertThat(metrics.snapshot().keySet())
+        .extracting(key -> key.statusClass)
+        .containsExactly("failed");
+  }
+
+  /**
+   * Exchanges are printed by printer thread, so output is checked once expected event arrives.
+   */
+  private void awaitOutput(String text) throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + 5000;
+    while (output.stream().noneMatch(event -> event.contains(text))
+        && System.currentTimeMillis() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+  }
+
+  private HttpResponse post(ApacheAsyncLoggingInterceptor interceptor, String body)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    final HttpPost post = new HttpPost(String.valueOf(server.url("/api/orders")));
+    post.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+    return interceptor.execute(client, post, null).get(5, TimeUnit.SECONDS);
+  }
+
+  private HttpResponse get(ApacheAsyncLoggingInterceptor interceptor)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    return interceptor.execute(client, new HttpGet(String.valueOf(server.url("/api/orders"))),
+        null).get(5, TimeUnit.SECONDS);
+  }
+
+  private static MockResponse jsonResponse(String body) {
+    return new MockResponse().setResponseCode(200)
+        .setHeader("Content-Type", "application/json")
+        .setBody(body);
+  }
+
+}
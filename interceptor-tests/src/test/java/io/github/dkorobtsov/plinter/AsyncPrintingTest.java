@@ -0,0 +1,197 @@
+package io.github.dkorobtsov.plinter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import io.github.dkorobtsov.plinter.core.LogWriter;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.OverflowPolicy;
+import io.github.dkorobtsov.plinter.core.internal.ClientPrintingExecutor;
+import io.github.dkorobtsov.plinter.core.internal.ConfigInternals;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedRequest;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests validating asynchronous printing through bounded ring buffer.
+ */
+@RunWith(JUnitParamsRunner.class)
+public class AsyncPrintingTest extends BaseTest {
+
+  private static final String TEST_URL = "http://google.com/api/test/";
+  private static final String REQUEST_STARTING_LINE = "┌────── Request";
+  private static final long TIMEOUT_MS = 5000;
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void asyncPrinting_requestAndResponseArePrinted(String interceptor) {
+    server.enqueue(new MockResponse().setResponseCode(200));
+    final CollectingLogWriter logWriter = new CollectingLogWriter(null);
+
+    interceptWithConfig(interceptor, LoggerConfig.builder()
+        .logger(logWriter)
+        .asyncPrinting(16, OverflowPolicy.BLOCK)
+        .build());
+
+    awaitCondition(() -> logWriter.contains("Status Code: 200"));
+    assertTrue("Request should be printed asynchronously.",
+        logWriter.contains("Request"));
+  }
+
+  @Test
+  public void asyncPrinting_eventsArePrintedInPrinterThread() {
+    final CollectingLogWriter logWriter = new CollectingLogWriter(null);
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(logWriter)
+        .withThreadInfo(true)
+        .asyncPrinting(16, OverflowPolicy.BLOCK)
+        .build();
+
+    ClientPrintingExecutor.printRequest(loggerConfig, request(TEST_URL));
+
+    awaitCondition(() -> logWriter.contains("Thread:"));
+    assertTrue("Event should be printed by dedicated printer thread.",
+        logWriter.contains("plinter-printer-"));
+  }
+
+  @Test
+  public void asyncPrinting_printerIsCreatedOnlyWhenUsed() {
+    final LoggerConfig syncConfig = LoggerConfig.builder().build();
+    assertThat(ConfigInternals.of(syncConfig).asyncPrinter()).isNull();
+
+    final LoggerConfig asyncConfig = LoggerConfig.builder()
+        .logger(msg -> {
+        })
+        .asyncPrinting(16, OverflowPolicy.DROP_NEWEST)
+        .build();
+    assertThat(ConfigInternals.of(asyncConfig).createdAsyncPrinter()).isNull();
+
+    ClientPrintingExecutor.printRequest(asyncConfig, request(TEST_URL));
+    assertThat(ConfigInternals.of(asyncConfig).createdAsyncPrinter()).isNotNull();
+  }
+
+  @Test
+  public void asyncPrinting_blockPolicyDoesNotLoseEvents() {
+    final int eventsCount = 50;
+    final CollectingLogWriter logWriter = new CollectingLogWriter(null);
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(logWriter)
+        .asyncPrinting(2, OverflowPolicy.BLOCK)
+        .build();
+
+    for (int i = 0; i < eventsCount; i++) {
+      ClientPrintingExecutor.printRequest(loggerConfig, request(TEST_URL + i));
+    }
+
+    awaitCondition(() -> logWriter.count(REQUEST_STARTING_LINE) == eventsCount);
+    assertEquals("Dropped events", 0, ConfigInternals.of(loggerConfig).asyncPrinter().dropped());
+  }
+
+  @Test
+  public void asyncPrinting_dropNewestPolicyDoesNotBlockCaller() {
+    final CountDownLatch printerReleased = new CountDownLatch(1);
+    final CollectingLogWriter logWriter = new CollectingLogWriter(printerReleased);
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(logWriter)
+        .asyncPrinting(2, OverflowPolicy.DROP_NEWEST)
+        .build();
+
+    for (int i = 0; i < 20; i++) {
+      ClientPrintingExecutor.printRequest(loggerConfig, request(TEST_URL + i));
+    }
+
+    assertThat(ConfigInternals.of(loggerConfig).asyncPrinter().dropped()).isGreaterThan(0);
+    printerReleased.countDown();
+  }
+
+  @Test
+  public void asyncPrinting_dropOldestPolicyKeepsLatestEvents() {
+    final CountDownLatch printerReleased = new CountDownLatch(1);
+    final CollectingLogWriter logWriter = new CollectingLogWriter(printerReleased);
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(logWriter)
+        .asyncPrinting(2, OverflowPolicy.DROP_OLDEST)
+        .build();
+
+    for (int i = 0; i < 20; i++) {
+      ClientPrintingExecutor.printRequest(loggerConfig, request(TEST_URL + i));
+    }
+    printerReleased.countDown();
+
+    awaitCondition(() -> logWriter.contains("URL: " + TEST_URL + 19));
+    assertThat(ConfigInternals.of(loggerConfig).asyncPrinter().dropped()).isGreaterThan(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void asyncPrinting_invalidBufferSize() {
+    LoggerConfig.builder()
+        .asyncPrinting(0, OverflowPolicy.BLOCK)
+        .build();
+  }
+
+  private static InterceptedRequest request(String url) {
+    return new InterceptedRequest.Builder()
+        .get()
+        .url(url)
+        .build();
+  }
+
+  private static void awaitCondition(BooleanSupplier condition) {
+    final long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    while (!condition.getAsBoolean()) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new AssertionError("Condition was not met in " + TIMEOUT_MS + "ms.");
+      }
+      try {
+        TimeUnit.MILLISECONDS.sleep(5);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new AssertionError(e);
+      }
+    }
+  }
+
+  /**
+   * Thread safe LogWriter collecting all published events. If latch is provided, printing thread
+   * will be blocked on first event until latch is released.
+   */
+  private static final class CollectingLogWriter implements LogWriter {
+
+    private final List<String> events = new CopyOnWriteArrayList<>();
+    private final CountDownLatch latch;
+
+    CollectingLogWriter(CountDownLatch latch) {
+      this.latch = latch;
+    }
+
+    @Override
+    public void log(String msg) {
+      if (latch != null) {
+        try {
+          latch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      events.add(msg);
+    }
+
+    boolean contains(String text) {
+      return events.stream().anyMatch(it -> it.contains(text));
+    }
+
+    long count(String text) {
+      return events.stream().filter(it -> it.contains(text)).count();
+    }
+  }
+
+}
@@ -38,6 +38,7 @@ import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
@@ -259,9 +260,17 @@ public abstract class BaseTest {
     return null;
   }
 
+  /**
+   * Executes request and reads response entity into memory (as application would), so response
+   * with streamed body is printed before method returns. Entity stays readable.
+   */
   HttpResponse executeApacheRequest(HttpClient client, HttpUriRequest request) {
     try {
-      return client.execute(request);
+      final HttpResponse response = client.execute(request);
+      if (nonNull(response.getEntity())) {
+        response.setEntity(new BufferedHttpEntity(response.getEntity()));
+      }
+      return response;
     } catch (IOException e) {
       logger.error(e);
     }
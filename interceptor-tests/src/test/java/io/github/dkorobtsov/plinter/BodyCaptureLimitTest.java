@@ -0,0 +1,233 @@
+package io.github.dkorobtsov.plinter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import io.github.dkorobtsov.plinter.apache.ApacheHttpRequestInterceptor;
+import io.github.dkorobtsov.plinter.apache.ApacheHttpResponseInterceptor;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.okhttp3.OkHttp3LoggingInterceptor;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+
+/**
+ * Tests validating bounded response body capture.
+ */
+public class BodyCaptureLimitTest extends BaseTest {
+
+  private static final String JSON_BODY = "{\"name\": \"John\", \"city\": \"New York\"}";
+  private static final String CONTENT_TYPE_JSON = "application/json";
+
+  @Test
+  public void bodyCaptureLimit_responseIsPrintedWhenBodyIsConsumed() throws IOException {
+    final List<String> output = new ArrayList<>();
+    final Response response = executeWithLimit(output, JSON_BODY, 1024);
+
+    assertThat(String.join("\n", output))
+        .contains("Request")
+        .doesNotContain("Status Code");
+
+    try (ResponseBody body = response.body()) {
+      assertEquals("Application should receive original body", JSON_BODY, body.string());
+    }
+
+    assertThat(String.join("\n", output))
+        .contains("Status Code: 200")
+        .contains("\"city\": \"New York\"")
+        .doesNotContain("truncated");
+  }
+
+  @Test
+  public void bodyCaptureLimit_longBodyIsTruncatedInLogOnly() throws IOException {
+    final List<String> output = new ArrayList<>();
+    final Response response = executeWithLimit(output, JSON_BODY, 10);
+
+    try (ResponseBody body = response.body()) {
+      assertEquals("Application should receive original body", JSON_BODY, body.string());
+    }
+
+    assertThat(String.join("\n", output))
+        .contains("{\"name\": \"")
+        .doesNotContain("New York")
+        .contains("Response body truncated to 10 bytes");
+  }
+
+  @Test
+  public void bodyCaptureLimit_responseIsPrintedWhenBodyIsClosedUnread() {
+    final List<String> output = new ArrayList<>();
+    final Response response = executeWithLimit(output, JSON_BODY, 1024);
+
+    response.close();
+
+    assertThat(String.join("\n", output))
+        .contains("Status Code: 200")
+        .contains("Response body truncated to 0 bytes");
+  }
+
+  @Test
+  public void bodyCaptureLimit_notPrintableResponseIsPrintedImmediately() {
+    final List<String> output = new ArrayList<>();
+    final Response response = executeWithLimit(output, "binary", "application/zip", 1024);
+
+    assertThat(String.join("\n", output))
+        .contains("Status Code: 200")
+        .contains("Omitted response body");
+    response.close();
+  }
+
+  @Test
+  public void bodyCaptureLimit_apacheResponseEntityIsStreamedUnchanged() throws Exception {
+    server.enqueue(new MockResponse()
+        .setResponseCode(200)
+        .setHeader("Content-Type", CONTENT_TYPE_JSON)
+        .setBody(JSON_BODY));
+
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(output::add)
+        .bodyCaptureLimit(10)
+        .build();
+
+    final HttpResponse response = executeApacheRequest(defaultApacheClient(
+        new ApacheHttpRequestInterceptor(loggerConfig),
+        new ApacheHttpResponseInterceptor(loggerConfig)),
+        new HttpGet(String.valueOf(server.url(MOCK_SERVER_PATH))));
+
+    assertEquals("Application should receive original body",
+        JSON_BODY, EntityUtils.toString(response.getEntity()));
+    assertEquals("Content type should be preserved",
+        CONTENT_TYPE_JSON, response.getEntity().getContentType().getValue());
+    assertThat(String.join("\n", output))
+        .contains("{\"name\": \"")
+        .doesNotContain("New York")
+        .contains("Response body truncated to 10 bytes");
+  }
+
+  @Test
+  public void bodyCaptureLimit_apacheResponseIsPrintedWhenEntityIsRead() throws Exception {
+    server.enqueue(new MockResponse()
+        .setResponseCode(200)
+        .setHeader("Content-Type", CONTENT_TYPE_JSON)
+        .setBody(JSON_BODY));
+
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(output::add)
+        .build();
+
+    final HttpResponse response = defaultApacheClient(
+        new ApacheHttpRequestInterceptor(loggerConfig),
+        new ApacheHttpResponseInterceptor(loggerConfig))
+        .execute(new HttpGet(String.valueOf(server.url(MOCK_SERVER_PATH))));
+
+    assertThat(String.join("\n", output))
+        .contains("Request")
+        .doesNotContain("Status Code");
+
+    assertEquals("Application should receive original body",
+        JSON_BODY, EntityUtils.toString(response.getEntity()));
+    assertThat(String.join("\n", output))
+        .contains("Status Code: 200")
+        .contains("\"city\": \"New York\"")
+        .doesNotContain("truncated");
+  }
+
+  @Test
+  public void bodyCaptureLimit_apacheCaptureIsLimitedByDefault() throws Exception {
+    final char[] body = new char[2 * 1024 * 1024];
+    Arrays.fill(body, 'a');
+    server.enqueue(new MockResponse()
+        .setResponseCode(200)
+        .setHeader("Content-Type", "text/plain")
+        .setBody(new String(body)));
+
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(output::add)
+        .build();
+
+    final HttpResponse response = executeApacheRequest(defaultApacheClient(
+        new ApacheHttpRequestInterceptor(loggerConfig),
+        new ApacheHttpResponseInterceptor(loggerConfig)),
+        new HttpGet(String.valueOf(server.url(MOCK_SERVER_PATH))));
+
+    assertEquals("Application should receive original body",
+        body.length, EntityUtils.toByteArray(response.getEntity()).length);
+    assertThat(String.join("\n", output))
+        .contains("Response body truncated to 1048576 bytes");
+  }
+
+  @Test
+  public void bodyCaptureLimit_apacheStreamingRequestEntityIsSentUnchanged() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(200));
+
+    final byte[] body = "{\"name\": \"Jörg\"}".getBytes(StandardCharsets.ISO_8859_1);
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(output::add)
+        .bodyCaptureLimit(4)
+        .build();
+
+    final HttpPut request = new HttpPut(String.valueOf(server.url(MOCK_SERVER_PATH)));
+    request.setHeader("Content-Type", CONTENT_TYPE_JSON);
+    request.setEntity(new InputStreamEntity(new ByteArrayInputStream(body),
+        ContentType.APPLICATION_JSON));
+
+    executeApacheRequest(defaultApacheClient(
+        new ApacheHttpRequestInterceptor(loggerConfig),
+        new ApacheHttpResponseInterceptor(loggerConfig)), request);
+
+    assertArrayEquals("Server should receive original bytes",
+        body, server.takeRequest().getBody().readByteArray());
+    assertThat(String.join("\n", output))
+        .contains("{\"na")
+        .doesNotContain("name");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void bodyCaptureLimit_negativeLimitIsNotAllowed() {
+    LoggerConfig.builder()
+        .bodyCaptureLimit(-1)
+        .build();
+  }
+
+  private Response executeWithLimit(List<String> output, String body, long limit) {
+    return executeWithLimit(output, body, CONTENT_TYPE_JSON, limit);
+  }
+
+  private Response executeWithLimit(List<String> output, String body, String contentType,
+      long limit) {
+    server.enqueue(new MockResponse()
+        .setResponseCode(200)
+        .setHeader("Content-Type", contentType)
+        .setBody(body));
+
+    final OkHttp3LoggingInterceptor interceptor = new OkHttp3LoggingInterceptor(
+        LoggerConfig.builder()
+            .logger(output::add)
+            .bodyCaptureLimit(limit)
+            .build());
+
+    return executeOkHttp3Request(defaultOkHttp3Client(interceptor),
+        new Request.Builder()
+            .url(String.valueOf(server.url(MOCK_SERVER_PATH)))
+            .build());
+  }
+
+}
@@ -0,0 +1,170 @@
+package io.github.dkorobtsov.plinter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.LoggerConfig.LoggerConfigBuilder;
+import io.github.dkorobtsov.plinter.core.internal.BodyFormatterRegistry;
+import io.github.dkorobtsov.plinter.core.internal.ClientPrintingExecutor;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedMediaType;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests validating body formatter selection by media type.
+ */
+@RunWith(JUnitParamsRunner.class)
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public class BodyFormatterTest extends BaseTest {
+
+  private static final String CSV_BODY = "id,name\n1,John";
+  private static final String JSON_BODY = "{\"name\": \"John\", \"age\": 31}";
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void bodyFormatter_customTypeIsPrinted(String interceptor) {
+    server.enqueue(new MockResponse()
+        .setResponseCode(200)
+        .setHeader("Content-Type", "text/csv")
+        .setBody(CSV_BODY));
+
+    final List<String> output = new ArrayList<>();
+    interceptWithConfig(interceptor, LoggerConfig.builder()
+        .logger(output::add)
+        .bodyFormatter("text/csv", (body, charset) -> new String(body, charset).replace(',', ';'))
+        .build());
+
+    assertThat(String.join("\n", output))
+        .contains("id;name")
+        .contains("1;John")
+        .doesNotContain("Omitted response body");
+  }
+
+  @Test
+  public void bodyFormatter_typeWithoutFormatterIsOmitted() {
+    assertThat(printedResponse(LoggerConfig.builder(), "text/csv", CSV_BODY))
+        .contains("Omitted response body")
+        .doesNotContain("1,John");
+  }
+
+  @Test
+  public void bodyFormatter_defaultSuffixFormatter() {
+    assertThat(printedResponse(LoggerConfig.builder(), "application/vnd.api+json", JSON_BODY))
+        .contains("\"name\": \"John\",")
+        .contains("\"age\": 31");
+  }
+
+  @Test
+  public void bodyFormatter_customSuffixFormatter() {
+    assertThat(printedResponse(LoggerConfig.builder()
+            .bodyFormatter("+json", BodyFormatterRegistry.TEXT),
+        "application/vnd.api+json", JSON_BODY))
+        .contains(JSON_BODY);
+  }
+
+  @Test
+  public void bodyFormatter_exactTypeTakesPrecedenceOverSuffix() {
+    assertThat(printedResponse(LoggerConfig.builder()
+            .bodyFormatter("+json", (body, charset) -> "suffix")
+            .bodyFormatter("application/problem+json", (body, charset) -> "exact"),
+        "application/problem+json", JSON_BODY))
+        .contains("exact")
+        .doesNotContain("suffix");
+  }
+
+  @Test
+  public void bodyFormatter_customFormatterOverridesDefault() {
+    assertThat(printedResponse(LoggerConfig.builder()
+            .bodyFormatter("Application/JSON", (body, charset) -> "custom"),
+        "application/json; charset=utf-8", JSON_BODY))
+        .contains("custom")
+        .doesNotContain("John");
+  }
+
+  @Test
+  public void bodyFormatter_charsetIsTakenFromContentType() {
+    final List<String> charsets = new ArrayList<>();
+    printedResponse(LoggerConfig.builder()
+            .bodyFormatter("text/csv", (body, charset) -> {
+              charsets.add(charset.name());
+              return new String(body, charset);
+            }),
+        "text/csv; charset=ISO-8859-1", CSV_BODY);
+
+    assertThat(charsets).containsExactly("ISO-8859-1");
+  }
+
+  @Test
+  public void bodyFormatter_failedFormatterFallsBackToRawBody() {
+    assertThat(printedResponse(LoggerConfig.builder()
+            .bodyFormatter("text/csv", (body, charset) -> {
+              throw new IllegalStateException("Formatter failure");
+            }),
+        "text/csv", CSV_BODY))
+        .contains("id,name")
+        .contains("1,John");
+  }
+
+  @Test
+  public void bodyFormatter_blankBodyIsReportedAsEmpty() {
+    assertThat(printedResponse(LoggerConfig.builder()
+            .bodyFormatter("text/csv", BodyFormatterRegistry.TEXT),
+        "text/csv", " \n "))
+        .contains("Empty response body");
+  }
+
+  @Test
+  public void bodyFormatter_printableTypesAreResolved() {
+    final BodyFormatterRegistry registry = new BodyFormatterRegistry(
+        Collections.singletonMap("+yaml", BodyFormatterRegistry.TEXT));
+
+    assertThat(registry.isPrintable("application/json")).isTrue();
+    assertThat(registry.isPrintable("application/hal+json")).isTrue();
+    assertThat(registry.isPrintable("application/vnd.config+yaml")).isTrue();
+    assertThat(registry.isPrintable("text/plain; charset=utf-8")).isTrue();
+    assertThat(registry.isPrintable("image/png")).isFalse();
+    assertThat(registry.isPrintable("not a media type")).isFalse();
+    assertThat(registry.isPrintable(null)).isFalse();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  @Parameters({
+      "text",
+      "text/csv; charset=utf-8",
+      "+",
+      "+json+xml",
+      "text/*/csv"
+  })
+  public void bodyFormatter_invalidMediaTypeIsRejected(String mediaType) {
+    LoggerConfig.builder().bodyFormatter(mediaType, BodyFormatterRegistry.TEXT);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void bodyFormatter_formatterIsRequired() {
+    LoggerConfig.builder().bodyFormatter("text/csv", null);
+  }
+
+  private static String printedResponse(LoggerConfigBuilder builder, String contentType,
+      String body) {
+    final List<String> output = new ArrayList<>();
+    final InterceptedResponse response = InterceptedResponse.builder()
+        .code(200)
+        .isSuccessful(true)
+        .url("http://google.com/api/test/")
+        .contentType(InterceptedMediaType.parse(contentType))
+        .originalBody(body.getBytes(StandardCharsets.UTF_8))
+        .build();
+
+    ClientPrintingExecutor.printResponse(builder.logger(output::add).build(), response);
+    return String.join("\n", output);
+  }
+
+}
@@ -68,7 +68,7 @@ public class BodyWithJsonPrintingTest extends BaseTest {
     final List<String> loggerOutput = interceptedRequest(interceptor, withExecutor,
         SIMPLE_JSON, APPLICATION_JSON, true);
 
-    assertThat(loggerOutput).contains("     \"city\": \"New York\", ");
+    assertThat(loggerOutput).contains("     \"city\": \"New York\" ");
   }
 
   @Test
@@ -77,7 +77,7 @@ public class BodyWithJsonPrintingTest extends BaseTest {
     final List<String> loggerOutput = interceptedResponse(interceptor, withExecutor,
         SIMPLE_JSON, APPLICATION_JSON, true);
 
-    assertThat(loggerOutput).contains("     \"city\": \"New York\", ");
+    assertThat(loggerOutput).contains("     \"city\": \"New York\" ");
   }
 
   @Test
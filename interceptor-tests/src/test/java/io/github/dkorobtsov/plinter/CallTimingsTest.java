@@ -0,0 +1,149 @@
+package io.github.dkorobtsov.plinter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import io.github.dkorobtsov.plinter.core.CallTimings;
+import io.github.dkorobtsov.plinter.core.FlightRecorder;
+import io.github.dkorobtsov.plinter.core.LogCondition;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.MetricsRecorder;
+import io.github.dkorobtsov.plinter.core.MetricsRecorder.Snapshot;
+import io.github.dkorobtsov.plinter.okhttp3.OkHttp3LoggingInterceptor;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.Test;
+
+/**
+ * Tests validating network phase breakdown reported by OkHttp3 interceptor.
+ */
+public class CallTimingsTest extends BaseTest {
+
+  @Test
+  public void callTimings_arePrintedWithResponse() throws IOException {
+    final List<String> output = new ArrayList<>();
+    final OkHttp3LoggingInterceptor interceptor = new OkHttp3LoggingInterceptor(
+        LoggerConfig.builder()
+            .logger(output::add)
+            .build());
+    final OkHttpClient client = clientWithListener(interceptor);
+
+    execute(client);
+    assertThat(output).filteredOn(event -> event.contains("Phases: "))
+        .hasSize(1)
+        .allMatch(event -> event.contains("new connection"));
+
+    output.clear();
+    execute(client);
+    assertThat(output).filteredOn(event -> event.contains("Phases: "))
+        .hasSize(1)
+        .allMatch(event -> event.contains("reused connection"));
+  }
+
+  @Test
+  public void callTimings_arePrintedWithRecordedExchanges() throws IOException {
+    final List<String> output = new ArrayList<>();
+    final OkHttp3LoggingInterceptor interceptor = new OkHttp3LoggingInterceptor(
+        LoggerConfig.builder()
+            .logger(output::add)
+            .flightRecorder(FlightRecorder.builder()
+                .dumpOn(LogCondition.serverErrors())
+                .build())
+            .build());
+    final OkHttpClient client = clientWithListener(interceptor);
+
+    // Recorded body is read to the end, which ends the call before response is returned
+    execute(client, jsonResponse(200));
+    assertThat(output).isEmpty();
+    execute(client, jsonResponse(500));
+
+    assertThat(output).filteredOn(event -> event.contains("Phases: ")).hasSize(2);
+  }
+
+  @Test
+  public void callTimings_areNotPrintedWithoutEventListener() throws IOException {
+    final List<String> output = new ArrayList<>();
+    final OkHttp3LoggingInterceptor interceptor = new OkHttp3LoggingInterceptor(
+        LoggerConfig.builder()
+            .logger(output::add)
+            .build());
+    final OkHttpClient client = new OkHttpClient.Builder()
+        .connectionPool(new ConnectionPool())
+        .addInterceptor(interceptor)
+        .build();
+
+    execute(client);
+
+    assertThat(output).isNotEmpty();
+    assertThat(output).noneMatch(event -> event.contains("Phases: "));
+  }
+
+  @Test
+  public void callTimings_areRecordedInMetrics() throws IOException {
+    final MetricsRecorder metrics = MetricsRecorder.builder().build();
+    final OkHttp3LoggingInterceptor interceptor = new OkHttp3LoggingInterceptor(
+        LoggerConfig.builder()
+            .logger(msg -> {
+            })
+            .metrics(metrics)
+            .build());
+    final OkHttpClient client = clientWithListener(interceptor);
+
+    for (int i = 0; i < 3; i++) {
+      execute(client);
+    }
+
+    assertThat(metrics.snapshot()).hasSize(1);
+    final Snapshot series = metrics.snapshot().values().iterator().next();
+    assertThat(series.latencyMs.count()).isEqualTo(3);
+    assertThat(series.dnsMs.count()).isEqualTo(3);
+    assertThat(series.connectMs.count()).isEqualTo(3);
+    assertThat(series.tlsMs.sum()).isEqualTo(0);
+    assertThat(series.ttfbMs.count()).isEqualTo(3);
+    assertThat(series.reusedConnections).isEqualTo(2);
+  }
+
+  @Test
+  public void callTimings_summaryListsAllPhases() {
+    final CallTimings timings = new CallTimings(TimeUnit.MILLISECONDS.toNanos(2),
+        TimeUnit.MILLISECONDS.toNanos(14), TimeUnit.MILLISECONDS.toNanos(9), 0,
+        TimeUnit.MILLISECONDS.toNanos(41), false);
+
+    assertThat(timings.summary())
+        .isEqualTo("dns 2ms, connect 14ms (tls 9ms), request 0ms, ttfb 41ms, new connection");
+  }
+
+  private OkHttpClient clientWithListener(OkHttp3LoggingInterceptor interceptor) {
+    return new OkHttpClient.Builder()
+        .connectionPool(new ConnectionPool())
+        .addInterceptor(interceptor)
+        .eventListenerFactory(interceptor.eventListenerFactory())
+        .build();
+  }
+
+  private void execute(OkHttpClient client) throws IOException {
+    execute(client, new MockResponse().setResponseCode(200).setBody("OK"));
+  }
+
+  private void execute(OkHttpClient client, MockResponse mockResponse) throws IOException {
+    server.enqueue(mockResponse);
+    try (Response response = client.newCall(new Request.Builder()
+        .url(String.valueOf(server.url("/api/orders")))
+        .build()).execute()) {
+      assertThat(response.body().string()).isEqualTo(mockResponse.getBody().readUtf8());
+    }
+  }
+
+  private static MockResponse jsonResponse(int code) {
+    return new MockResponse().setResponseCode(code)
+        .setHeader("Content-Type", "application/json")
+        .setBody("{\"id\": 1}");
+  }
+
+}
@@ -0,0 +1,152 @@
+package io.github.dkorobtsov.plinter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.SocketPolicy;
+import io.github.dkorobtsov.plinter.apache.ApacheHttpRequestInterceptor;
+import io.github.dkorobtsov.plinter.apache.ApacheHttpResponseInterceptor;
+import io.github.dkorobtsov.plinter.core.CallOutcome;
+import io.github.dkorobtsov.plinter.core.LogCondition;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.LoggerConfigHolder;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests validating outcome based logging.
+ */
+@RunWith(JUnitParamsRunner.class)
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public class ConditionalLoggingTest extends BaseTest {
+
+  private static final String BODY = "{\"error\": \"Something went wrong\"}";
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void logCondition_callNotMatchingConditionIsNotLogged(String interceptor) {
+    final List<String> output = intercept(interceptor, 200, LogCondition.serverErrors());
+
+    assertThat(output).isEmpty();
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void logCondition_callMatchingConditionIsLogged(String interceptor) {
+    final String output = String.join("\n",
+        intercept(interceptor, 503, LogCondition.serverErrors()));
+
+    assertThat(output)
+        .contains("Request")
+        .contains("Response")
+        .contains("Status Code: 503")
+        .contains("Something went wrong");
+    assertThat(output.indexOf("Request")).isLessThan(output.indexOf("Response"));
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void logCondition_hostCondition(String interceptor) {
+    assertThat(intercept(interceptor, 200, LogCondition.host(server.getHostName())))
+        .isNotEmpty();
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void logCondition_failedConditionDoesNotPreventLogging(String interceptor) {
+    final List<String> output = intercept(interceptor, 200, outcome -> {
+      throw new IllegalStateException("Broken condition");
+    });
+
+    assertThat(String.join("\n", output)).contains("Status Code: 200");
+  }
+
+  @Test
+  @Parameters({"okhttp", "okhttp3"})
+  public void logCondition_failedCallRequestIsLogged(String interceptor) {
+    server.enqueue(new MockResponse()
+        .setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+
+    final List<String> output = new ArrayList<>();
+    interceptWithConfig(interceptor, LoggerConfig.builder()
+        .logger(output::add)
+        .logCondition(LogCondition.failures())
+        .build());
+
+    assertThat(String.join("\n", output))
+        .contains("Request")
+        .doesNotContain("Status Code");
+  }
+
+  @Test
+  public void logCondition_apacheRequestIsConvertedOnlyIfLogged() {
+    final LoggerConfigHolder holder = new LoggerConfigHolder(LoggerConfig.builder()
+        .logger(msg -> {
+        })
+        .logCondition(LogCondition.serverErrors())
+        .build());
+
+    apacheCall(holder, 200);
+    assertThat(holder.stats().bytesCaptured()).isZero();
+
+    apacheCall(holder, 503);
+    assertThat(holder.stats().bytesCaptured()).isEqualTo(2L * BODY.length());
+  }
+
+  @Test
+  public void logCondition_conditionsComposition() {
+    final CallOutcome slowSuccess = new CallOutcome("example.com", 200, 2500, null);
+    final CallOutcome fastError = new CallOutcome("example.com", 500, 10, null);
+    final CallOutcome failure = new CallOutcome("example.com", 0, 10, new IOException());
+
+    final LogCondition condition = LogCondition.serverErrors()
+        .or(LogCondition.failures())
+        .or(LogCondition.slowerThan(2000));
+
+    assertThat(condition.shouldLog(slowSuccess)).isTrue();
+    assertThat(condition.shouldLog(fastError)).isTrue();
+    assertThat(condition.shouldLog(failure)).isTrue();
+    assertThat(condition.shouldLog(new CallOutcome("example.com", 404, 10, null))).isFalse();
+
+    assertThat(LogCondition.serverErrors().shouldLog(failure)).isFalse();
+    assertThat(LogCondition.slowerThan(2000).and(LogCondition.host("other.com"))
+        .shouldLog(slowSuccess)).isFalse();
+    assertThat(LogCondition.host("EXAMPLE.com").negate().shouldLog(slowSuccess)).isFalse();
+  }
+
+  private List<String> intercept(String interceptor, int code, LogCondition condition) {
+    server.enqueue(new MockResponse()
+        .setResponseCode(code)
+        .setHeader("Content-Type", "application/json")
+        .setBody(BODY));
+
+    final List<String> output = new ArrayList<>();
+    interceptWithConfig(interceptor, LoggerConfig.builder()
+        .logger(output::add)
+        .logCondition(condition)
+        .build());
+    return output;
+  }
+
+  private void apacheCall(LoggerConfigHolder holder, int code) {
+    server.enqueue(new MockResponse()
+        .setResponseCode(code)
+        .setHeader("Content-Type", "application/json")
+        .setBody(BODY));
+
+    final HttpPut request = new HttpPut(String.valueOf(server.url(MOCK_SERVER_PATH)));
+    request.setEntity(new StringEntity(BODY, ContentType.APPLICATION_JSON));
+    executeApacheRequest(defaultApacheClient(
+        new ApacheHttpRequestInterceptor(holder),
+        new ApacheHttpResponseInterceptor(holder)), request);
+  }
+
+}
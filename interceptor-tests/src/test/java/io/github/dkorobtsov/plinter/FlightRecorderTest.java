@@ -0,0 +1,213 @@
+package io.github.dkorobtsov.plinter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.SocketPolicy;
+import io.github.dkorobtsov.plinter.core.FlightRecorder;
+import io.github.dkorobtsov.plinter.core.LogCondition;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.LoggerConfigHolder;
+import io.github.dkorobtsov.plinter.okhttp3.OkHttp3LoggingInterceptor;
+import java.util.ArrayList;
+import java.util.List;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests validating flight recorder mode.
+ */
+@RunWith(JUnitParamsRunner.class)
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public class FlightRecorderTest extends BaseTest {
+
+  private static final String BODY = "{\"name\": \"John\", \"age\": 31}";
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void flightRecorder_healthyCallsAreNotPrinted(String interceptor) {
+    final FlightRecorder recorder = FlightRecorder.builder().build();
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig config = config(recorder, output);
+
+    intercept(interceptor, config, 200);
+    intercept(interceptor, config, 404);
+
+    assertThat(output).isEmpty();
+    assertThat(recorder.recordedCount(server.getHostName())).isEqualTo(2);
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void flightRecorder_recordedCallsArePrintedOnDump(String interceptor) {
+    final FlightRecorder recorder = FlightRecorder.builder().build();
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig config = config(recorder, output);
+
+    intercept(interceptor, config, 201);
+    intercept(interceptor, config, 202);
+    intercept(interceptor, config, 503);
+
+    final String printed = String.join("\n", output);
+    assertThat(printed)
+        .contains("Status Code: 201")
+        .contains("Status Code: 202")
+        .contains("Status Code: 503")
+        .contains("\"name\": \"John\",");
+    assertThat(printed.indexOf("Status Code: 201"))
+        .isLessThan(printed.indexOf("Status Code: 202"));
+    assertThat(printed.indexOf("Status Code: 202"))
+        .isLessThan(printed.indexOf("Status Code: 503"));
+    assertThat(recorder.recordedCount(server.getHostName())).isZero();
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void flightRecorder_onlyLastCallsAreKept(String interceptor) {
+    final FlightRecorder recorder = FlightRecorder.builder().capacityPerHost(2).build();
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig config = config(recorder, output);
+
+    intercept(interceptor, config, 201);
+    intercept(interceptor, config, 202);
+    intercept(interceptor, config, 203);
+    intercept(interceptor, config, 500);
+
+    assertThat(String.join("\n", output))
+        .doesNotContain("Status Code: 201")
+        .contains("Status Code: 202")
+        .contains("Status Code: 203")
+        .contains("Status Code: 500");
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void flightRecorder_windowIsClearedAfterDump(String interceptor) {
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig config = config(FlightRecorder.builder().build(), output);
+
+    intercept(interceptor, config, 201);
+    intercept(interceptor, config, 500);
+    output.clear();
+    intercept(interceptor, config, 502);
+
+    assertThat(String.join("\n", output))
+        .doesNotContain("Status Code: 201")
+        .doesNotContain("Status Code: 500")
+        .contains("Status Code: 502");
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void flightRecorder_recordedBodiesAreCapped(String interceptor) {
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig config = config(FlightRecorder.builder()
+        .maxBodyBytes(10)
+        .dumpOn(LogCondition.statusCodeAtLeast(400))
+        .build(), output);
+
+    intercept(interceptor, config, 200);
+    intercept(interceptor, config, 400);
+
+    final String printed = String.join("\n", output);
+    assertThat(printed)
+        .contains("{\"name\": \"")
+        .contains("Response body truncated to 10 bytes");
+    // Only triggering call is printed with complete body
+    assertThat(printed.indexOf("John")).isEqualTo(printed.lastIndexOf("John"));
+    assertThat(printed.indexOf("John")).isGreaterThan(printed.indexOf("Status Code: 400"));
+  }
+
+  @Test
+  @Parameters({"okhttp", "okhttp3"})
+  public void flightRecorder_failedCallTriggersDump(String interceptor) {
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig config = config(FlightRecorder.builder().build(), output);
+
+    // Recorded by other client, so failing call doesn't reuse already opened connection
+    intercept("apacheHttpclientRequest", config, 201);
+    server.enqueue(new MockResponse()
+        .setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+    interceptWithConfig(interceptor, config);
+
+    final String printed = String.join("\n", output);
+    assertThat(printed).contains("Status Code: 201");
+    assertThat(printed.lastIndexOf("Request")).isGreaterThan(printed.indexOf("Status Code: 201"));
+  }
+
+  @Test
+  public void flightRecorder_windowsAreKeptPerHost() {
+    final FlightRecorder recorder = FlightRecorder.builder().build();
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig config = config(recorder, output);
+
+    intercept("okhttp3", config, 200);
+
+    assertThat(recorder.recordedCount(server.getHostName())).isEqualTo(1);
+    assertThat(recorder.recordedCount("other.com")).isZero();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void flightRecorder_invalidCapacityIsRejected() {
+    FlightRecorder.builder().capacityPerHost(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void flightRecorder_invalidBodySizeIsRejected() {
+    FlightRecorder.builder().maxBodyBytes(-1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void flightRecorder_dumpConditionIsRequired() {
+    FlightRecorder.builder().dumpOn(null);
+  }
+
+  @Test
+  public void flightRecorder_okHttp3ExchangeIsConvertedOnlyWhenDumped() {
+    final List<String> output = new ArrayList<>();
+    final LoggerConfigHolder holder = new LoggerConfigHolder(config(FlightRecorder.builder()
+        .dumpOn(LogCondition.statusCodeAtLeast(400))
+        .build(), output));
+    final OkHttpClient client = defaultOkHttp3Client(new OkHttp3LoggingInterceptor(holder));
+
+    okHttp3Call(client, 200);
+    assertThat(holder.stats().bytesCaptured()).isZero();
+
+    okHttp3Call(client, 400);
+    assertThat(holder.stats().bytesCaptured()).isEqualTo(2L * BODY.length());
+    assertThat(String.join("\n", output))
+        .contains("Status Code: 200")
+        .contains("Status Code: 400");
+  }
+
+  private void okHttp3Call(OkHttpClient client, int code) {
+    server.enqueue(new MockResponse()
+        .setResponseCode(code)
+        .setHeader("Content-Type", "application/json")
+        .setBody(BODY));
+    executeOkHttp3Request(client, new Request.Builder()
+        .url(String.valueOf(server.url(MOCK_SERVER_PATH)))
+        .build())
+        .close();
+  }
+
+  private static LoggerConfig config(FlightRecorder recorder, List<String> output) {
+    return LoggerConfig.builder()
+        .logger(output::add)
+        .flightRecorder(recorder)
+        .build();
+  }
+
+  private void intercept(String interceptor, LoggerConfig config, int code) {
+    server.enqueue(new MockResponse()
+        .setResponseCode(code)
+        .setHeader("Content-Type", "application/json")
+        .setBody(BODY));
+    interceptWithConfig(interceptor, config);
+  }
+
+}
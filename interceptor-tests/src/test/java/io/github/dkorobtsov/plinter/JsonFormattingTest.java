@@ -0,0 +1,135 @@
+package io.github.dkorobtsov.plinter;
+
+import static io.github.dkorobtsov.plinter.core.internal.Util.APPLICATION_JSON;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.internal.ClientPrintingExecutor;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedMediaType;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+/**
+ * Unit tests validating JSON body layout.
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public class JsonFormattingTest {
+
+  @Test
+  public void jsonFormatting_keyOrderIsPreserved() {
+    assertThat(formattedBody("{\"z\": 1, \"a\": 2, \"m\": 3}"))
+        .isEqualTo(""
+            + "{\n"
+            + "   \"z\": 1,\n"
+            + "   \"a\": 2,\n"
+            + "   \"m\": 3\n"
+            + "}");
+  }
+
+  @Test
+  public void jsonFormatting_singleElementContainersAreInlined() {
+    assertThat(formattedBody("{\"data\":{\"items\":[{\"id\":1,\"tags\":[\"a\"]},{\"id\":2}]}}"))
+        .isEqualTo(""
+            + "{\"data\": {\"items\": [\n"
+            + "   {\n"
+            + "      \"id\": 1,\n"
+            + "      \"tags\": [\"a\"]\n"
+            + "   },\n"
+            + "   {\"id\": 2}\n"
+            + "]}}");
+  }
+
+  @Test
+  public void jsonFormatting_emptyContainers() {
+    assertThat(formattedBody("{\"object\": {}, \"array\": [ ]}"))
+        .isEqualTo(""
+            + "{\n"
+            + "   \"object\": {},\n"
+            + "   \"array\": []\n"
+            + "}");
+  }
+
+  @Test
+  public void jsonFormatting_valuesAreNotModified() {
+    assertThat(formattedBody("[1.50, -2e10, \"a\\\"b\", \"\\u00e9\", true, null]"))
+        .isEqualTo(""
+            + "[\n"
+            + "   1.50,\n"
+            + "   -2e10,\n"
+            + "   \"a\\\"b\",\n"
+            + "   \"\\u00e9\",\n"
+            + "   true,\n"
+            + "   null\n"
+            + "]");
+  }
+
+  @Test
+  public void jsonFormatting_unquotedTokensAreQuoted() {
+    assertThat(formattedBody("{name: John Smith, 'nick': 'J\"S', active: TRUE}"))
+        .isEqualTo(""
+            + "{\n"
+            + "   \"name\": \"John Smith\",\n"
+            + "   \"nick\": \"J\\\"S\",\n"
+            + "   \"active\": true\n"
+            + "}");
+  }
+
+  @Test
+  public void jsonFormatting_trailingCommaIsTolerated() {
+    assertThat(formattedBody("[\"single\",]"))
+        .isEqualTo("[\"single\"]");
+  }
+
+  @Test
+  public void jsonFormatting_malformedDocumentIsPrintedAsIs() {
+    final String[] malformed = {
+        "{\"a\": 1} trailing",
+        "{\"a\": [1, 2}",
+        "{\"a\" 1}",
+        "[\"unterminated]",
+        "{\"a\": 1,, \"b\": 2}"
+    };
+    for (String body : malformed) {
+      assertThat(formattedBody(body)).isEqualTo(body);
+    }
+  }
+
+  @Test
+  public void jsonFormatting_deeplyNestedDocument() {
+    final int depth = 5000;
+    final StringBuilder body = new StringBuilder();
+    for (int i = 0; i < depth; i++) {
+      body.append('[');
+    }
+    for (int i = 0; i < depth; i++) {
+      body.append(']');
+    }
+    // Long single line is wrapped by printer, so comparing without line breaks
+    assertThat(formattedBody(body.toString()).replace("\n", ""))
+        .isEqualTo(body.toString());
+  }
+
+  private static String formattedBody(String body) {
+    final List<String> lines = new ArrayList<>();
+    ClientPrintingExecutor.printResponse(LoggerConfig.builder()
+        .logger(lines::add)
+        .maxLineLength(180)
+        .build(), InterceptedResponse.builder()
+        .code(200)
+        .isSuccessful(true)
+        .contentType(InterceptedMediaType.parse(APPLICATION_JSON))
+        .originalBody(body.getBytes(StandardCharsets.UTF_8))
+        .hasPrintableBody(true)
+        .build());
+
+    return lines.subList(lines.indexOf("  Body:") + 1, lines.size() - 1)
+        .stream()
+        .map(it -> it.substring(2))
+        .collect(Collectors.joining("\n"));
+  }
+
+}
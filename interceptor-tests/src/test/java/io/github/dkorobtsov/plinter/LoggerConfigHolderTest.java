@@ -0,0 +1,250 @@
+package io.github.dkorobtsov.plinter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import io.github.dkorobtsov.plinter.apache.ApacheHttpRequestInterceptor;
+import io.github.dkorobtsov.plinter.apache.ApacheHttpResponseInterceptor;
+import io.github.dkorobtsov.plinter.core.CallOutcome;
+import io.github.dkorobtsov.plinter.core.Level;
+import io.github.dkorobtsov.plinter.core.LogCondition;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.LoggerConfigFileWatcher;
+import io.github.dkorobtsov.plinter.core.LoggerConfigHolder;
+import io.github.dkorobtsov.plinter.core.OverflowPolicy;
+import io.github.dkorobtsov.plinter.core.SamplingPolicy;
+import io.github.dkorobtsov.plinter.core.internal.BodyFormatterRegistry;
+import io.github.dkorobtsov.plinter.core.internal.ConfigInternals;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedRequest;
+import io.github.dkorobtsov.plinter.core.internal.RingBufferPrinter;
+import io.github.dkorobtsov.plinter.okhttp.OkHttpLoggingInterceptor;
+import io.github.dkorobtsov.plinter.okhttp3.OkHttp3LoggingInterceptor;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.apache.http.client.methods.HttpGet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests validating configuration replacement at runtime.
+ */
+@RunWith(JUnitParamsRunner.class)
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public class LoggerConfigHolderTest extends BaseTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void configHolder_replacedConfigIsUsedByExistingClient(String interceptor) {
+    final List<String> output = Collections.synchronizedList(new ArrayList<>());
+    final LoggerConfigHolder holder = new LoggerConfigHolder(LoggerConfig.builder()
+        .logger(output::add)
+        .level(Level.NONE)
+        .build());
+    final Runnable client = client(interceptor, holder);
+
+    client.run();
+    assertThat(output).isEmpty();
+
+    holder.update(builder -> builder.level(Level.HEADERS));
+    client.run();
+
+    assertThat(String.join("\n", output))
+        .contains("Request")
+        .contains("Status Code: 200")
+        .contains("Headers:");
+  }
+
+  @Test
+  public void configHolder_toBuilderCopiesAllValues() {
+    final SamplingPolicy samplingPolicy = SamplingPolicy.builder().probability(0.5).build();
+    final LogCondition logCondition = LogCondition.serverErrors();
+    final LoggerConfig original = LoggerConfig.builder()
+        .loggable(false)
+        .level(Level.BODY)
+        .maxLineLength(150)
+        .withThreadInfo(true)
+        .singleEventOutput(true)
+        .bodyCaptureLimit(1024)
+        .bodyFormatter("text/csv", BodyFormatterRegistry.TEXT)
+        .logCondition(logCondition)
+        .sampling(samplingPolicy)
+        .build();
+
+    final LoggerConfig copy = original.toBuilder().build();
+
+    assertThat(copy.isLoggable).isFalse();
+    assertThat(copy.level).isEqualTo(Level.BODY);
+    assertThat(copy.logger).isSameAs(original.logger);
+    assertThat(copy.maxLineLength).isEqualTo(150);
+    assertThat(copy.withThreadInfo).isTrue();
+    assertThat(copy.singleEventOutput).isTrue();
+    assertThat(copy.bodyCaptureLimit).isEqualTo(1024);
+    assertThat(ConfigInternals.of(copy).bodyFormatters().isPrintable("text/csv")).isTrue();
+    assertThat(copy.logCondition).isSameAs(logCondition);
+    assertThat(copy.samplingPolicy).isSameAs(samplingPolicy);
+  }
+
+  @Test
+  public void configHolder_replacedAsyncPrinterIsStopped() {
+    final LoggerConfigHolder holder = new LoggerConfigHolder(LoggerConfig.builder()
+        .logger(msg -> {
+        })
+        .asyncPrinting(16, OverflowPolicy.DROP_NEWEST)
+        .build());
+    final RingBufferPrinter replaced = ConfigInternals.of(holder.get()).asyncPrinter();
+
+    holder.update(builder -> builder.maxLineLength(120));
+
+    assertThat(holder.get().maxLineLength).isEqualTo(120);
+    assertThat(ConfigInternals.of(holder.get()).asyncPrinter()).isNotSameAs(replaced);
+
+    // Stopped printer drops new events
+    replaced.publish(new InterceptedRequest.Builder().url("http://google.com").build());
+    assertThat(replaced.dropped()).isEqualTo(1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void configHolder_configIsRequired() {
+    new LoggerConfigHolder(LoggerConfig.builder().build()).set(null);
+  }
+
+  @Test
+  public void configHolder_propertiesAreApplied() throws IOException {
+    final Properties properties = new Properties();
+    properties.load(new StringReader(""
+        + "loggable=false\n"
+        + "level=headers\n"
+        + "maxLineLength=120\n"
+        + "withThreadInfo=true\n"
+        + "bodyCaptureLimit=2048\n"
+        + "sampling.probability=0\n"
+        + "logCondition=serverErrors, slowerThan:1000\n"));
+
+    final LoggerConfig config = LoggerConfigFileWatcher
+        .applyProperties(properties, LoggerConfig.builder()).build();
+
+    assertThat(config.isLoggable).isFalse();
+    assertThat(config.level).isEqualTo(Level.HEADERS);
+    assertThat(config.maxLineLength).isEqualTo(120);
+    assertThat(config.withThreadInfo).isTrue();
+    assertThat(config.bodyCaptureLimit).isEqualTo(2048);
+    assertThat(config.samplingPolicy.sample("google.com")).isFalse();
+    assertThat(config.logCondition.shouldLog(new CallOutcome("google.com", 200, 1500, null)))
+        .isTrue();
+    assertThat(config.logCondition.shouldLog(new CallOutcome("google.com", 200, 10, null)))
+        .isFalse();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  @Parameters({
+      "level=ALL",
+      "maxLineLength=wide",
+      "maxLineLength=20",
+      "sampling.probability=2",
+      "logCondition=sometimes",
+      "logCondition=slowerThan"
+  })
+  public void configHolder_invalidPropertiesAreRejected(String line) throws IOException {
+    final Properties properties = new Properties();
+    properties.load(new StringReader(line));
+
+    LoggerConfigFileWatcher.applyProperties(properties, LoggerConfig.builder());
+  }
+
+  @Test
+  public void configHolder_fileChangesAreApplied() throws IOException, InterruptedException {
+    final Path file = temporaryFolder.getRoot().toPath().resolve("plinter.properties");
+    final LoggerConfigHolder holder = new LoggerConfigHolder(LoggerConfig.builder()
+        .level(Level.BASIC)
+        .build());
+
+    try (LoggerConfigFileWatcher watcher = new LoggerConfigFileWatcher(file, holder)) {
+      assertThat(holder.get().level).isEqualTo(Level.BASIC);
+
+      write(file, "level=BODY\nmaxLineLength=150");
+      awaitLevel(holder, Level.BODY);
+      assertThat(holder.get().maxLineLength).isEqualTo(150);
+
+      // Invalid file doesn't affect current configuration
+      write(file, "level=EVERYTHING");
+      assertThat(watcher.reload()).isFalse();
+      assertThat(holder.get().level).isEqualTo(Level.BODY);
+
+      // Removed properties are restored to original values
+      write(file, "level=HEADERS");
+      awaitLevel(holder, Level.HEADERS);
+      assertThat(holder.get().maxLineLength).isEqualTo(110);
+    }
+  }
+
+  @Test
+  public void configHolder_existingFileIsLoadedOnStart() throws IOException {
+    final Path file = temporaryFolder.newFile("plinter.properties").toPath();
+    Files.write(file, "level=NONE".getBytes(StandardCharsets.UTF_8));
+    final LoggerConfigHolder holder = new LoggerConfigHolder(LoggerConfig.builder().build());
+
+    try (LoggerConfigFileWatcher watcher = new LoggerConfigFileWatcher(file, holder)) {
+      assertThat(holder.get().level).isEqualTo(Level.NONE);
+      assertThat(watcher.reload()).isTrue();
+      assertThat(holder.get().level).isEqualTo(Level.NONE);
+    }
+  }
+
+  /**
+   * Replaces file atomically, the way configuration management tools normally do it.
+   */
+  private static void write(Path file, String content) throws IOException {
+    final Path temporary = Files.createTempFile(file.getParent(), "plinter", ".tmp");
+    Files.write(temporary, content.getBytes(StandardCharsets.UTF_8));
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static void awaitLevel(LoggerConfigHolder holder, Level level)
+      throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    while (holder.get().level != level && System.nanoTime() < deadline) {
+      Thread.sleep(20);
+    }
+    assertThat(holder.get().level).isEqualTo(level);
+  }
+
+  private Runnable client(String interceptor, LoggerConfigHolder holder) {
+    final String url = String.valueOf(server.url("/"));
+    return () -> {
+      server.enqueue(new MockResponse().setResponseCode(200));
+      switch (interceptor) {
+        case "okhttp":
+          executeOkHttpRequest(defaultOkHttpClient(new OkHttpLoggingInterceptor(holder)),
+              new com.squareup.okhttp.Request.Builder().url(url).build());
+          break;
+        case "okhttp3":
+          executeOkHttp3Request(defaultOkHttp3Client(new OkHttp3LoggingInterceptor(holder)),
+              okHttp3Request(null, null, url));
+          break;
+        default:
+          executeApacheRequest(defaultApacheClient(
+              new ApacheHttpRequestInterceptor(holder),
+              new ApacheHttpResponseInterceptor(holder)), new HttpGet(url));
+          break;
+      }
+    };
+  }
+
+}
@@ -0,0 +1,176 @@
+package io.github.dkorobtsov.plinter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import io.github.dkorobtsov.plinter.apache.ApacheHttpRequestInterceptor;
+import io.github.dkorobtsov.plinter.apache.ApacheHttpResponseInterceptor;
+import io.github.dkorobtsov.plinter.core.InterceptorStats;
+import io.github.dkorobtsov.plinter.core.Level;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.LoggerConfigHolder;
+import io.github.dkorobtsov.plinter.core.LoggerControl;
+import io.github.dkorobtsov.plinter.core.SamplingPolicy;
+import io.github.dkorobtsov.plinter.okhttp.OkHttpLoggingInterceptor;
+import io.github.dkorobtsov.plinter.okhttp3.OkHttp3LoggingInterceptor;
+import java.lang.management.ManagementFactory;
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests validating interceptor statistics and their JMX exposure.
+ */
+@RunWith(JUnitParamsRunner.class)
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public class LoggerControlTest extends BaseTest {
+
+  private static final String BODY = "{\"name\": \"John\"}";
+
+  private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void stats_callsAreCounted(String interceptor) {
+    final LoggerConfigHolder holder = new LoggerConfigHolder(LoggerConfig.builder()
+        .logger(msg -> {
+        })
+        .level(Level.BODY)
+        .build());
+
+    call(interceptor, holder);
+    holder.update(builder -> builder.sampling(SamplingPolicy.builder().probability(0).build()));
+    call(interceptor, holder);
+
+    final InterceptorStats stats = holder.stats();
+    assertThat(stats.exchanges()).isEqualTo(2);
+    assertThat(stats.logged()).isEqualTo(1);
+    assertThat(stats.sampledOut()).isEqualTo(1);
+    assertThat(stats.bytesCaptured()).isEqualTo(2L * BODY.length());
+  }
+
+  @Test
+  public void stats_formatterFailuresSurviveConfigReplacement() {
+    final LoggerConfigHolder holder = new LoggerConfigHolder(LoggerConfig.builder()
+        .logger(msg -> {
+        })
+        .level(Level.BODY)
+        .bodyFormatter("application/json", (body, charset) -> {
+          throw new IllegalStateException("Broken formatter");
+        })
+        .build());
+
+    call("okhttp3", holder);
+    assertThat(holder.stats().formatterFailures()).isEqualTo(2);
+
+    holder.update(builder -> builder.level(Level.HEADERS));
+    assertThat(holder.stats().formatterFailures()).isEqualTo(2);
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void mbean_attributesAreExposed(String interceptor) throws JMException {
+    final LoggerConfigHolder holder = new LoggerConfigHolder(LoggerConfig.builder()
+        .logger(msg -> {
+        })
+        .build());
+    final ObjectName name = LoggerControl.objectName("attributes-" + interceptor);
+
+    try (LoggerControl control = LoggerControl.register("attributes-" + interceptor, holder)) {
+      call(interceptor, holder);
+
+      assertThat(mbeanServer.getAttribute(name, "ExchangesSeen")).isEqualTo(1L);
+      assertThat(mbeanServer.getAttribute(name, "ExchangesLogged")).isEqualTo(1L);
+      assertThat(mbeanServer.getAttribute(name, "ExchangesSampledOut")).isEqualTo(0L);
+      assertThat(mbeanServer.getAttribute(name, "EventsDropped")).isEqualTo(0L);
+      assertThat(mbeanServer.getAttribute(name, "AsyncQueueDepth")).isEqualTo(0);
+      assertThat(mbeanServer.getAttribute(name, "BytesCaptured"))
+          .isEqualTo(2L * BODY.length());
+      assertThat(mbeanServer.getAttribute(name, "FormatterFailures")).isEqualTo(0L);
+      assertThat(mbeanServer.getAttribute(name, "Level")).isEqualTo("BASIC");
+      assertThat(mbeanServer.getAttribute(name, "Sampling")).isEqualTo("none");
+      assertThat(control.getExchangesSeen()).isEqualTo(1L);
+    }
+    assertThat(mbeanServer.isRegistered(name)).isFalse();
+  }
+
+  @Test
+  public void mbean_levelAndSamplingCanBeChanged() throws JMException {
+    final LoggerConfigHolder holder = new LoggerConfigHolder(LoggerConfig.builder()
+        .sampling(SamplingPolicy.builder().perHostRate(5).build())
+        .build());
+    final ObjectName name = LoggerControl.objectName("control");
+
+    try (LoggerControl control = new OkHttp3LoggingInterceptor(holder).registerMBean("control")) {
+      mbeanServer.setAttribute(name, new Attribute("Level", "headers"));
+      assertThat(holder.get().level).isEqualTo(Level.HEADERS);
+      assertThat(control.getLevel()).isEqualTo("HEADERS");
+
+      mbeanServer.invoke(name, "changeSamplingProbability",
+          new Object[]{0.25}, new String[]{double.class.getName()});
+      assertThat(holder.get().samplingPolicy)
+          .hasToString("SamplingPolicy{probability=0.25, perHostRate=5.0}");
+
+      mbeanServer.invoke(name, "changeMaxEventsPerSecond",
+          new Object[]{100.0}, new String[]{double.class.getName()});
+      assertThat(holder.get().samplingPolicy).hasToString(
+          "SamplingPolicy{probability=0.25, perHostRate=5.0, maxEventsPerSecond=100.0}");
+
+      mbeanServer.invoke(name, "changeMaxEventsPerSecond",
+          new Object[]{0.0}, new String[]{double.class.getName()});
+      assertThat(holder.get().samplingPolicy)
+          .hasToString("SamplingPolicy{probability=0.25, perHostRate=5.0}");
+
+      mbeanServer.invoke(name, "disableSampling", new Object[0], new String[0]);
+      assertThat(holder.get().samplingPolicy).isNull();
+      assertThat(mbeanServer.getAttribute(name, "Sampling")).isEqualTo("none");
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void mbean_duplicateNameIsRejected() {
+    final LoggerConfigHolder holder = new LoggerConfigHolder(LoggerConfig.builder().build());
+    final LoggerControl control = LoggerControl.register("duplicate", holder);
+    try {
+      LoggerControl.register("duplicate", holder);
+    } finally {
+      control.close();
+    }
+  }
+
+  private void call(String interceptor, LoggerConfigHolder holder) {
+    final String url = String.valueOf(server.url("/"));
+    server.enqueue(new MockResponse().setResponseCode(200)
+        .setHeader("Content-Type", "application/json")
+        .setBody(BODY));
+    switch (interceptor) {
+      case "okhttp":
+        executeOkHttpRequest(defaultOkHttpClient(new OkHttpLoggingInterceptor(holder)),
+            new com.squareup.okhttp.Request.Builder().url(url)
+                .post(com.squareup.okhttp.RequestBody.create(
+                    com.squareup.okhttp.MediaType.parse("application/json"), BODY))
+                .build());
+        break;
+      case "okhttp3":
+        executeOkHttp3Request(defaultOkHttp3Client(new OkHttp3LoggingInterceptor(holder)),
+            okHttp3Request(BODY, "application/json", url));
+        break;
+      default:
+        final HttpPost request = new HttpPost(url);
+        request.setEntity(new StringEntity(BODY, ContentType.APPLICATION_JSON));
+        executeApacheRequest(defaultApacheClient(
+            new ApacheHttpRequestInterceptor(holder),
+            new ApacheHttpResponseInterceptor(holder)), request);
+        break;
+    }
+  }
+
+}
@@ -0,0 +1,228 @@
+package io.github.dkorobtsov.plinter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import io.github.dkorobtsov.plinter.apache.ApacheHttpRequestInterceptor;
+import io.github.dkorobtsov.plinter.apache.ApacheHttpResponseInterceptor;
+import io.github.dkorobtsov.plinter.core.Level;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.LoggingOverride;
+import io.github.dkorobtsov.plinter.core.OverflowPolicy;
+import io.github.dkorobtsov.plinter.core.SamplingPolicy;
+import io.github.dkorobtsov.plinter.core.internal.ConfigInternals;
+import io.github.dkorobtsov.plinter.okhttp.OkHttpLoggingInterceptor;
+import io.github.dkorobtsov.plinter.okhttp3.OkHttp3LoggingInterceptor;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests validating logging overrides attached to single calls.
+ */
+@RunWith(JUnitParamsRunner.class)
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public class LoggingOverrideTest extends BaseTest {
+
+  private static final String REQUEST_BODY = "{\"password\": \"secret\"}";
+  private static final String RESPONSE_BODY = "{\"name\": \"John\", \"city\": \"New York\"}";
+  private static final String CONTENT_TYPE_JSON = "application/json";
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void loggingOverride_bodiesAreSkipped(String interceptor) throws IOException {
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(output::add)
+        .level(Level.BASIC)
+        .build();
+
+    execute(interceptor, loggerConfig, LoggingOverride.builder().withoutBody().build());
+
+    assertThat(String.join("\n", output))
+        .contains("Omitted request body")
+        .contains("Omitted response body")
+        .contains("Status Code: 200")
+        .doesNotContain("secret")
+        .doesNotContain("New York");
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void loggingOverride_otherCallsAreNotAffected(String interceptor) throws IOException {
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(output::add)
+        .level(Level.BASIC)
+        .build();
+
+    execute(interceptor, loggerConfig, null);
+
+    assertThat(String.join("\n", output))
+        .contains("secret")
+        .contains("New York");
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void loggingOverride_levelIsForced(String interceptor) throws IOException {
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(output::add)
+        .level(Level.NONE)
+        .build();
+
+    execute(interceptor, loggerConfig, LoggingOverride.builder().level(Level.HEADERS).build());
+
+    assertThat(String.join("\n", output))
+        .contains("Headers:")
+        .contains("Status Code: 200")
+        .doesNotContain("New York");
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void loggingOverride_callWithForcedLevelIsNotSampledOut(String interceptor)
+      throws IOException {
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(output::add)
+        .sampling(SamplingPolicy.builder().probability(0).build())
+        .build();
+
+    execute(interceptor, loggerConfig, LoggingOverride.builder().level(Level.BODY).build());
+
+    assertThat(String.join("\n", output))
+        .contains("New York");
+  }
+
+  @Test
+  @Parameters({
+      "okhttp3",
+      "apacheHttpclientRequest"
+  })
+  public void loggingOverride_bodyCaptureLimitIsRaised(String interceptor) throws IOException {
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(output::add)
+        .bodyCaptureLimit(10)
+        .build();
+
+    execute(interceptor, loggerConfig,
+        LoggingOverride.builder().bodyCaptureLimit(Long.MAX_VALUE).build());
+
+    assertThat(String.join("\n", output))
+        .contains("New York")
+        .doesNotContain("truncated");
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void loggingOverride_isAppliedWithAsyncPrinting(String interceptor)
+      throws IOException, InterruptedException {
+    final List<String> output = Collections.synchronizedList(new ArrayList<>());
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(output::add)
+        .asyncPrinting(64, OverflowPolicy.BLOCK)
+        .build();
+
+    execute(interceptor, loggerConfig, LoggingOverride.builder().withoutBody().build());
+
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (ConfigInternals.of(loggerConfig).asyncPrinter().pending() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    Thread.sleep(50);
+
+    assertThat(String.join("\n", output))
+        .contains("Omitted response body")
+        .doesNotContain("New York");
+  }
+
+  @Test
+  public void loggingOverride_configurationIsCached() {
+    final LoggerConfig loggerConfig = LoggerConfig.builder().build();
+
+    assertThat(loggerConfig.withOverride(null)).isSameAs(loggerConfig);
+    assertThat(loggerConfig.withOverride(LoggingOverride.builder().withoutBody().build()))
+        .isSameAs(loggerConfig.withOverride(LoggingOverride.builder().withoutBody().build()));
+
+    final LoggerConfig overridden = loggerConfig
+        .withOverride(LoggingOverride.builder().level(Level.HEADERS).bodyCaptureLimit(5).build());
+    assertThat(overridden.level).isEqualTo(Level.HEADERS);
+    assertThat(overridden.bodyCaptureLimit).isEqualTo(5);
+    assertThat(overridden.logger).isSameAs(loggerConfig.logger);
+  }
+
+  @Test
+  public void loggingOverride_otherTagsAreIgnored() {
+    assertThat(LoggingOverride.from("tag")).isNull();
+    assertThat(LoggingOverride.from(null)).isNull();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void loggingOverride_negativeBodyCaptureLimitIsRejected() {
+    LoggingOverride.builder().bodyCaptureLimit(-1);
+  }
+
+  private void execute(String interceptor, LoggerConfig loggerConfig,
+      LoggingOverride override) throws IOException {
+    server.enqueue(new MockResponse()
+        .setResponseCode(200)
+        .setHeader("Content-Type", CONTENT_TYPE_JSON)
+        .setBody(RESPONSE_BODY));
+    final String url = String.valueOf(server.url(MOCK_SERVER_PATH));
+
+    switch (interceptor) {
+      case "okhttp":
+        final com.squareup.okhttp.Response okHttpResponse = executeOkHttpRequest(
+            defaultOkHttpClient(new OkHttpLoggingInterceptor(loggerConfig)),
+            new com.squareup.okhttp.Request.Builder()
+                .url(url)
+                .tag(override)
+                .put(com.squareup.okhttp.RequestBody.create(
+                    com.squareup.okhttp.MediaType.parse(CONTENT_TYPE_JSON), REQUEST_BODY))
+                .build());
+        okHttpResponse.body().string();
+        break;
+      case "okhttp3":
+        final Request request = new Request.Builder()
+            .url(url)
+            .tag(override)
+            .put(RequestBody.create(MediaType.parse(CONTENT_TYPE_JSON), REQUEST_BODY))
+            .build();
+        try (Response response = executeOkHttp3Request(
+            defaultOkHttp3Client(new OkHttp3LoggingInterceptor(loggerConfig)), request)) {
+          response.body().string();
+        }
+        break;
+      default:
+        final HttpPut put = new HttpPut(url);
+        put.setEntity(new StringEntity(REQUEST_BODY, ContentType.APPLICATION_JSON));
+        final HttpClientContext context = HttpClientContext.create();
+        context.setAttribute(LoggingOverride.CONTEXT_ATTRIBUTE, override);
+        // Response body is printed once application reads it
+        EntityUtils.toString(defaultApacheClient(
+            new ApacheHttpRequestInterceptor(loggerConfig),
+            new ApacheHttpResponseInterceptor(loggerConfig))
+            .execute(put, context).getEntity());
+        break;
+    }
+  }
+
+}
@@ -0,0 +1,310 @@
+package io.github.dkorobtsov.plinter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+import com.squareup.okhttp.mockwebserver.SocketPolicy;
+import io.github.dkorobtsov.plinter.apache.ApacheHttpRequestInterceptor;
+import io.github.dkorobtsov.plinter.apache.ApacheHttpResponseInterceptor;
+import io.github.dkorobtsov.plinter.core.Level;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.LoggerConfigHolder;
+import io.github.dkorobtsov.plinter.core.MetricsRecorder;
+import io.github.dkorobtsov.plinter.core.MetricsRecorder.Key;
+import io.github.dkorobtsov.plinter.core.MetricsRecorder.Snapshot;
+import io.github.dkorobtsov.plinter.core.internal.StripedHistogram;
+import io.github.dkorobtsov.plinter.okhttp3.OkHttp3LoggingInterceptor;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests validating latency and size histograms of intercepted calls.
+ */
+@RunWith(JUnitParamsRunner.class)
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public class MetricsRecorderTest extends BaseTest {
+
+  private static final String BODY = "{\"name\": \"John\"}";
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void metrics_areRecordedWhenLoggingIsDisabled(String interceptor) {
+    final List<String> output = new ArrayList<>();
+    final MetricsRecorder metrics = MetricsRecorder.builder().build();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(output::add)
+        .level(Level.NONE)
+        .metrics(metrics)
+        .build();
+
+    for (int i = 0; i < 3; i++) {
+      server.enqueue(new MockResponse().setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setBody(BODY));
+      interceptWithConfig(interceptor, loggerConfig, BODY, "application/json",
+          String.valueOf(server.url("/api/orders")));
+    }
+
+    assertThat(output).isEmpty();
+    final Map<Key, Snapshot> snapshot = metrics.snapshot();
+    assertThat(snapshot).hasSize(1);
+
+    final Key key = snapshot.keySet().iterator().next();
+    assertThat(key.host).isEqualTo(server.getHostName());
+    assertThat(key.method).isEqualTo("PUT");
+    assertThat(key.route).isEqualTo("/api/orders");
+    assertThat(key.statusClass).isEqualTo("2xx");
+
+    final Snapshot series = snapshot.get(key);
+    assertThat(series.latencyMs.count()).isEqualTo(3);
+    assertThat(series.requestBytes.count()).isEqualTo(3);
+    assertThat(series.requestBytes.sum()).isEqualTo(3L * BODY.length());
+    assertThat(series.requestBytes.max()).isGreaterThanOrEqualTo(BODY.length());
+    assertThat(series.responseBytes.sum()).isEqualTo(3L * BODY.length());
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void metrics_statusClassIsRecorded(String interceptor) {
+    final MetricsRecorder metrics = MetricsRecorder.builder().build();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(msg -> {
+        })
+        .metrics(metrics)
+        .build();
+
+    server.enqueue(new MockResponse().setResponseCode(404));
+    interceptWithConfig(interceptor, loggerConfig);
+    server.enqueue(new MockResponse().setResponseCode(503));
+    interceptWithConfig(interceptor, loggerConfig);
+
+    assertThat(metrics.snapshot().keySet())
+        .extracting(key -> key.statusClass)
+        .containsExactlyInAnyOrder("4xx", "5xx");
+  }
+
+  @Test
+  public void metrics_failedCallIsRecorded() {
+    final MetricsRecorder metrics = MetricsRecorder.builder().build();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(msg -> {
+        })
+        .metrics(metrics)
+        .build();
+
+    server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+    executeOkHttp3Request(
+        defaultOkHttp3Client(new OkHttp3LoggingInterceptor(loggerConfig)).newBuilder()
+            .connectionPool(new okhttp3.ConnectionPool())
+            .retryOnConnectionFailure(false)
+            .build(),
+        okHttp3Request(null, null, String.valueOf(server.url("/"))));
+
+    assertThat(metrics.snapshot().keySet())
+        .extracting(key -> key.statusClass)
+        .containsExactly("failed");
+  }
+
+  @Test
+  public void metrics_apacheTimingsAreMeasuredToHeadersAndLastByte() throws IOException {
+    final List<String> output = new ArrayList<>();
+    final MetricsRecorder metrics = MetricsRecorder.builder().build();
+    final LoggerConfigHolder configHolder = new LoggerConfigHolder(LoggerConfig.builder()
+        .logger(output::add)
+        .metrics(metrics)
+        .build());
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(50);
+        // Binary body is not printed, so it's still streamed when handed to application
+        return new MockResponse().setResponseCode(200)
+            .setHeader("Content-Type", "application/octet-stream")
+            .setBody(BODY)
+            .setBodyDelay(50, TimeUnit.MILLISECONDS);
+      }
+    });
+
+    final HttpResponse response = defaultApacheClient(
+        new ApacheHttpRequestInterceptor(configHolder),
+        new ApacheHttpResponseInterceptor(configHolder))
+        .execute(new HttpGet(String.valueOf(server.url("/api/orders"))));
+
+    assertThat(String.join("\n", output)).contains("Execution time: ");
+    final Snapshot beforeConsumed = metrics.snapshot().values().iterator().next();
+    assertThat(beforeConsumed.latencyMs.count()).isEqualTo(1);
+    assertThat(beforeConsumed.latencyMs.sum()).isGreaterThanOrEqualTo(50);
+    assertThat(beforeConsumed.lastByteMs.count()).isZero();
+
+    assertThat(EntityUtils.toString(response.getEntity())).isEqualTo(BODY);
+
+    final Snapshot afterConsumed = metrics.snapshot().values().iterator().next();
+    assertThat(afterConsumed.lastByteMs.count()).isEqualTo(1);
+    assertThat(afterConsumed.lastByteMs.sum()).isGreaterThanOrEqualTo(100);
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void metrics_snapshotAndResetIncludesEveryCallOnce(String interceptor) {
+    final MetricsRecorder metrics = MetricsRecorder.builder().build();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(msg -> {
+        })
+        .metrics(metrics)
+        .build();
+
+    server.enqueue(new MockResponse().setResponseCode(200));
+    interceptWithConfig(interceptor, loggerConfig);
+
+    assertThat(metrics.snapshotAndReset().values())
+        .extracting(snapshot -> snapshot.latencyMs.count())
+        .containsExactly(1L);
+    assertThat(metrics.snapshot()).isEmpty();
+
+    server.enqueue(new MockResponse().setResponseCode(200));
+    interceptWithConfig(interceptor, loggerConfig);
+
+    assertThat(metrics.snapshot().values())
+        .extracting(snapshot -> snapshot.latencyMs.count())
+        .containsExactly(1L);
+  }
+
+  @Test
+  public void metrics_seriesBeyondLimitAreCountedTogether() {
+    final MetricsRecorder metrics = MetricsRecorder.builder().maxSeries(2).build();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(msg -> {
+        })
+        .metrics(metrics)
+        .build();
+
+    for (int i = 0; i < 5; i++) {
+      server.enqueue(new MockResponse().setResponseCode(200));
+      interceptWithConfig("okhttp3", loggerConfig, null, null,
+          String.valueOf(server.url("/item" + i)));
+    }
+
+    final Map<Key, Snapshot> snapshot = metrics.snapshot();
+    assertThat(snapshot).hasSize(3);
+    assertThat(snapshot.entrySet())
+        .filteredOn(entry -> "other".equals(entry.getKey().route))
+        .extracting(entry -> entry.getValue().latencyMs.count())
+        .containsExactly(3L);
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void metrics_routeIsNormalized(String interceptor) {
+    final MetricsRecorder metrics = MetricsRecorder.builder().build();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(msg -> {
+        })
+        .metrics(metrics)
+        .build();
+
+    server.enqueue(new MockResponse().setResponseCode(200));
+    interceptWithConfig(interceptor, loggerConfig, null, null,
+        String.valueOf(server.url("/users/8812/orders")));
+    server.enqueue(new MockResponse().setResponseCode(200));
+    interceptWithConfig(interceptor, loggerConfig, null, null,
+        String.valueOf(server.url("/users/42/orders")));
+
+    assertThat(metrics.snapshot().keySet())
+        .extracting(key -> key.route)
+        .containsExactly("/users/{id}/orders");
+  }
+
+  @Test
+  @Parameters({"-1", "0", "7", "8", "9", "100", "1000", "123456", "9999999999", "9223372036854775807"})
+  public void histogram_valueIsWithinBucketBounds(long value) {
+    final long bounded = Math.max(0, value);
+    final int index = StripedHistogram.bucketIndex(bounded);
+
+    assertThat(index).isBetween(0, StripedHistogram.BUCKETS - 1);
+    if (index < StripedHistogram.BUCKETS - 1) {
+      assertThat(StripedHistogram.lowerBound(index)).isLessThanOrEqualTo(bounded);
+      assertThat(StripedHistogram.upperBound(index)).isGreaterThanOrEqualTo(bounded);
+      // Relative error below 12.5%
+      assertThat((double) StripedHistogram.upperBound(index) - StripedHistogram.lowerBound(index))
+          .isLessThanOrEqualTo(Math.max(0, bounded * 0.125));
+    }
+  }
+
+  @Test
+  public void histogram_bucketsAreContiguous() {
+    for (int i = 1; i < StripedHistogram.BUCKETS; i++) {
+      assertThat(StripedHistogram.lowerBound(i))
+          .isEqualTo(StripedHistogram.upperBound(i - 1) + 1);
+      assertThat(StripedHistogram.bucketIndex(StripedHistogram.lowerBound(i))).isEqualTo(i);
+    }
+  }
+
+  @Test
+  public void histogram_concurrentRecordingIsNotLost() throws InterruptedException {
+    assertConcurrentRecordingIsNotLost(new StripedHistogram());
+  }
+
+  @Test
+  public void histogram_concurrentRecordingWithoutInflationBudgetIsNotLost()
+      throws InterruptedException {
+    final StripedHistogram histogram = new StripedHistogram(new AtomicInteger(0));
+    assertConcurrentRecordingIsNotLost(histogram);
+    assertThat(histogram.stripeCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void histogram_singleThreadRecordingUsesOneStripe() {
+    final StripedHistogram histogram = new StripedHistogram();
+    assertThat(histogram.stripeCount()).isZero();
+
+    for (int i = 0; i < 10_000; i++) {
+      histogram.record(i);
+    }
+
+    assertThat(histogram.stripeCount()).isEqualTo(1);
+  }
+
+  private static void assertConcurrentRecordingIsNotLost(StripedHistogram histogram)
+      throws InterruptedException {
+    final int threads = 8;
+    final int values = 10_000;
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    final CountDownLatch done = new CountDownLatch(threads);
+    for (int t = 0; t < threads; t++) {
+      executor.execute(() -> {
+        for (int i = 0; i < values; i++) {
+          histogram.record(i % 100);
+        }
+        done.countDown();
+      });
+    }
+    assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+    executor.shutdown();
+
+    final long[] counts = histogram.snapshot(true);
+    long total = 0;
+    for (int i = 0; i < StripedHistogram.BUCKETS; i++) {
+      total += counts[i];
+    }
+    assertThat(total).isEqualTo((long) threads * values);
+    assertThat(counts[StripedHistogram.BUCKETS]).isEqualTo(threads * (values / 100) * 4950L);
+    assertThat(histogram.snapshot(false)[StripedHistogram.BUCKETS]).isZero();
+  }
+
+}
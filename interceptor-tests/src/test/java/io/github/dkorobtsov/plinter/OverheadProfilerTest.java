@@ -0,0 +1,132 @@
+package io.github.dkorobtsov.plinter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import io.github.dkorobtsov.plinter.core.Level;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.OverheadProfiler;
+import io.github.dkorobtsov.plinter.core.OverheadProfiler.Phase;
+import io.github.dkorobtsov.plinter.core.OverheadProfiler.Snapshot;
+import java.util.ArrayList;
+import java.util.List;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests validating measurement of time spent by interceptors on their own work.
+ */
+@RunWith(JUnitParamsRunner.class)
+public class OverheadProfilerTest extends BaseTest {
+
+  private static final String BODY = "{\"name\": \"John\"}";
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void profiler_everyPhaseIsMeasured(String interceptor) {
+    final List<String> output = new ArrayList<>();
+    final OverheadProfiler profiler = new OverheadProfiler();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(output::add)
+        .level(Level.BODY)
+        .overheadProfiler(profiler)
+        .build();
+
+    server.enqueue(new MockResponse().setResponseCode(200)
+        .setHeader("Content-Type", "application/json")
+        .setBody(BODY));
+    interceptWithConfig(interceptor, loggerConfig, BODY, "application/json",
+        String.valueOf(server.url("/")));
+
+    final Snapshot snapshot = profiler.snapshot();
+    assertThat(snapshot.count(Phase.REQUEST_CONVERSION)).isEqualTo(1);
+    assertThat(snapshot.count(Phase.RESPONSE_CONVERSION)).isEqualTo(1);
+    assertThat(snapshot.count(Phase.BODY_FORMATTING)).isEqualTo(2);
+    assertThat(snapshot.count(Phase.LAYOUT)).isEqualTo(2);
+    assertThat(snapshot.count(Phase.WRITE)).isEqualTo(output.size());
+
+    long phasesNanos = 0;
+    for (Phase phase : Phase.values()) {
+      phasesNanos += snapshot.totalNanos(phase);
+    }
+    assertThat(snapshot.totalNanos()).isEqualTo(phasesNanos);
+    assertThat(snapshot.totalNanos(Phase.LAYOUT)).isGreaterThanOrEqualTo(0);
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void profiler_singleEventIsWrittenOnce(String interceptor) {
+    final OverheadProfiler profiler = new OverheadProfiler();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(msg -> {
+        })
+        .singleEventOutput(true)
+        .overheadProfiler(profiler)
+        .build();
+
+    server.enqueue(new MockResponse().setResponseCode(200));
+    interceptWithConfig(interceptor, loggerConfig);
+
+    assertThat(profiler.snapshot().count(Phase.WRITE)).isEqualTo(2);
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void profiler_skippedCallsAreNotMeasured(String interceptor) {
+    final OverheadProfiler profiler = new OverheadProfiler();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(msg -> {
+        })
+        .level(Level.NONE)
+        .overheadProfiler(profiler)
+        .build();
+
+    server.enqueue(new MockResponse().setResponseCode(200));
+    interceptWithConfig(interceptor, loggerConfig);
+
+    assertThat(profiler.snapshot().totalNanos()).isZero();
+  }
+
+  @Test
+  public void profiler_timesOfFinishedThreadsAreKept() throws InterruptedException {
+    final OverheadProfiler profiler = new OverheadProfiler();
+    final List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      final Thread thread = new Thread(() -> {
+        for (int j = 0; j < 100; j++) {
+          profiler.record(Phase.WRITE, 10);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    threads.clear();
+    System.gc();
+
+    // Snapshots taken before and after finished threads are folded return the same totals
+    for (int i = 0; i < 2; i++) {
+      final Snapshot snapshot = profiler.snapshot();
+      assertThat(snapshot.count(Phase.WRITE)).isEqualTo(400);
+      assertThat(snapshot.totalNanos(Phase.WRITE)).isEqualTo(4000);
+      assertThat(snapshot.meanNanos(Phase.WRITE)).isEqualTo(10);
+    }
+  }
+
+  @Test
+  public void profiler_summaryListsEveryPhase() {
+    final OverheadProfiler profiler = new OverheadProfiler();
+    profiler.record(Phase.BODY_FORMATTING, 1500);
+
+    assertThat(profiler.summary())
+        .startsWith("Interceptor overhead: total 0ms")
+        .contains("request conversion 0 x 0.0us")
+        .contains("body formatting 1 x 1.5us")
+        .contains("write 0 x 0.0us");
+  }
+
+}
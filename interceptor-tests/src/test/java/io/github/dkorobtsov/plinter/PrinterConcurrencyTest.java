@@ -0,0 +1,72 @@
+package io.github.dkorobtsov.plinter;
+
+import static io.github.dkorobtsov.plinter.core.internal.Util.APPLICATION_JSON;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.internal.ClientPrintingExecutor;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedMediaType;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedRequest;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedRequestBody;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Tests validating that interceptors with different configurations can print concurrently without
+ * affecting each other's output.
+ */
+public class PrinterConcurrencyTest {
+
+  private static final String SIMPLE_JSON = "{name: \"John\", age: 31, city: \"New York\"}";
+  private static final int ITERATIONS = 200;
+
+  @Test
+  public void printer_configurationsDoNotLeakBetweenThreads() throws InterruptedException {
+    final Queue<String> narrowOutput = new ConcurrentLinkedQueue<>();
+    final Queue<String> wideOutput = new ConcurrentLinkedQueue<>();
+
+    final LoggerConfig narrowConfig = LoggerConfig.builder()
+        .logger(narrowOutput::add)
+        .maxLineLength(80)
+        .build();
+
+    final LoggerConfig wideConfig = LoggerConfig.builder()
+        .logger(wideOutput::add)
+        .maxLineLength(180)
+        .withThreadInfo(true)
+        .build();
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    for (int i = 0; i < ITERATIONS; i++) {
+      executor.execute(() -> ClientPrintingExecutor.printRequest(narrowConfig, request()));
+      executor.execute(() -> ClientPrintingExecutor.printRequest(wideConfig, request()));
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(narrowOutput)
+        .filteredOn(it -> it.startsWith("┌") || it.startsWith("└"))
+        .hasSize(ITERATIONS * 2)
+        .allMatch(it -> it.length() == 80);
+
+    assertThat(narrowOutput).noneMatch(it -> it.contains("Thread:"));
+
+    assertThat(wideOutput)
+        .filteredOn(it -> it.startsWith("┌") || it.startsWith("└"))
+        .hasSize(ITERATIONS * 2)
+        .allMatch(it -> it.length() == 180);
+  }
+
+  private static InterceptedRequest request() {
+    return new InterceptedRequest.Builder()
+        .method("PUT", InterceptedRequestBody
+            .create(InterceptedMediaType.parse(APPLICATION_JSON), SIMPLE_JSON))
+        .url("http://google.com/api/test/")
+        .build();
+  }
+
+}
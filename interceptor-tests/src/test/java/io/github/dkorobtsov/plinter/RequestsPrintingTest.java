@@ -61,9 +61,9 @@ public class RequestsPrintingTest extends BaseTest {
         .contains(""
             + "  Body: \n"
             + "  { \n"
-            + "     \"city\": \"New York\", \n"
             + "     \"name\": \"John\", \n"
-            + "     \"age\": 31 \n"
+            + "     \"age\": 31, \n"
+            + "     \"city\": \"New York\" \n"
             + "  } "
         );
   }
@@ -128,9 +128,9 @@ public class ResponsesPrintingTest extends BaseTest {
         .contains(""
             + "  Body: \n"
             + "  { \n"
-            + "     \"city\": \"New York\", \n"
             + "     \"name\": \"John\", \n"
-            + "     \"age\": 31 \n"
+            + "     \"age\": 31, \n"
+            + "     \"city\": \"New York\" \n"
             + "  } "
         );
   }
@@ -250,9 +250,9 @@ public class ResponsesPrintingTest extends BaseTest {
             + "   \n"
             + "  Body: \n"
             + "  { \n"
-            + "     \"city\": \"New York\", \n"
             + "     \"name\": \"John\", \n"
-            + "     \"age\": 31 \n"
+            + "     \"age\": 31, \n"
+            + "     \"city\": \"New York\" \n"
             + "  } \n"
             + "└─────────────────────────────────────────────────────────────────────────────── \n");
   }
@@ -0,0 +1,115 @@
+package io.github.dkorobtsov.plinter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.dkorobtsov.plinter.core.RouteNormalizer;
+import io.github.dkorobtsov.plinter.core.internal.Util;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests validating replacement of resource identifiers in request paths with placeholders.
+ */
+@RunWith(JUnitParamsRunner.class)
+public class RouteNormalizerTest {
+
+  private final RouteNormalizer normalizer = RouteNormalizer.builder().build();
+
+  @Test
+  @Parameters({
+      "/users/8812/orders, /users/{id}/orders",
+      "/users/8812/orders/0f8fad5b-d9cb-469f-a165-70867728950e, /users/{id}/orders/{uuid}",
+      "/objects/507f1f77bcf86cd799439011, /objects/{hash}",
+      "/blobs/da39a3ee5e6b4b0d3255bfef95601890afd80709/raw, /blobs/{hash}/raw",
+      "/api/v2/orders, /api/v2/orders",
+      "/cafe/deadbeefdeadbeef, /cafe/deadbeefdeadbeef",
+      "/a1b2, /a1b2",
+      "/users/, /users",
+      "/, /",
+      "http://example.com/users/1?page=2, /users/{id}"
+  })
+  public void normalize_identifiersAreReplaced(String path, String expectedRoute) {
+    assertThat(normalizer.normalize(Util.pathSegmentsOf(path))).isEqualTo(expectedRoute);
+  }
+
+  @Test
+  public void normalize_emptyPathIsRoot() {
+    assertThat(normalizer.normalize(null)).isEqualTo("/");
+    assertThat(normalizer.normalize(Collections.emptyList())).isEqualTo("/");
+    assertThat(normalizer.normalize(Collections.singletonList(""))).isEqualTo("/");
+  }
+
+  @Test
+  public void normalize_customPatternsAreAppliedFirst() {
+    final RouteNormalizer custom = RouteNormalizer.builder()
+        .pattern("[a-z]{2}-[A-Z]{2}", "{locale}")
+        .pattern("[0-9]{4}", "{year}")
+        .build();
+
+    assertThat(custom.normalize(Arrays.asList("docs", "en-US", "2019", "15")))
+        .isEqualTo("/docs/{locale}/{year}/{id}");
+  }
+
+  @Test
+  public void normalize_resultDoesNotDependOnCacheEviction() {
+    final RouteNormalizer small = RouteNormalizer.builder().cacheSize(1).build();
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(small.normalize(Arrays.asList("users", "1"))).isEqualTo("/users/{id}");
+      assertThat(small.normalize(Arrays.asList("users", "2", "orders")))
+          .isEqualTo("/users/{id}/orders");
+    }
+  }
+
+  @Test
+  public void normalize_frequentlyUsedPathStaysCached() {
+    final RouteNormalizer small = RouteNormalizer.builder().cacheSize(8).build();
+    // Cached template instance is returned on hit, so recomputed template is a new instance
+    final String hotTemplate = small.normalize(Arrays.asList("api", "health"));
+
+    for (int i = 0; i < 1000; i++) {
+      small.normalize(Arrays.asList("users", String.valueOf(i), "orders"));
+      assertThat(small.normalize(Arrays.asList("api", "health"))).isSameAs(hotTemplate);
+    }
+  }
+
+  @Test
+  public void normalize_concurrentCallsShareSmallCache() throws InterruptedException {
+    final RouteNormalizer small = RouteNormalizer.builder().cacheSize(8).build();
+    final int threads = 8;
+    final int paths = 5_000;
+    final AtomicInteger mismatches = new AtomicInteger();
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    final CountDownLatch done = new CountDownLatch(threads);
+    for (int t = 0; t < threads; t++) {
+      executor.execute(() -> {
+        for (int i = 0; i < paths; i++) {
+          final String id = String.valueOf(i % 64);
+          if (!"/users/{id}/orders".equals(small.normalize(Arrays.asList("users", id, "orders")))) {
+            mismatches.incrementAndGet();
+          }
+        }
+        done.countDown();
+      });
+    }
+    assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+    executor.shutdown();
+
+    assertThat(mismatches.get()).isZero();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void builder_invalidCacheSizeIsRejected() {
+    RouteNormalizer.builder().cacheSize(0);
+  }
+
+}
@@ -0,0 +1,179 @@
+package io.github.dkorobtsov.plinter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import io.github.dkorobtsov.plinter.core.Level;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.LoggingOverride;
+import io.github.dkorobtsov.plinter.core.RouteRules;
+import io.github.dkorobtsov.plinter.core.internal.Util;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests validating route based selection of logging overrides.
+ */
+@RunWith(JUnitParamsRunner.class)
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public class RouteRulesTest extends BaseTest {
+
+  private static final LoggingOverride BODY = LoggingOverride.builder().level(Level.BODY).build();
+  private static final LoggingOverride HEADERS = LoggingOverride.builder()
+      .level(Level.HEADERS).build();
+  private static final LoggingOverride WITHOUT_BODY = LoggingOverride.builder()
+      .withoutBody().build();
+
+  private static final RouteRules RULES = RouteRules.builder()
+      .exclude("/health")
+      .exclude("/metrics/**")
+      .override("/api/orders/*", BODY)
+      .override("/api/orders/export", WITHOUT_BODY)
+      .override("/api/*/items/**", HEADERS)
+      .exclude("files.example.com/**")
+      .override("*.example.com/api/orders/*", HEADERS)
+      .build();
+
+  @Test
+  @Parameters({
+      "api.google.com, /health, NONE",
+      "api.google.com, /health/, NONE",
+      "api.google.com, /health/live, null",
+      "api.google.com, /metrics, NONE",
+      "api.google.com, /metrics/jvm/gc, NONE",
+      "api.google.com, /api/orders/42, BODY",
+      "api.google.com, /api/orders, null",
+      "api.google.com, /api/orders/42/lines, null",
+      "api.google.com, /api/users/items, HEADERS",
+      "api.google.com, /api/users/items/1/2, HEADERS",
+      "api.google.com, /, null",
+      "files.example.com, /health, NONE",
+      "files.example.com, /any/file.zip, NONE",
+      "FILES.EXAMPLE.COM, /any/file.zip, NONE",
+      "eu.shop.example.com, /api/orders/42, HEADERS",
+      "eu.shop.example.com, /api/orders, null",
+      "example.com, /api/orders/42, BODY"
+  })
+  public void routeRules_mostSpecificRuleIsSelected(String host, String path, String level) {
+    final LoggingOverride override = RULES.match(host, Util.pathSegmentsOf(path));
+
+    if ("null".equals(level)) {
+      assertThat(override).isNull();
+    } else {
+      assertThat(override).isEqualTo(LoggingOverride.builder().level(Level.valueOf(level)).build());
+    }
+  }
+
+  @Test
+  public void routeRules_literalSegmentWinsOverWildcard() {
+    assertThat(RULES.match("google.com", Util.pathSegmentsOf("/api/orders/export")))
+        .isEqualTo(WITHOUT_BODY);
+  }
+
+  @Test
+  public void routeRules_nullHostIsMatchedByRulesWithoutHost() {
+    assertThat(RULES.match(null, Util.pathSegmentsOf("/health")))
+        .isEqualTo(LoggingOverride.builder().level(Level.NONE).build());
+    assertThat(RULES.match(null, Collections.emptyList())).isNull();
+  }
+
+  @Test
+  public void routeRules_laterRuleWithSamePatternWins() {
+    final RouteRules rules = RouteRules.builder()
+        .override("/debug", HEADERS)
+        .override("/debug/", BODY)
+        .build();
+
+    assertThat(rules.match("google.com", Util.pathSegmentsOf("/debug"))).isEqualTo(BODY);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  @Parameters({
+      "health",
+      "/api/**/items",
+      "/api/ord*",
+      "api.*.com/health",
+      "*./health"
+  })
+  public void routeRules_invalidPatternIsRejected(String pattern) {
+    RouteRules.builder().exclude(pattern);
+  }
+
+  @Test
+  @Parameters({
+      "http://google.com/a/b?c=d, a;b",
+      "http://google.com, ",
+      "http://google.com/, ",
+      "/a/b%20c/d#e, a;b%20c;d",
+      "/a/b/, a;b;",
+      "*, "
+  })
+  public void routeRules_pathSegmentsAreExtracted(String uri, String segments) {
+    final List<String> expected = segments.isEmpty()
+        ? Collections.emptyList()
+        : Arrays.asList(segments.split(";", -1));
+    final List<String> actual = Util.pathSegmentsOf(uri);
+
+    if ("http://google.com/".equals(uri)) {
+      assertThat(actual).containsExactly("");
+    } else {
+      assertThat(actual).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void routeRules_excludedRouteIsNotLogged(String interceptor) {
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(output::add)
+        .routeRules(RouteRules.builder().exclude("/health").build())
+        .build();
+
+    server.enqueue(new MockResponse().setResponseCode(200));
+    interceptWithConfig(interceptor, loggerConfig, null, null,
+        String.valueOf(server.url("/health")));
+
+    assertThat(output).isEmpty();
+
+    server.enqueue(new MockResponse().setResponseCode(200));
+    interceptWithConfig(interceptor, loggerConfig, null, null,
+        String.valueOf(server.url("/api/orders")));
+
+    assertThat(String.join("\n", output))
+        .contains("/api/orders")
+        .contains("Status Code: 200");
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void routeRules_selectedRouteIsLoggedWithOverride(String interceptor) {
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(output::add)
+        .level(Level.NONE)
+        .routeRules(RouteRules.builder().override("/debug/*", HEADERS).build())
+        .build();
+
+    server.enqueue(new MockResponse().setResponseCode(200));
+    interceptWithConfig(interceptor, loggerConfig, null, null,
+        String.valueOf(server.url("/api/orders")));
+
+    assertThat(output).isEmpty();
+
+    server.enqueue(new MockResponse().setResponseCode(200));
+    interceptWithConfig(interceptor, loggerConfig, null, null,
+        String.valueOf(server.url("/debug/orders?id=1")));
+
+    assertThat(String.join("\n", output))
+        .contains("/debug/orders")
+        .contains("Status Code: 200");
+  }
+
+}
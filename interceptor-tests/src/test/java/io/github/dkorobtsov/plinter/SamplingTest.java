@@ -0,0 +1,185 @@
+package io.github.dkorobtsov.plinter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import io.github.dkorobtsov.plinter.core.LogCondition;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.SamplingPolicy;
+import io.github.dkorobtsov.plinter.core.internal.TokenBucket;
+import java.util.ArrayList;
+import java.util.List;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests validating sampling of logged calls.
+ */
+@RunWith(JUnitParamsRunner.class)
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public class SamplingTest extends BaseTest {
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void sampling_callsAreNotLoggedWithZeroProbability(String interceptor) {
+    final SamplingPolicy policy = SamplingPolicy.builder().probability(0).build();
+
+    final List<String> output = intercept(interceptor, policy, 2);
+
+    assertThat(output).isEmpty();
+    assertThat(policy.sampledOutCount()).isEqualTo(2);
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void sampling_callsAreLoggedWithFullProbability(String interceptor) {
+    final SamplingPolicy policy = SamplingPolicy.builder().probability(1).build();
+
+    final String output = String.join("\n", intercept(interceptor, policy, 1));
+
+    assertThat(output)
+        .contains("Request")
+        .contains("Response");
+    assertThat(policy.sampledOutCount()).isZero();
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void sampling_globalRateLimitsLoggedCalls(String interceptor) {
+    final SamplingPolicy policy = SamplingPolicy.builder().maxEventsPerSecond(0.001).build();
+
+    final String output = String.join("\n", intercept(interceptor, policy, 3));
+
+    assertThat(occurrences(output, "Status Code: 200")).isEqualTo(1);
+    assertThat(policy.sampledOutCount()).isEqualTo(2);
+  }
+
+  @Test
+  @Parameters(method = "interceptors")
+  public void sampling_conditionIsCheckedForSampledCallsOnly(String interceptor) {
+    final SamplingPolicy policy = SamplingPolicy.builder().probability(0).build();
+    server.enqueue(new MockResponse().setResponseCode(500));
+
+    final List<String> output = new ArrayList<>();
+    interceptWithConfig(interceptor, LoggerConfig.builder()
+        .logger(output::add)
+        .sampling(policy)
+        .logCondition(LogCondition.serverErrors())
+        .build());
+
+    assertThat(output).isEmpty();
+  }
+
+  @Test
+  public void sampling_hostRateIsTrackedPerHost() {
+    final SamplingPolicy policy = SamplingPolicy.builder().perHostRate(0.001).build();
+
+    assertThat(policy.sample("first.com")).isTrue();
+    assertThat(policy.sample("first.com")).isFalse();
+    assertThat(policy.sample("second.com")).isTrue();
+    assertThat(policy.sample(null)).isTrue();
+    assertThat(policy.sample(null)).isFalse();
+    assertThat(policy.sampledOutCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void sampling_allLimitsShouldBePassed() {
+    final SamplingPolicy policy = SamplingPolicy.builder()
+        .perHostRate(1000)
+        .maxEventsPerSecond(0.001)
+        .build();
+
+    assertThat(policy.sample("first.com")).isTrue();
+    assertThat(policy.sample("second.com")).isFalse();
+  }
+
+  @Test
+  public void sampling_hostPermitIsReturnedIfGlobalRateIsExceeded() throws InterruptedException {
+    final SamplingPolicy policy = SamplingPolicy.builder()
+        .perHostRate(0.5)
+        .maxEventsPerSecond(2)
+        .build();
+
+    assertThat(policy.sample("first.com")).isTrue();
+    assertThat(policy.sample("second.com")).isTrue();
+    assertThat(policy.sample("third.com")).isFalse();
+
+    // Global limit is refilled, while host's own limit would take 2 seconds
+    Thread.sleep(600);
+
+    assertThat(policy.sample("third.com")).isTrue();
+  }
+
+  @Test
+  public void sampling_tokenBucketAllowsBurstOfRateSize() {
+    final TokenBucket bucket = new TokenBucket(3);
+
+    assertThat(bucket.tryAcquire()).isTrue();
+    assertThat(bucket.tryAcquire()).isTrue();
+    assertThat(bucket.tryAcquire()).isTrue();
+    assertThat(bucket.tryAcquire()).isFalse();
+  }
+
+  @Test
+  public void sampling_tokenBucketIsRefilled() throws InterruptedException {
+    final TokenBucket bucket = new TokenBucket(100);
+    int acquired = 0;
+    while (bucket.tryAcquire()) {
+      acquired++;
+    }
+    assertThat(acquired).isEqualTo(100);
+
+    Thread.sleep(50);
+
+    assertThat(bucket.tryAcquire()).isTrue();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  @Parameters({"-0.1", "1.1"})
+  public void sampling_invalidProbabilityIsRejected(double probability) {
+    SamplingPolicy.builder().probability(probability);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  @Parameters({"0", "-1", "1.1e9"})
+  public void sampling_invalidHostRateIsRejected(double rate) {
+    SamplingPolicy.builder().perHostRate(rate);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  @Parameters({"0", "-1", "1.1e9"})
+  public void sampling_invalidGlobalRateIsRejected(double rate) {
+    SamplingPolicy.builder().maxEventsPerSecond(rate);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void sampling_tokenBucketRejectsRateAboveOnePerNanosecond() {
+    new TokenBucket(2e9);
+  }
+
+  private List<String> intercept(String interceptor, SamplingPolicy policy, int calls) {
+    final List<String> output = new ArrayList<>();
+    final LoggerConfig config = LoggerConfig.builder()
+        .logger(output::add)
+        .sampling(policy)
+        .build();
+    for (int i = 0; i < calls; i++) {
+      server.enqueue(new MockResponse().setResponseCode(200));
+      interceptWithConfig(interceptor, config);
+    }
+    return output;
+  }
+
+  private static int occurrences(String text, String value) {
+    int count = 0;
+    int index = text.indexOf(value);
+    while (index >= 0) {
+      count++;
+      index = text.indexOf(value, index + value.length());
+    }
+    return count;
+  }
+
+}
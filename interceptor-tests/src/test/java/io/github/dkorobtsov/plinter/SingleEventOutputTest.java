@@ -0,0 +1,94 @@
+package io.github.dkorobtsov.plinter;
+
+import static io.github.dkorobtsov.plinter.core.internal.Util.APPLICATION_JSON;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.internal.ClientPrintingExecutor;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedMediaType;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedRequest;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedRequestBody;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Tests validating that with single event output enabled whole box is sent to logger at once.
+ */
+public class SingleEventOutputTest {
+
+  private static final String SIMPLE_JSON = "{name: \"John\", age: 31, city: \"New York\"}";
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+
+  @Test
+  public void singleEventOutput_requestIsPrintedAsOneEvent() {
+    final List<String> events = new ArrayList<>();
+    ClientPrintingExecutor.printRequest(LoggerConfig.builder()
+        .logger(events::add)
+        .singleEventOutput(true)
+        .build(), request());
+
+    assertEquals("Events count", 1, events.size());
+    assertThat(events.get(0))
+        .startsWith("┌────── Request")
+        .contains(LINE_SEPARATOR + "└──────")
+        .contains("URL: http://google.com/api/test/")
+        .contains("\"city\": \"New York\"");
+  }
+
+  @Test
+  public void singleEventOutput_outputMatchesPerLineMode() {
+    final List<String> lines = new ArrayList<>();
+    ClientPrintingExecutor.printRequest(LoggerConfig.builder()
+        .logger(lines::add)
+        .build(), request());
+
+    final List<String> events = new ArrayList<>();
+    ClientPrintingExecutor.printRequest(LoggerConfig.builder()
+        .logger(events::add)
+        .singleEventOutput(true)
+        .build(), request());
+
+    assertEquals("Events count", 1, events.size());
+    assertEquals("Lines should be the same in both modes",
+        lines, Arrays.asList(events.get(0).split(LINE_SEPARATOR)));
+  }
+
+  @Test
+  public void singleEventOutput_concurrentEventsAreNotInterleaved() throws InterruptedException {
+    final int iterations = 100;
+    final Queue<String> events = new ConcurrentLinkedQueue<>();
+    final LoggerConfig loggerConfig = LoggerConfig.builder()
+        .logger(events::add)
+        .singleEventOutput(true)
+        .build();
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    for (int i = 0; i < iterations; i++) {
+      executor.execute(() -> ClientPrintingExecutor.printRequest(loggerConfig, request()));
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(events)
+        .hasSize(iterations)
+        .allMatch(it -> it.startsWith("┌") && it.endsWith("─"))
+        .allMatch(it -> it.indexOf('┌') == it.lastIndexOf('┌'));
+  }
+
+  private static InterceptedRequest request() {
+    return new InterceptedRequest.Builder()
+        .method("PUT", InterceptedRequestBody
+            .create(InterceptedMediaType.parse(APPLICATION_JSON), SIMPLE_JSON))
+        .url("http://google.com/api/test/")
+        .build();
+  }
+
+}
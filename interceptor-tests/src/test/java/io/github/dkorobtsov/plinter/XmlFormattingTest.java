@@ -0,0 +1,112 @@
+package io.github.dkorobtsov.plinter;
+
+import static io.github.dkorobtsov.plinter.core.internal.Util.APPLICATION_XML;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.internal.ClientPrintingExecutor;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedMediaType;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+/**
+ * Unit tests validating XML body layout.
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public class XmlFormattingTest {
+
+  @Test
+  public void xmlFormatting_nestedElements() {
+    assertThat(formattedBody(""
+        + "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+        + "<list><item id=\"1\" name=\"first\">One</item><item id=\"2\"/> </list>"))
+        .isEqualTo(""
+            + "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<list>\n"
+            + "    <item id=\"1\" name=\"first\">One</item>\n"
+            + "    <item id=\"2\"/>\n"
+            + "</list>");
+  }
+
+  @Test
+  public void xmlFormatting_declarationIsNotAddedIfMissing() {
+    assertThat(formattedBody("<a><b></b></a>"))
+        .isEqualTo(""
+            + "<a>\n"
+            + "    <b/>\n"
+            + "</a>");
+  }
+
+  @Test
+  public void xmlFormatting_namesAndAttributeOrderArePreserved() {
+    assertThat(formattedBody(""
+        + "<soap:Envelope xmlns:soap=\"http://www.w3.org/2003/05/soap-envelope\" z=\"1\" a=\"2\">"
+        + "<soap:Body>ok</soap:Body></soap:Envelope>"))
+        .isEqualTo(""
+            + "<soap:Envelope xmlns:soap=\"http://www.w3.org/2003/05/soap-envelope\" z=\"1\" a=\"2\">\n"
+            + "    <soap:Body>ok</soap:Body>\n"
+            + "</soap:Envelope>");
+  }
+
+  @Test
+  public void xmlFormatting_specialNodes() {
+    assertThat(formattedBody(""
+        + "<a attr=\"&quot;q&quot;\">&lt;text&gt; &amp;<!-- note --><![CDATA[<raw>]]><?pi data?></a>"))
+        .isEqualTo(""
+            + "<a attr=\"&quot;q&quot;\">\n"
+            + "    &lt;text&gt; &amp;\n"
+            + "    <!-- note -->\n"
+            + "    <![CDATA[<raw>]]>\n"
+            + "    <?pi data?>\n"
+            + "</a>");
+  }
+
+  @Test
+  public void xmlFormatting_doctypeIsKept() {
+    assertThat(formattedBody("<!DOCTYPE html><html><body>text</body></html>"))
+        .isEqualTo(""
+            + "<!DOCTYPE html>\n"
+            + "<html>\n"
+            + "    <body>text</body>\n"
+            + "</html>");
+  }
+
+  @Test
+  public void xmlFormatting_malformedDocumentIsPrintedAsIs() {
+    final String body = "<a><b></a>";
+    assertThat(formattedBody(body)).isEqualTo(body);
+  }
+
+  @Test
+  public void xmlFormatting_externalEntitiesAreNotResolved() {
+    final String body = ""
+        + "<?xml version=\"1.0\"?>"
+        + "<!DOCTYPE a [<!ENTITY xxe SYSTEM \"file:///etc/hostname\">]>"
+        + "<a>&xxe;</a>";
+    assertThat(formattedBody(body)).isEqualTo(body);
+  }
+
+  private static String formattedBody(String body) {
+    final List<String> lines = new ArrayList<>();
+    ClientPrintingExecutor.printResponse(LoggerConfig.builder()
+        .logger(lines::add)
+        .maxLineLength(180)
+        .build(), InterceptedResponse.builder()
+        .code(200)
+        .isSuccessful(true)
+        .contentType(InterceptedMediaType.parse(APPLICATION_XML))
+        .originalBody(body.getBytes(StandardCharsets.UTF_8))
+        .hasPrintableBody(true)
+        .build());
+
+    return lines.subList(lines.indexOf("  Body:") + 1, lines.size() - 1)
+        .stream()
+        .map(it -> it.substring(2))
+        .collect(Collectors.joining("\n"));
+  }
+
+}
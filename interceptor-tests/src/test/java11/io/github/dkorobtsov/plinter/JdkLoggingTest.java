@@ -0,0 +1,247 @@
+package io.github.dkorobtsov.plinter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+import io.github.dkorobtsov.plinter.core.LogCondition;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.MetricsRecorder;
+import io.github.dkorobtsov.plinter.core.MetricsRecorder.Snapshot;
+import io.github.dkorobtsov.plinter.jdk.JdkLoggingInterceptor;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Tests validating logging of JDK HttpClient exchanges.
+ */
+public class JdkLoggingTest extends BaseTest {
+
+  private static final String REQUEST_BODY = "{\"name\": \"Jane\"}";
+  private static final String RESPONSE_BODY = "{\"id\": 1, \"name\": \"John\"}";
+
+  private final List<String> output = new CopyOnWriteArrayList<>();
+
+  @Test
+  public void jdkExchange_requestAndResponseBodiesArePrinted() throws Exception {
+    final HttpClient client = client(LoggerConfig.builder()
+        .logger(output::add)
+        .build());
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        // Execution time is printed only if it's not 0
+        TimeUnit.MILLISECONDS.sleep(10);
+        return jsonResponse(RESPONSE_BODY);
+      }
+    });
+
+    final HttpResponse<String> response = client.send(post(REQUEST_BODY),
+        BodyHandlers.ofString());
+
+    assertThat(response.body()).isEqualTo(RESPONSE_BODY);
+    assertThat(server.takeRequest().getBody().readUtf8()).isEqualTo(REQUEST_BODY);
+    awaitOutput("Execution time: ");
+    assertThat(String.join("\n", output))
+        .contains("Request")
+        .contains("\"name\": \"Jane\"")
+        .contains("Status Code: 200")
+        .contains("\"id\": 1")
+        .contains("Execution time: ");
+  }
+
+  @Test
+  public void jdkExchange_asyncResponseCanBeComposed() throws Exception {
+    final HttpClient client = client(LoggerConfig.builder()
+        .logger(output::add)
+        .build());
+    server.enqueue(jsonResponse(RESPONSE_BODY));
+
+    final String body = client.sendAsync(get(), BodyHandlers.ofString())
+        .thenApply(HttpResponse::body)
+        .get(5, TimeUnit.SECONDS);
+
+    assertThat(body).isEqualTo(RESPONSE_BODY);
+    awaitOutput("\"id\": 1");
+    assertThat(String.join("\n", output))
+        .contains("Status Code: 200")
+        .contains("\"id\": 1");
+  }
+
+  @Test
+  public void jdkExchange_responseBodyIsCapturedUpToLimit() throws Exception {
+    final HttpClient client = client(LoggerConfig.builder()
+        .logger(output::add)
+        .bodyCaptureLimit(10)
+        .build());
+    final String body = "{\"items\": [" + String.join(",", Collections
+        .nCopies(2000, "\"value\"")) + "]}";
+    server.enqueue(jsonResponse(body));
+
+    final HttpResponse<String> response = client.send(get(), BodyHandlers.ofString());
+
+    // Application still receives complete body
+    assertThat(response.body()).isEqualTo(body);
+    awaitOutput("Response body truncated");
+    assertThat(String.join("\n", output))
+        .contains("Response body truncated to 10 bytes")
+        .doesNotContain("\"value\",\"value\"");
+  }
+
+  @Test
+  public void jdkExchange_metricsAreRecorded() throws Exception {
+    final MetricsRecorder metrics = MetricsRecorder.builder().build();
+    final HttpClient client = client(LoggerConfig.builder()
+        .logger(output::add)
+        .metrics(metrics)
+        .build());
+    server.enqueue(jsonResponse(RESPONSE_BODY));
+    server.enqueue(new MockResponse().setResponseCode(500)
+        .setHeader("Content-Type", "application/octet-stream")
+        .setBody("error"));
+
+    client.send(post(REQUEST_BODY), BodyHandlers.ofString());
+    client.send(get(), BodyHandlers.discarding());
+
+    assertThat(metrics.snapshot()).hasSize(2);
+    final Snapshot succeeded = metrics.snapshot().entrySet().stream()
+        .filter(entry -> "2xx".equals(entry.getKey().statusClass))
+        .findFirst().get().getValue();
+    assertThat(succeeded.latencyMs.count()).isEqualTo(1);
+    assertThat(succeeded.lastByteMs.count()).isEqualTo(1);
+    assertThat(succeeded.requestBytes.sum()).isEqualTo(REQUEST_BODY.length());
+    assertThat(succeeded.responseBytes.sum()).isEqualTo(RESPONSE_BODY.length());
+
+    final Snapshot failed = metrics.snapshot().entrySet().stream()
+        .filter(entry -> "5xx".equals(entry.getKey().statusClass))
+        .findFirst().get().getValue();
+    assertThat(failed.responseBytes.sum()).isEqualTo("error".length());
+  }
+
+  @Test
+  public void jdkExchange_conditionalLoggingPrintsOnlyMatchingExchanges() throws Exception {
+    final HttpClient client = client(LoggerConfig.builder()
+        .logger(output::add)
+        .logCondition(LogCondition.serverErrors())
+        .build());
+    server.enqueue(jsonResponse(RESPONSE_BODY));
+    server.enqueue(new MockResponse().setResponseCode(503)
+        .setHeader("Content-Type", "application/json")
+        .setBody("{\"error\": \"unavailable\"}"));
+
+    client.send(post(REQUEST_BODY), BodyHandlers.ofString());
+    assertThat(output).isEmpty();
+
+    client.send(post(REQUEST_BODY), BodyHandlers.ofString());
+    awaitOutput("unavailable");
+    assertThat(String.join("\n", output))
+        .contains("\"name\": \"Jane\"")
+        .contains("Status Code: 503")
+        .doesNotContain("Status Code: 200");
+  }
+
+  @Test
+  public void jdkExchange_failureIsRecordedInMetrics() throws Exception {
+    final MetricsRecorder metrics = MetricsRecorder.builder().build();
+    final HttpClient client = client(LoggerConfig.builder()
+        .logger(output::add)
+        .metrics(metrics)
+        .build());
+    final HttpRequest request = get();
+    server.shutdown();
+
+    try {
+      client.sendAsync(request, BodyHandlers.ofString()).get(5, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isInstanceOf(IOException.class);
+    }
+
+    assertThat(metrics.snapshot().keySet())
+        .extracting(key -> key.statusClass)
+        .containsExactly("failed");
+    awaitOutput("/api/orders");
+    assertThat(String.join("\n", output)).contains("/api/orders");
+  }
+
+  @Test
+  public void jdkExchange_isNeverPrintedByClientThread() throws Exception {
+    final HttpClient client = client(LoggerConfig.builder()
+        .logger(output::add)
+        .withThreadInfo(true)
+        .build());
+    server.enqueue(jsonResponse(RESPONSE_BODY));
+
+    client.send(get(), BodyHandlers.ofString());
+
+    awaitOutput("\"id\": 1");
+    assertThat(String.join("\n", output))
+        .contains("plinter-printer-")
+        .doesNotContain("HttpClient-");
+  }
+
+  @Test
+  public void jdkExchange_decoratedClientKeepsConfiguration() {
+    final HttpClient original = HttpClient.newBuilder()
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .version(HttpClient.Version.HTTP_1_1)
+        .build();
+
+    final HttpClient client = new JdkLoggingInterceptor(LoggerConfig.builder().build())
+        .wrap(original);
+
+    assertThat(client.followRedirects()).isEqualTo(HttpClient.Redirect.NORMAL);
+    assertThat(client.version()).isEqualTo(HttpClient.Version.HTTP_1_1);
+    assertThat(client.sslContext()).isSameAs(original.sslContext());
+  }
+
+  /**
+   * Exchanges are printed by printer thread, so output is checked once expected event arrives.
+   */
+  private void awaitOutput(String text) throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + 5000;
+    while (output.stream().noneMatch(event -> event.contains(text))
+        && System.currentTimeMillis() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+  }
+
+  private HttpClient client(LoggerConfig loggerConfig) {
+    return new JdkLoggingInterceptor(loggerConfig).wrap(HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .build());
+  }
+
+  private HttpRequest post(String body) {
+    return HttpRequest.newBuilder(uri())
+        .header("Content-Type", "application/json")
+        .POST(BodyPublishers.ofString(body))
+        .build();
+  }
+
+  private HttpRequest get() {
+    return HttpRequest.newBuilder(uri()).GET().build();
+  }
+
+  private URI uri() {
+    return URI.create(String.valueOf(server.url("/api/orders")));
+  }
+
+  private static MockResponse jsonResponse(String body) {
+    return new MockResponse().setResponseCode(200)
+        .setHeader("Content-Type", "application/json")
+        .setBody(body);
+  }
+
+}
@@ -0,0 +1,21 @@
+val archivesBaseName: String by extra { "jdk-interceptor" }
+val artefactName: String by extra { "JDK HttpClient Logging Interceptor" }
+
+// java.net.http.HttpClient is available since Java 11, other modules still target Java 8
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    api(project(":interceptor-core"))
+}
+
+tasks.named<Jar>("jar") {
+    manifest {
+        attributes(mapOf(
+                "Implementation-Title" to artefactName,
+                "Automatic-Module-Name" to "${rootProject.extra["projectGroup"]}.$archivesBaseName"
+        ))
+    }
+}
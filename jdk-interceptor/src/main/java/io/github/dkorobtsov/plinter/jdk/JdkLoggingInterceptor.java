@@ -0,0 +1,418 @@
+package io.github.dkorobtsov.plinter.jdk;
+
+import static io.github.dkorobtsov.plinter.core.internal.Util.pathSegmentsOf;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import io.github.dkorobtsov.plinter.core.AbstractInterceptor;
+import io.github.dkorobtsov.plinter.core.CallOutcome;
+import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.LoggerConfigHolder;
+import io.github.dkorobtsov.plinter.core.internal.BodyCapture;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedRequest;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedResponse;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.PushPromiseHandler;
+import java.net.http.HttpResponse.ResponseInfo;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Interceptor for JDK {@link HttpClient} (Java 11+). Client has no interceptor chain, so calls
+ * are logged by decorating client: request body publisher and response body subscriber of every
+ * exchange are wrapped. Future returned by {@code sendAsync} completes with result of wrapped
+ * client's future once exchange failure (if any) is recorded, and cancelling it cancels client's
+ * future, so futures can be composed and cancelled as usual.
+ *
+ * Bodies are never read by interceptor: first bytes of every buffer published to client or
+ * received from it are copied while client sends and receives them (up to {@link
+ * LoggerConfig#bodyCaptureLimit}), so request is printed once response headers are received and
+ * response once its body is completely received. Execution time is the time between sending
+ * request and receiving response headers, metrics also get time to last byte of response body.
+ *
+ * Body callbacks are executed by client's executor, so events are never formatted or written by
+ * them: they are always handed off to asynchronous printer (see {@link
+ * LoggerConfig.LoggerConfigBuilder#asyncPrinting}). If asynchronous printing is not configured or
+ * its overflow policy is {@link io.github.dkorobtsov.plinter.core.OverflowPolicy#BLOCK},
+ * separate printer dropping new events when its buffer is full is used instead. Push promises
+ * and WebSocket traffic are not logged.
+ *
+ * Usage instructions:
+ *
+ * <pre>
+ *
+ *  HttpClient client = new JdkLoggingInterceptor(LoggerConfig.builder()
+ *      .asyncPrinting(1024, OverflowPolicy.DROP_OLDEST)
+ *      .build())
+ *      .wrap(HttpClient.newHttpClient());
+ *
+ *  CompletableFuture&lt;String&gt; body = client
+ *      .sendAsync(HttpRequest.newBuilder(uri).build(), BodyHandlers.ofString())
+ *      .thenApply(HttpResponse::body);
+ *
+ * </pre>
+ */
+public class JdkLoggingInterceptor extends AbstractInterceptor {
+
+  public JdkLoggingInterceptor(final LoggerConfig loggerConfig) {
+    this(new LoggerConfigHolder(loggerConfig));
+  }
+
+  /**
+   * @param configHolder holder of configuration which can be replaced at runtime
+   */
+  public JdkLoggingInterceptor(final LoggerConfigHolder configHolder) {
+    super(configHolder, true);
+  }
+
+  /**
+   * @return client sending requests with provided client and logging every exchange
+   */
+  public HttpClient wrap(final HttpClient client) {
+    return new LoggingHttpClient(client, this);
+  }
+
+  /**
+   * Sends request with provided client, logging request and response.
+   */
+  <T> HttpResponse<T> send(final HttpClient client, final HttpRequest request,
+      final BodyHandler<T> responseBodyHandler) throws IOException, InterruptedException {
+    final Exchange exchange = new Exchange(request);
+    try {
+      return client.send(exchange.request(), exchange.bodyHandler(responseBodyHandler));
+    } catch (IOException | InterruptedException e) {
+      exchange.failed(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Sends request asynchronously with provided client, logging request and response. Returned
+   * future completes after callback attached to client's future records failed exchange, so
+   * failure is already counted when caller gets it.
+   *
+   * @param pushPromiseHandler push promise handler, can be null
+   */
+  <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpClient client,
+      final HttpRequest request, final BodyHandler<T> responseBodyHandler,
+      final PushPromiseHandler<T> pushPromiseHandler) {
+    final Exchange exchange = new Exchange(request);
+    final CompletableFuture<HttpResponse<T>> response = isNull(pushPromiseHandler)
+        ? client.sendAsync(exchange.request(), exchange.bodyHandler(responseBodyHandler))
+        : client.sendAsync(exchange.request(), exchange.bodyHandler(responseBodyHandler),
+            pushPromiseHandler);
+    final CompletableFuture<HttpResponse<T>> logged = new CompletableFuture<>() {
+      @Override
+      public boolean cancel(boolean mayInterruptIfRunning) {
+        response.cancel(mayInterruptIfRunning);
+        return super.cancel(mayInterruptIfRunning);
+      }
+    };
+    response.whenComplete((it, error) -> {
+      if (isNull(error)) {
+        logged.complete(it);
+        return;
+      }
+      try {
+        exchange.failed(error instanceof CompletionException && nonNull(error.getCause())
+            ? error.getCause() : error);
+      } finally {
+        logged.completeExceptionally(error);
+      }
+    });
+    return logged;
+  }
+
+  /**
+   * State of one exchange shared by request body publisher and response body subscriber.
+   * Publisher and subscriber signals are never executed concurrently and response body is
+   * subscribed only after request is sent.
+   */
+  private final class Exchange {
+
+    private final HttpRequest request;
+    private final AtomicBoolean isFinished = new AtomicBoolean();
+    private final LoggerConfig loggerConfig;
+    private final boolean isLogged;
+    private final BodyCapture requestBody;
+    private final long startNanos;
+
+    private BodyCapture responseBody;
+    private InterceptedRequest interceptedRequest;
+    private ResponseInfo responseInfo;
+    private long headersNanos;
+    private CallOutcome outcome;
+
+    Exchange(HttpRequest request) {
+      this.request = request;
+      this.startNanos = System.nanoTime();
+      this.loggerConfig = loggerConfig(null, request.uri().getHost(),
+          () -> pathSegmentsOf(String.valueOf(request.uri())));
+      countExchange();
+      this.isLogged = !skipLogging(loggerConfig)
+          && !isSampledOut(loggerConfig, request.uri().getHost());
+      this.requestBody = isLogged && requestConverter().hasPrintableBody(request)
+          ? new BodyCapture(loggerConfig.bodyCaptureLimit)
+          : countingCapture();
+    }
+
+    /**
+     * @return request which should be sent instead of original one: request copy with body
+     * publisher capturing published buffers, or original request if body is not captured
+     */
+    HttpRequest request() {
+      if (isNull(requestBody) || request.bodyPublisher().isEmpty()
+          || request.bodyPublisher().get().contentLength() == 0) {
+        return request;
+      }
+      final HttpRequest.Builder builder = HttpRequest.newBuilder(request.uri())
+          .expectContinue(request.expectContinue())
+          .method(request.method(),
+              new CapturingBodyPublisher(request.bodyPublisher().get(), requestBody));
+      request.timeout().ifPresent(builder::timeout);
+      request.version().ifPresent(builder::version);
+      request.headers().map()
+          .forEach((name, values) -> values.forEach(value -> builder.header(name, value)));
+      return builder.build();
+    }
+
+    <T> BodyHandler<T> bodyHandler(BodyHandler<T> handler) {
+      return info -> {
+        responseReceived(info);
+        return new CapturingBodySubscriber<>(handler.apply(info), responseBody, this);
+      };
+    }
+
+    void responseReceived(ResponseInfo info) {
+      this.headersNanos = System.nanoTime();
+      this.responseInfo = info;
+      this.responseBody = isLogged && responseConverter().hasPrintableBody(info)
+          ? new BodyCapture(loggerConfig.bodyCaptureLimit)
+          : countingCapture();
+      if (!isLogged) {
+        return;
+      }
+      // Request body is completely published before response headers are received
+      interceptedRequest = convertRequest();
+      if (!isConditional(loggerConfig) && !isRecording(loggerConfig)) {
+        logRequest(loggerConfig, interceptedRequest);
+      }
+    }
+
+    /**
+     * Records metrics once the last byte of response body is received, before body is handed
+     * over to application.
+     */
+    void bodyReceived() {
+      if (!isFinished.compareAndSet(false, true)) {
+        return;
+      }
+      final long ms = TimeUnit.NANOSECONDS.toMillis(headersNanos - startNanos);
+      outcome = new CallOutcome(request.uri().getHost(), responseInfo.statusCode(), ms, null);
+      if (isMeasured(loggerConfig)) {
+        final List<String> pathSegments = pathSegmentsOf(String.valueOf(request.uri()));
+        recordMetrics(loggerConfig, outcome, request.method(), pathSegments,
+            bodySize(requestBody), bodySize(responseBody));
+        // Response is completed when its last byte is received
+        recordLastByte(loggerConfig, outcome, request.method(), pathSegments,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+      }
+    }
+
+    /**
+     * Hands response off to printer after body is handed over to application.
+     */
+    void responseCompleted() {
+      // Outcome is not set if exchange failed before body was received
+      if (!isLogged || isNull(outcome)) {
+        return;
+      }
+      final long ms = outcome.durationMs;
+      if (isRecording(loggerConfig)) {
+        record(loggerConfig, outcome, interceptedRequest, convertResponse(ms));
+      } else if (!isConditional(loggerConfig)) {
+        logResponse(loggerConfig, convertResponse(ms));
+      } else if (shouldLog(loggerConfig, outcome)) {
+        logRequest(loggerConfig, interceptedRequest);
+        logResponse(loggerConfig, convertResponse(ms));
+      }
+    }
+
+    void failed(Throwable error) {
+      if (!isFinished.compareAndSet(false, true)) {
+        return;
+      }
+      final long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+      final CallOutcome outcome = new CallOutcome(request.uri().getHost(), 0, ms, error);
+      if (isMeasured(loggerConfig)) {
+        recordMetrics(loggerConfig, outcome, request.method(),
+            pathSegmentsOf(String.valueOf(request.uri())), bodySize(requestBody), -1);
+      }
+      if (!isLogged) {
+        return;
+      }
+      final boolean isRequestLogged = nonNull(interceptedRequest)
+          && !isConditional(loggerConfig) && !isRecording(loggerConfig);
+      if (isNull(interceptedRequest)) {
+        // Response headers were not received
+        interceptedRequest = convertRequest();
+      }
+      if (isRecording(loggerConfig)) {
+        record(loggerConfig, outcome, interceptedRequest, null);
+      } else if (!isRequestLogged && (!isConditional(loggerConfig)
+          || shouldLog(loggerConfig, outcome))) {
+        logRequest(loggerConfig, interceptedRequest);
+      }
+    }
+
+    private InterceptedRequest convertRequest() {
+      final byte[] body = isNull(requestBody) ? new byte[0] : requestBody.bytes();
+      return JdkLoggingInterceptor.this.convertRequest(loggerConfig,
+          it -> requestConverter().from(it, body), request);
+    }
+
+    private InterceptedResponse convertResponse(long ms) {
+      final byte[] body = isNull(responseBody) ? new byte[0] : responseBody.bytes();
+      final boolean isTruncated = nonNull(responseBody) && responseBody.isTruncated();
+      return JdkLoggingInterceptor.this.convertResponse(loggerConfig,
+          (it, url, millis) -> responseConverter().from(it, url, millis, body, isTruncated),
+          responseInfo, interceptedRequest.url(), ms);
+    }
+
+    /**
+     * @return capture counting body bytes for metrics, or null if nothing should be captured
+     */
+    private BodyCapture countingCapture() {
+      return isMeasured(loggerConfig) ? new BodyCapture(0) : null;
+    }
+
+    // Converters depend on configuration, which can be replaced at any moment
+    private JdkRequestConverter requestConverter() {
+      return new JdkRequestConverter(bodyFormatters(loggerConfig));
+    }
+
+    private JdkResponseConverter responseConverter() {
+      return new JdkResponseConverter(bodyFormatters(loggerConfig));
+    }
+
+    private long bodySize(BodyCapture capture) {
+      return isNull(capture) ? -1 : capture.total();
+    }
+  }
+
+  /**
+   * Body publisher copying buffers published by original publisher.
+   */
+  private static final class CapturingBodyPublisher implements BodyPublisher {
+
+    private final BodyPublisher delegate;
+    private final BodyCapture capture;
+
+    CapturingBodyPublisher(BodyPublisher delegate, BodyCapture capture) {
+      this.delegate = delegate;
+      this.capture = capture;
+    }
+
+    @Override
+    public long contentLength() {
+      return delegate.contentLength();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+      // Client subscribes again if request is resent (after redirect or authentication)
+      capture.reset();
+      delegate.subscribe(new Flow.Subscriber<ByteBuffer>() {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+          subscriber.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+          capture.capture(item, item.position(), item.limit());
+          subscriber.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+          subscriber.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+          subscriber.onComplete();
+        }
+      });
+    }
+  }
+
+  /**
+   * Body subscriber copying buffers received by original subscriber and completing exchange
+   * when body is received.
+   */
+  private static final class CapturingBodySubscriber<T> implements BodySubscriber<T> {
+
+    private final BodySubscriber<T> delegate;
+    private final BodyCapture capture;
+    private final Exchange exchange;
+
+    CapturingBodySubscriber(BodySubscriber<T> delegate, BodyCapture capture, Exchange exchange) {
+      this.delegate = delegate;
+      this.capture = capture;
+      this.exchange = exchange;
+    }
+
+    @Override
+    public CompletionStage<T> getBody() {
+      return delegate.getBody();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      delegate.onSubscribe(subscription);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items) {
+      if (nonNull(capture)) {
+        // Buffers are copied before subscriber consumes them
+        items.forEach(item -> capture.capture(item, item.position(), item.limit()));
+      }
+      delegate.onNext(items);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      try {
+        exchange.failed(throwable);
+      } finally {
+        delegate.onError(throwable);
+      }
+    }
+
+    @Override
+    public void onComplete() {
+      // Metrics are recorded before application gets the body, response is printed after it
+      try {
+        exchange.bodyReceived();
+      } finally {
+        delegate.onComplete();
+      }
+      exchange.responseCompleted();
+    }
+  }
+
+}
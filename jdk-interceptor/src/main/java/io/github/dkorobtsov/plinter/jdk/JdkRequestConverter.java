@@ -0,0 +1,59 @@
+package io.github.dkorobtsov.plinter.jdk;
+
+import static io.github.dkorobtsov.plinter.core.internal.Util.CONTENT_TYPE;
+import static io.github.dkorobtsov.plinter.core.internal.Util.TEXT_PLAIN;
+
+import io.github.dkorobtsov.plinter.core.internal.BodyFormatterRegistry;
+import io.github.dkorobtsov.plinter.core.internal.HttpMethod;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedMediaType;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedRequest;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedRequestBody;
+import java.net.http.HttpRequest;
+
+/**
+ * Helper class implementing conversion logic from JDK HTTP client request to this library's
+ * internal {@link InterceptedRequest}. Request body can be read only by client, so it's captured
+ * while published and passed to converter.
+ */
+class JdkRequestConverter {
+
+  private final BodyFormatterRegistry bodyFormatters;
+
+  /**
+   * @param bodyFormatters formatters defining which bodies are printable
+   */
+  JdkRequestConverter(BodyFormatterRegistry bodyFormatters) {
+    this.bodyFormatters = bodyFormatters;
+  }
+
+  /**
+   * @param capturedBody first bytes of request body
+   */
+  InterceptedRequest from(final HttpRequest request, final byte[] capturedBody) {
+    final InterceptedRequest.Builder builder = new InterceptedRequest.Builder();
+    builder.url(String.valueOf(request.uri()));
+
+    request.headers().map()
+        .forEach((name, values) -> values.forEach(value -> builder.addHeader(name, value)));
+
+    final String method = request.method();
+    if (HttpMethod.permitsRequestBody(method)) {
+      builder.method(method, InterceptedRequestBody.create(InterceptedMediaType
+          .parse(request.headers().firstValue(CONTENT_TYPE).orElse(TEXT_PLAIN)), capturedBody));
+    } else {
+      builder.method(method, null);
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return true if request has body of content type which can be printed
+   */
+  boolean hasPrintableBody(final HttpRequest request) {
+    return request.bodyPublisher().isPresent()
+        && request.headers().firstValue(CONTENT_TYPE)
+        .map(bodyFormatters::isPrintable)
+        .orElse(false);
+  }
+
+}
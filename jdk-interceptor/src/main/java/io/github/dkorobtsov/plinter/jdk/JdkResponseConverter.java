@@ -0,0 +1,74 @@
+package io.github.dkorobtsov.plinter.jdk;
+
+import static io.github.dkorobtsov.plinter.core.internal.Util.CONTENT_TYPE;
+
+import io.github.dkorobtsov.plinter.core.internal.BodyFormatterRegistry;
+import io.github.dkorobtsov.plinter.core.internal.HttpStatus;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedHeaders;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedMediaType;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedResponse;
+import io.github.dkorobtsov.plinter.core.internal.InterceptedResponseBody;
+import io.github.dkorobtsov.plinter.core.internal.Protocol;
+import io.github.dkorobtsov.plinter.core.internal.ResponseDetails;
+import io.github.dkorobtsov.plinter.core.internal.ResponseHandler;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse.ResponseInfo;
+
+/**
+ * Helper class implementing conversion logic from JDK HTTP client response to this library's
+ * internal {@link InterceptedResponse}. Response body is captured while it's received by body
+ * subscriber, so response is converted from response headers and captured body bytes.
+ */
+class JdkResponseConverter {
+
+  private final BodyFormatterRegistry bodyFormatters;
+
+  /**
+   * @param bodyFormatters formatters defining which bodies are printable
+   */
+  JdkResponseConverter(BodyFormatterRegistry bodyFormatters) {
+    this.bodyFormatters = bodyFormatters;
+  }
+
+  /**
+   * @param capturedBody first bytes of response body
+   * @param isTruncated true if body is longer than captured part
+   */
+  InterceptedResponse from(final ResponseInfo response, final URL requestUrl, final Long ms,
+      final byte[] capturedBody, final boolean isTruncated) {
+    final InterceptedMediaType mediaType = response.headers().firstValue(CONTENT_TYPE)
+        .map(InterceptedMediaType::parse)
+        .orElse(null);
+    final int code = response.statusCode();
+    final ResponseDetails responseDetails = ResponseDetails.builder()
+        .code(code)
+        .protocol(response.version() == HttpClient.Version.HTTP_2
+            ? Protocol.HTTP_2 : Protocol.HTTP_1_1)
+        .headers(interceptedHeaders(response))
+        .isSuccessful(code >= 200 && code < 300)
+        .mediaType(mediaType)
+        .message(HttpStatus.fromCode(code))
+        .responseBody(InterceptedResponseBody.create(mediaType, capturedBody))
+        .isBodyTruncated(isTruncated)
+        .build();
+    return ResponseHandler.interceptedResponse(responseDetails, requestUrl, ms);
+  }
+
+  /**
+   * @return true if response declares content type which can be printed
+   */
+  boolean hasPrintableBody(final ResponseInfo response) {
+    return response.headers().firstValue(CONTENT_TYPE)
+        .map(bodyFormatters::isPrintable)
+        .orElse(false);
+  }
+
+  private static InterceptedHeaders interceptedHeaders(final ResponseInfo response) {
+    final InterceptedHeaders.Builder headersBuilder = new InterceptedHeaders.Builder();
+    response.headers().map()
+        .forEach((name, values) -> values.forEach(value -> headersBuilder.add(name, value)));
+    return headersBuilder.build();
+  }
+
+}
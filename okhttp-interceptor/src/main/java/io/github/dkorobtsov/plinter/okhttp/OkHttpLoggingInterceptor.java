@@ -1,10 +1,12 @@
 package io.github.dkorobtsov.plinter.okhttp;
 
-import static io.github.dkorobtsov.plinter.core.internal.ClientPrintingExecutor.printRequest;
 import static io.github.dkorobtsov.plinter.core.internal.ClientPrintingExecutor.printResponse;
+import static java.util.Objects.isNull;
 
 import io.github.dkorobtsov.plinter.core.AbstractInterceptor;
+import io.github.dkorobtsov.plinter.core.CallOutcome;
 import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.LoggerConfigHolder;
 import io.github.dkorobtsov.plinter.core.RequestConverter;
 import io.github.dkorobtsov.plinter.core.ResponseConverter;
 import io.github.dkorobtsov.plinter.core.internal.InterceptedRequest;
@@ -35,36 +37,173 @@ public class OkHttpLoggingInterceptor extends AbstractInterceptor implements Int
 
   private final RequestConverter<Request> requestConverter;
   private final ResponseConverter<Response> responseConverter;
+  private final ResponseConverter<Response> responseConverterWithoutBody;
 
   public OkHttpLoggingInterceptor(final LoggerConfig loggerConfig) {
+    this(new LoggerConfigHolder(loggerConfig));
+  }
+
+  /**
+   * @param configHolder holder of configuration which can be replaced at runtime
+   */
+  public OkHttpLoggingInterceptor(final LoggerConfigHolder configHolder) {
+    super(configHolder);
     this.requestConverter = new OkHttpRequestConverter();
     this.responseConverter = new OkHttpResponseConverter();
-    this.loggerConfig = loggerConfig;
+    this.responseConverterWithoutBody = new OkHttpResponseConverter(false);
   }
 
   @Override
-  @SuppressWarnings("Duplicates")
   public Response intercept(final Chain chain) throws IOException {
     final Request request = chain.request();
+    final LoggerConfig loggerConfig = loggerConfig(request.tag(), request.httpUrl().host(),
+        request.httpUrl()::encodedPathSegments);
+    countExchange();
+
+    if (!isMeasured(loggerConfig)) {
+      return logAndProceed(loggerConfig, chain, request);
+    }
+
+    final long startTime = System.nanoTime();
+    final Response response;
+    try {
+      response = logAndProceed(loggerConfig, chain, request);
+    } catch (IOException | RuntimeException e) {
+      final long executionTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+      recordMetrics(loggerConfig, new CallOutcome(request.httpUrl().host(), 0, executionTime, e),
+          request.method(), request.httpUrl().encodedPathSegments(), contentLength(request), -1);
+      throw e;
+    }
+    final long executionTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    recordMetrics(loggerConfig,
+        new CallOutcome(request.httpUrl().host(), response.code(), executionTime, null),
+        request.method(), request.httpUrl().encodedPathSegments(), contentLength(request),
+        contentLength(response));
+    return response;
+  }
 
-    if (skipLogging()) {
+  @SuppressWarnings("Duplicates")
+  private Response logAndProceed(final LoggerConfig loggerConfig, final Chain chain,
+      final Request request) throws IOException {
+    if (skipLogging(loggerConfig) || isSampledOut(loggerConfig, request.httpUrl().host())) {
       return chain.proceed(request);
     }
 
-    final InterceptedRequest interceptedRequest = requestConverter.from(request);
+    if (isRecording(loggerConfig)) {
+      return interceptRecording(loggerConfig, chain, request);
+    }
+
+    if (isConditional(loggerConfig)) {
+      return interceptConditionally(loggerConfig, chain, request);
+    }
+
+    final InterceptedRequest interceptedRequest
+        = convertRequest(loggerConfig, requestConverter, request);
 
-    printRequest(loggerConfig, interceptedRequest);
+    logRequest(loggerConfig, interceptedRequest);
 
     final long startTime = System.nanoTime();
     final Response response = chain.proceed(request);
     final long executionTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
 
-    final InterceptedResponse interceptedResponse = responseConverter
-        .from(response, interceptedRequest.url(), executionTime);
+    final InterceptedResponse interceptedResponse = convertResponse(loggerConfig,
+        responseConverter(loggerConfig), response, interceptedRequest.url(), executionTime);
 
     printResponse(loggerConfig, interceptedResponse);
 
     return response;
   }
 
+  /**
+   * Request is converted and printed only after response or exception is received and only if
+   * configured condition is met. Original request is kept as is till then.
+   */
+  @SuppressWarnings("Duplicates")
+  private Response interceptConditionally(final LoggerConfig loggerConfig, final Chain chain,
+      final Request request) throws IOException {
+    final long startTime = System.nanoTime();
+    final Response response;
+    try {
+      response = chain.proceed(request);
+    } catch (IOException | RuntimeException e) {
+      final long executionTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+      if (shouldLog(loggerConfig,
+          new CallOutcome(request.httpUrl().host(), 0, executionTime, e))) {
+        logRequest(loggerConfig, convertRequest(loggerConfig, requestConverter, request));
+      }
+      throw e;
+    }
+    final long executionTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+    if (shouldLog(loggerConfig,
+        new CallOutcome(request.httpUrl().host(), response.code(), executionTime, null))) {
+      final InterceptedRequest interceptedRequest
+          = convertRequest(loggerConfig, requestConverter, request);
+      logRequest(loggerConfig, interceptedRequest);
+      printResponse(loggerConfig, convertResponse(loggerConfig,
+          responseConverter(loggerConfig), response, interceptedRequest.url(), executionTime));
+    }
+    return response;
+  }
+
+  /**
+   * Exchange is converted, but not printed. Flight recorder decides if it should be kept for later
+   * or printed together with previously recorded exchanges.
+   */
+  @SuppressWarnings("Duplicates")
+  private Response interceptRecording(final LoggerConfig loggerConfig, final Chain chain,
+      final Request request) throws IOException {
+    final long startTime = System.nanoTime();
+    final Response response;
+    try {
+      response = chain.proceed(request);
+    } catch (IOException | RuntimeException e) {
+      final long executionTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+      record(loggerConfig, new CallOutcome(request.httpUrl().host(), 0, executionTime, e),
+          convertRequest(loggerConfig, requestConverter, request), null);
+      throw e;
+    }
+    final long executionTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+    final InterceptedRequest interceptedRequest
+        = convertRequest(loggerConfig, requestConverter, request);
+    record(loggerConfig,
+        new CallOutcome(request.httpUrl().host(), response.code(), executionTime, null),
+        interceptedRequest,
+        convertResponse(loggerConfig, responseConverter(loggerConfig), response,
+            interceptedRequest.url(), executionTime));
+    return response;
+  }
+
+  /**
+   * Response body is not read at all if call's logging override excludes bodies.
+   */
+  private ResponseConverter<Response> responseConverter(final LoggerConfig loggerConfig) {
+    return bodyFormatters(loggerConfig).isPrintingEnabled()
+        ? responseConverter
+        : responseConverterWithoutBody;
+  }
+
+  private static long contentLength(final Request request) {
+    if (isNull(request.body())) {
+      return 0;
+    }
+    try {
+      return request.body().contentLength();
+    } catch (IOException e) {
+      return -1;
+    }
+  }
+
+  private static long contentLength(final Response response) {
+    if (isNull(response.body())) {
+      return -1;
+    }
+    try {
+      return response.body().contentLength();
+    } catch (IOException e) {
+      return -1;
+    }
+  }
+
 }
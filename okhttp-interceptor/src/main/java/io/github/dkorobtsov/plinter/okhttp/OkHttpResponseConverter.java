@@ -31,6 +31,20 @@ class OkHttpResponseConverter implements ResponseConverter<Response> {
 
   private static final Logger logger = Logger.getLogger(OkHttpResponseConverter.class.getName());
 
+  private final boolean isBodyCaptured;
+
+  OkHttpResponseConverter() {
+    this(true);
+  }
+
+  /**
+   * @param isBodyCaptured if false, response body is not read and converted response has empty
+   * body
+   */
+  OkHttpResponseConverter(boolean isBodyCaptured) {
+    this.isBodyCaptured = isBodyCaptured;
+  }
+
   @Override
   public InterceptedResponse from(final Response response, final URL requestUrl, final Long ms) {
     return ResponseHandler
@@ -59,6 +73,9 @@ class OkHttpResponseConverter implements ResponseConverter<Response> {
   }
 
   private InterceptedResponseBody interceptedResponseBody(final ResponseBody responseBody) {
+    if (!isBodyCaptured) {
+      return InterceptedResponseBody.create(interceptedMediaType(responseBody.contentType()), "");
+    }
     ResponseBody responseBodyCopy = null;
     try {
       // Since body is readable only once, here we applying this hack to get a copy.
@@ -0,0 +1,281 @@
+package io.github.dkorobtsov.plinter.okhttp3;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import io.github.dkorobtsov.plinter.core.CallTimings;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Event listener factory recording timestamps of network phases of every call, so interceptor
+ * can report phase breakdown ({@link CallTimings}) together with the response.
+ *
+ * Timestamps are kept in per-call records owned by call listeners, which are looked up by
+ * interceptor using call from interceptor chain. When response headers are received (and when
+ * call ends), listener takes immutable snapshot of phases, so interceptor gets them even after
+ * call ended and its record was returned to the pool, for example when body was read to the
+ * end before timings were looked up. Records are pooled, so recording allocates only listener
+ * itself (OkHttp requires new listener for every call) and snapshots.
+ *
+ * Lookup references calls weakly, so listeners of finished calls and of calls whose responses
+ * are never closed are collected together with calls. Lookup maps are striped by call, so
+ * concurrent calls rarely wait for the same lock.
+ */
+final class CallTimingListenerFactory implements EventListener.Factory {
+
+  private static final int MAX_POOLED_RECORDS = 256;
+  private static final int STRIPES = 16;
+
+  private final List<Map<Call, Listener>> listeners = listeners();
+  private final Queue<Record> pool = new ArrayBlockingQueue<>(MAX_POOLED_RECORDS);
+
+  @Override
+  public EventListener create(Call call) {
+    Record record = pool.poll();
+    if (isNull(record)) {
+      record = new Record();
+    }
+    final Listener listener = new Listener(record);
+    stripe(call).put(call, listener);
+    return listener;
+  }
+
+  /**
+   * @return phases recorded for provided call or null if call is not tracked by this factory
+   * (listener factory was not installed to client)
+   */
+  CallTimings timings(Call call) {
+    final Listener listener = stripe(call).get(call);
+    return isNull(listener) ? null : listener.timings();
+  }
+
+  private void release(Record record) {
+    record.reset();
+    pool.offer(record);
+  }
+
+  private Map<Call, Listener> stripe(Call call) {
+    return listeners.get(System.identityHashCode(call) & (STRIPES - 1));
+  }
+
+  private static List<Map<Call, Listener>> listeners() {
+    final List<Map<Call, Listener>> stripes = new ArrayList<>(STRIPES);
+    for (int i = 0; i < STRIPES; i++) {
+      stripes.add(Collections.synchronizedMap(new WeakHashMap<>()));
+    }
+    return stripes;
+  }
+
+  /**
+   * Timestamps of one call. All events of the call up to response headers are fired by thread
+   * executing the call, which is also the thread running interceptor, so fields are not
+   * synchronized.
+   */
+  private static final class Record {
+
+    private long dnsStart;
+    private long connectStart;
+    private long tlsStart;
+    private long requestStart;
+    private long requestEnd;
+
+    private long dnsNanos;
+    private long connectNanos;
+    private long tlsNanos;
+    private long requestNanos;
+    private long ttfbNanos;
+    private boolean isNewConnection;
+    private boolean isConnectionReused;
+
+    CallTimings timings() {
+      return new CallTimings(dnsNanos, connectNanos, tlsNanos, requestNanos, ttfbNanos,
+          isConnectionReused);
+    }
+
+    void reset() {
+      dnsStart = 0;
+      connectStart = 0;
+      tlsStart = 0;
+      requestStart = 0;
+      requestEnd = 0;
+      dnsNanos = 0;
+      connectNanos = 0;
+      tlsNanos = 0;
+      requestNanos = 0;
+      ttfbNanos = 0;
+      isNewConnection = false;
+      isConnectionReused = false;
+    }
+  }
+
+  /**
+   * Listener of one call. Time of repeated phases (retries, redirects) is summed up.
+   */
+  private final class Listener extends EventListener {
+
+    // Cleared when call ends, so late events never touch record already reused by other call
+    private volatile Record record;
+    // Taken when response headers are received and when call ends
+    private volatile CallTimings snapshot;
+
+    Listener(Record record) {
+      this.record = record;
+    }
+
+    /**
+     * @return phases recorded when response headers were received or call ended, or phases
+     * recorded so far if neither happened yet
+     */
+    CallTimings timings() {
+      final CallTimings taken = snapshot;
+      if (nonNull(taken)) {
+        return taken;
+      }
+      final Record current = record;
+      return isNull(current) ? snapshot : current.timings();
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+      final Record current = record;
+      if (nonNull(current)) {
+        current.dnsStart = System.nanoTime();
+      }
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+      final Record current = record;
+      if (nonNull(current)) {
+        current.dnsNanos += System.nanoTime() - current.dnsStart;
+      }
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+      final Record current = record;
+      if (nonNull(current)) {
+        current.connectStart = System.nanoTime();
+        current.isNewConnection = true;
+      }
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+      final Record current = record;
+      if (nonNull(current)) {
+        current.tlsStart = System.nanoTime();
+      }
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+      final Record current = record;
+      if (nonNull(current)) {
+        current.tlsNanos += System.nanoTime() - current.tlsStart;
+      }
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+        Protocol protocol) {
+      connectFinished();
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+        Protocol protocol, IOException ioe) {
+      connectFinished();
+    }
+
+    private void connectFinished() {
+      final Record current = record;
+      if (nonNull(current)) {
+        current.connectNanos += System.nanoTime() - current.connectStart;
+      }
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+      final Record current = record;
+      if (nonNull(current)) {
+        // Connection is acquired after connect, so connect event means new connection
+        current.isConnectionReused = !current.isNewConnection;
+        current.isNewConnection = false;
+      }
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+      final Record current = record;
+      if (nonNull(current)) {
+        current.requestStart = System.nanoTime();
+        current.requestEnd = current.requestStart;
+      }
+    }
+
+    @Override
+    public void requestHeadersEnd(Call call, Request request) {
+      requestWritten();
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+      requestWritten();
+    }
+
+    private void requestWritten() {
+      final Record current = record;
+      if (nonNull(current)) {
+        current.requestEnd = System.nanoTime();
+      }
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+      final Record current = record;
+      if (nonNull(current)) {
+        current.requestNanos += current.requestEnd - current.requestStart;
+        current.ttfbNanos += System.nanoTime() - current.requestEnd;
+        snapshot = current.timings();
+      }
+    }
+
+    @Override
+    public void callEnd(Call call) {
+      callFinished();
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+      callFinished();
+    }
+
+    private void callFinished() {
+      final Record current = record;
+      if (nonNull(current)) {
+        snapshot = current.timings();
+        record = null;
+        release(current);
+      }
+    }
+  }
+
+}
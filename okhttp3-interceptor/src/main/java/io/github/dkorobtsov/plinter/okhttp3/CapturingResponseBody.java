@@ -0,0 +1,108 @@
+package io.github.dkorobtsov.plinter.okhttp3;
+
+import java.io.IOException;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Response body wrapper copying first bytes of original body to separate buffer while application
+ * reads it. Original stream is not modified and never buffered as a whole.
+ *
+ * When body is exhausted or closed, captured bytes are handed over to provided listener (only
+ * once).
+ */
+final class CapturingResponseBody extends ResponseBody {
+
+  private final ResponseBody delegate;
+  private final long limit;
+  private final CaptureListener listener;
+  private final Buffer captured = new Buffer();
+  private final BufferedSource source;
+
+  private boolean exhausted;
+  private boolean truncated;
+  private boolean completed;
+
+  CapturingResponseBody(ResponseBody delegate, long limit, CaptureListener listener) {
+    this.delegate = delegate;
+    this.limit = limit;
+    this.listener = listener;
+    this.source = Okio.buffer(new CapturingSource(delegate.source()));
+  }
+
+  @Override
+  public MediaType contentType() {
+    return delegate.contentType();
+  }
+
+  @Override
+  public long contentLength() {
+    return delegate.contentLength();
+  }
+
+  @Override
+  public BufferedSource source() {
+    return source;
+  }
+
+  private synchronized void capture(Buffer sink, long bytesRead) {
+    final long toCopy = Math.min(bytesRead, limit - captured.size());
+    if (toCopy > 0) {
+      sink.copyTo(captured, sink.size() - bytesRead, toCopy);
+    }
+    if (toCopy < bytesRead) {
+      truncated = true;
+    }
+  }
+
+  private synchronized void complete() {
+    if (completed) {
+      return;
+    }
+    completed = true;
+    // If application closed body before reading it to the end, we can't know what was left
+    listener.onCaptured(captured.readByteArray(), truncated || !exhausted);
+  }
+
+  /**
+   * Receives captured body bytes after response body is exhausted or closed.
+   */
+  interface CaptureListener {
+
+    void onCaptured(byte[] body, boolean isTruncated);
+
+  }
+
+  private final class CapturingSource extends ForwardingSource {
+
+    CapturingSource(okio.Source delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public long read(Buffer sink, long byteCount) throws IOException {
+      final long bytesRead = super.read(sink, byteCount);
+      if (bytesRead == -1) {
+        exhausted = true;
+        complete();
+      } else {
+        capture(sink, bytesRead);
+      }
+      return bytesRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        complete();
+      }
+    }
+  }
+
+}
@@ -1,18 +1,27 @@
 package io.github.dkorobtsov.plinter.okhttp3;
 
-import static io.github.dkorobtsov.plinter.core.internal.ClientPrintingExecutor.printRequest;
 import static io.github.dkorobtsov.plinter.core.internal.ClientPrintingExecutor.printResponse;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 import io.github.dkorobtsov.plinter.core.AbstractInterceptor;
+import io.github.dkorobtsov.plinter.core.CallOutcome;
+import io.github.dkorobtsov.plinter.core.CallTimings;
 import io.github.dkorobtsov.plinter.core.LoggerConfig;
+import io.github.dkorobtsov.plinter.core.LoggerConfigHolder;
+import io.github.dkorobtsov.plinter.core.OverheadProfiler.Phase;
 import io.github.dkorobtsov.plinter.core.RequestConverter;
-import io.github.dkorobtsov.plinter.core.ResponseConverter;
 import io.github.dkorobtsov.plinter.core.internal.InterceptedRequest;
 import io.github.dkorobtsov.plinter.core.internal.InterceptedResponse;
 import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import okhttp3.EventListener;
 import okhttp3.Interceptor;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.internal.http.HttpHeaders;
 
 /**
  * Interceptor for OkHttp3 client requests and responses. Interceptor's behavior can be configured
@@ -29,39 +38,257 @@ import okhttp3.Response;
  * .build();
  *
  * </pre>
+ *
+ * To see how long the call spent on DNS lookup, connect, TLS handshake and waiting for response
+ * (in printed responses and metrics), interceptor's event listener factory should be added too:
+ *
+ * <pre>
+ *
+ * OkHttpClient okHttpClient = new OkHttpClient.Builder()
+ * .addInterceptor(interceptor)
+ * .eventListenerFactory(interceptor.eventListenerFactory())
+ * .build();
+ *
+ * </pre>
  */
 public class OkHttp3LoggingInterceptor extends AbstractInterceptor implements Interceptor {
 
   private final RequestConverter<Request> requestConverter;
-  private final ResponseConverter<Response> responseConverter;
+  private final CallTimingListenerFactory callTimingListenerFactory
+      = new CallTimingListenerFactory();
 
   public OkHttp3LoggingInterceptor(final LoggerConfig loggerConfig) {
+    this(new LoggerConfigHolder(loggerConfig));
+  }
+
+  /**
+   * @param configHolder holder of configuration which can be replaced at runtime
+   */
+  public OkHttp3LoggingInterceptor(final LoggerConfigHolder configHolder) {
+    super(configHolder);
     this.requestConverter = new OkHttp3RequestConverter();
-    this.responseConverter = new OkHttp3ResponseConverter();
-    this.loggerConfig = loggerConfig;
+  }
+
+  /**
+   * @return event listener factory recording network phases of calls, which should be added to
+   * client together with this interceptor to include phase breakdown in printed responses and
+   * metrics
+   */
+  public EventListener.Factory eventListenerFactory() {
+    return callTimingListenerFactory;
   }
 
   @Override
-  @SuppressWarnings("Duplicates")
   public Response intercept(final Chain chain) throws IOException {
     final Request request = chain.request();
+    final LoggerConfig loggerConfig = loggerConfig(request.tag(), request.url().host(),
+        request.url()::encodedPathSegments);
+    countExchange();
 
-    if (skipLogging()) {
+    if (!isMeasured(loggerConfig)) {
+      return logAndProceed(loggerConfig, chain, request);
+    }
+
+    final long startTime = System.nanoTime();
+    final Response response;
+    try {
+      response = logAndProceed(loggerConfig, chain, request);
+    } catch (IOException | RuntimeException e) {
+      final long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+      recordMetrics(loggerConfig, new CallOutcome(request.url().host(), 0, ms, e),
+          request.method(), request.url().encodedPathSegments(), contentLength(request), -1,
+          callTimings(chain));
+      throw e;
+    }
+    final long ms = response.receivedResponseAtMillis() - response.sentRequestAtMillis();
+    recordMetrics(loggerConfig, new CallOutcome(request.url().host(), response.code(), ms, null),
+        request.method(), request.url().encodedPathSegments(), contentLength(request),
+        isNull(response.body()) ? -1 : response.body().contentLength(), callTimings(chain));
+    return response;
+  }
+
+  @SuppressWarnings("Duplicates")
+  private Response logAndProceed(final LoggerConfig loggerConfig, final Chain chain,
+      final Request request) throws IOException {
+    if (skipLogging(loggerConfig) || isSampledOut(loggerConfig, request.url().host())) {
       return chain.proceed(request);
     }
 
-    final InterceptedRequest interceptedRequest = requestConverter.from(request);
+    if (isRecording(loggerConfig)) {
+      return interceptRecording(loggerConfig, chain, request);
+    }
+
+    if (isConditional(loggerConfig)) {
+      return interceptConditionally(loggerConfig, chain, request);
+    }
+
+    final InterceptedRequest interceptedRequest
+        = convertRequest(loggerConfig, requestConverter, request);
 
-    printRequest(loggerConfig, interceptedRequest);
+    logRequest(loggerConfig, interceptedRequest);
 
     final Response response = chain.proceed(request);
-    final InterceptedResponse interceptedResponse = responseConverter
-        .from(response, interceptedRequest.url(),
-            response.receivedResponseAtMillis() - response.sentRequestAtMillis());
+    final long ms = response.receivedResponseAtMillis() - response.sentRequestAtMillis();
+
+    return logResponse(loggerConfig, response, interceptedRequest.url(), ms,
+        callTimings(chain));
+  }
+
+  /**
+   * Request is converted and printed only after response or exception is received and only if
+   * configured condition is met. Original request is kept as is till then.
+   */
+  private Response interceptConditionally(final LoggerConfig loggerConfig, final Chain chain,
+      final Request request) throws IOException {
+    final long startTime = System.nanoTime();
+    final Response response;
+    try {
+      response = chain.proceed(request);
+    } catch (IOException | RuntimeException e) {
+      final long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+      if (shouldLog(loggerConfig, new CallOutcome(request.url().host(), 0, ms, e))) {
+        logRequest(loggerConfig, convertRequest(loggerConfig, requestConverter, request));
+      }
+      throw e;
+    }
+
+    final long ms = response.receivedResponseAtMillis() - response.sentRequestAtMillis();
+    if (!shouldLog(loggerConfig,
+        new CallOutcome(request.url().host(), response.code(), ms, null))) {
+      return response;
+    }
+
+    final InterceptedRequest interceptedRequest
+        = convertRequest(loggerConfig, requestConverter, request);
+    logRequest(loggerConfig, interceptedRequest);
+
+    return logResponse(loggerConfig, response, interceptedRequest.url(), ms,
+        callTimings(chain));
+  }
+
+  /**
+   * Flight recorder decides if exchange should be kept for later or printed together with
+   * previously recorded exchanges. Kept exchange is copied, but not converted: copy has headers
+   * and only first bytes of bodies (up to recorder's max body size) and is converted only when
+   * printed.
+   */
+  private Response interceptRecording(final LoggerConfig loggerConfig, final Chain chain,
+      final Request request) throws IOException {
+    final long startTime = System.nanoTime();
+    final Response response;
+    try {
+      response = chain.proceed(request);
+    } catch (IOException | RuntimeException e) {
+      final long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+      final CallOutcome outcome = new CallOutcome(request.url().host(), 0, ms, e);
+      if (shouldDump(loggerConfig, outcome)) {
+        dump(loggerConfig, outcome, convertRequest(loggerConfig, requestConverter, request), null);
+      } else {
+        final Request recordedRequest = RecordedExchange
+            .request(request, loggerConfig.flightRecorder.maxBodyBytes());
+        keep(loggerConfig, outcome,
+            () -> convertRequest(loggerConfig, requestConverter, recordedRequest), null);
+      }
+      throw e;
+    }
+
+    // Read before body is peeked or converted, since reading it to the end may end the call
+    final CallTimings callTimings = callTimings(chain);
+    final long ms = response.receivedResponseAtMillis() - response.sentRequestAtMillis();
+    final CallOutcome outcome = new CallOutcome(request.url().host(), response.code(), ms, null);
+    final OkHttp3ResponseConverter responseConverter
+        = new OkHttp3ResponseConverter(bodyFormatters(loggerConfig));
+    if (shouldDump(loggerConfig, outcome)) {
+      final InterceptedRequest interceptedRequest
+          = convertRequest(loggerConfig, requestConverter, request);
+      dump(loggerConfig, outcome, interceptedRequest, convertResponse(loggerConfig,
+          responseConverter, response, interceptedRequest.url(), ms)
+          .withCallTimings(callTimings));
+      return response;
+    }
+
+    final int maxBodyBytes = loggerConfig.flightRecorder.maxBodyBytes();
+    final Request recordedRequest = RecordedExchange.request(request, maxBodyBytes);
+    // One extra byte is peeked to find out if body is longer than limit
+    final byte[] peekedBody = HttpHeaders.hasBody(response) && nonNull(response.body())
+        && responseConverter.hasPrintableBody(response.body().contentType())
+        ? RecordedExchange.responseBody(response, maxBodyBytes + 1L)
+        : new byte[0];
+    final boolean isTruncated = peekedBody.length > maxBodyBytes;
+    final byte[] body = isTruncated ? Arrays.copyOf(peekedBody, maxBodyBytes) : peekedBody;
+    final Response recordedResponse = RecordedExchange.response(response, recordedRequest);
+
+    keep(loggerConfig, outcome,
+        () -> convertRequest(loggerConfig, requestConverter, recordedRequest),
+        () -> convertResponse(loggerConfig,
+            (it, url, itMs) -> responseConverter.from(it, url, itMs, body, isTruncated),
+            recordedResponse, recordedRequest.url().url(), ms).withCallTimings(callTimings));
+    return response;
+  }
+
+  private Response logResponse(final LoggerConfig loggerConfig, final Response response,
+      final URL url, final long ms, final CallTimings callTimings) {
+    // Converter depends on configuration, which can be replaced at any moment
+    final OkHttp3ResponseConverter responseConverter
+        = new OkHttp3ResponseConverter(bodyFormatters(loggerConfig));
+    if (shouldCaptureWhileReading(loggerConfig, responseConverter, response)) {
+      return response.newBuilder()
+          .body(new CapturingResponseBody(response.body(), loggerConfig.bodyCaptureLimit,
+              (body, isTruncated) -> printCapturedResponse(loggerConfig, responseConverter,
+                  response, url, ms, callTimings, body, isTruncated)))
+          .build();
+    }
+
+    final InterceptedResponse interceptedResponse
+        = convertResponse(loggerConfig, responseConverter, response, url, ms)
+        .withCallTimings(callTimings);
 
     printResponse(loggerConfig, interceptedResponse);
 
     return response;
   }
 
+  private void printCapturedResponse(final LoggerConfig loggerConfig,
+      final OkHttp3ResponseConverter responseConverter, final Response response, final URL url,
+      final long ms, final CallTimings callTimings, final byte[] body,
+      final boolean isTruncated) {
+    final long startTime = startPhase(loggerConfig);
+    final InterceptedResponse interceptedResponse
+        = responseConverter.from(response, url, ms, body, isTruncated)
+        .withCallTimings(callTimings);
+    stopPhase(loggerConfig, Phase.RESPONSE_CONVERSION, startTime);
+    countCaptured(interceptedResponse);
+    printResponse(loggerConfig, interceptedResponse);
+  }
+
+  /**
+   * Body is captured while application is reading it only if capture limit is set and there is
+   * printable body to capture. Otherwise response is printed right away.
+   */
+  private static boolean shouldCaptureWhileReading(LoggerConfig loggerConfig,
+      OkHttp3ResponseConverter responseConverter, Response response) {
+    return loggerConfig.bodyCaptureLimit != Long.MAX_VALUE
+        && HttpHeaders.hasBody(response)
+        && nonNull(response.body())
+        && responseConverter.hasPrintableBody(response.body().contentType());
+  }
+
+  /**
+   * @return network phases of the call or null if event listener factory is not installed
+   */
+  private CallTimings callTimings(final Chain chain) {
+    return callTimingListenerFactory.timings(chain.call());
+  }
+
+  private static long contentLength(final Request request) {
+    if (isNull(request.body())) {
+      return 0;
+    }
+    try {
+      return request.body().contentLength();
+    } catch (IOException e) {
+      return -1;
+    }
+  }
+
 }
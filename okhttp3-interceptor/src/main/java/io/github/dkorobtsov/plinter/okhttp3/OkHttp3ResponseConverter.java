@@ -4,6 +4,7 @@ import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 import io.github.dkorobtsov.plinter.core.ResponseConverter;
+import io.github.dkorobtsov.plinter.core.internal.BodyFormatterRegistry;
 import io.github.dkorobtsov.plinter.core.internal.InterceptedHeaders;
 import io.github.dkorobtsov.plinter.core.internal.InterceptedMediaType;
 import io.github.dkorobtsov.plinter.core.internal.InterceptedResponse;
@@ -13,13 +14,11 @@ import io.github.dkorobtsov.plinter.core.internal.ResponseDetails;
 import io.github.dkorobtsov.plinter.core.internal.ResponseHandler;
 import java.io.IOException;
 import java.net.URL;
-import java.nio.charset.Charset;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import okhttp3.Headers;
 import okhttp3.MediaType;
 import okhttp3.Response;
-import okhttp3.ResponseBody;
 
 /**
  * Helper class implementing conversion logic from OkHTTP3 client response to this library's
@@ -30,13 +29,34 @@ class OkHttp3ResponseConverter implements ResponseConverter<Response> {
 
   private static final Logger logger = Logger.getLogger(OkHttp3ResponseConverter.class.getName());
 
+  private final BodyFormatterRegistry bodyFormatters;
+
+  OkHttp3ResponseConverter(BodyFormatterRegistry bodyFormatters) {
+    this.bodyFormatters = bodyFormatters;
+  }
+
   @Override
   public InterceptedResponse from(final Response response, final URL requestUrl, final Long ms) {
     return ResponseHandler
-        .interceptedResponse(responseDetails(response), requestUrl, ms);
+        .interceptedResponse(responseDetails(response, interceptedResponseBody(response), false),
+            requestUrl, ms);
   }
 
-  private ResponseDetails responseDetails(final Response response) {
+  /**
+   * Converts response using body bytes captured while application was reading original stream
+   * instead of peeking response body.
+   */
+  InterceptedResponse from(final Response response, final URL requestUrl, final Long ms,
+      final byte[] capturedBody, final boolean isTruncated) {
+    final InterceptedResponseBody responseBody = InterceptedResponseBody
+        .create(interceptedMediaType(response.body().contentType()), capturedBody);
+    return ResponseHandler
+        .interceptedResponse(responseDetails(response, responseBody, isTruncated),
+            requestUrl, ms);
+  }
+
+  private ResponseDetails responseDetails(final Response response,
+      final InterceptedResponseBody responseBody, final boolean isTruncated) {
     if (isNull(response)) {
       throw new IllegalStateException("httpResponse == null");
     } else {
@@ -50,7 +70,8 @@ class OkHttp3ResponseConverter implements ResponseConverter<Response> {
                   ? null
                   : response.body().contentType()))
           .message(response.message())
-          .responseBody(interceptedResponseBody(response))
+          .responseBody(responseBody)
+          .isBodyTruncated(isTruncated)
           .build();
     }
   }
@@ -62,30 +83,28 @@ class OkHttp3ResponseConverter implements ResponseConverter<Response> {
   }
 
   private InterceptedResponseBody interceptedResponseBody(final Response response) {
-    ResponseBody responseBodyCopy = null;
+    if (isNull(response.body())) {
+      return null;
+    }
+    final MediaType mediaType = response.body().contentType();
+    if (!hasPrintableBody(mediaType)) {
+      // Body won't be printed anyway, no need to copy it
+      return InterceptedResponseBody.create(interceptedMediaType(mediaType), new byte[0]);
+    }
+
+    byte[] bodyBytes = new byte[0];
     try {
       // Since body is readable only once, here we applying this hack to get a copy.
-      // NB: In general we are reading body only if it has "printable" content type, and those
-      // files are usually not too big, but in any case need to be careful here
-      // since copy is stored in memory.
-      responseBodyCopy = response.peekBody(Long.MAX_VALUE);
+      // NB: Copy is stored in memory, if that's a problem, bodyCaptureLimit should be used.
+      bodyBytes = response.peekBody(Long.MAX_VALUE).bytes();
     } catch (IOException e) {
       logger.log(Level.SEVERE, e.getMessage(), e);
     }
+    return InterceptedResponseBody.create(interceptedMediaType(mediaType), bodyBytes);
+  }
 
-    if (nonNull(responseBodyCopy)) {
-      final MediaType mediaType = responseBodyCopy.contentType();
-      String responseBodyString = "";
-      try {
-        responseBodyString = new String(responseBodyCopy.bytes(), Charset.defaultCharset());
-      } catch (IOException e) {
-        logger.log(Level.SEVERE, e.getMessage(), e);
-      }
-      return InterceptedResponseBody
-          .create(interceptedMediaType(mediaType), responseBodyString);
-    } else {
-      return null;
-    }
+  boolean hasPrintableBody(final MediaType mediaType) {
+    return nonNull(mediaType) && bodyFormatters.isPrintable(mediaType.toString());
   }
 
   private InterceptedMediaType interceptedMediaType(final MediaType mediaType) {
@@ -0,0 +1,121 @@
+package io.github.dkorobtsov.plinter.okhttp3;
+
+import static java.util.Objects.isNull;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Sink;
+import okio.Timeout;
+
+/**
+ * Helper class creating compact copies of OkHttp3 requests and responses kept by flight recorder.
+ * Copies share immutable headers with originals and keep only first bytes of bodies, so original
+ * bodies, connection and handshake details are not retained and nothing is converted until
+ * recorded exchange is printed.
+ */
+final class RecordedExchange {
+
+  private static final Logger logger = Logger.getLogger(RecordedExchange.class.getName());
+
+  private RecordedExchange() {
+  }
+
+  /**
+   * @return request copy with body cut to provided size
+   */
+  static Request request(final Request request, final int maxBodyBytes) {
+    final RequestBody body = request.body();
+    if (isNull(body)) {
+      return request;
+    }
+    final Buffer captured = new Buffer();
+    try (BufferedSink sink = Okio.buffer(new CappedSink(captured, maxBodyBytes))) {
+      body.writeTo(sink);
+    } catch (IOException e) {
+      logger.log(Level.SEVERE, e.getMessage(), e);
+    }
+    return request.newBuilder()
+        .method(request.method(), RequestBody.create(body.contentType(), captured.readByteArray()))
+        .build();
+  }
+
+  /**
+   * @param request recorded request copy
+   * @return response copy without body, keeping only its content type
+   */
+  static Response response(final Response response, final Request request) {
+    final MediaType contentType = isNull(response.body()) ? null : response.body().contentType();
+    return new Response.Builder()
+        .request(request)
+        .protocol(response.protocol())
+        .code(response.code())
+        .message(response.message())
+        .headers(response.headers())
+        .body(ResponseBody.create(contentType, new byte[0]))
+        .sentRequestAtMillis(response.sentRequestAtMillis())
+        .receivedResponseAtMillis(response.receivedResponseAtMillis())
+        .build();
+  }
+
+  /**
+   * Reads first bytes of response body without consuming it.
+   *
+   * @return up to {@code maxBytes} bytes of response body
+   */
+  static byte[] responseBody(final Response response, final long maxBytes) {
+    try {
+      return response.peekBody(maxBytes).bytes();
+    } catch (IOException e) {
+      logger.log(Level.SEVERE, e.getMessage(), e);
+      return new byte[0];
+    }
+  }
+
+  /**
+   * Sink keeping only first bytes written to it, the rest is discarded.
+   */
+  private static final class CappedSink implements Sink {
+
+    private final Buffer captured;
+    private final long limit;
+
+    CappedSink(Buffer captured, long limit) {
+      this.captured = captured;
+      this.limit = limit;
+    }
+
+    @Override
+    public void write(Buffer source, long byteCount) throws IOException {
+      final long toCopy = Math.min(byteCount, limit - captured.size());
+      if (toCopy > 0) {
+        captured.write(source, toCopy);
+      }
+      source.skip(byteCount - Math.max(toCopy, 0));
+    }
+
+    @Override
+    public void flush() {
+      // Nothing to flush
+    }
+
+    @Override
+    public Timeout timeout() {
+      return Timeout.NONE;
+    }
+
+    @Override
+    public void close() {
+      // Nothing to close
+    }
+  }
+
+}